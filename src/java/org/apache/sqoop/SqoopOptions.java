@@ -341,6 +341,10 @@ public String toString() {
   @StoredAsProperty("import.all_tables.exclude")
   private String allTablesExclude;
 
+  // number of tables to import concurrently when importing all tables.
+  @StoredAsProperty("import.all_tables.parallel")
+  private int parallelTables;
+
   // HDFS paths for "old" and "new" datasets in merge tool.
   @StoredAsProperty("merge.old.path") private String mergeOldPath;
   @StoredAsProperty("merge.new.path") private String mergeNewPath;
@@ -389,6 +393,10 @@ public String toString() {
   @StoredAsProperty("accumulo.create.table")
   private boolean accumuloCreateTable;
 
+  // if true, bulk import RFiles instead of writing mutations.
+  @StoredAsProperty("accumulo.bulk.load.enabled")
+  private boolean accumuloBulkLoadEnabled;
+
   // Accumulo user name
   @StoredAsProperty("accumulo.user") private String accumuloUser;
 
@@ -1087,6 +1095,7 @@ private void initDefaults(Configuration baseConfiguration) {
     this.areInputDelimsManuallySet = false;
 
     this.numMappers = DEFAULT_NUM_MAPPERS;
+    this.parallelTables = 1;
     this.useCompression = false;
     this.compressionCodec = null;
     this.directSplitSize = 0;
@@ -2353,6 +2362,22 @@ public String getAllTablesExclude() {
     return this.allTablesExclude;
   }
 
+  /**
+   * Set the number of tables to import concurrently when doing all table
+   * import.
+   */
+  public void setParallelTables(int parallelTables) {
+    this.parallelTables = parallelTables;
+  }
+
+  /**
+   * Get the number of tables to import concurrently when doing all table
+   * import.
+   */
+  public int getParallelTables() {
+    return this.parallelTables;
+  }
+
   /**
    * Set the name of the saved job this SqoopOptions belongs to.
    */
@@ -2524,6 +2549,21 @@ public boolean getCreateAccumuloTable() {
     return this.accumuloCreateTable;
   }
 
+  /**
+   * Set whether to bulk import RFiles into Accumulo.
+   */
+  public void setAccumuloBulkLoadEnabled(boolean bulkLoadEnabled) {
+    this.accumuloBulkLoadEnabled = bulkLoadEnabled;
+  }
+
+  /**
+   * @return true if rows are bulk imported into Accumulo as RFiles rather
+   * than written as mutations.
+   */
+  public boolean isAccumuloBulkLoadEnabled() {
+    return this.accumuloBulkLoadEnabled;
+  }
+
   /**
    * Sets the Accumulo batch size (in bytes).
    */
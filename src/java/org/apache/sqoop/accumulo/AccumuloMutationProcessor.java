@@ -61,19 +61,21 @@ public class AccumuloMutationProcessor implements Closeable, Configurable,
   public AccumuloMutationProcessor() {
   }
 
-  @Override
+  /**
+   * Instantiate and configure the MutationTransformer selected by the
+   * configuration.
+   */
   @SuppressWarnings("unchecked")
-  public void setConf(Configuration config) {
-    this.conf = config;
-
+  public static MutationTransformer getMutationTransformer(
+      Configuration conf) {
     // Get the implementation of MutationTransformer to use.
     // By default, we call toString() on every non-null field.
     Class<? extends MutationTransformer> xformerClass =
         (Class<? extends MutationTransformer>)
-        this.conf.getClass(AccumuloConstants.TRANSFORMER_CLASS_KEY,
+        conf.getClass(AccumuloConstants.TRANSFORMER_CLASS_KEY,
         ToStringMutationTransformer.class);
-    this.mutationTransformer = (MutationTransformer)
-        ReflectionUtils.newInstance(xformerClass, this.conf);
+    MutationTransformer mutationTransformer = (MutationTransformer)
+        ReflectionUtils.newInstance(xformerClass, conf);
     if (null == mutationTransformer) {
       throw new RuntimeException("Could not instantiate MutationTransformer.");
     }
@@ -82,16 +84,23 @@ public void setConf(Configuration config) {
     if (null == colFam) {
       throw new RuntimeException("Accumulo column family not set.");
     }
-    this.mutationTransformer.setColumnFamily(colFam);
+    mutationTransformer.setColumnFamily(colFam);
 
     String rowKey = conf.get(AccumuloConstants.ROW_KEY_COLUMN_KEY, null);
     if (null == rowKey) {
       throw new RuntimeException("Row key column not set.");
     }
-    this.mutationTransformer.setRowKeyColumn(rowKey);
+    mutationTransformer.setRowKeyColumn(rowKey);
 
     String vis = conf.get(AccumuloConstants.VISIBILITY_KEY, null);
-    this.mutationTransformer.setVisibility(vis);
+    mutationTransformer.setVisibility(vis);
+    return mutationTransformer;
+  }
+
+  @Override
+  public void setConf(Configuration config) {
+    this.conf = config;
+    this.mutationTransformer = getMutationTransformer(conf);
 
     this.tableName = conf.get(AccumuloConstants.TABLE_NAME_KEY, null);
     String zookeeper = conf.get(AccumuloConstants.ZOOKEEPERS);
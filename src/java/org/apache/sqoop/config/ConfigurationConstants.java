@@ -100,6 +100,63 @@ public final class ConfigurationConstants {
    */
   public static final String PROP_SPLIT_LIMIT = "split.limit";
 
+  /**
+   * Enable split planning from a sample of the split column instead of
+   * equal-width intervals between its MIN and MAX. The sample is read with
+   * PROP_SPLIT_SAMPLING_QUERY.
+   */
+  public static final String PROP_SPLIT_SAMPLING_ENABLE = "sqoop.split.sampling.enable";
+
+  /**
+   * Maximum number of split column values kept in the sample.
+   */
+  public static final String PROP_SPLIT_SAMPLING_SIZE = "sqoop.split.sampling.size";
+
+  /**
+   * Query returning split column values to sample, e.g. one which uses
+   * TABLESAMPLE to read only part of the table. If it is not set, table
+   * imports use the query from ConnManager.getSamplingQuery(), where the
+   * database supports one.
+   */
+  public static final String PROP_SPLIT_SAMPLING_QUERY = "sqoop.split.sampling.query";
+
+  /**
+   * Number of chunks to divide a data-driven import into. When this exceeds
+   * the number of map tasks, map tasks claim chunks from a shared
+   * coordinator so that a task which finishes early takes over the work of
+   * slower ones.
+   */
+  public static final String PROP_IMPORT_CHUNKS = "sqoop.import.chunks";
+
+  /**
+   * Directory on the job's filesystem used to coordinate chunk claims.
+   */
+  public static final String PROP_IMPORT_CHUNKS_DIR = "sqoop.import.chunks.dir";
+
+  /**
+   * If positive, read each split of a table import in pages of at most this
+   * many rows, ordered by the split column and the primary key, resuming
+   * after the last row read if the connection fails.
+   */
+  public static final String PROP_IMPORT_KEYSET_PAGE_SIZE = "sqoop.import.keyset.page.size";
+
+  /**
+   * The columns paged reads are ordered by: the split column followed by
+   * the primary key columns. Set by the import job.
+   */
+  public static final String PROP_IMPORT_KEYSET_COLUMNS = "sqoop.import.keyset.columns";
+
+  /**
+   * If at least 2, fetch rows on a background thread into a ring of this
+   * many batches of records while the mapper processes earlier batches.
+   */
+  public static final String PROP_IMPORT_PREFETCH_BATCHES = "sqoop.import.prefetch.batches";
+
+  /**
+   * Number of records in each prefetched batch.
+   */
+  public static final String PROP_IMPORT_PREFETCH_BATCH_SIZE = "sqoop.import.prefetch.batch.size";
+
   /**
    * Enable avro logical types (decimal support only).
    */
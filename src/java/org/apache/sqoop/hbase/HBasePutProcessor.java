@@ -21,6 +21,7 @@
 import org.apache.sqoop.lib.FieldMapProcessor;
 import org.apache.sqoop.lib.FieldMappable;
 import org.apache.sqoop.lib.ProcessingException;
+import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configurable;
@@ -150,8 +151,13 @@ public Configuration getConf() {
    */
   public void accept(FieldMappable record)
       throws IOException, ProcessingException {
-    Map<String, Object> fields = record.getFieldMap();
-    List<Mutation> mutationList = putTransformer.getMutationCommand(fields);
+    List<Mutation> mutationList;
+    if (record instanceof SqoopRecord) {
+      mutationList = putTransformer.getMutationCommand((SqoopRecord) record);
+    } else {
+      Map<String, Object> fields = record.getFieldMap();
+      mutationList = putTransformer.getMutationCommand(fields);
+    }
     if (mutationList == null) {
       return;
     }
@@ -24,6 +24,8 @@
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.sqoop.lib.SqoopRecord;
 
 /**
  * Interface that takes a map of jdbc field names to values
@@ -73,4 +75,35 @@ public void setRowKeyColumn(String rowKeyCol) {
   public abstract List<Mutation> getMutationCommand(Map<String, Object> fields)
       throws IOException;
 
+  /**
+   * Returns a list of Put commands that inserts the fields of a record into
+   * a row in HBase. By default this transforms the record's field map;
+   * subclasses may override it to read the fields without building one.
+   * @param record the record to insert.
+   * @return A list of Put commands that inserts these into HBase.
+   */
+  public List<Mutation> getMutationCommand(SqoopRecord record)
+      throws IOException {
+    return getMutationCommand(record.getFieldMap());
+  }
+
+  /**
+   * Returns the row key of a row whose row-key columns hold the given
+   * values. This is used to choose the split points of a new table, so it
+   * should match the row keys of the mutations. By default the string
+   * forms of the values are joined with an underscore.
+   * @param keyValues the non-null values of the row-key columns, in order.
+   * @return the row key.
+   */
+  public byte [] getRowKey(Object [] keyValues) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < keyValues.length; i++) {
+      if (i > 0) {
+        sb.append(ToStringPutTransformer.DELIMITER_HBASE);
+      }
+      sb.append(keyValues[i].toString());
+    }
+    return Bytes.toBytes(sb.toString());
+  }
+
 }
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.hbase;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.sqoop.lib.JdbcWritableBridge;
+import org.apache.sqoop.mapreduce.db.QuantileSplitter;
+
+/**
+ * Chooses the split points of a new HBase table from a sample of the
+ * row-key columns of the source.
+ *
+ * Each sampled row is turned into its row key by the PutTransformer
+ * which will write the import, and the split points are quantiles of the
+ * sampled row keys in HBase's byte order. The row-key columns are read as
+ * the Java types of the generated record's fields, so that typed encodings
+ * produce the same bytes as they do for the imported records. Each region of the table then
+ * receives roughly the same number of rows, whether they are written
+ * through puts or bulk loaded from HFiles partitioned by region.
+ */
+public class RowKeySampler {
+
+  public static final Log LOG =
+      LogFactory.getLog(RowKeySampler.class.getName());
+
+  private final PutTransformer transformer;
+  private final String [] keyTypes;
+
+  /**
+   * @param transformer the PutTransformer which builds the row keys.
+   * @param keyTypes the Java types of the generated record's fields for
+   * the row-key columns, in order; a null type is read with getObject().
+   */
+  public RowKeySampler(PutTransformer transformer, String [] keyTypes) {
+    this.transformer = transformer;
+    this.keyTypes = keyTypes;
+  }
+
+  /**
+   * Draw a uniform random sample of at most sampleSize row keys from a
+   * ResultSet whose columns are the row-key columns, in order. Rows with
+   * a null row-key column are not imported, so they are skipped.
+   */
+  public List<byte []> sample(ResultSet results, int sampleSize)
+      throws SQLException {
+    final Object [] keyValues = new Object[keyTypes.length];
+    return QuantileSplitter.sample(results, sampleSize,
+        new QuantileSplitter.SampleReader<byte []>() {
+          @Override
+          public byte [] read(ResultSet rs) throws SQLException {
+            if (!readKeyValues(rs, keyValues)) {
+              return null;
+            }
+            return transformer.getRowKey(keyValues);
+          }
+        });
+  }
+
+  /**
+   * Read the row-key columns of the current row.
+   * @return false if any of them is null.
+   */
+  private boolean readKeyValues(ResultSet results, Object [] keyValues)
+      throws SQLException {
+    for (int i = 0; i < keyTypes.length; i++) {
+      keyValues[i] = readValue(results, i + 1, keyTypes[i]);
+      if (null == keyValues[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read a column as the generated record reads a field of the given Java
+   * type, through JdbcWritableBridge.
+   */
+  static Object readValue(ResultSet results, int colNum, String javaType)
+      throws SQLException {
+    if ("Integer".equals(javaType)) {
+      return JdbcWritableBridge.readInteger(colNum, results);
+    } else if ("Long".equals(javaType)) {
+      return JdbcWritableBridge.readLong(colNum, results);
+    } else if ("Float".equals(javaType)) {
+      return JdbcWritableBridge.readFloat(colNum, results);
+    } else if ("Double".equals(javaType)) {
+      return JdbcWritableBridge.readDouble(colNum, results);
+    } else if ("Boolean".equals(javaType)) {
+      return JdbcWritableBridge.readBoolean(colNum, results);
+    } else if ("String".equals(javaType)) {
+      return JdbcWritableBridge.readString(colNum, results);
+    } else if ("java.math.BigDecimal".equals(javaType)) {
+      return JdbcWritableBridge.readBigDecimal(colNum, results);
+    } else if ("java.sql.Date".equals(javaType)) {
+      return JdbcWritableBridge.readDate(colNum, results);
+    } else if ("java.sql.Time".equals(javaType)) {
+      return JdbcWritableBridge.readTime(colNum, results);
+    } else if ("java.sql.Timestamp".equals(javaType)) {
+      return JdbcWritableBridge.readTimestamp(colNum, results);
+    } else {
+      return results.getObject(colNum);
+    }
+  }
+
+  /**
+   * Returns the split points dividing the sampled row keys into numRegions
+   * regions of roughly equal size. The split points are distinct, so
+   * heavily repeated row keys can reduce the number of regions.
+   * @param sample the sampled row keys.
+   * @param numRegions the number of regions requested.
+   * @return the split points in ascending order; empty if the table should
+   * have a single region.
+   */
+  public static byte [][] getSplitKeys(List<byte []> sample, int numRegions) {
+    List<byte []> sorted = new ArrayList<byte []>(sample);
+    Collections.sort(sorted, Bytes.BYTES_COMPARATOR);
+
+    List<byte []> splitKeys = new ArrayList<byte []>();
+    int n = sorted.size();
+    for (int i = 1; i < numRegions && n > 0; i++) {
+      byte [] quantile = sorted.get((int) ((long) i * n / numRegions));
+      // No region should start at or before the smallest row key, as the
+      // region before it would be empty.
+      byte [] last = splitKeys.isEmpty()
+          ? sorted.get(0) : splitKeys.get(splitKeys.size() - 1);
+      if (Bytes.compareTo(quantile, last) > 0) {
+        splitKeys.add(quantile);
+      }
+    }
+    return splitKeys.toArray(new byte[splitKeys.size()][]);
+  }
+}
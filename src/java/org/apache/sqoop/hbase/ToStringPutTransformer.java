@@ -219,6 +219,16 @@ private List<Mutation> mutationRecordInHBase(Map<String, Object> record,
     return Collections.unmodifiableList(mutationList);
   }
 
+  @Override
+  /** {@inheritDoc} */
+  public byte [] getRowKey(Object [] keyValues) {
+    List<String> rowKeyList = new ArrayList<String>(keyValues.length);
+    for (Object keyValue : keyValues) {
+      rowKeyList.add(toHBaseString(keyValue));
+    }
+    return Bytes.toBytes(StringUtils.join(DELIMITER_HBASE, rowKeyList));
+  }
+
   private String toHBaseString(Object val) {
     String valString;
     if (val instanceof BigDecimal && bigDecimalFormatString) {
@@ -0,0 +1,409 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.hbase;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Order;
+import org.apache.hadoop.hbase.util.OrderedBytes;
+import org.apache.hadoop.hbase.util.PositionedByteRange;
+import org.apache.hadoop.hbase.util.SimplePositionedMutableByteRange;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.lib.BlobRef;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.ImportJobBase;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.sqoop.hbase.HBasePutProcessor.ADD_ROW_KEY;
+import static org.apache.sqoop.hbase.HBasePutProcessor.ADD_ROW_KEY_DEFAULT;
+import static org.apache.sqoop.hbase.HBasePutProcessor.COL_FAMILY_KEY;
+import static org.apache.sqoop.hbase.HBasePutProcessor.ROW_KEY_COLUMN_KEY;
+import static org.apache.sqoop.hbase.ToStringPutTransformer.DELIMITER_COMMAND_LINE;
+import static org.apache.sqoop.hbase.ToStringPutTransformer.DELIMITER_HBASE;
+
+/**
+ * PutTransformer that encodes each field according to its type. Fields
+ * are read from a SqoopRecord through visitFields() rather than through a
+ * field map, and the column family and the qualifier of each field are
+ * only serialized once.
+ *
+ * Values are encoded according to sqoop.hbase.put.encoding:
+ * STRING writes the same bytes as ToStringPutTransformer; BINARY writes
+ * numbers and booleans with the encodings of HBase's Bytes class, dates
+ * and times as milliseconds since the epoch, and binary data as is;
+ * ORDERED writes them with OrderedBytes, whose encodings sort like the
+ * values they encode.
+ *
+ * Row keys are built as by ToStringPutTransformer, except with ORDERED,
+ * where each row key column is encoded with OrderedBytes and the results
+ * are concatenated.
+ */
+public class TypedPutTransformer extends PutTransformer {
+
+  public static final Log LOG = LogFactory.getLog(
+      TypedPutTransformer.class.getName());
+
+  /** Configuration key specifying how field values are encoded. */
+  public static final String ENCODING_KEY = "sqoop.hbase.put.encoding";
+
+  /**
+   * Encodings of field values.
+   */
+  public enum Encoding {
+    STRING,
+    BINARY,
+    ORDERED
+  }
+
+  private Encoding encoding;
+  private boolean bigDecimalFormatString;
+  private boolean addRowKey;
+  private SqoopOptions.HBaseNullIncrementalMode nullMode;
+  private byte [] colFamilyBytes;
+  private List<String> rowKeyColumns;
+
+  // For each field index: the field name, the serialized qualifier, and
+  // the position of the field in the row key, or -1.
+  private String [] fieldNames = new String[0];
+  private byte [][] qualifiers = new byte[0][];
+  private int [] keyPositions = new int[0];
+
+  // Values of the fields of the record being transformed.
+  private Object [] values = new Object[0];
+  private int numValues;
+  private Object [] keyValues;
+
+  // Reusable buffer for OrderedBytes encodings.
+  private PositionedByteRange orderedBuf =
+      new SimplePositionedMutableByteRange(256);
+
+  private final FieldVisitor collector = new FieldVisitor() {
+    @Override
+    public void visit(int index, String fieldName, Object value) {
+      setValue(index, fieldName, value);
+    }
+  };
+
+  @Override
+  public void init(Configuration conf) {
+    nullMode = conf.getEnum(HBasePutProcessor.NULL_INCREMENTAL_MODE,
+        SqoopOptions.HBaseNullIncrementalMode.Ignore);
+    encoding = conf.getEnum(ENCODING_KEY, Encoding.BINARY);
+    setColumnFamily(conf.get(COL_FAMILY_KEY, null));
+    setRowKeyColumn(conf.get(ROW_KEY_COLUMN_KEY, null));
+
+    this.bigDecimalFormatString = conf.getBoolean(
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
+    this.addRowKey = conf.getBoolean(ADD_ROW_KEY, ADD_ROW_KEY_DEFAULT);
+  }
+
+  @Override
+  public void setColumnFamily(String colFamily) {
+    super.setColumnFamily(colFamily);
+    colFamilyBytes = null == colFamily ? null : Bytes.toBytes(colFamily);
+  }
+
+  @Override
+  public void setRowKeyColumn(String rowKeyCol) {
+    super.setRowKeyColumn(rowKeyCol);
+    if (null == rowKeyCol) {
+      rowKeyColumns = null;
+      keyValues = null;
+    } else {
+      rowKeyColumns = Arrays.asList(rowKeyCol.split(DELIMITER_COMMAND_LINE));
+      keyValues = new Object[rowKeyColumns.size()];
+    }
+    // Key positions of cached fields are now stale.
+    Arrays.fill(fieldNames, null);
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public List<Mutation> getMutationCommand(SqoopRecord record)
+      throws IOException {
+    numValues = 0;
+    record.visitFields(collector);
+    return getMutations();
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public List<Mutation> getMutationCommand(Map<String, Object> fields)
+      throws IOException {
+    numValues = 0;
+    int index = 0;
+    for (Map.Entry<String, Object> field : fields.entrySet()) {
+      setValue(index++, field.getKey(), field.getValue());
+    }
+    return getMutations();
+  }
+
+  /**
+   * Record the value of a field of the current record, serializing the
+   * name of the field if it has not been seen at this index before.
+   */
+  private void setValue(int index, String fieldName, Object value) {
+    if (index >= values.length) {
+      int size = Math.max(index + 1, 2 * values.length);
+      fieldNames = Arrays.copyOf(fieldNames, size);
+      qualifiers = Arrays.copyOf(qualifiers, size);
+      keyPositions = Arrays.copyOf(keyPositions, size);
+      values = Arrays.copyOf(values, size);
+    }
+
+    if (fieldName != fieldNames[index]
+        && !fieldName.equals(fieldNames[index])) {
+      fieldNames[index] = fieldName;
+      qualifiers[index] = Bytes.toBytes(fieldName);
+      keyPositions[index] = null == rowKeyColumns
+          ? -1 : rowKeyColumns.indexOf(fieldName);
+    }
+
+    values[index] = value;
+    numValues = Math.max(numValues, index + 1);
+  }
+
+  /**
+   * @return the mutations for the field values of the current record.
+   */
+  private List<Mutation> getMutations() throws IOException {
+    try {
+      if (null == rowKeyColumns) {
+        throw new IOException("Row key column can't be NULL.");
+      }
+
+      if (null == colFamilyBytes) {
+        throw new IOException("Column family can't be NULL.");
+      }
+
+      Arrays.fill(keyValues, null);
+      for (int i = 0; i < numValues; i++) {
+        if (keyPositions[i] >= 0) {
+          keyValues[keyPositions[i]] = values[i];
+        }
+      }
+      for (int i = 0; i < keyValues.length; i++) {
+        if (null == keyValues[i]) {
+          // If the row-key column is null, we don't insert this row.
+          throw new IOException("Could not insert row with null "
+              + "value for row-key column: " + rowKeyColumns.get(i));
+        }
+      }
+      byte [] rowKey = getRowKey(keyValues);
+
+      List<Mutation> mutationList = new ArrayList<Mutation>(2);
+      Put put = null;
+      Delete delete = null;
+      for (int i = 0; i < numValues; i++) {
+        if (null == fieldNames[i] || (keyPositions[i] >= 0 && !addRowKey)) {
+          continue;
+        }
+
+        Object val = values[i];
+        if (null != val) {
+          if (null == put) {
+            put = new Put(rowKey);
+            mutationList.add(put);
+          }
+          put.addColumn(colFamilyBytes, qualifiers[i], encode(val));
+        } else if (nullMode == SqoopOptions.HBaseNullIncrementalMode.Delete) {
+          if (null == delete) {
+            delete = new Delete(rowKey);
+            mutationList.add(delete);
+          }
+          delete.addColumns(colFamilyBytes, qualifiers[i]);
+        }
+      }
+      return mutationList;
+    } finally {
+      // Don't hold on to the values of this record.
+      Arrays.fill(values, 0, numValues, null);
+    }
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public byte [] getRowKey(Object [] keyValues) {
+    if (encoding == Encoding.ORDERED) {
+      orderedBuf.setPosition(0);
+      for (Object keyValue : keyValues) {
+        encodeOrdered(keyValue);
+      }
+      return Arrays.copyOf(orderedBuf.getBytes(), orderedBuf.getPosition());
+    }
+
+    if (keyValues.length == 1) {
+      return Bytes.toBytes(toHBaseString(keyValues[0]));
+    }
+
+    // Composite row key: combine the values of its columns.
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < keyValues.length; i++) {
+      if (i > 0) {
+        sb.append(DELIMITER_HBASE);
+      }
+      sb.append(toHBaseString(keyValues[i]));
+    }
+    return Bytes.toBytes(sb.toString());
+  }
+
+  /**
+   * @return the encoded bytes of a non-null field value.
+   */
+  private byte [] encode(Object val) {
+    switch (encoding) {
+    case ORDERED:
+      orderedBuf.setPosition(0);
+      encodeOrdered(val);
+      return Arrays.copyOf(orderedBuf.getBytes(), orderedBuf.getPosition());
+    case BINARY:
+      return encodeBinary(val);
+    default:
+      if (val instanceof byte[]) {
+        return (byte []) val;
+      }
+      return Bytes.toBytes(toHBaseString(val));
+    }
+  }
+
+  private byte [] encodeBinary(Object val) {
+    if (val instanceof String) {
+      return Bytes.toBytes((String) val);
+    } else if (val instanceof Integer) {
+      return Bytes.toBytes(((Integer) val).intValue());
+    } else if (val instanceof Long) {
+      return Bytes.toBytes(((Long) val).longValue());
+    } else if (val instanceof Short) {
+      return Bytes.toBytes(((Short) val).shortValue());
+    } else if (val instanceof Byte) {
+      return new byte[] { ((Byte) val).byteValue() };
+    } else if (val instanceof Double) {
+      return Bytes.toBytes(((Double) val).doubleValue());
+    } else if (val instanceof Float) {
+      return Bytes.toBytes(((Float) val).floatValue());
+    } else if (val instanceof Boolean) {
+      return Bytes.toBytes(((Boolean) val).booleanValue());
+    } else if (val instanceof BigDecimal) {
+      return Bytes.toBytes((BigDecimal) val);
+    } else if (val instanceof java.util.Date) {
+      // java.sql.Date, Time and Timestamp.
+      return Bytes.toBytes(((java.util.Date) val).getTime());
+    }
+
+    byte [] bytes = getBinaryData(val);
+    if (null != bytes) {
+      return bytes;
+    }
+    return Bytes.toBytes(toHBaseString(val));
+  }
+
+  /**
+   * Append the OrderedBytes encoding of a non-null value to orderedBuf.
+   */
+  private void encodeOrdered(Object val) {
+    if (val instanceof String) {
+      String s = (String) val;
+      ensureOrderedCapacity(3 * s.length() + 2);
+      OrderedBytes.encodeString(orderedBuf, s, Order.ASCENDING);
+    } else if (val instanceof Integer) {
+      ensureOrderedCapacity(5);
+      OrderedBytes.encodeInt32(orderedBuf, (Integer) val, Order.ASCENDING);
+    } else if (val instanceof Long) {
+      ensureOrderedCapacity(9);
+      OrderedBytes.encodeInt64(orderedBuf, (Long) val, Order.ASCENDING);
+    } else if (val instanceof Short) {
+      ensureOrderedCapacity(3);
+      OrderedBytes.encodeInt16(orderedBuf, (Short) val, Order.ASCENDING);
+    } else if (val instanceof Byte) {
+      ensureOrderedCapacity(2);
+      OrderedBytes.encodeInt8(orderedBuf, (Byte) val, Order.ASCENDING);
+    } else if (val instanceof Double) {
+      ensureOrderedCapacity(9);
+      OrderedBytes.encodeFloat64(orderedBuf, (Double) val, Order.ASCENDING);
+    } else if (val instanceof Float) {
+      ensureOrderedCapacity(5);
+      OrderedBytes.encodeFloat32(orderedBuf, (Float) val, Order.ASCENDING);
+    } else if (val instanceof Boolean) {
+      ensureOrderedCapacity(2);
+      OrderedBytes.encodeInt8(orderedBuf,
+          (byte) (((Boolean) val).booleanValue() ? 1 : 0), Order.ASCENDING);
+    } else if (val instanceof BigDecimal) {
+      ensureOrderedCapacity(((BigDecimal) val).precision() + 16);
+      OrderedBytes.encodeNumeric(orderedBuf, (BigDecimal) val,
+          Order.ASCENDING);
+    } else if (val instanceof java.util.Date) {
+      ensureOrderedCapacity(9);
+      OrderedBytes.encodeInt64(orderedBuf, ((java.util.Date) val).getTime(),
+          Order.ASCENDING);
+    } else {
+      byte [] bytes = getBinaryData(val);
+      if (null != bytes) {
+        ensureOrderedCapacity(OrderedBytes.blobVarEncodedLength(bytes.length));
+        OrderedBytes.encodeBlobVar(orderedBuf, bytes, Order.ASCENDING);
+      } else {
+        encodeOrdered(toHBaseString(val));
+      }
+    }
+  }
+
+  /**
+   * @return the bytes of a binary value, or null if it is not one.
+   */
+  private byte [] getBinaryData(Object val) {
+    if (val instanceof byte[]) {
+      return (byte []) val;
+    } else if (val instanceof BytesWritable) {
+      return ((BytesWritable) val).copyBytes();
+    } else if (val instanceof BlobRef && !((BlobRef) val).isExternal()) {
+      return ((BlobRef) val).getData();
+    }
+    return null;
+  }
+
+  private void ensureOrderedCapacity(int len) {
+    if (orderedBuf.getRemaining() < len) {
+      int pos = orderedBuf.getPosition();
+      PositionedByteRange buf = new SimplePositionedMutableByteRange(
+          Math.max(2 * orderedBuf.getLength(), pos + len));
+      buf.put(orderedBuf.getBytes(), 0, pos);
+      orderedBuf = buf;
+    }
+  }
+
+  private String toHBaseString(Object val) {
+    if (val instanceof BigDecimal && bigDecimalFormatString) {
+      return ((BigDecimal) val).toPlainString();
+    }
+    return val.toString();
+  }
+}
@@ -24,12 +24,17 @@
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -49,7 +54,9 @@
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.DataInputBuffer;
 import org.apache.hadoop.io.DataOutputBuffer;
@@ -90,6 +97,16 @@ public final class LobFile {
   //Value for entryID to write before the IndexTable
   public static final long INDEX_TABLE_ID = -3;
 
+  /**
+   * Configuration key that specifies whether records of LobFiles on the
+   * local filesystem are read through memory-mapped segments of the file.
+   * Mapped reads do not verify the local filesystem's checksum files.
+   * Default is true; otherwise records are read with positional reads.
+   */
+  public static final String MMAP_LOCAL_KEY = "sqoop.lobfile.mmap.local";
+
+  public static final boolean DEFAULT_MMAP_LOCAL = true;
+
   private LobFile() {
   }
 
@@ -109,13 +126,39 @@ private LobFile() {
     int version = header.getVersion();
 
     if (version == 0) {
-      return new V0Reader(p, conf, header, dis, fis, stats[0].getLen());
+      RecordSource source = openRecordSource(fs, p, fis, stats[0].getLen(),
+          conf);
+      return new V0Reader(p, conf, header, dis, fis, source,
+          stats[0].getLen());
     } else {
       throw new IOException("No reader available for LobFile version "
           + version);
     }
   }
 
+  /**
+   * @return the source to read the records of a LobFile from: memory-mapped
+   * segments of a local file, or positional reads of the open stream.
+   */
+  private static RecordSource openRecordSource(FileSystem fs, Path p,
+      FSDataInputStream fis, long fileLen, Configuration conf)
+      throws IOException {
+    if (conf.getBoolean(MMAP_LOCAL_KEY, DEFAULT_MMAP_LOCAL)) {
+      File localFile = null;
+      if (fs instanceof LocalFileSystem) {
+        localFile = ((LocalFileSystem) fs).pathToFile(p);
+      } else if (fs instanceof RawLocalFileSystem) {
+        localFile = ((RawLocalFileSystem) fs).pathToFile(p);
+      }
+
+      if (null != localFile) {
+        return new MappedRecordSource(localFile, fileLen);
+      }
+    }
+
+    return new PositionedRecordSource(fis);
+  }
+
   /**
    * Creates a LobFile Writer.
    * @param p the path to create.
@@ -957,6 +1000,207 @@ public Iterator<IndexTableEntry> iterator() {
     }
   }
 
+  /**
+   * Random access to the bytes of an open LobFile. Records are read
+   * through a RecordSource so that reading them does not move the position
+   * of the stream the index is read from.
+   */
+  private abstract static class RecordSource implements Closeable {
+    /**
+     * Read up to 'len' bytes from the file at position 'pos'.
+     * @return the number of bytes read, or -1 at the end of the file.
+     */
+    public abstract int read(long pos, byte [] buf, int off, int len)
+        throws IOException;
+
+    /**
+     * @return true if small reads should be served from a buffer, because
+     * each read is relatively expensive.
+     */
+    public abstract boolean isBufferingNeeded();
+  }
+
+  /**
+   * Reads with the positional reads (PositionedReadable) of the stream
+   * opened on the file. The stream itself is closed by the reader.
+   */
+  private static class PositionedRecordSource extends RecordSource {
+    private final FSDataInputStream in;
+
+    PositionedRecordSource(FSDataInputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read(long pos, byte [] buf, int off, int len)
+        throws IOException {
+      return in.read(pos, buf, off, len);
+    }
+
+    @Override
+    public boolean isBufferingNeeded() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Reads from memory-mapped segments of a file on the local filesystem.
+   * Segments are mapped the first time they are read from.
+   */
+  private static class MappedRecordSource extends RecordSource {
+    // Largest section of the file mapped as one buffer.
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final long fileLen;
+    private final MappedByteBuffer [] segments;
+
+    MappedRecordSource(File localFile, long fileLen) throws IOException {
+      this.file = new RandomAccessFile(localFile, "r");
+      this.fileLen = fileLen;
+      this.segments = new MappedByteBuffer[
+          (int) ((fileLen + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+    }
+
+    @Override
+    public int read(long pos, byte [] buf, int off, int len)
+        throws IOException {
+      if (pos >= fileLen) {
+        return -1;
+      }
+
+      int total = 0;
+      while (total < len && pos < fileLen) {
+        int segmentId = (int) (pos / SEGMENT_SIZE);
+        if (null == segments[segmentId]) {
+          long start = (long) segmentId * SEGMENT_SIZE;
+          segments[segmentId] = file.getChannel().map(
+              FileChannel.MapMode.READ_ONLY, start,
+              Math.min(SEGMENT_SIZE, fileLen - start));
+        }
+
+        // Read through a view, leaving the segment's position untouched.
+        ByteBuffer segment = segments[segmentId].duplicate();
+        segment.position((int) (pos % SEGMENT_SIZE));
+        int n = Math.min(len - total, segment.remaining());
+        segment.get(buf, off + total, n);
+        total += n;
+        pos += n;
+      }
+
+      return total;
+    }
+
+    @Override
+    public boolean isBufferingNeeded() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      // The mappings are released when the segments are collected.
+      Arrays.fill(segments, null);
+      file.close();
+    }
+  }
+
+  /**
+   * The InputStream over the bytes of one record, read from a
+   * RecordSource. Small reads from a source which needs buffering are
+   * served from a buffer, which the reader reuses for each record.
+   * Closing the stream does not close the source; reads after close
+   * return EOF.
+   */
+  private static class RecordInputStream extends InputStream {
+    private final RecordSource source;
+    private final byte [] buffer;
+    private final long end;
+    private long pos;
+    private boolean closed;
+
+    // The buffer holds the bytes of the file from bufferStart to bufferEnd.
+    private long bufferStart;
+    private long bufferEnd;
+
+    RecordInputStream(RecordSource source, byte [] buffer, long start,
+        long len) {
+      this.source = source;
+      this.buffer = buffer;
+      this.pos = start;
+      this.end = start + len;
+      this.bufferStart = start;
+      this.bufferEnd = start;
+    }
+
+    /** @return the position in the file of the next byte to be read. */
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte [] one = new byte[1];
+      int n = read(one, 0, 1);
+      return n <= 0 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte [] buf, int off, int len) throws IOException {
+      if (closed || pos >= end) {
+        return -1; // EOF.
+      } else if (len == 0) {
+        return 0;
+      }
+
+      int count = (int) Math.min(len, end - pos);
+      if (pos >= bufferStart && pos < bufferEnd) {
+        // Serve the read from what was buffered.
+        count = (int) Math.min(count, bufferEnd - pos);
+        System.arraycopy(buffer, (int) (pos - bufferStart), buf, off, count);
+      } else if (!source.isBufferingNeeded() || count >= buffer.length) {
+        count = source.read(pos, buf, off, count);
+      } else {
+        int fill = source.read(pos, buffer, 0,
+            (int) Math.min(buffer.length, end - pos));
+        if (fill > 0) {
+          bufferStart = pos;
+          bufferEnd = pos + fill;
+          count = Math.min(count, fill);
+          System.arraycopy(buffer, 0, buf, off, count);
+        } else {
+          count = fill;
+        }
+      }
+
+      if (count <= 0) {
+        throw new EOFException("LobFile ended within a record");
+      }
+      pos += count;
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      long skipped = Math.max(0, Math.min(n, end - pos));
+      pos += skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return closed ? 0 : (int) Math.min(end - pos, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
   /**
    * Reader implementation for LobFile format version 0. Acquire with
    * LobFile.open().
@@ -968,6 +1212,13 @@ private static class V0Reader extends org.apache.sqoop.io.LobFile.Reader {
     // Forward seeks of up to this size are performed by reading, not seeking.
     private static final long MAX_CONSUMPTION_WIDTH = 512 * 1024;
 
+    // Size of the buffer small reads of records are served from.
+    private static final int RECORD_BUFFER_SIZE = 64 * 1024;
+
+    // Longest record header: a RecordStartMark and two VLongs.
+    private static final int MAX_RECORD_HEADER_LEN =
+        RecordStartMark.START_MARK_LENGTH + 18;
+
     private LobFileHeader header;
 
     private Configuration conf;
@@ -1017,6 +1268,26 @@ private static class V0Reader extends org.apache.sqoop.io.LobFile.Reader {
     // userInputStream when they want to align on the next record.
     private InputStream userInputStream;
 
+    // Records are read from here with positional reads, rather than by
+    // seeking the underlyingInput.
+    private RecordSource recordSource;
+
+    // The stream over the record's bytes underneath userInputStream.
+    private RecordInputStream recordStream;
+
+    // Buffer for recordStream, reused for each record.
+    private byte [] recordBuffer;
+
+    // Buffer the record headers are read into.
+    private byte [] recordHeaderBuf;
+
+    // After we've aligned on a record, this contains the offset of the
+    // beginning of the user's data.
+    private long recordDataStart;
+
+    // The position reported by tell() while no record is being read.
+    private long position;
+
     // The current index segment to read record lengths from.
     private IndexSegment curIndexSegment;
 
@@ -1031,19 +1302,22 @@ private static class V0Reader extends org.apache.sqoop.io.LobFile.Reader {
 
     // Users should use LobFile.open() instead of directly calling this.
     V0Reader(Path path, Configuration conf, LobFileHeader header,
-        DataInputStream dis, FSDataInputStream stream, long fileLen)
-        throws IOException {
+        DataInputStream dis, FSDataInputStream stream, RecordSource source,
+        long fileLen) throws IOException {
       this.path = LobReaderCache.qualify(path, conf);
       this.conf = conf;
       this.header = header;
       this.dataIn = dis;
       this.underlyingInput = stream;
+      this.recordSource = source;
       this.isAligned = false;
       this.tmpRsmBuf = new byte[RecordStartMark.START_MARK_LENGTH];
+      this.recordHeaderBuf = new byte[MAX_RECORD_HEADER_LEN];
       this.fileLen = fileLen;
       LOG.debug("Opening LobFile path: " + path);
       openCodec();
       openIndex();
+      this.position = this.underlyingInput.getPos();
     }
 
     /**
@@ -1234,7 +1508,10 @@ public Path getPath() {
     /** {@inheritDoc} */
     public long tell() throws IOException {
       checkForNull(this.underlyingInput);
-      return this.underlyingInput.getPos();
+      if (null != this.recordStream) {
+        return this.recordStream.getPos();
+      }
+      return this.position;
     }
 
     @Override
@@ -1244,6 +1521,7 @@ public void seek(long pos) throws IOException {
       checkForNull(this.underlyingInput);
       this.isAligned = false;
       searchForRecord(pos);
+      this.position = this.underlyingInput.getPos();
     }
 
     /**
@@ -1352,6 +1630,49 @@ private void closeUserStream() throws IOException {
         this.userInputStream.close();
         this.userInputStream = null;
       }
+
+      if (this.recordStream != null) {
+        this.position = this.recordStream.getPos();
+        this.recordStream = null;
+      }
+    }
+
+    /**
+     * Read the header of the record at curRecordOffset with a positional
+     * read, setting curEntryId and claimedRecordLen.
+     * @return false if the header is that of an IndexSegment.
+     */
+    private boolean readRecordHeader() throws IOException {
+      int headerLen = (int) Math.min(MAX_RECORD_HEADER_LEN,
+          this.fileLen - this.curRecordOffset);
+      int got = 0;
+      while (got < headerLen) {
+        int n = this.recordSource.read(this.curRecordOffset + got,
+            this.recordHeaderBuf, got, headerLen - got);
+        if (n < 0) {
+          throw new EOFException("LobFile ended within a record header");
+        }
+        got += n;
+      }
+
+      // We are now on top of the next record's RecordStartMark.
+      if (headerLen < RecordStartMark.START_MARK_LENGTH
+          || !matchesRsm(this.recordHeaderBuf)) {
+        // No rsm? No dice.
+        throw new IOException("Index contains bogus offset.");
+      }
+
+      DataInputBuffer headerIn = new DataInputBuffer();
+      headerIn.reset(this.recordHeaderBuf, RecordStartMark.START_MARK_LENGTH,
+          headerLen - RecordStartMark.START_MARK_LENGTH);
+      this.curEntryId = WritableUtils.readVLong(headerIn);
+      if (this.curEntryId < 0) {
+        return false;
+      }
+
+      this.claimedRecordLen = WritableUtils.readVLong(headerIn);
+      this.recordDataStart = this.curRecordOffset + headerIn.getPosition();
+      return true;
     }
 
     @Override
@@ -1397,19 +1718,9 @@ public boolean next() throws IOException {
       LOG.debug("Next record starts at position: " + this.curRecordOffset
           + "; indexedLen=" + this.indexRecordLen);
 
-      // Make sure we're at the target position.
-      internalSeek(this.curRecordOffset);
-
-      // We are now on top of the next record's RecordStartMark.
-      // Consume the RSM and the record header.
-      this.dataIn.readFully(this.tmpRsmBuf);
-      if (!matchesRsm(tmpRsmBuf)) {
-        // No rsm? No dice.
-        throw new IOException("Index contains bogus offset.");
-      }
-
-      this.curEntryId = WritableUtils.readVLong(this.dataIn);
-      if (this.curEntryId < 0) {
+      // Consume the RSM and the record header, without moving the
+      // position of the underlying stream.
+      if (!readRecordHeader()) {
         // We've moved past the end of the records and started
         // trying to consume the index. This is the EOF from
         // the client's perspective.
@@ -1417,10 +1728,10 @@ public boolean next() throws IOException {
         return false;
       }
       LOG.debug("Aligned on record id=" + this.curEntryId);
-
-      this.claimedRecordLen = WritableUtils.readVLong(this.dataIn);
       LOG.debug("Record has claimed length " + this.claimedRecordLen);
+
       // We are now aligned on the start of the user's data.
+      this.position = this.recordDataStart;
       this.isAligned = true;
       return true;
     }
@@ -1474,7 +1785,12 @@ public InputStream readBlobRecord() throws IOException {
           - WritableUtils.getVIntSize(this.curEntryId)
           - WritableUtils.getVIntSize(this.claimedRecordLen);
       LOG.debug("Yielding stream to user with length " + streamLen);
-      this.userInputStream = new FixedLengthInputStream(this.dataIn, streamLen);
+      if (null == this.recordBuffer) {
+        this.recordBuffer = new byte[RECORD_BUFFER_SIZE];
+      }
+      this.recordStream = new RecordInputStream(this.recordSource,
+          this.recordBuffer, this.recordDataStart, streamLen);
+      this.userInputStream = this.recordStream;
       if (this.codec != null) {
         // The user needs to decompress the data; wrap the InputStream.
         decompressor.reset();
@@ -1502,6 +1818,11 @@ public void close() throws IOException {
         dataIn = null;
       }
 
+      if (null != recordSource) {
+        recordSource.close();
+        recordSource = null;
+      }
+
       if (null != underlyingInput) {
         underlyingInput.close();
         underlyingInput = null;
@@ -18,6 +18,12 @@
 package org.apache.sqoop.io;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -31,7 +37,10 @@
 
 /**
  * A cache of open LobFile.Reader objects.
- * This maps from filenames to the open Reader, if any.  This uses the
+ * This maps from filenames to the open Readers, if any. Several readers may
+ * be cached for each file, so that concurrent consumers of the same file
+ * each get their own reader. When the cache is full, the least recently
+ * recycled reader is closed. This uses the
  * Singleton pattern. While nothing prevents multiple LobReaderCache
  * instances, it is most useful to have a single global cache. This cache is
  * internally synchronized; only one thread can insert or retrieve a reader
@@ -42,7 +51,20 @@ public class LobReaderCache {
   public static final Log LOG =
       LogFactory.getLog(LobReaderCache.class.getName());
 
-  private Map<Path, LobFile.Reader> readerMap;
+  /** Default maximum number of idle readers cached for one file. */
+  public static final int DEFAULT_MAX_READERS_PER_PATH = 4;
+
+  /** Default maximum number of idle readers cached in total. */
+  public static final int DEFAULT_MAX_READERS = 16;
+
+  // Idle readers for each path; the most recently recycled is last.
+  private Map<Path, Deque<LobFile.Reader>> readerMap;
+
+  // All idle readers, least recently recycled first.
+  private LinkedHashMap<LobFile.Reader, Path> lruReaders;
+
+  private final int maxReadersPerPath;
+  private final int maxReaders;
 
   private static final LobReaderCache CACHE;
   static {
@@ -82,7 +104,16 @@ public LobFile.Reader get(Path path, Configuration conf)
     Path canonicalPath = FileSystemUtil.makeQualified(path, conf);
     // Look up an entry in the cache.
     synchronized(this) {
-      reader = readerMap.remove(canonicalPath);
+      Deque<LobFile.Reader> readers = readerMap.get(canonicalPath);
+      if (null != readers) {
+        reader = readers.pollLast();
+        if (readers.isEmpty()) {
+          readerMap.remove(canonicalPath);
+        }
+        if (null != reader) {
+          lruReaders.remove(reader);
+        }
+      }
     }
 
     if (null != reader && !reader.isClosed()) {
@@ -97,35 +128,80 @@ public LobFile.Reader get(Path path, Configuration conf)
   }
 
   /**
-   * Return a reader back to the cache. If there's already a reader for
-   * this path, then the current reader is closed.
+   * @return the number of idle readers held by the cache.
+   */
+  public synchronized int getIdleReaderCount() {
+    return lruReaders.size();
+  }
+
+  /**
+   * Return a reader back to the cache. If the cache already holds the
+   * maximum number of readers for this path, then the current reader is
+   * closed. If the cache is full, the least recently recycled reader is
+   * closed to make room.
    * @param reader the opened reader. Any record-specific subreaders should be
    * closed.
    * @throws IOException if there's an error accessing the path's filesystem.
    */
   public void recycle(LobFile.Reader reader) throws IOException {
+    if (reader.isClosed()) {
+      return;
+    }
+
     Path canonicalPath = reader.getPath();
 
-    // Check if the cache has a reader for this path already. If not, add this.
+    // Check if the cache has room for another reader for this path.
     boolean cached = false;
+    List<LobFile.Reader> evicted = new ArrayList<LobFile.Reader>();
     synchronized(this) {
-      if (readerMap.get(canonicalPath) == null) {
+      if (lruReaders.containsKey(reader)) {
+        return; // Already cached.
+      }
+
+      Deque<LobFile.Reader> readers = readerMap.get(canonicalPath);
+      if (null == readers) {
+        readers = new ArrayDeque<LobFile.Reader>();
+        readerMap.put(canonicalPath, readers);
+      }
+
+      if (readers.size() < maxReadersPerPath) {
         LOG.debug("Caching reader for path: " + canonicalPath);
-        readerMap.put(canonicalPath, reader);
+        readers.addLast(reader);
+        lruReaders.put(reader, canonicalPath);
         cached = true;
+
+        // Evict the least recently recycled readers beyond the limit.
+        Iterator<Map.Entry<LobFile.Reader, Path>> it =
+            lruReaders.entrySet().iterator();
+        while (lruReaders.size() > maxReaders && it.hasNext()) {
+          Map.Entry<LobFile.Reader, Path> eldest = it.next();
+          it.remove();
+          Deque<LobFile.Reader> eldestReaders = readerMap.get(
+              eldest.getValue());
+          eldestReaders.remove(eldest.getKey());
+          if (eldestReaders.isEmpty()) {
+            readerMap.remove(eldest.getValue());
+          }
+          evicted.add(eldest.getKey());
+        }
       }
     }
 
     if (!cached) {
-      LOG.debug("Reader already present for path: " + canonicalPath
+      LOG.debug("Readers already present for path: " + canonicalPath
           + "; closing.");
       reader.close();
     }
+
+    for (LobFile.Reader r : evicted) {
+      LOG.debug("Evicting reader for path: " + r.getPath());
+      r.close();
+    }
   }
 
   @Override
   protected synchronized void finalize() throws Throwable {
-    for (LobFile.Reader r : readerMap.values()) {
+    for (LobFile.Reader r : lruReaders.keySet()) {
       r.close();
     }
 
@@ -133,6 +209,17 @@ protected synchronized void finalize() throws Throwable {
   }
 
   protected LobReaderCache() {
-    this.readerMap = new TreeMap<Path, LobFile.Reader>();
+    this(DEFAULT_MAX_READERS_PER_PATH, DEFAULT_MAX_READERS);
+  }
+
+  /**
+   * @param maxReadersPerPath the most idle readers to cache for one file.
+   * @param maxReaders the most idle readers to cache in total.
+   */
+  protected LobReaderCache(int maxReadersPerPath, int maxReaders) {
+    this.readerMap = new TreeMap<Path, Deque<LobFile.Reader>>();
+    this.lruReaders = new LinkedHashMap<LobFile.Reader, Path>();
+    this.maxReadersPerPath = maxReadersPerPath;
+    this.maxReaders = maxReaders;
   }
 }
@@ -0,0 +1,351 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.io.Encoder;
+import org.apache.hadoop.io.BytesWritable;
+
+import org.apache.sqoop.avro.AvroUtil;
+
+/**
+ * Encodes the fields of a SqoopRecord straight to an Avro Encoder.
+ *
+ * A generated record class calls one typed method per field, in schema
+ * order, from its writeAvro() method. Each method writes the union branch
+ * and the value of the field as {@link AvroUtil#toAvro} and a
+ * DatumWriter would for the same record, without building a
+ * GenericRecord. The Avro type of each field is resolved once, when the
+ * writer is created; values whose Java type does not match it directly
+ * are converted with {@link AvroUtil#toAvro}.
+ */
+public class AvroFieldWriter {
+
+  private final Schema schema;
+  private final Schema.Field [] fields;
+  private final Schema [] valueSchemas;
+  private final Schema.Type [] valueTypes;
+  private final int [] nullIndexes;
+  private final int [] valueIndexes;
+
+  private final boolean bigDecimalFormatString;
+  private final boolean bigDecimalPadding;
+  private final Conversions.DecimalConversion decimalConversion =
+      new Conversions.DecimalConversion();
+
+  /**
+   * Create a writer for the fields of a record schema.
+   * @param schema the record schema; see {@link #isSupported(Schema)}.
+   * @param bigDecimalFormatString write BigDecimals held in string fields
+   * without an exponent.
+   * @param bigDecimalPadding pad decimals to the scale of their schema.
+   */
+  public AvroFieldWriter(Schema schema, boolean bigDecimalFormatString,
+      boolean bigDecimalPadding) {
+    if (!isSupported(schema)) {
+      throw new IllegalArgumentException("Cannot write fields of schema "
+          + schema);
+    }
+
+    this.schema = schema;
+    List<Schema.Field> schemaFields = schema.getFields();
+    int numFields = schemaFields.size();
+    this.fields = new Schema.Field[numFields];
+    this.valueSchemas = new Schema[numFields];
+    this.valueTypes = new Schema.Type[numFields];
+    this.nullIndexes = new int[numFields];
+    this.valueIndexes = new int[numFields];
+    for (int i = 0; i < numFields; i++) {
+      Schema.Field field = schemaFields.get(i);
+      fields[i] = field;
+      Schema fieldSchema = field.schema();
+      nullIndexes[i] = -1;
+      valueIndexes[i] = -1;
+      valueSchemas[i] = fieldSchema;
+      if (fieldSchema.getType() == Schema.Type.UNION) {
+        List<Schema> branches = fieldSchema.getTypes();
+        for (int j = 0; j < branches.size(); j++) {
+          if (branches.get(j).getType() == Schema.Type.NULL) {
+            nullIndexes[i] = j;
+          } else {
+            valueIndexes[i] = j;
+            valueSchemas[i] = branches.get(j);
+          }
+        }
+      }
+      valueTypes[i] = valueSchemas[i].getType();
+    }
+
+    this.bigDecimalFormatString = bigDecimalFormatString;
+    this.bigDecimalPadding = bigDecimalPadding;
+  }
+
+  /**
+   * @return true if the schema is a record whose fields are all of a
+   * primitive type, or a union of null and a primitive type, as the
+   * schemas generated for imports are.
+   */
+  public static boolean isSupported(Schema schema) {
+    if (schema.getType() != Schema.Type.RECORD) {
+      return false;
+    }
+    for (Schema.Field field : schema.getFields()) {
+      Schema fieldSchema = field.schema();
+      if (fieldSchema.getType() == Schema.Type.UNION) {
+        List<Schema> branches = fieldSchema.getTypes();
+        if (branches.size() != 2) {
+          return false;
+        }
+        Schema first = branches.get(0);
+        Schema second = branches.get(1);
+        if (first.getType() == Schema.Type.NULL) {
+          fieldSchema = second;
+        } else if (second.getType() == Schema.Type.NULL) {
+          fieldSchema = first;
+        } else {
+          return false;
+        }
+      }
+      switch (fieldSchema.getType()) {
+      case BOOLEAN:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+      case BYTES:
+        break;
+      default:
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void writeNull(Encoder out, int pos) throws IOException {
+    if (nullIndexes[pos] < 0) {
+      throw new IOException("Null value for non-nullable field "
+          + fields[pos].name());
+    }
+    out.writeIndex(nullIndexes[pos]);
+  }
+
+  public void writeInteger(Encoder out, int pos, int val) throws IOException {
+    if (valueTypes[pos] == Schema.Type.INT) {
+      writeValueIndex(out, pos);
+      out.writeInt(val);
+    } else {
+      writeConverted(out, pos, Integer.valueOf(val));
+    }
+  }
+
+  public void writeLong(Encoder out, int pos, long val) throws IOException {
+    if (valueTypes[pos] == Schema.Type.LONG) {
+      writeValueIndex(out, pos);
+      out.writeLong(val);
+    } else {
+      writeConverted(out, pos, Long.valueOf(val));
+    }
+  }
+
+  public void writeFloat(Encoder out, int pos, float val) throws IOException {
+    if (valueTypes[pos] == Schema.Type.FLOAT) {
+      writeValueIndex(out, pos);
+      out.writeFloat(val);
+    } else {
+      writeConverted(out, pos, Float.valueOf(val));
+    }
+  }
+
+  public void writeDouble(Encoder out, int pos, double val)
+      throws IOException {
+    if (valueTypes[pos] == Schema.Type.DOUBLE) {
+      writeValueIndex(out, pos);
+      out.writeDouble(val);
+    } else {
+      writeConverted(out, pos, Double.valueOf(val));
+    }
+  }
+
+  public void writeBoolean(Encoder out, int pos, boolean val)
+      throws IOException {
+    if (valueTypes[pos] == Schema.Type.BOOLEAN) {
+      writeValueIndex(out, pos);
+      out.writeBoolean(val);
+    } else {
+      writeConverted(out, pos, Boolean.valueOf(val));
+    }
+  }
+
+  public void writeString(Encoder out, int pos, String val)
+      throws IOException {
+    if (valueTypes[pos] == Schema.Type.STRING) {
+      writeValueIndex(out, pos);
+      out.writeString(val);
+    } else {
+      writeConverted(out, pos, val);
+    }
+  }
+
+  public void writeBigDecimal(Encoder out, int pos, BigDecimal val)
+      throws IOException {
+    if (valueTypes[pos] == Schema.Type.STRING) {
+      writeValueIndex(out, pos);
+      out.writeString(bigDecimalFormatString ? val.toPlainString()
+          : val.toString());
+    } else {
+      writeConverted(out, pos, val);
+    }
+  }
+
+  public void writeDate(Encoder out, int pos, Date val) throws IOException {
+    writeMillis(out, pos, val);
+  }
+
+  public void writeTime(Encoder out, int pos, Time val) throws IOException {
+    writeMillis(out, pos, val);
+  }
+
+  public void writeTimestamp(Encoder out, int pos, Timestamp val)
+      throws IOException {
+    writeMillis(out, pos, val);
+  }
+
+  private void writeMillis(Encoder out, int pos, java.util.Date val)
+      throws IOException {
+    if (valueTypes[pos] == Schema.Type.LONG) {
+      writeValueIndex(out, pos);
+      out.writeLong(val.getTime());
+    } else {
+      writeConverted(out, pos, val);
+    }
+  }
+
+  public void writeBytesWritable(Encoder out, int pos, BytesWritable val)
+      throws IOException {
+    if (valueTypes[pos] == Schema.Type.BYTES) {
+      writeValueIndex(out, pos);
+      out.writeBytes(val.getBytes(), 0, val.getLength());
+    } else {
+      writeConverted(out, pos, val);
+    }
+  }
+
+  public void writeBlobRef(Encoder out, int pos, BlobRef val)
+      throws IOException {
+    writeConverted(out, pos, val);
+  }
+
+  public void writeClobRef(Encoder out, int pos, ClobRef val)
+      throws IOException {
+    writeConverted(out, pos, val);
+  }
+
+  /**
+   * Write a field of any type, or null.
+   */
+  public void writeObject(Encoder out, int pos, Object val)
+      throws IOException {
+    if (null == val) {
+      writeNull(out, pos);
+    } else {
+      writeConverted(out, pos, val);
+    }
+  }
+
+  /**
+   * Write the fields of a record from its field map, in schema order.
+   * @param out the encoder to write the fields to.
+   * @param fieldMap the field map of the record, keyed by column name.
+   */
+  public void writeFieldMap(Encoder out, Map<String, Object> fieldMap)
+      throws IOException {
+    Object [] values = new Object[fields.length];
+    for (Map.Entry<String, Object> entry : fieldMap.entrySet()) {
+      Schema.Field field = schema.getField(
+          AvroUtil.toAvroColumn(entry.getKey()));
+      if (null == field) {
+        throw new IOException("Field " + entry.getKey()
+            + " is not in Avro schema " + schema);
+      }
+      values[field.pos()] = entry.getValue();
+    }
+    for (int i = 0; i < values.length; i++) {
+      writeObject(out, i, values[i]);
+    }
+  }
+
+  private void writeValueIndex(Encoder out, int pos) throws IOException {
+    if (valueIndexes[pos] >= 0) {
+      out.writeIndex(valueIndexes[pos]);
+    }
+  }
+
+  /**
+   * Convert a value as {@link AvroUtil#toAvro} does, and write it as the
+   * value type of its field.
+   */
+  private void writeConverted(Encoder out, int pos, Object val)
+      throws IOException {
+    Object datum = AvroUtil.toAvro(val, fields[pos], bigDecimalFormatString,
+        bigDecimalPadding);
+    Schema schema = valueSchemas[pos];
+    writeValueIndex(out, pos);
+    switch (valueTypes[pos]) {
+    case BOOLEAN:
+      out.writeBoolean((Boolean) datum);
+      break;
+    case INT:
+      out.writeInt(((Number) datum).intValue());
+      break;
+    case LONG:
+      out.writeLong(((Number) datum).longValue());
+      break;
+    case FLOAT:
+      out.writeFloat(((Number) datum).floatValue());
+      break;
+    case DOUBLE:
+      out.writeDouble(((Number) datum).doubleValue());
+      break;
+    case STRING:
+      out.writeString(datum.toString());
+      break;
+    case BYTES:
+      if (datum instanceof BigDecimal) {
+        out.writeBytes(decimalConversion.toBytes((BigDecimal) datum, schema,
+            schema.getLogicalType()));
+      } else {
+        out.writeBytes((ByteBuffer) datum);
+      }
+      break;
+    default:
+      throw new IOException("Cannot write field " + fields[pos].name()
+          + " as Avro type " + valueTypes[pos]);
+    }
+  }
+}
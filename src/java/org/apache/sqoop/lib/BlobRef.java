@@ -20,6 +20,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -30,6 +31,7 @@
 import org.apache.hadoop.io.BytesWritable;
 
 import org.apache.sqoop.io.LobFile;
+import org.apache.sqoop.io.LobReaderCache;
 
 /**
  * BlobRef is a wrapper that holds a BLOB either directly, or a
@@ -64,6 +66,12 @@ protected InputStream getExternalSource(LobFile.Reader reader)
     return reader.readBlobRecord();
   }
 
+  @Override
+  protected InputStream getRecyclingSource(LobFile.Reader reader)
+      throws IOException {
+    return new RecyclingInputStream(reader, getExternalLength());
+  }
+
   @Override
   protected InputStream getInternalSource(BytesWritable data) {
     return new ByteArrayInputStream(data.getBytes(), 0, data.getLength());
@@ -127,4 +135,91 @@ public static org.apache.sqoop.lib.BlobRef parse(String inputString) {
       return new org.apache.sqoop.lib.BlobRef();
     }
   }
+
+  /**
+   * InputStream over the given number of bytes of an external BLOB record,
+   * which returns its LobFile.Reader to the LobReaderCache as soon as they
+   * have been read.
+   */
+  private static class RecyclingInputStream extends FilterInputStream {
+    private LobFile.Reader reader;
+    private long remaining;
+
+    RecyclingInputStream(LobFile.Reader reader, long length)
+        throws IOException {
+      super(reader.readBlobRecord());
+      this.reader = reader;
+      this.remaining = length;
+      if (remaining <= 0) {
+        close();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (null == reader) {
+        return -1;
+      }
+      int b = in.read();
+      consumed(-1 == b ? -1 : 1);
+      return b;
+    }
+
+    @Override
+    public int read(byte [] buf, int off, int len) throws IOException {
+      if (null == reader) {
+        return -1;
+      } else if (0 == len) {
+        return 0;
+      }
+      int bytesRead = in.read(buf, off, (int) Math.min(len, remaining));
+      consumed(bytesRead);
+      return bytesRead;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (null == reader) {
+        return 0;
+      }
+      long skipped = in.skip(Math.min(n, remaining));
+      consumed(skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      if (null == reader) {
+        return 0;
+      }
+      return (int) Math.min(in.available(), remaining);
+    }
+
+    /**
+     * Account for bytes read; -1 marks the end of the record.
+     */
+    private void consumed(long n) throws IOException {
+      if (-1 == n) {
+        close();
+        return;
+      }
+      remaining -= n;
+      if (remaining <= 0) {
+        close();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (null != reader) {
+        LobFile.Reader r = reader;
+        reader = null;
+        try {
+          in.close();
+        } finally {
+          LobReaderCache.getCache().recycle(r);
+        }
+      }
+    }
+  }
 }
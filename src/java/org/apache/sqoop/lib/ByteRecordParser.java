@@ -0,0 +1,461 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * Parses a record held in the UTF-8 bytes of a Text object without
+ * decoding it into Strings first.
+ *
+ * This implements exactly the same state machine as RecordParser, but
+ * instead of building a String per field it copies the (unescaped,
+ * unenclosed) field bytes into an internal buffer and records the start
+ * and end offset of every field in a reusable int array. Fields can then
+ * be converted to their target type directly from the byte range, and
+ * Strings are only built for the columns which actually need them.
+ *
+ * Since every byte of a multi-byte UTF-8 sequence has its high bit set,
+ * scanning for delimiters byte by byte is only safe when all delimiters
+ * are 7-bit ASCII characters. Use isSupported() to check a DelimiterSet
+ * before using this parser; RecordParser handles everything else.
+ *
+ * This class is not synchronized. Multiple threads must use separate
+ * instances of ByteRecordParser. The field data is backed by internal
+ * buffers which are overwritten by the next call to parseRecord().
+ */
+public class ByteRecordParser {
+
+  private enum ParseState {
+    FIELD_START,
+    ENCLOSED_FIELD,
+    UNENCLOSED_FIELD,
+    ENCLOSED_ESCAPE,
+    ENCLOSED_EXPECT_DELIMITER,
+    UNENCLOSED_ESCAPE
+  }
+
+  private static final int DEFAULT_BUFFER_SIZE = 1024;
+  private static final int DEFAULT_MAX_FIELDS = 64;
+
+  private DelimiterSet delimiters;
+
+  // Unescaped field bytes for the current record.
+  private byte [] buffer;
+
+  // Field i occupies buffer[offsets[2*i], offsets[2*i+1]).
+  private int [] offsets;
+  private int numFields;
+
+  public ByteRecordParser(final DelimiterSet delimitersIn) {
+    if (!isSupported(delimitersIn)) {
+      throw new IllegalArgumentException(
+          "Delimiters must be ASCII characters for byte-level parsing: "
+          + delimitersIn);
+    }
+
+    this.delimiters = delimitersIn.copy();
+    this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    this.offsets = new int[2 * DEFAULT_MAX_FIELDS];
+  }
+
+  /**
+   * @return true if the delimiters can be matched against individual
+   * bytes of a UTF-8 encoded record.
+   */
+  public static boolean isSupported(DelimiterSet delims) {
+    return isAscii(delims.getFieldsTerminatedBy())
+        && isAscii(delims.getLinesTerminatedBy())
+        && isAscii(delims.getEnclosedBy())
+        && isAscii(delims.getEscapedBy());
+  }
+
+  private static boolean isAscii(char c) {
+    return c < 0x80;
+  }
+
+  /**
+   * Split the input record into fields.
+   * @return the number of fields in the record.
+   */
+  public int parseRecord(Text input)
+      throws org.apache.sqoop.lib.RecordParser.ParseError {
+    if (null == input) {
+      throw new org.apache.sqoop.lib.RecordParser.ParseError(
+          "null input string");
+    }
+
+    return parseRecord(input.getBytes(), 0, input.getLength());
+  }
+
+  // CHECKSTYLE:OFF
+  /**
+   * Split the UTF-8 bytes input[start, start+len) into fields.
+   * See RecordParser.parseRecord(CharBuffer) for the state machine.
+   * @return the number of fields in the record.
+   */
+  public int parseRecord(byte [] input, int start, int len)
+      throws org.apache.sqoop.lib.RecordParser.ParseError {
+    if (null == input) {
+      throw new org.apache.sqoop.lib.RecordParser.ParseError(
+          "null input string");
+    }
+
+    if (buffer.length < len) {
+      buffer = new byte[Math.max(len, 2 * buffer.length)];
+    }
+
+    byte curByte = (byte) DelimiterSet.NULL_CHAR;
+    ParseState state = ParseState.FIELD_START;
+    boolean inField = false; // true once the first field has been opened.
+    int writePos = 0;
+
+    numFields = 0;
+
+    byte enclosingChar = (byte) delimiters.getEnclosedBy();
+    byte fieldDelim = (byte) delimiters.getFieldsTerminatedBy();
+    byte recordDelim = (byte) delimiters.getLinesTerminatedBy();
+    byte escapeChar = (byte) delimiters.getEscapedBy();
+    boolean enclosingRequired = delimiters.isEncloseRequired();
+
+    int end = start + len;
+    for (int pos = start; pos < end; pos++) {
+      curByte = input[pos];
+      switch (state) {
+      case FIELD_START:
+        // ready to start processing a new field.
+        if (inField) {
+          // We finished processing a previous field.
+          endField(writePos);
+        }
+
+        inField = true;
+        startField(writePos);
+        if (enclosingChar == curByte) {
+          // got an opening encloser.
+          state = ParseState.ENCLOSED_FIELD;
+        } else if (escapeChar == curByte) {
+          state = ParseState.UNENCLOSED_ESCAPE;
+        } else if (fieldDelim == curByte) {
+          // we have a zero-length field. This is a no-op.
+          continue;
+        } else if (recordDelim == curByte) {
+          // we have a zero-length field, that ends processing.
+          pos = end;
+        } else {
+          // current char is part of the field.
+          state = ParseState.UNENCLOSED_FIELD;
+          buffer[writePos++] = curByte;
+
+          if (enclosingRequired) {
+            throw new org.apache.sqoop.lib.RecordParser.ParseError(
+                "Opening field-encloser expected at position "
+                + (pos - start));
+          }
+        }
+
+        break;
+
+      case ENCLOSED_FIELD:
+        if (escapeChar == curByte) {
+          // the next character is escaped. Treat it literally.
+          state = ParseState.ENCLOSED_ESCAPE;
+        } else if (enclosingChar == curByte) {
+          // we're at the end of the enclosing field. Expect an EOF or EOR char.
+          state = ParseState.ENCLOSED_EXPECT_DELIMITER;
+        } else {
+          // this is a regular char, or an EOF / EOR inside an encloser.
+          buffer[writePos++] = curByte;
+        }
+
+        break;
+
+      case UNENCLOSED_FIELD:
+        if (escapeChar == curByte) {
+          // the next character is escaped. Treat it literally.
+          state = ParseState.UNENCLOSED_ESCAPE;
+        } else if (fieldDelim == curByte) {
+          // we're at the end of this field; may be the start of another one.
+          state = ParseState.FIELD_START;
+        } else if (recordDelim == curByte) {
+          pos = end; // terminate processing immediately.
+        } else {
+          // this is a regular char.
+          buffer[writePos++] = curByte;
+        }
+
+        break;
+
+      case ENCLOSED_ESCAPE:
+        // Treat this character literally, whatever it is, and return to
+        // enclosed field processing.
+        buffer[writePos++] = curByte;
+        state = ParseState.ENCLOSED_FIELD;
+        break;
+
+      case ENCLOSED_EXPECT_DELIMITER:
+        // We were in an enclosed field, but got the final encloser. Now we
+        // expect either an end-of-field or an end-of-record.
+        if (fieldDelim == curByte) {
+          // end of one field is the beginning of the next.
+          state = ParseState.FIELD_START;
+        } else if (recordDelim == curByte) {
+          // stop processing.
+          pos = end;
+        } else {
+          // Don't know what to do with this character.
+          throw new org.apache.sqoop.lib.RecordParser.ParseError(
+              "Expected delimiter at position " + (pos - start));
+        }
+
+        break;
+
+      case UNENCLOSED_ESCAPE:
+        // Treat this character literally, whatever it is, and return to
+        // non-enclosed field processing.
+        buffer[writePos++] = curByte;
+        state = ParseState.UNENCLOSED_FIELD;
+        break;
+
+      default:
+        throw new org.apache.sqoop.lib.RecordParser.ParseError(
+            "Unexpected parser state: " + state);
+      }
+    }
+
+    if (state == ParseState.FIELD_START && curByte == fieldDelim) {
+      // we hit an EOF/EOR as the last legal character and we need to mark
+      // that field as recorded, then open a trailing zero-length field.
+      if (inField) {
+        endField(writePos);
+        startField(writePos);
+      }
+    }
+
+    if (inField) {
+      // There was a field that terminated by running out of chars or an EOR
+      // character.
+      endField(writePos);
+    }
+
+    return numFields;
+  }
+  // CHECKSTYLE:ON
+
+  private void startField(int writePos) {
+    int idx = 2 * numFields;
+    if (idx + 1 >= offsets.length) {
+      int [] newOffsets = new int[2 * offsets.length];
+      System.arraycopy(offsets, 0, newOffsets, 0, offsets.length);
+      offsets = newOffsets;
+    }
+    offsets[idx] = writePos;
+  }
+
+  private void endField(int writePos) {
+    offsets[2 * numFields + 1] = writePos;
+    numFields++;
+  }
+
+  /**
+   * @return the number of fields found by the last call to parseRecord().
+   */
+  public int getFieldCount() {
+    return numFields;
+  }
+
+  /**
+   * @return the buffer holding the unescaped bytes of every field.
+   */
+  public byte [] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the offset into getBuffer() at which field i starts.
+   */
+  public int getFieldStart(int i) {
+    checkField(i);
+    return offsets[2 * i];
+  }
+
+  /**
+   * @return the length in bytes of field i.
+   */
+  public int getFieldLength(int i) {
+    checkField(i);
+    return offsets[2 * i + 1] - offsets[2 * i];
+  }
+
+  private void checkField(int i) {
+    if (i < 0 || i >= numFields) {
+      throw new IndexOutOfBoundsException("Field " + i + " of " + numFields);
+    }
+  }
+
+  /**
+   * @return true if field i has exactly the UTF-8 bytes in 'value'.
+   */
+  public boolean fieldEquals(int i, byte [] value) {
+    int start = getFieldStart(i);
+    int len = getFieldLength(i);
+    if (len != value.length) {
+      return false;
+    }
+
+    for (int j = 0; j < len; j++) {
+      if (buffer[start + j] != value[j]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return field i decoded into a String.
+   */
+  public String getString(int i) {
+    return new String(buffer, getFieldStart(i), getFieldLength(i),
+        StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Parse field i as an int with the same rules as Integer.parseInt().
+   */
+  public int getInt(int i) {
+    long val = getLong(i);
+    if (val < Integer.MIN_VALUE || val > Integer.MAX_VALUE) {
+      throw new NumberFormatException("For input string: \""
+          + getString(i) + "\"");
+    }
+    return (int) val;
+  }
+
+  /**
+   * Parse field i as a long with the same rules as Long.parseLong().
+   */
+  public long getLong(int i) {
+    int pos = getFieldStart(i);
+    int end = pos + getFieldLength(i);
+    if (pos == end) {
+      throw new NumberFormatException("For input string: \"\"");
+    }
+
+    boolean negative = false;
+    byte first = buffer[pos];
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      pos++;
+      if (pos == end) {
+        throw new NumberFormatException("For input string: \""
+            + getString(i) + "\"");
+      }
+    }
+
+    // Accumulate negatively so that Long.MIN_VALUE does not overflow.
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long multMin = limit / 10;
+    long result = 0;
+    for (; pos < end; pos++) {
+      int digit = buffer[pos] - '0';
+      if (digit < 0 || digit > 9) {
+        // Non-ASCII digits are legal for Long.parseLong(); let it decide.
+        return Long.parseLong(getString(i));
+      }
+      if (result < multMin) {
+        throw new NumberFormatException("For input string: \""
+            + getString(i) + "\"");
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw new NumberFormatException("For input string: \""
+            + getString(i) + "\"");
+      }
+      result -= digit;
+    }
+
+    return negative ? result : -result;
+  }
+
+  /**
+   * Parse field i with the same rules as java.sql.Date.valueOf().
+   */
+  @SuppressWarnings("deprecation")
+  public java.sql.Date getDate(int i) {
+    int pos = getFieldStart(i);
+    if (getFieldLength(i) == 10 && buffer[pos + 4] == '-'
+        && buffer[pos + 7] == '-') {
+      int year = digits(pos, 4);
+      int month = digits(pos + 5, 2);
+      int day = digits(pos + 8, 2);
+      if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31) {
+        return new java.sql.Date(year - 1900, month - 1, day);
+      }
+    }
+
+    // Uncommon formats (and malformed input) take the slow path.
+    return java.sql.Date.valueOf(getString(i));
+  }
+
+  /**
+   * Parse field i with the same rules as java.sql.Time.valueOf().
+   */
+  @SuppressWarnings("deprecation")
+  public java.sql.Time getTime(int i) {
+    int pos = getFieldStart(i);
+    if (getFieldLength(i) == 8 && buffer[pos + 2] == ':'
+        && buffer[pos + 5] == ':') {
+      int hour = digits(pos, 2);
+      int minute = digits(pos + 3, 2);
+      int second = digits(pos + 6, 2);
+      if (hour >= 0 && minute >= 0 && second >= 0) {
+        return new java.sql.Time(hour, minute, second);
+      }
+    }
+
+    return java.sql.Time.valueOf(getString(i));
+  }
+
+  /**
+   * @return the value of the 'count' ASCII digits starting at buffer[pos],
+   * or -1 if any of them is not a digit.
+   */
+  private int digits(int pos, int count) {
+    int val = 0;
+    for (int j = pos; j < pos + count; j++) {
+      int digit = buffer[j] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      val = val * 10 + digit;
+    }
+    return val;
+  }
+
+  public boolean isEnclosingRequired() {
+    return delimiters.isEncloseRequired();
+  }
+
+  @Override
+  public String toString() {
+    return "ByteRecordParser[" + delimiters.toString() + "]";
+  }
+}
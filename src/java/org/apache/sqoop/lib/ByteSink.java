@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * A reusable, growable byte buffer which UTF-8 encodes the characters
+ * appended to it.
+ *
+ * SqoopRecord.writeDelimited() formats a record into a ByteSink so that
+ * the text form of a record can be produced once per row without building
+ * intermediate Strings. Call reset() between records to reuse the
+ * underlying buffer.
+ *
+ * This class is not synchronized.
+ */
+public class ByteSink {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  // Digits of Long.MIN_VALUE, the longest decimal long.
+  private static final byte [] LONG_MIN_DIGITS =
+      Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.UTF_8);
+
+  private byte [] buffer;
+  private int length;
+
+  public ByteSink() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public ByteSink(int initialCapacity) {
+    this.buffer = new byte[Math.max(initialCapacity, 16)];
+    this.length = 0;
+  }
+
+  /**
+   * Discard the contents of the sink, retaining its buffer.
+   */
+  public void reset() {
+    length = 0;
+  }
+
+  /**
+   * @return the buffer backing this sink. Only the first getLength()
+   * bytes are valid.
+   */
+  public byte [] getBytes() {
+    return buffer;
+  }
+
+  /**
+   * @return the number of bytes written since the last reset().
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Copy the contents of this sink into a Text object, reusing its buffer.
+   */
+  public void copyTo(Text text) {
+    text.set(buffer, 0, length);
+  }
+
+  private void ensureCapacity(int extra) {
+    int needed = length + extra;
+    if (needed > buffer.length) {
+      byte [] newBuffer = new byte[Math.max(needed, 2 * buffer.length)];
+      System.arraycopy(buffer, 0, newBuffer, 0, length);
+      buffer = newBuffer;
+    }
+  }
+
+  /**
+   * Append a single raw byte.
+   */
+  public ByteSink appendByte(int b) {
+    ensureCapacity(1);
+    buffer[length++] = (byte) b;
+    return this;
+  }
+
+  /**
+   * Append raw bytes without any encoding.
+   */
+  public ByteSink appendBytes(byte [] bytes, int off, int len) {
+    ensureCapacity(len);
+    System.arraycopy(bytes, off, buffer, length, len);
+    length += len;
+    return this;
+  }
+
+  /**
+   * Append the UTF-8 encoding of a single character. An unpaired surrogate
+   * is encoded as '?', the same as Text.set(String).
+   */
+  public ByteSink append(char c) {
+    if (c < 0x80) {
+      ensureCapacity(1);
+      buffer[length++] = (byte) c;
+    } else if (c < 0x800) {
+      ensureCapacity(2);
+      buffer[length++] = (byte) (0xc0 | (c >> 6));
+      buffer[length++] = (byte) (0x80 | (c & 0x3f));
+    } else if (Character.isSurrogate(c)) {
+      appendByte('?');
+    } else {
+      ensureCapacity(3);
+      buffer[length++] = (byte) (0xe0 | (c >> 12));
+      buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+      buffer[length++] = (byte) (0x80 | (c & 0x3f));
+    }
+    return this;
+  }
+
+  /**
+   * Append the UTF-8 encoding of a supplementary code point.
+   */
+  private void appendCodePoint(int cp) {
+    ensureCapacity(4);
+    buffer[length++] = (byte) (0xf0 | (cp >> 18));
+    buffer[length++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+    buffer[length++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+    buffer[length++] = (byte) (0x80 | (cp & 0x3f));
+  }
+
+  /**
+   * Append the UTF-8 encoding of a character sequence.
+   */
+  public ByteSink append(CharSequence s) {
+    return append(s, 0, s.length());
+  }
+
+  /**
+   * Append the UTF-8 encoding of the characters s[start, end).
+   */
+  public ByteSink append(CharSequence s, int start, int end) {
+    // Reserve room for the common all-ASCII case up front.
+    ensureCapacity(end - start);
+    for (int i = start; i < end; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        if (length == buffer.length) {
+          ensureCapacity(end - i);
+        }
+        buffer[length++] = (byte) c;
+      } else if (Character.isHighSurrogate(c) && i + 1 < end
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        appendCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+      } else {
+        append(c);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Append the decimal representation of a long, as Long.toString() would
+   * produce it, without allocating a String.
+   */
+  public ByteSink append(long val) {
+    if (val == Long.MIN_VALUE) {
+      return appendBytes(LONG_MIN_DIGITS, 0, LONG_MIN_DIGITS.length);
+    }
+
+    ensureCapacity(20);
+    if (val < 0) {
+      buffer[length++] = '-';
+      val = -val;
+    }
+
+    int digits = 1;
+    for (long v = val / 10; v != 0; v /= 10) {
+      digits++;
+    }
+
+    int pos = length + digits;
+    length = pos;
+    do {
+      buffer[--pos] = (byte) ('0' + (val % 10));
+      val /= 10;
+    } while (val != 0);
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return new String(buffer, 0, length, StandardCharsets.UTF_8);
+  }
+}
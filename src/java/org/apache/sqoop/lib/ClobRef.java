@@ -19,6 +19,7 @@
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
@@ -27,6 +28,7 @@
 import org.apache.hadoop.io.Text;
 
 import org.apache.sqoop.io.LobFile;
+import org.apache.sqoop.io.LobReaderCache;
 
 /**
  * ClobRef is a wrapper that holds a CLOB either directly, or a
@@ -59,6 +61,12 @@ protected Reader getExternalSource(LobFile.Reader reader)
     return reader.readClobRecord();
   }
 
+  @Override
+  protected Reader getRecyclingSource(LobFile.Reader reader)
+      throws IOException {
+    return new RecyclingReader(reader, getExternalLength());
+  }
+
   @Override
   protected Reader getInternalSource(String data) {
     return new StringReader(data);
@@ -108,4 +116,87 @@ public static org.apache.sqoop.lib.ClobRef parse(String inputString) {
       return new org.apache.sqoop.lib.ClobRef(inputString);
     }
   }
+
+  /**
+   * Reader over the given number of characters of an external CLOB record,
+   * which returns its LobFile.Reader to the LobReaderCache as soon as they
+   * have been read.
+   */
+  private static class RecyclingReader extends FilterReader {
+    private LobFile.Reader reader;
+    private long remaining;
+
+    RecyclingReader(LobFile.Reader reader, long length) throws IOException {
+      super(reader.readClobRecord());
+      this.reader = reader;
+      this.remaining = length;
+      if (remaining <= 0) {
+        close();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (null == reader) {
+        return -1;
+      }
+      int c = in.read();
+      consumed(-1 == c ? -1 : 1);
+      return c;
+    }
+
+    @Override
+    public int read(char [] buf, int off, int len) throws IOException {
+      if (null == reader) {
+        return -1;
+      } else if (0 == len) {
+        return 0;
+      }
+      int charsRead = in.read(buf, off, (int) Math.min(len, remaining));
+      consumed(charsRead);
+      return charsRead;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (null == reader) {
+        return 0;
+      }
+      long skipped = in.skip(Math.min(n, remaining));
+      consumed(skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+      return null != reader && in.ready();
+    }
+
+    /**
+     * Account for characters read; -1 marks the end of the record.
+     */
+    private void consumed(long n) throws IOException {
+      if (-1 == n) {
+        close();
+        return;
+      }
+      remaining -= n;
+      if (remaining <= 0) {
+        close();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (null != reader) {
+        LobFile.Reader r = reader;
+        reader = null;
+        try {
+          in.close();
+        } finally {
+          LobReaderCache.getCache().recycle(r);
+        }
+      }
+    }
+  }
 }
@@ -139,5 +139,159 @@ public static String escapeAndEnclose(String str, DelimiterSet delimiters) {
     }
   }
 
+  /**
+   * Streaming equivalent of escapeAndEnclose(String, DelimiterSet): writes
+   * the escaped, enclosed version of 'str' to the sink without building
+   * intermediate Strings.
+   *
+   * @param sink - The sink to append the formatted field to.
+   * @param str - The user's string to escape and enclose. Must not be null.
+   * @param delimiters - The DelimiterSet to use identifying the escape and
+   * enclose semantics.
+   */
+  public static void escapeAndEnclose(ByteSink sink, String str,
+      DelimiterSet delimiters) {
+
+    char escape = delimiters.getEscapedBy();
+    char enclose = delimiters.getEnclosedBy();
+    char fields = delimiters.getFieldsTerminatedBy();
+    char lines = delimiters.getLinesTerminatedBy();
+
+    if (!hasDistinctDelimiters(delimiters)) {
+      // The sequential replacements in the String version interact when
+      // delimiters coincide; keep its exact output for such configurations.
+      sink.append(escapeAndEnclose(str, delimiters));
+      return;
+    }
+
+    boolean escapingLegal = DelimiterSet.NULL_CHAR != escape;
+    int len = str.length();
+
+    if (DelimiterSet.NULL_CHAR == enclose) {
+      if (!escapingLegal) {
+        sink.append(str);
+        return;
+      }
+
+      // Copy runs of ordinary characters in bulk, so that surrogate pairs
+      // are never split.
+      int runStart = 0;
+      for (int i = 0; i < len; i++) {
+        char c = str.charAt(i);
+        if (c == escape || c == fields || c == lines) {
+          sink.append(str, runStart, i);
+          sink.append(escape);
+          runStart = i;
+        }
+      }
+      sink.append(str, runStart, len);
+      return;
+    }
+
+    boolean actuallyDoEnclose = delimiters.isEncloseRequired()
+        || str.indexOf(fields) != -1 || str.indexOf(lines) != -1;
+
+    if (actuallyDoEnclose) {
+      sink.append(enclose);
+    }
+
+    if (escapingLegal) {
+      int runStart = 0;
+      for (int i = 0; i < len; i++) {
+        char c = str.charAt(i);
+        if (c == escape || c == enclose) {
+          sink.append(str, runStart, i);
+          sink.append(escape);
+          runStart = i;
+        }
+      }
+      sink.append(str, runStart, len);
+    } else {
+      sink.append(str);
+    }
+
+    if (actuallyDoEnclose) {
+      sink.append(enclose);
+    }
+  }
+
+  /**
+   * @return true if none of the delimiter characters in use coincide.
+   */
+  public static boolean hasDistinctDelimiters(DelimiterSet delimiters) {
+    char escape = delimiters.getEscapedBy();
+    char enclose = delimiters.getEnclosedBy();
+    char fields = delimiters.getFieldsTerminatedBy();
+    char lines = delimiters.getLinesTerminatedBy();
+
+    if (fields == lines) {
+      return false;
+    }
+
+    if (DelimiterSet.NULL_CHAR != escape
+        && (escape == fields || escape == lines || escape == enclose)) {
+      return false;
+    }
+
+    return DelimiterSet.NULL_CHAR == enclose
+        || (enclose != fields && enclose != lines);
+  }
+
+  /**
+   * Returns true if the text form of a non-null numeric, boolean or
+   * date/time value can never contain any of the delimiters, so that
+   * such values can be written with writePlain() instead of being scanned
+   * for characters to escape.
+   */
+  public static boolean canSkipEscaping(DelimiterSet delimiters) {
+    return isPlainSafe(delimiters.getFieldsTerminatedBy())
+        && isPlainSafe(delimiters.getLinesTerminatedBy())
+        && isPlainSafe(delimiters.getEnclosedBy())
+        && isPlainSafe(delimiters.getEscapedBy());
+  }
+
+  private static boolean isPlainSafe(char c) {
+    // Numbers, dates and times only use letters, digits, signs, '.', ':'
+    // and ' ' (e.g., "-1.5E-10", "NaN", "2009-08-13 20:32:00.1").
+    return !Character.isLetterOrDigit(c)
+        && c != '+' && c != '-' && c != '.' && c != ':' && c != ' ';
+  }
+
+  /**
+   * Write a value known not to contain any delimiters; see
+   * canSkipEscaping(). The value is only enclosed if enclosing is required.
+   */
+  public static void writePlain(ByteSink sink, String str,
+      DelimiterSet delimiters) {
+    char enclose = delimiters.getEnclosedBy();
+    boolean doEnclose = delimiters.isEncloseRequired()
+        && DelimiterSet.NULL_CHAR != enclose;
+    if (doEnclose) {
+      sink.append(enclose);
+    }
+    sink.append(str);
+    if (doEnclose) {
+      sink.append(enclose);
+    }
+  }
+
+  /**
+   * Write an integral value known not to contain any delimiters; see
+   * canSkipEscaping().
+   */
+  public static void writePlain(ByteSink sink, long val,
+      DelimiterSet delimiters) {
+    char enclose = delimiters.getEnclosedBy();
+    boolean doEnclose = delimiters.isEncloseRequired()
+        && DelimiterSet.NULL_CHAR != enclose;
+    if (doEnclose) {
+      sink.append(enclose);
+    }
+    sink.append(val);
+    if (doEnclose) {
+      sink.append(enclose);
+    }
+  }
+
   private FieldFormatter() { }
 }
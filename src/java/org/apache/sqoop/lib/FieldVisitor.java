@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.io.IOException;
+
+/**
+ * Interface implemented by classes that consume the fields of a
+ * SqoopRecord one at a time, without building a map of them.
+ */
+public interface FieldVisitor {
+
+  /**
+   * Visit one field of a record. Fields are visited in column order, so
+   * the index of a field is the same for every record of a class.
+   * @param index the position of the field in the record.
+   * @param fieldName the name of the field, as in getFieldMap().
+   * @param value the boxed value of the field; may be null.
+   * @throws IOException if the visitor encounters an IO error.
+   */
+  void visit(int index, String fieldName, Object value) throws IOException;
+}
@@ -17,6 +17,10 @@
  */
 package org.apache.sqoop.lib;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.PreparedStatement;
@@ -25,6 +29,8 @@
 import java.sql.Time;
 import java.sql.Timestamp;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.BytesWritable;
 
 /**
@@ -40,9 +46,83 @@ public final class JdbcWritableBridge {
   public static final long MAX_BLOB_LENGTH = 16 * 1024 * 1024;
   public static final long MAX_CLOB_LENGTH = 16 * 1024 * 1024;
 
+  /**
+   * conf key: the directory against which the file names of external
+   * BLOB and CLOB values are resolved when they are exported.
+   */
+  public static final String EXTERNAL_LOB_DIR_KEY = "sqoop.export.lob.dir";
+
   private JdbcWritableBridge() {
   }
 
+  /**
+   * Gives the BLOB and CLOB fields of exported records the Configuration
+   * used to locate and read their external data when a record is written
+   * to a PreparedStatement. The generated write() methods have no access to
+   * the task configuration, so export record writers pass each record to
+   * apply() before binding it. Whether a record class has any LOB fields is
+   * decided once, so records without them are not visited.
+   */
+  public static final class LobConfSetter implements FieldVisitor {
+    private final Configuration conf;
+    private Class<?> recordClass;
+    private boolean hasLobFields;
+
+    public LobConfSetter(Configuration conf) {
+      this.conf = conf;
+    }
+
+    public void apply(SqoopRecord record) throws IOException {
+      if (record.getClass() != recordClass) {
+        recordClass = record.getClass();
+        hasLobFields = hasLobFields(recordClass);
+      }
+      if (hasLobFields) {
+        record.visitFields(this);
+      }
+    }
+
+    @Override
+    public void visit(int index, String fieldName, Object value) {
+      if (value instanceof LobRef) {
+        ((LobRef<?, ?, ?>) value).setExportConf(conf);
+      }
+    }
+  }
+
+  /**
+   * @return true if the given record class declares a BLOB or CLOB field.
+   */
+  static boolean hasLobFields(Class<?> recordClass) {
+    for (Class<?> c = recordClass; null != c && SqoopRecord.class != c;
+        c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (LobRef.class.isAssignableFrom(field.getType())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the directory that external LOB file names are relative to.
+   */
+  private static Path getExternalLobDir(LobRef<?, ?, ?> val)
+      throws SQLException {
+    Configuration conf = val.getExportConf();
+    if (null == conf) {
+      throw new SQLException("Cannot export external LOB " + val
+          + ": no export configuration was set on it");
+    }
+    String dir = conf.get(EXTERNAL_LOB_DIR_KEY);
+    if (null == dir) {
+      throw new SQLException("Cannot export external LOB data: "
+          + EXTERNAL_LOB_DIR_KEY + " is not set");
+    }
+    return new Path(dir);
+  }
+
   public static Integer readInteger(int colNum, ResultSet r)
       throws SQLException {
     int val;
@@ -64,6 +144,37 @@ public static Long readLong(int colNum, ResultSet r) throws SQLException {
     }
   }
 
+  /*
+   * The read*Value() methods return primitives for records generated with
+   * primitive fields. They return the JDBC default (0 or false) for a SQL
+   * NULL; the caller must check r.wasNull() immediately afterward.
+   */
+
+  public static int readIntValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getInt(colNum);
+  }
+
+  public static long readLongValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getLong(colNum);
+  }
+
+  public static float readFloatValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getFloat(colNum);
+  }
+
+  public static double readDoubleValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getDouble(colNum);
+  }
+
+  public static boolean readBooleanValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getBoolean(colNum);
+  }
+
   public static String readString(int colNum, ResultSet r) throws SQLException {
     return r.getString(colNum);
   }
@@ -180,6 +291,51 @@ public static void writeFloat(Float val, int paramIdx, int sqlType,
     }
   }
 
+  public static void writeIntValue(int val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setInt(paramIdx, val);
+    }
+  }
+
+  public static void writeLongValue(long val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setLong(paramIdx, val);
+    }
+  }
+
+  public static void writeDoubleValue(double val, boolean isNull,
+      int paramIdx, int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setDouble(paramIdx, val);
+    }
+  }
+
+  public static void writeBooleanValue(boolean val, boolean isNull,
+      int paramIdx, int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setBoolean(paramIdx, val);
+    }
+  }
+
+  public static void writeFloatValue(float val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setFloat(paramIdx, val);
+    }
+  }
+
   public static void writeString(String val, int paramIdx, int sqlType,
       PreparedStatement s) throws SQLException {
     if (null == val) {
@@ -239,15 +395,67 @@ public static void writeBigDecimal(BigDecimal val, int paramIdx,
     }
   }
 
+  /**
+   * Bind a BLOB value. Inline data is bound directly; external data is
+   * bound as a stream over its LobFile record, which the driver reads when
+   * the statement is executed.
+   */
   public static void writeBlobRef(org.apache.sqoop.lib.BlobRef val,
       int paramIdx, int sqlType, PreparedStatement s) throws SQLException {
-    // TODO: support this.
-    throw new RuntimeException("Unsupported: Cannot export BLOB data");
+    if (null == val) {
+      s.setNull(paramIdx, sqlType);
+    } else if (val.isExternal()) {
+      InputStream is;
+      try {
+        Path lobDir = getExternalLobDir(val);
+        is = val.getDetachedDataStream(val.getExportConf(), lobDir);
+      } catch (IOException ioe) {
+        throw new SQLException("Could not read external BLOB " + val, ioe);
+      }
+      long len = val.getExternalLength();
+      if (len <= Integer.MAX_VALUE) {
+        // Older drivers only implement the int-length setter.
+        s.setBinaryStream(paramIdx, is, (int) len);
+      } else {
+        s.setBinaryStream(paramIdx, is, len);
+      }
+    } else if (null == val.getDataObj()) {
+      // BlobRef.parse() returns an empty ref for inline data read from
+      // text, since that cannot be decoded.
+      throw new SQLException("Cannot export inline BLOB data from text "
+          + "files; import the table as SequenceFiles or with the BLOBs "
+          + "stored externally");
+    } else {
+      s.setBytes(paramIdx, val.getData());
+    }
   }
 
+  /**
+   * Bind a CLOB value. Inline data is bound directly; external data is
+   * bound as a stream over its LobFile record, which the driver reads when
+   * the statement is executed.
+   */
   public static void writeClobRef(org.apache.sqoop.lib.ClobRef val,
       int paramIdx, int sqlType, PreparedStatement s) throws SQLException {
-    // TODO: support this.
-    throw new RuntimeException("Unsupported: Cannot export CLOB data");
+    if (null == val) {
+      s.setNull(paramIdx, sqlType);
+    } else if (val.isExternal()) {
+      Reader reader;
+      try {
+        Path lobDir = getExternalLobDir(val);
+        reader = val.getDetachedDataStream(val.getExportConf(), lobDir);
+      } catch (IOException ioe) {
+        throw new SQLException("Could not read external CLOB " + val, ioe);
+      }
+      long len = val.getExternalLength();
+      if (len <= Integer.MAX_VALUE) {
+        // Older drivers only implement the int-length setter.
+        s.setCharacterStream(paramIdx, reader, (int) len);
+      } else {
+        s.setCharacterStream(paramIdx, reader, len);
+      }
+    } else {
+      s.setString(paramIdx, val.getData());
+    }
   }
 }
@@ -59,6 +59,26 @@ public class LargeObjectLoader implements Closeable  {
   public static final String MAX_INLINE_LOB_LEN_KEY =
       "sqoop.inline.lob.length.max";
 
+  /**
+   * If true, large objects are written to their LobFiles by a background
+   * thread while the task goes on reading from the database.
+   */
+  public static final String ASYNC_SPILL_KEY = "sqoop.lob.spill.async";
+
+  public static final boolean DEFAULT_ASYNC_SPILL = true;
+
+  /**
+   * Maximum number of bytes of large object data queued for the background
+   * spill thread before the task waits for it.
+   */
+  public static final String SPILL_BUFFER_SIZE_KEY =
+      "sqoop.lob.spill.buffer.size";
+
+  public static final int DEFAULT_SPILL_BUFFER_SIZE = 8 * 1024 * 1024;
+
+  // Size of each chunk of data handed to the spill thread.
+  private static final int SPILL_CHUNK_SIZE = 64 * 1024;
+
   private Configuration conf;
   private Path workPath;
   private FileSystem fs;
@@ -67,6 +87,9 @@ public class LargeObjectLoader implements Closeable  {
   private LobFile.Writer curBlobWriter;
   private LobFile.Writer curClobWriter;
 
+  // Background writer for spilled LOBs; started on first use.
+  private LobSpillWriter spillWriter;
+
   // Counter that is used with the current task attempt id to
   // generate unique LOB file names.
   private long nextLobFileId = 0;
@@ -92,6 +115,17 @@ protected synchronized void finalize() throws Throwable {
 
   @Override
   public void close() throws IOException {
+    try {
+      if (null != spillWriter) {
+        spillWriter.close();
+        spillWriter = null;
+      }
+    } finally {
+      closeLobWriters();
+    }
+  }
+
+  private void closeLobWriters() throws IOException {
     if (null != curBlobWriter) {
       curBlobWriter.close();
       curBlobWriter = null;
@@ -152,6 +186,22 @@ private LobFile.Writer getClobWriter() throws IOException {
     return this.curClobWriter;
   }
 
+  /**
+   * @return the background spill writer, or null if LOBs should be
+   * spilled synchronously.
+   */
+  private LobSpillWriter getSpillWriter() {
+    if (null == this.spillWriter
+        && conf.getBoolean(ASYNC_SPILL_KEY, DEFAULT_ASYNC_SPILL)) {
+      int bufferSize = conf.getInt(SPILL_BUFFER_SIZE_KEY,
+          DEFAULT_SPILL_BUFFER_SIZE);
+      this.spillWriter = new LobSpillWriter(SPILL_CHUNK_SIZE,
+          Math.max(2, bufferSize / SPILL_CHUNK_SIZE));
+    }
+
+    return this.spillWriter;
+  }
+
   /**
    * Returns the path being written to by a given LobFile.Writer, relative
    * to the working directory of this LargeObjectLoader.
@@ -242,6 +292,17 @@ public org.apache.sqoop.lib.BlobRef readBlobRef(int colNum, ResultSet r)
       // Deserialize very large BLOBs into separate files.
       long len = b.length();
       LobFile.Writer lobWriter = getBlobWriter();
+      LobSpillWriter spiller = getSpillWriter();
+      if (null != spiller) {
+        InputStream is = b.getBinaryStream();
+        try {
+          long recordOffset = spiller.spill(lobWriter, len, is);
+          return new org.apache.sqoop.lib.BlobRef(
+              getRelativePath(lobWriter), recordOffset, len);
+        } finally {
+          is.close();
+        }
+      }
 
       long recordOffset = lobWriter.tell();
       InputStream is = null;
@@ -296,6 +357,17 @@ public org.apache.sqoop.lib.ClobRef readClobRef(int colNum, ResultSet r)
       // Deserialize large CLOB into separate file.
       long len = c.length();
       LobFile.Writer lobWriter = getClobWriter();
+      LobSpillWriter spiller = getSpillWriter();
+      if (null != spiller) {
+        Reader reader = c.getCharacterStream();
+        try {
+          long recordOffset = spiller.spill(lobWriter, len, reader);
+          return new org.apache.sqoop.lib.ClobRef(
+              getRelativePath(lobWriter), recordOffset, len);
+        } finally {
+          reader.close();
+        }
+      }
 
       long recordOffset = lobWriter.tell();
       Reader reader = null;
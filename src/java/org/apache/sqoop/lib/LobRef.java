@@ -99,6 +99,9 @@ protected void setDataObj(CONTAINERTYPE data) {
   // If we've opened a LobFile object, track our reference to it here.
   private LobFile.Reader lobReader;
 
+  // The configuration used to read external data when it is exported.
+  private Configuration exportConf;
+
   @Override
   @SuppressWarnings("unchecked")
   /**
@@ -211,6 +214,72 @@ public ACCESSORTYPE getDataStream(Configuration conf, Path basePath)
     }
   }
 
+  /**
+   * Get access to the LOB data through a stream which holds its own
+   * LobFile.Reader, rather than the one held by this LobRef. Several such
+   * streams into the same LobFile can thus be read at once, e.g. by a
+   * JDBC driver executing a batch of rows. The reader is returned to the
+   * LobReaderCache once the length of the record has been read, or the
+   * stream has been closed.
+   * @param conf the Configuration used to access the filesystem
+   * @param basePath the base directory where the table records are
+   * stored.
+   * @return an object that lazily streams the record to the client.
+   * @throws IOException if it could not read the LOB from external storage.
+   */
+  public ACCESSORTYPE getDetachedDataStream(Configuration conf,
+      Path basePath) throws IOException {
+    if (!isExternal()) {
+      return getInternalSource(realData);
+    }
+
+    Path pathToRead = LobReaderCache.qualify(
+        new Path(basePath, fileName), conf);
+    LobFile.Reader reader = LobReaderCache.getCache().get(pathToRead, conf);
+    boolean success = false;
+    try {
+      if (reader.tell() != offset) {
+        reader.seek(offset);
+      }
+
+      if (!reader.next()) {
+        throw new IOException("Could not locate record at " + pathToRead
+            + ":" + offset);
+      }
+
+      ACCESSORTYPE source = getRecyclingSource(reader);
+      success = true;
+      return source;
+    } finally {
+      if (!success) {
+        LobReaderCache.getCache().recycle(reader);
+      }
+    }
+  }
+
+  /**
+   * @return the length of the external record, in bytes for a BLOB or in
+   * characters for a CLOB.
+   */
+  long getExternalLength() {
+    return length;
+  }
+
+  /**
+   * Set the configuration used to read external data when this LOB is
+   * bound to an export statement by JdbcWritableBridge.
+   */
+  public void setExportConf(Configuration conf) {
+    this.exportConf = conf;
+  }
+
+  /**
+   * @return the configuration set by setExportConf(), or null.
+   */
+  Configuration getExportConf() {
+    return exportConf;
+  }
+
   /**
    * Using the LobFile reader, get an accessor InputStream or Reader to the
    * underlying data.
@@ -218,6 +287,15 @@ public ACCESSORTYPE getDataStream(Configuration conf, Path basePath)
   protected abstract ACCESSORTYPE getExternalSource(LobFile.Reader reader)
       throws IOException;
 
+  /**
+   * Using the LobFile reader, get an accessor InputStream or Reader to the
+   * underlying data which recycles the reader once the length of the record
+   * has been read, or it has been closed. JDBC drivers read exactly the
+   * length they are given and need not close the stream.
+   */
+  protected abstract ACCESSORTYPE getRecyclingSource(LobFile.Reader reader)
+      throws IOException;
+
   /**
    * Wrap the materialized data in an InputStream or Reader.
    */
@@ -0,0 +1,356 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.apache.sqoop.io.LobFile;
+
+/**
+ * Writes large objects into LobFiles on a background thread.
+ *
+ * The calling thread reads each large object from its source in chunks
+ * and queues them; the spill thread writes them into the LobFile. Reading
+ * from the database thus overlaps with writing to the filesystem, and the
+ * caller may go on with the rest of its row while the last chunks of a
+ * record are still being written. A fixed pool of chunks bounds the
+ * amount of data in flight; the caller blocks when all of them are queued.
+ *
+ * Errors writing the LobFile are reported by the next call to spill() or
+ * by close(). The caller never waits on the spill thread without bound:
+ * if the thread has exited, the wait fails with its error.
+ */
+class LobSpillWriter implements Closeable {
+
+  public static final Log LOG =
+      LogFactory.getLog(LobSpillWriter.class.getName());
+
+  /**
+   * A buffer of BLOB or CLOB data passed to the spill thread.
+   */
+  private static class Chunk {
+    private byte [] bytes;
+    private char [] chars;
+    private int length;
+  }
+
+  /**
+   * A LobFile record being written by the spill thread.
+   */
+  private static class Record {
+    private final LobFile.Writer writer;
+    private final long length;
+    private final boolean isClob;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private volatile long offset;
+
+    Record(LobFile.Writer writer, long length, boolean isClob) {
+      this.writer = writer;
+      this.length = length;
+      this.isClob = isClob;
+    }
+  }
+
+  /**
+   * An operation for the spill thread: begin a record, write a chunk of
+   * it, finish it, or stop.
+   */
+  private static class SpillOp {
+    private final Record begin;
+    private final Chunk chunk;
+    private final boolean stop;
+
+    SpillOp(Record begin, Chunk chunk, boolean stop) {
+      this.begin = begin;
+      this.chunk = chunk;
+      this.stop = stop;
+    }
+  }
+
+  private static final SpillOp FINISH_RECORD = new SpillOp(null, null, false);
+  private static final SpillOp STOP = new SpillOp(null, null, true);
+
+  // How long the caller waits on the spill thread before checking that it
+  // is still running.
+  private static final long POLL_INTERVAL_MS = 1000;
+
+  private final int chunkSize;
+  private final BlockingQueue<Chunk> freeChunks;
+  private final BlockingQueue<SpillOp> ops;
+  private final SpillThread thread;
+
+  private volatile IOException failure;
+  private boolean closed;
+
+  /**
+   * Create a LobSpillWriter and start its spill thread.
+   * @param chunkSize the number of bytes or characters per chunk.
+   * @param numChunks the number of chunks which may be in flight.
+   */
+  LobSpillWriter(int chunkSize, int numChunks) {
+    this.chunkSize = chunkSize;
+    this.freeChunks = new ArrayBlockingQueue<Chunk>(numChunks);
+    for (int i = 0; i < numChunks; i++) {
+      freeChunks.add(new Chunk());
+    }
+
+    // Each chunk is preceded by at most one other op.
+    this.ops = new ArrayBlockingQueue<SpillOp>(2 * numChunks + 2);
+    this.thread = new SpillThread();
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Spill a BLOB into a new record of a LobFile.
+   * @param writer the LobFile to write the record to.
+   * @param len the length of the BLOB in bytes.
+   * @param in the BLOB data. This is read fully, but not closed.
+   * @return the offset of the record in the LobFile.
+   */
+  public long spill(LobFile.Writer writer, long len, InputStream in)
+      throws IOException, InterruptedException {
+    Record record = beginRecord(writer, len, false);
+    try {
+      while (true) {
+        Chunk chunk = takeChunk();
+        if (null == chunk.bytes) {
+          chunk.bytes = new byte[chunkSize];
+        }
+        chunk.length = in.read(chunk.bytes, 0, chunkSize);
+        if (-1 == chunk.length) {
+          freeChunks.put(chunk);
+          break; // no more stream to read.
+        }
+        putOp(new SpillOp(null, chunk, false));
+      }
+    } finally {
+      putOp(FINISH_RECORD);
+    }
+
+    return getOffset(record);
+  }
+
+  /**
+   * Spill a CLOB into a new record of a LobFile.
+   * @param writer the LobFile to write the record to.
+   * @param len the length of the CLOB in characters.
+   * @param in the CLOB data. This is read fully, but not closed.
+   * @return the offset of the record in the LobFile.
+   */
+  public long spill(LobFile.Writer writer, long len, Reader in)
+      throws IOException, InterruptedException {
+    Record record = beginRecord(writer, len, true);
+    try {
+      while (true) {
+        Chunk chunk = takeChunk();
+        if (null == chunk.chars) {
+          chunk.chars = new char[chunkSize];
+        }
+        chunk.length = in.read(chunk.chars, 0, chunkSize);
+        if (-1 == chunk.length) {
+          freeChunks.put(chunk);
+          break; // no more stream to read.
+        }
+        putOp(new SpillOp(null, chunk, false));
+      }
+    } finally {
+      putOp(FINISH_RECORD);
+    }
+
+    return getOffset(record);
+  }
+
+  private Record beginRecord(LobFile.Writer writer, long len, boolean isClob)
+      throws IOException, InterruptedException {
+    if (closed) {
+      throw new IOException("LobSpillWriter is closed");
+    }
+    checkFailure();
+    Record record = new Record(writer, len, isClob);
+    putOp(new SpillOp(record, null, false));
+    return record;
+  }
+
+  private void putOp(SpillOp op) throws IOException, InterruptedException {
+    while (!ops.offer(op, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+      checkSpillThread();
+    }
+  }
+
+  private Chunk takeChunk() throws IOException, InterruptedException {
+    Chunk chunk;
+    while (null == (chunk = freeChunks.poll(POLL_INTERVAL_MS,
+        TimeUnit.MILLISECONDS))) {
+      checkSpillThread();
+    }
+    if (null != failure) {
+      freeChunks.put(chunk);
+      checkFailure();
+    }
+    return chunk;
+  }
+
+  /**
+   * Wait for the spill thread to begin writing a record.
+   * @return the offset of the record in its LobFile.
+   */
+  private long getOffset(Record record)
+      throws IOException, InterruptedException {
+    while (!record.started.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+      checkSpillThread();
+    }
+    checkFailure();
+    return record.offset;
+  }
+
+  private void checkFailure() throws IOException {
+    IOException ioe = failure;
+    if (null != ioe) {
+      throw new IOException("Error writing large object: " + ioe.getMessage(),
+          ioe);
+    }
+  }
+
+  /**
+   * Fail if the spill thread has stopped, so that the caller does not wait
+   * for it forever.
+   */
+  private void checkSpillThread() throws IOException {
+    checkFailure();
+    if (!thread.isAlive()) {
+      throw new IOException("LOB spill writer exited unexpectedly");
+    }
+  }
+
+  /**
+   * Wait for all queued records to be written, and stop the spill thread.
+   * The LobFiles themselves are not closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      putOp(STOP);
+      thread.join();
+    } catch (InterruptedException ie) {
+      thread.interrupt();
+      throw new IOException("Interrupted waiting for large objects to be "
+          + "written", ie);
+    }
+
+    checkFailure();
+  }
+
+  /**
+   * Writes queued records to their LobFiles. After an error, the remaining
+   * ops are discarded; their chunks are still returned to the pool so that
+   * the calling thread does not block.
+   */
+  private class SpillThread extends Thread {
+
+    private Record record;
+    private OutputStream os;
+    private Writer w;
+
+    SpillThread() {
+      super("LOB spill writer");
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          SpillOp op = ops.take();
+          if (op.stop) {
+            break;
+          }
+
+          try {
+            if (null == failure) {
+              apply(op);
+            }
+          } catch (IOException ioe) {
+            LOG.error("Error writing large object: " + ioe.toString());
+            failure = ioe;
+          } finally {
+            if (null != op.begin) {
+              op.begin.started.countDown();
+            }
+            if (null != op.chunk) {
+              freeChunks.put(op.chunk);
+            }
+          }
+        }
+      } catch (InterruptedException ie) {
+        LOG.warn("LOB spill writer interrupted");
+        if (null == failure) {
+          failure = new IOException("LOB spill writer interrupted", ie);
+        }
+      }
+    }
+
+    private void apply(SpillOp op) throws IOException {
+      if (null != op.begin) {
+        record = op.begin;
+        record.offset = record.writer.tell();
+        if (record.isClob) {
+          w = record.writer.writeClobRecord(record.length);
+        } else {
+          os = record.writer.writeBlobRecord(record.length);
+        }
+      } else if (null != op.chunk) {
+        if (record.isClob) {
+          w.write(op.chunk.chars, 0, op.chunk.length);
+        } else {
+          os.write(op.chunk.bytes, 0, op.chunk.length);
+        }
+      } else {
+        try {
+          if (null != w) {
+            w.close();
+          }
+          if (null != os) {
+            os.close();
+          }
+        } finally {
+          w = null;
+          os = null;
+          // Mark the record as finished.
+          record.writer.finishRecord();
+        }
+      }
+    }
+  }
+}
@@ -24,6 +24,7 @@
 import java.sql.SQLException;
 import java.util.Map;
 
+import org.apache.avro.io.Encoder;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.sqoop.mapreduce.DBWritable;
@@ -102,6 +103,27 @@ public String toString(DelimiterSet delimiters, boolean useRecordDelim) {
     }
   }
 
+  /**
+   * Format the record according to the specified delimiters, appending the
+   * UTF-8 encoded text to 'sink'. This produces the same text as
+   * toString(delimiters, useRecordDelim).
+   */
+  public void writeDelimited(ByteSink sink, DelimiterSet delimiters,
+      boolean useRecordDelim) {
+    // Method body should be overridden by generated classes in 1.5.0+
+    sink.append(toString(delimiters, useRecordDelim));
+  }
+
+  /**
+   * Format the record with the default delimiters, appending the UTF-8
+   * encoded text to 'sink'. This produces the same text as
+   * toString(useRecordDelim).
+   */
+  public void writeDelimited(ByteSink sink, boolean useRecordDelim) {
+    // Method body should be overridden by generated classes in 1.5.0+
+    sink.append(toString(useRecordDelim));
+  }
+
   @Override
   public Object clone() throws CloneNotSupportedException {
     return super.clone();
@@ -142,6 +164,34 @@ public Map<String, Object> getFieldMap() {
       "Got null field map from record. Regenerate your record class.");
   }
 
+  /**
+   * Passes each field of this record to a FieldVisitor, in column order.
+   * This default implementation walks getFieldMap(); ClassWriter
+   * generates an overriding version which does not build the map.
+   * @param visitor the visitor to pass the fields to.
+   * @throws IOException if the visitor encounters an IO error.
+   */
+  public void visitFields(FieldVisitor visitor) throws IOException {
+    int index = 0;
+    for (Map.Entry<String, Object> field : getFieldMap().entrySet()) {
+      visitor.visit(index++, field.getKey(), field.getValue());
+    }
+  }
+
+  /**
+   * Writes the fields of this record to an Avro Encoder, in schema order.
+   * This default implementation writes getFieldMap(); ClassWriter
+   * generates an overriding version which passes each field to a typed
+   * method of the AvroFieldWriter, in column order.
+   * @param out the encoder to write the fields to.
+   * @param writer the writer for the fields of the record schema.
+   * @throws IOException if the fields cannot be encoded.
+   */
+  public void writeAvro(Encoder out, AvroFieldWriter writer)
+      throws IOException {
+    writer.writeFieldMap(out, getFieldMap());
+  }
+
   /**
    * Allows an arbitrary field to be set programmatically to the
    * specified value object. The value object must match the
@@ -98,6 +98,32 @@ public abstract class ConnManager {
    */
   public abstract String getPrimaryKey(String tableName);
 
+  /**
+   * Return all the columns of the primary key for a table, in key order.
+   * @return the key columns, or null if there is no primary key or it can't
+   * be determined.
+   */
+  public String [] getPrimaryKeyColumns(String tableName) {
+    return null;
+  }
+
+  /**
+   * Return a query which reads some columns from a sample of the rows of a
+   * table, such as one using TABLESAMPLE, for planning splits or regions
+   * from the distribution of their values. The size of the sample need
+   * only be about sampleSize rows.
+   * @param tableName the table to sample.
+   * @param columns the columns to select, in order.
+   * @param whereClause a condition the sampled rows must meet, or null.
+   * @param sampleSize the number of rows wanted.
+   * @return the query, or null if the database cannot read a sample
+   * without scanning the whole table.
+   */
+  public String getSamplingQuery(String tableName, String [] columns,
+      String whereClause, int sampleSize) {
+    return null;
+  }
+
   /**
    * Resolve a database-specific type to the Java type that should contain it.
    * @param sqlType     sql type
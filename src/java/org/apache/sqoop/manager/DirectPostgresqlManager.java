@@ -37,7 +37,10 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.mapreduce.lib.output.NullOutputFormat;
 import org.apache.sqoop.cli.RelatedOptions;
+import org.apache.sqoop.mapreduce.DataDrivenImportJob;
 import org.apache.sqoop.mapreduce.ExportInputFormat;
+import org.apache.sqoop.mapreduce.ImportJobBase;
+import org.apache.sqoop.mapreduce.postgresql.PostgreSQLBinaryCopyInputFormat;
 import org.apache.sqoop.mapreduce.postgresql.PostgreSQLCopyExportJob;
 import org.apache.sqoop.util.PostgreSQLUtils;
 import org.apache.sqoop.util.SubstitutionUtils;
@@ -73,6 +76,13 @@
   public static final String BOOLEAN_FALSE_STRING = "boolean-false-string";
   public static final String DEFAULT_BOOLEAN_FALSE_STRING = "FALSE";
 
+  /**
+   * If true, tables are imported by a MapReduce job whose tasks read their
+   * splits with binary COPY TO STDOUT, instead of through psql.
+   */
+  public static final String BINARY_COPY_IMPORT_KEY =
+      "postgresql.import.binary";
+
   public DirectPostgresqlManager(final SqoopOptions opts) {
     super(opts);
 
@@ -353,6 +363,11 @@ public void importTable(org.apache.sqoop.manager.ImportJobContext context)
     String tableName = context.getTableName();
     SqoopOptions options = context.getOptions();
 
+    if (options.getConf().getBoolean(BINARY_COPY_IMPORT_KEY, false)) {
+      importTableWithBinaryCopy(context);
+      return;
+    }
+
     LOG.info("Beginning psql fast path import");
 
     if (options.getFileLayout() != SqoopOptions.FileLayout.TextFile) {
@@ -578,6 +593,36 @@ protected RelatedOptions getExtraOptions() {
     return extraOptions;
   }
 
+  /**
+   * Import a table with a data-driven MapReduce job whose tasks decode the
+   * rows of their splits from binary COPY data into the generated record
+   * class, which then is written out in any of the usual file formats.
+   */
+  private void importTableWithBinaryCopy(ImportJobContext context)
+      throws IOException, ImportException {
+    String tableName = context.getTableName();
+    SqoopOptions options = context.getOptions();
+    if (options.getHBaseTable() != null
+        || options.getAccumuloTable() != null) {
+      throw new ImportException("Binary COPY import only supports imports "
+          + "into HDFS");
+    }
+    if (!options.getMapColumnJava().isEmpty()) {
+      // The rows are decoded into the default Java type of each column.
+      throw new ImportException("Binary COPY import does not support "
+          + "--map-column-java; import without " + BINARY_COPY_IMPORT_KEY
+          + " to override the Java types of columns");
+    }
+
+    LOG.info("Beginning binary COPY import");
+    checkTableImportOptions(context);
+    ImportJobBase importer = new DataDrivenImportJob(options,
+        PostgreSQLBinaryCopyInputFormat.class, context,
+        getParquetJobConfigurator().createParquetImportJobConfigurator());
+    importer.runImport(tableName, context.getJarFile(),
+        getSplitColumn(options, tableName), options.getConf());
+  }
+
   public void exportTable(ExportJobContext context)
     throws IOException, ExportException {
     context.setConnManager(this);
@@ -30,6 +30,7 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.sqoop.accumulo.AccumuloUtil;
 import org.apache.sqoop.hbase.HBaseUtil;
+import org.apache.sqoop.mapreduce.AccumuloBulkImportJob;
 import org.apache.sqoop.mapreduce.AccumuloImportJob;
 import org.apache.sqoop.mapreduce.HBaseBulkImportJob;
 import org.apache.sqoop.mapreduce.HBaseImportJob;
@@ -87,7 +88,11 @@ public void importTable(org.apache.sqoop.manager.ImportJobContext context)
         throw new ImportException("Accumulo jars are not present in "
             + "classpath, cannot import to Accumulo!");
       }
-      importer = new AccumuloImportJob(opts, context);
+      if (!opts.isAccumuloBulkLoadEnabled()) {
+        importer = new AccumuloImportJob(opts, context);
+      } else {
+        importer = new AccumuloBulkImportJob(opts, context);
+      }
     } else {
       // Import to HDFS.
       importer = new MainframeImportJob(opts, context, getParquetJobConfigurator().createParquetImportJobConfigurator());
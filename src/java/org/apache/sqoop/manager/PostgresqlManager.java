@@ -21,6 +21,10 @@
 import static org.apache.sqoop.manager.JdbcDrivers.POSTGRES;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.apache.commons.cli.CommandLine;
@@ -101,6 +105,81 @@ public void close() throws SQLException {
     super.close();
   }
 
+  /**
+   * {@inheritDoc}
+   * TABLESAMPLE SYSTEM reads a percentage of the table's pages, which is
+   * chosen from the planner's estimate of its row count. There is no
+   * sampling query for PostgreSQL before 9.5, or for a table which has
+   * never been analyzed.
+   */
+  @Override
+  public String getSamplingQuery(String tableName, String [] columns,
+      String whereClause, int sampleSize) {
+    double rows;
+    try {
+      DatabaseMetaData metaData = getConnection().getMetaData();
+      int major = metaData.getDatabaseMajorVersion();
+      int minor = metaData.getDatabaseMinorVersion();
+      if (major < 9 || (major == 9 && minor < 5)) {
+        LOG.info("TABLESAMPLE needs PostgreSQL 9.5 or later");
+        return null;
+      }
+      rows = getEstimatedRowCount(tableName);
+    } catch (SQLException sqlE) {
+      LOG.warn("Could not estimate the size of " + tableName + ": " + sqlE);
+      return null;
+    }
+    if (rows <= 0) {
+      LOG.info("No row count estimate for " + tableName
+          + "; it may need to be analyzed before it can be sampled");
+      return null;
+    }
+    // Sampling whole pages makes the sample clumpy, so read twice as many
+    // rows as are wanted.
+    double percent = Math.min(100.0, 200.0 * sampleSize / rows);
+    return getTableSampleQuery(tableName, columns, whereClause, percent);
+  }
+
+  /**
+   * @return the planner's estimate of the number of rows in a table.
+   */
+  private double getEstimatedRowCount(String tableName) throws SQLException {
+    PreparedStatement stmt = getConnection().prepareStatement(
+        "SELECT reltuples FROM pg_catalog.pg_class "
+        + "WHERE oid = CAST(? AS regclass)");
+    try {
+      stmt.setString(1, escapeTableName(tableName));
+      ResultSet rs = stmt.executeQuery();
+      try {
+        return rs.next() ? rs.getDouble(1) : 0;
+      } finally {
+        rs.close();
+      }
+    } finally {
+      stmt.close();
+    }
+  }
+
+  String getTableSampleQuery(String tableName, String [] columns,
+      String whereClause, double percent) {
+    StringBuilder sb = new StringBuilder("SELECT ");
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(escapeColName(columns[i]));
+    }
+    sb.append(" FROM ").append(escapeTableName(tableName));
+    sb.append(" TABLESAMPLE SYSTEM (");
+    sb.append(new BigDecimal(percent).setScale(6, BigDecimal.ROUND_UP)
+        .stripTrailingZeros().toPlainString());
+    sb.append(")");
+    if (null != whereClause) {
+      sb.append(" WHERE (").append(whereClause).append(")");
+    }
+    return sb.toString();
+  }
+
   @Override
   protected String getColNamesQuery(String tableName) {
     // Use LIMIT to return fast
@@ -287,6 +287,27 @@ protected String getPrimaryKeyQuery(String tableName) {
     + "  AND tc.CONSTRAINT_TYPE = 'PRIMARY KEY'";
   }
 
+  /**
+   * {@inheritDoc}
+   * TABLESAMPLE reads whole pages until about sampleSize rows are chosen.
+   */
+  @Override
+  public String getSamplingQuery(String tableName, String [] columns,
+      String whereClause, int sampleSize) {
+    StringBuilder sb = new StringBuilder("SELECT ");
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(escapeColName(columns[i]));
+    }
+    sb.append(" FROM ").append(escapeTableName(tableName));
+    sb.append(" TABLESAMPLE (").append(sampleSize).append(" ROWS)");
+    if (null != whereClause) {
+      sb.append(" WHERE (").append(whereClause).append(")");
+    }
+    return sb.toString();
+  }
 
   @Override
   public String escapeColName(String colName) {
@@ -41,6 +41,7 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.sqoop.accumulo.AccumuloUtil;
+import org.apache.sqoop.mapreduce.AccumuloBulkImportJob;
 import org.apache.sqoop.mapreduce.AccumuloImportJob;
 import org.apache.sqoop.mapreduce.HBaseBulkImportJob;
 import org.apache.sqoop.mapreduce.JdbcCallExportJob;
@@ -599,6 +600,36 @@ public String getPrimaryKey(String tableName) {
     }
   }
 
+  @Override
+  public String [] getPrimaryKeyColumns(String tableName) {
+    try {
+      DatabaseMetaData metaData = this.getConnection().getMetaData();
+      ResultSet results = metaData.getPrimaryKeys(null, null, tableName);
+      if (null == results) {
+        return null;
+      }
+
+      try {
+        Map<Short, String> columns = new TreeMap<Short, String>();
+        while (results.next()) {
+          columns.put(results.getShort("KEY_SEQ"),
+              results.getString("COLUMN_NAME"));
+        }
+        if (columns.isEmpty()) {
+          return null;
+        }
+        return columns.values().toArray(new String[columns.size()]);
+      } finally {
+        results.close();
+        getConnection().commit();
+      }
+    } catch (SQLException sqlException) {
+      LoggingUtils.logAll(LOG, "Error reading primary key metadata: "
+          + sqlException.toString(), sqlException);
+      return null;
+    }
+  }
+
   /**
    * Retrieve the actual connection from the outer ConnManager.
    */
@@ -678,7 +709,11 @@ public void importTable(org.apache.sqoop.manager.ImportJobContext context)
          throw new ImportException("Accumulo jars are not present in "
              + "classpath, cannot import to Accumulo!");
        }
-       importer = new AccumuloImportJob(opts, context);
+       if (!opts.isAccumuloBulkLoadEnabled()) {
+         importer = new AccumuloImportJob(opts, context);
+       } else {
+         importer = new AccumuloBulkImportJob(opts, context);
+       }
     } else {
       // Import to HDFS.
       importer = new DataDrivenImportJob(opts, context.getInputFormat(),
@@ -721,7 +756,11 @@ public void importQuery(org.apache.sqoop.manager.ImportJobContext context)
         throw new ImportException("Accumulo jars are not present in classpath,"
               + " cannot import to Accumulo!");
       }
-      importer = new AccumuloImportJob(opts, context);
+      if (!opts.isAccumuloBulkLoadEnabled()) {
+        importer = new AccumuloImportJob(opts, context);
+      } else {
+        importer = new AccumuloBulkImportJob(opts, context);
+      }
     } else {
       // Import to HDFS.
       importer = new DataDrivenImportJob(opts, context.getInputFormat(),
@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.Collection;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.mapreduce.AccumuloFileOutputFormat;
+import org.apache.accumulo.core.client.mapreduce.lib.partition.KeyRangePartitioner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.util.Base64;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.accumulo.AccumuloConstants;
+import org.apache.sqoop.manager.ImportJobContext;
+import org.apache.sqoop.util.ImportException;
+
+/**
+ * Runs an Accumulo bulk import via DataDrivenDBInputFormat. The cells of
+ * each record are sorted into one RFile per tablet of the target table,
+ * and the RFiles are imported into the table when the job completes.
+ */
+public class AccumuloBulkImportJob extends AccumuloImportJob {
+
+  public static final Log LOG = LogFactory.getLog(
+      AccumuloBulkImportJob.class.getName());
+
+  // Set if some files could not be imported, so they are kept.
+  private boolean keepFiles;
+
+  public AccumuloBulkImportJob(final SqoopOptions opts,
+      final ImportJobContext importContext) {
+    super(opts, importContext);
+  }
+
+  @Override
+  protected void configureMapper(Job job, String tableName,
+      String tableClassName) throws IOException {
+    job.setMapOutputKeyClass(Key.class);
+    job.setMapOutputValueClass(Value.class);
+    job.setOutputKeyClass(Key.class);
+    job.setOutputValueClass(Value.class);
+    job.setMapperClass(getMapperClass());
+    // Cells reach the reducers sorted, as RFiles require.
+    job.setReducerClass(Reducer.class);
+  }
+
+  @Override
+  protected Class<? extends Mapper> getMapperClass() {
+    return AccumuloBulkImportMapper.class;
+  }
+
+  @Override
+  protected Class<? extends OutputFormat> getOutputFormatClass()
+      throws ClassNotFoundException {
+    return AccumuloFileOutputFormat.class;
+  }
+
+  /**
+   * @return the directory the RFiles are written to.
+   */
+  private Path getFilesDir() {
+    return new Path(getContext().getDestination(), "files");
+  }
+
+  /**
+   * @return the directory files which fail to import are moved to.
+   */
+  private Path getFailuresDir() {
+    return new Path(getContext().getDestination(), "failures");
+  }
+
+  @Override
+  protected void jobSetup(Job job) throws IOException, ImportException {
+    super.jobSetup(job);
+
+    // we shouldn't have gotten here if bulk load dir is not set
+    // so let's throw a ImportException
+    if (getContext().getDestination() == null) {
+      throw new ImportException("Can't run AccumuloBulkImportJob without a "
+          + "valid destination directory.");
+    }
+
+    Configuration conf = job.getConfiguration();
+    String tableName = conf.get(AccumuloConstants.TABLE_NAME_KEY);
+    FileOutputFormat.setOutputPath(job, getFilesDir());
+
+    // Partition the cells by the tablets of the table, so that each RFile
+    // is imported into a single tablet.
+    Collection<Text> splits;
+    try {
+      splits = getConnector(conf).tableOperations().listSplits(tableName);
+    } catch (AccumuloException e) {
+      throw new ImportException(e);
+    } catch (AccumuloSecurityException e) {
+      throw new ImportException(e);
+    } catch (TableNotFoundException e) {
+      throw new ImportException(e);
+    }
+
+    job.setNumReduceTasks(splits.size() + 1);
+    if (!splits.isEmpty()) {
+      Path splitsFile = new Path(getContext().getDestination(), "splits.txt");
+      FileSystem fs = splitsFile.getFileSystem(conf);
+      BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+          fs.create(splitsFile, true), "UTF-8"));
+      try {
+        for (Text split : splits) {
+          out.write(Base64.encodeBase64String(split.copyBytes()));
+          out.newLine();
+        }
+      } finally {
+        out.close();
+      }
+      job.setPartitionerClass(KeyRangePartitioner.class);
+      KeyRangePartitioner.setSplitFile(job,
+          fs.makeQualified(splitsFile).toString());
+    }
+    LOG.info("Writing RFiles for " + (splits.size() + 1) + " tablets of "
+        + tableName);
+  }
+
+  /**
+   * Perform the import of RFiles.
+   */
+  @Override
+  protected void completeImport(Job job) throws IOException, ImportException {
+    super.completeImport(job);
+
+    Configuration conf = job.getConfiguration();
+    String tableName = conf.get(AccumuloConstants.TABLE_NAME_KEY);
+
+    // Make the bulk load files accessible to the world so that the
+    // accumulo user can move them into the table.
+    Path bulkLoadDir = getContext().getDestination();
+    FileSystem fs = bulkLoadDir.getFileSystem(conf);
+    Path failuresDir = getFailuresDir();
+    fs.mkdirs(failuresDir);
+    setPermission(fs, fs.getFileStatus(bulkLoadDir),
+        FsPermission.createImmutable((short) 00777));
+
+    try {
+      // Timestamps are assigned by Accumulo when the files are imported.
+      getConnector(conf).tableOperations().importDirectory(tableName,
+          getFilesDir().toString(), failuresDir.toString(), true);
+    } catch (Exception e) {
+      String errorMessage = String.format("Unrecoverable error while "
+          + "performing the bulk import of files in [%s]",
+          getFilesDir().toString());
+      throw new ImportException(errorMessage, e);
+    }
+
+    FileStatus [] failures = fs.listStatus(failuresDir);
+    if (null != failures && failures.length > 0) {
+      keepFiles = true;
+      throw new ImportException(failures.length + " files could not be "
+          + "imported into " + tableName + "; they were moved to "
+          + failuresDir);
+    }
+  }
+
+  @Override
+  protected void jobTeardown(Job job) throws IOException, ImportException {
+    super.jobTeardown(job);
+    if (keepFiles) {
+      return;
+    }
+    // Delete the RFiles directory after we are finished.
+    Path destination = getContext().getDestination();
+    FileSystem fileSystem = destination.getFileSystem(job.getConfiguration());
+    fileSystem.delete(destination, true);
+  }
+
+  /**
+   * Set the file permission of the path of the given fileStatus. If the path
+   * is a directory, apply permission recursively to all subdirectories and
+   * files.
+   */
+  private void setPermission(FileSystem fs, FileStatus fileStatus,
+      FsPermission permission) throws IOException {
+    if (fileStatus.isDirectory()) {
+      for (FileStatus file : fs.listStatus(fileStatus.getPath())) {
+        setPermission(fs, file, permission);
+      }
+    }
+    fs.setPermission(fileStatus.getPath(), permission);
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.sqoop.accumulo.AccumuloMutationProcessor;
+import org.apache.sqoop.accumulo.MutationTransformer;
+import org.apache.sqoop.lib.LargeObjectLoader;
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * Imports records into Accumulo by emitting the cells of their mutations
+ * as key/value pairs, to be sorted into RFiles and bulk imported.
+ */
+public class AccumuloBulkImportMapper
+    extends AutoProgressMapper<LongWritable, SqoopRecord, Key, Value> {
+
+  private LargeObjectLoader lobLoader;
+  // An object that can transform a map of fieldName->object
+  // into a Mutation.
+  private MutationTransformer mutationTransformer;
+
+  @Override
+  protected void setup(Context context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    this.lobLoader = new LargeObjectLoader(conf, new Path(
+        conf.get("sqoop.accumulo.lob.extern.dir",
+        "/tmp/sqoop-accumulo-" + context.getTaskAttemptID())));
+    this.mutationTransformer =
+        AccumuloMutationProcessor.getMutationTransformer(conf);
+  }
+
+  @Override
+  public void map(LongWritable key, SqoopRecord val, Context context)
+      throws IOException, InterruptedException {
+    try {
+      // Loading of LOBs was delayed until we have a Context.
+      val.loadLargeObjects(lobLoader);
+    } catch (SQLException sqlE) {
+      throw new IOException(sqlE);
+    }
+
+    Iterable<Mutation> mutations =
+        mutationTransformer.getMutations(val.getFieldMap());
+    if (null == mutations) {
+      return;
+    }
+    for (Mutation mutation : mutations) {
+      byte [] row = mutation.getRow();
+      for (ColumnUpdate update : mutation.getUpdates()) {
+        context.write(getKey(row, update), new Value(update.getValue()));
+      }
+    }
+  }
+
+  /**
+   * @return the key of the cell written by a column update. Cells without
+   * a timestamp are given the time of the bulk import.
+   */
+  static Key getKey(byte [] row, ColumnUpdate update) {
+    Key key = new Key(row, update.getColumnFamily(),
+        update.getColumnQualifier(), update.getColumnVisibility(),
+        update.hasTimestamp() ? update.getTimestamp() : Long.MAX_VALUE);
+    key.setDeleted(update.isDeleted());
+    return key;
+  }
+
+  @Override
+  protected void cleanup(Context context) throws IOException {
+    if (null != lobLoader) {
+      lobLoader.close();
+    }
+  }
+}
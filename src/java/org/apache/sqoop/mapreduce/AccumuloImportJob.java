@@ -138,15 +138,26 @@ protected void configureOutputFormat(Job job, String tableName,
     conf.set(AccumuloConstants.ROW_KEY_COLUMN_KEY, rowKeyCol);
   }
 
+  /**
+   * @return a connection to the Accumulo instance named by the
+   * configuration.
+   */
+  protected Connector getConnector(Configuration conf)
+      throws AccumuloException, AccumuloSecurityException {
+    String zookeepers = conf.get(AccumuloConstants.ZOOKEEPERS);
+    String instance = conf.get(AccumuloConstants.ACCUMULO_INSTANCE);
+    String user = conf.get(AccumuloConstants.ACCUMULO_USER_NAME);
+    Instance inst = new ZooKeeperInstance(instance, zookeepers);
+    String password = conf.get(AccumuloConstants.ACCUMULO_PASSWORD);
+    return inst.getConnector(user, new PasswordToken(password));
+  }
+
   @Override
   /** Create the target Accumulo table before running the job, if appropriate.*/
   protected void jobSetup(Job job) throws IOException, ImportException {
     Configuration conf = job.getConfiguration();
     String tableName = conf.get(AccumuloConstants.TABLE_NAME_KEY);
     String familyName = conf.get(AccumuloConstants.COL_FAMILY_KEY);
-    String zookeepers = conf.get(AccumuloConstants.ZOOKEEPERS);
-    String instance = conf.get(AccumuloConstants.ACCUMULO_INSTANCE);
-    String user = conf.get(AccumuloConstants.ACCUMULO_USER_NAME);
 
     if (null == tableName) {
       throw new ImportException(
@@ -162,9 +173,7 @@ protected void jobSetup(Job job) throws IOException, ImportException {
       // Set up the libjars
       AccumuloUtil.addJars(job, opts);
 
-      Instance inst = new ZooKeeperInstance(instance, zookeepers);
-      String password = conf.get(AccumuloConstants.ACCUMULO_PASSWORD);
-      Connector conn = inst.getConnector(user, new PasswordToken(password));
+      Connector conn = getConnector(conf);
       if (!conn.tableOperations().exists(tableName)) {
         if (options.getCreateAccumuloTable()) {
           LOG.info("Table " + tableName + " doesn't exist, creating.");
@@ -23,6 +23,16 @@
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 
 import org.apache.commons.logging.Log;
@@ -65,6 +75,81 @@
   public static final String STATEMENTS_PER_TRANSACTION_KEY =
       "sqoop.export.statements.per.transaction";
 
+  /** conf key: number of connections, each with its own executor thread,
+   * used by each task. With more than one, statements are handed to the
+   * connections in turn, and each connection commits its own transactions
+   * independently. The final transactions are rolled back if any
+   * connection reported an error, but commits on separate connections are
+   * not atomic, and earlier transactions may already be committed, so a
+   * failed task can leave some of its rows in the table.
+   */
+  public static final String CONNECTIONS_PER_TASK_KEY =
+      "sqoop.export.connections.per.task";
+
+  /**
+   * Default number of connections per task.
+   */
+  public static final int DEFAULT_CONNECTIONS_PER_TASK = 1;
+
+  /** conf key: number of idle PreparedStatements kept for reuse for each
+   * distinct statement on a connection. If 0, every statement is closed
+   * after it runs.
+   */
+  public static final String STATEMENT_CACHE_SIZE_KEY =
+      "sqoop.export.statement.cache.size";
+
+  /**
+   * Default number of idle statements kept for reuse.
+   */
+  public static final int DEFAULT_STATEMENT_CACHE_SIZE = 2;
+
+  /** conf key: if true, the rows per statement and statements per
+   * transaction start at the configured values and are then adjusted by
+   * each task according to how long its statements and commits take.
+   */
+  public static final String ADAPTIVE_BATCHING_KEY =
+      "sqoop.export.adaptive.batching";
+
+  /** conf key: statement and commit latency, in milliseconds, above which
+   * adaptive batching shrinks them.
+   */
+  public static final String ADAPTIVE_TARGET_LATENCY_KEY =
+      "sqoop.export.adaptive.target.latency.ms";
+
+  /**
+   * Default target latency for adaptive batching.
+   */
+  public static final long DEFAULT_ADAPTIVE_TARGET_LATENCY = 1000;
+
+  /** conf key: lower bound on rows per statement with adaptive batching. */
+  public static final String MIN_RECORDS_PER_STATEMENT_KEY =
+      "sqoop.export.records.per.statement.min";
+
+  /** conf key: upper bound on rows per statement with adaptive batching.
+   * Defaults to DEFAULT_ADAPTIVE_GROWTH times the initial value, unless
+   * that is a single row.
+   */
+  public static final String MAX_RECORDS_PER_STATEMENT_KEY =
+      "sqoop.export.records.per.statement.max";
+
+  /** conf key: lower bound on statements per transaction with adaptive
+   * batching.
+   */
+  public static final String MIN_STATEMENTS_PER_TRANSACTION_KEY =
+      "sqoop.export.statements.per.transaction.min";
+
+  /** conf key: upper bound on statements per transaction with adaptive
+   * batching. Defaults to DEFAULT_ADAPTIVE_GROWTH times the initial value.
+   */
+  public static final String MAX_STATEMENTS_PER_TRANSACTION_KEY =
+      "sqoop.export.statements.per.transaction.max";
+
+  /**
+   * Factor by which adaptive batching may grow the initial values unless
+   * an upper bound is configured.
+   */
+  public static final int DEFAULT_ADAPTIVE_GROWTH = 10;
+
   /**
    * Default number of records to put in an INSERT statement or
    * other batched update statement.
@@ -116,6 +201,8 @@ public static class AsyncDBOperation {
     private final boolean isBatch;
     private final boolean commit;
     private final boolean stopThread;
+    private final PreparedStatementCache cache;
+    private int rowCount;
 
     @Deprecated
     /** Do not use AsyncDBOperation(PreparedStatement s, boolean
@@ -139,10 +226,49 @@ public AsyncDBOperation(PreparedStatement s, boolean commitAndClose,
      */
     public AsyncDBOperation(PreparedStatement s, boolean batch,
         boolean commit, boolean stopThread) {
+      this(s, batch, commit, stopThread, null);
+    }
+
+    /**
+     * Create an asynchronous database operation.
+     * @param s the statement, if any, to execute.
+     * @param batch is true if this is a batch PreparedStatement, or false
+     * if it's a normal singleton statement.
+     * @param commit is true if this statement should be committed to the
+     * database.
+     * @param stopThread if true, the executor thread should stop after this
+     * operation.
+     * @param cache the cache to return the statement to once it has run,
+     * or null to close it.
+     */
+    public AsyncDBOperation(PreparedStatement s, boolean batch,
+        boolean commit, boolean stopThread, PreparedStatementCache cache) {
       this.stmt = s;
       this.isBatch = batch;
       this.commit = commit;
       this.stopThread = stopThread;
+      this.cache = cache;
+    }
+
+    /**
+     * @return the cache the statement came from, if any.
+     */
+    public PreparedStatementCache getStatementCache() {
+      return this.cache;
+    }
+
+    /**
+     * @param rows the number of rows the statement holds.
+     */
+    public void setRowCount(int rows) {
+      this.rowCount = rows;
+    }
+
+    /**
+     * @return the number of rows the statement holds, or 0 if not known.
+     */
+    public int getRowCount() {
+      return this.rowCount;
     }
 
     /**
@@ -175,6 +301,143 @@ public boolean execAsBatch() {
     }
   }
 
+  /**
+   * A cache of the PreparedStatements used on one connection, keyed by
+   * their SQL. Since the INSERT and UPDATE statements of an export only
+   * depend on the number of rows in them, a task typically prepares one or
+   * two statements instead of one per batch.
+   *
+   * A statement is checked out by the RecordWriter, which binds its
+   * parameters, and returned by the exec thread once it has run, so a
+   * statement is never rebound while it executes.
+   */
+  public static class PreparedStatementCache {
+
+    // Number of distinct SQL strings with idle statements. When the row
+    // count of the statements varies, the least recently used are closed.
+    private static final int MAX_SQL_STRINGS = 8;
+
+    private final Connection conn;
+    private final int maxIdle;
+
+    // Idle statements, keyed by SQL, least recently used first.
+    private final LinkedHashMap<String, Deque<PreparedStatement>> idle =
+        new LinkedHashMap<String, Deque<PreparedStatement>>(16, 0.75f, true);
+
+    // The SQL of every open statement created by this cache.
+    private final Map<PreparedStatement, String> owned =
+        new IdentityHashMap<PreparedStatement, String>();
+
+    /**
+     * @param conn the connection to prepare statements on.
+     * @param maxIdle the number of idle statements to keep for each SQL
+     * string; further statements are closed when they are returned.
+     */
+    public PreparedStatementCache(Connection conn, int maxIdle) {
+      this.conn = conn;
+      this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Return an idle statement for sql, or prepare a new one.
+     */
+    public PreparedStatement acquire(String sql) throws SQLException {
+      synchronized (this) {
+        Deque<PreparedStatement> stmts = idle.get(sql);
+        if (null != stmts && !stmts.isEmpty()) {
+          return stmts.removeFirst();
+        }
+      }
+
+      PreparedStatement stmt;
+      // Synchronize on connection to ensure this does not conflict
+      // with the operations in the update thread.
+      synchronized (conn) {
+        stmt = conn.prepareStatement(sql);
+      }
+      synchronized (this) {
+        owned.put(stmt, sql);
+      }
+      return stmt;
+    }
+
+    /**
+     * Clear the parameters of a statement which has run and make it
+     * available to acquire() again.
+     * @return false if the statement did not come from this cache, or
+     * there are enough idle statements for its SQL already; the caller
+     * should close it.
+     */
+    public boolean release(PreparedStatement stmt) throws SQLException {
+      String sql;
+      synchronized (this) {
+        sql = owned.get(stmt);
+        if (null == sql) {
+          return false;
+        }
+        Deque<PreparedStatement> stmts = idle.get(sql);
+        if (null != stmts && stmts.size() >= maxIdle) {
+          owned.remove(stmt);
+          return false;
+        }
+      }
+
+      stmt.clearParameters();
+      stmt.clearBatch();
+
+      List<PreparedStatement> evicted = null;
+      synchronized (this) {
+        Deque<PreparedStatement> stmts = idle.get(sql);
+        if (null == stmts) {
+          if (idle.size() >= MAX_SQL_STRINGS) {
+            Iterator<Deque<PreparedStatement>> it = idle.values().iterator();
+            evicted = new ArrayList<PreparedStatement>(it.next());
+            it.remove();
+            for (PreparedStatement old : evicted) {
+              owned.remove(old);
+            }
+          }
+          stmts = new ArrayDeque<PreparedStatement>();
+          idle.put(sql, stmts);
+        }
+        stmts.addLast(stmt);
+      }
+
+      if (null != evicted) {
+        for (PreparedStatement old : evicted) {
+          try {
+            old.close();
+          } catch (SQLException sqlE) {
+            LOG.warn("Could not close cached statement: "
+                + StringUtils.stringifyException(sqlE));
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Close every statement created by this cache.
+     */
+    public synchronized void close() throws SQLException {
+      SQLException error = null;
+      for (PreparedStatement stmt : owned.keySet()) {
+        try {
+          stmt.close();
+        } catch (SQLException sqlE) {
+          if (null == error) {
+            error = sqlE;
+          }
+        }
+      }
+      owned.clear();
+      idle.clear();
+      if (null != error) {
+        throw error;
+      }
+    }
+  }
+
   /**
    * A thread that runs the database interactions asynchronously
    * from the OutputCollector.
@@ -185,11 +448,14 @@ public static class AsyncSqlExecThread extends Thread {
     private SQLException err; // Error from a previously-run statement.
 
     // How we receive database operations from the RecordWriter.
-    private SynchronousQueue<AsyncDBOperation> opsQueue;
+    private BlockingQueue<AsyncDBOperation> opsQueue;
 
     protected int curNumStatements; // statements executed thus far in the tx.
     protected final int stmtsPerTx;  // statements per transaction.
 
+    // Chooses statements per transaction instead of stmtsPerTx, if set.
+    private ExportBatchController batchController;
+
     /**
      * Create a new update thread that interacts with the database.
      * @param conn the connection to use. This must only be used by this
@@ -198,12 +464,39 @@ public static class AsyncSqlExecThread extends Thread {
      * the current transaction.
      */
     public AsyncSqlExecThread(Connection conn, int stmtsPerTx) {
+      this(conn, stmtsPerTx, 0);
+    }
+
+    /**
+     * Create a new update thread that interacts with the database.
+     * @param conn the connection to use. This must only be used by this
+     * thread.
+     * @param stmtsPerTx the number of statements to execute before committing
+     * the current transaction.
+     * @param queueCapacity the number of operations which may wait while
+     * another one runs. If 0, put() blocks until the thread takes the
+     * operation.
+     */
+    public AsyncSqlExecThread(Connection conn, int stmtsPerTx,
+        int queueCapacity) {
       this.conn = conn;
       this.err = null;
-      this.opsQueue = new SynchronousQueue<AsyncDBOperation>();
+      if (queueCapacity > 0) {
+        this.opsQueue = new ArrayBlockingQueue<AsyncDBOperation>(queueCapacity);
+      } else {
+        this.opsQueue = new SynchronousQueue<AsyncDBOperation>();
+      }
       this.stmtsPerTx = stmtsPerTx;
     }
 
+    /**
+     * Report the latency of each statement and commit to a controller,
+     * which also decides when to commit.
+     */
+    public void setBatchController(ExportBatchController controller) {
+      this.batchController = controller;
+    }
+
     public void run() {
       while (true) {
         AsyncDBOperation op = null;
@@ -227,21 +520,36 @@ public void run() {
         synchronized (conn) {
           try {
             if (null != stmt) {
+              long start = System.nanoTime();
               if (op.execAsBatch()) {
                 stmt.executeBatch();
               } else {
                 stmt.execute();
               }
-              stmt.close();
+              if (null != batchController) {
+                batchController.statementExecuted(op.getRowCount(),
+                    System.nanoTime() - start);
+              }
+              PreparedStatementCache cache = op.getStatementCache();
+              if (null == cache || !cache.release(stmt)) {
+                stmt.close();
+              }
               stmt = null;
               this.curNumStatements++;
             }
 
-            if (op.requiresCommit() || (curNumStatements >= stmtsPerTx
-                && stmtsPerTx != UNLIMITED_STATEMENTS_PER_TRANSACTION)) {
+            int limit = null != batchController
+                ? batchController.getStatementsPerTransaction() : stmtsPerTx;
+            if (op.requiresCommit() || (curNumStatements >= limit
+                && limit != UNLIMITED_STATEMENTS_PER_TRANSACTION)) {
               LOG.debug("Committing transaction of " + curNumStatements
                   + " statements");
+              long start = System.nanoTime();
               this.conn.commit();
+              if (null != batchController && curNumStatements > 0) {
+                batchController.committed(curNumStatements,
+                    System.nanoTime() - start);
+              }
               this.curNumStatements = 0;
             }
           } catch (BatchUpdateException batchE) {
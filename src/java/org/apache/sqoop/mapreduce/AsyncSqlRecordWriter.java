@@ -31,6 +31,7 @@
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.sqoop.util.LoggingUtils;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.lib.JdbcWritableBridge;
 import org.apache.sqoop.lib.SqoopRecord;
 
 /**
@@ -48,17 +49,33 @@
 
   private static final Log LOG = LogFactory.getLog(AsyncSqlRecordWriter.class);
 
+  // The connection used for the next statement.
   private Connection connection;
 
+  // All connections, each used by the exec thread at the same index.
+  private final List<Connection> connections;
+
+  // Statements kept for reuse on each connection, or nulls if disabled.
+  private final List<AsyncSqlOutputFormat.PreparedStatementCache>
+      statementCaches;
+  private AsyncSqlOutputFormat.PreparedStatementCache statementCache;
+
   private Configuration conf;
 
+  // Gives the LOB fields of buffered records the task configuration.
+  private final JdbcWritableBridge.LobConfSetter lobConfSetter;
+
   protected final int rowsPerStmt; // rows to insert per statement.
 
+  // Chooses the rows per statement instead of rowsPerStmt, if set.
+  private final ExportBatchController batchController;
+
   // Buffer for records to be put into export SQL statements.
   private List<SqoopRecord> records;
 
-  // Background thread to actually perform the updates.
-  private AsyncSqlOutputFormat.AsyncSqlExecThread execThread;
+  // Background threads to actually perform the updates.
+  private final List<AsyncSqlOutputFormat.AsyncSqlExecThread> execThreads;
+  private int nextExecThread;
   private boolean startedExecThread;
 
   private boolean closed;
@@ -66,6 +83,7 @@
   public AsyncSqlRecordWriter(TaskAttemptContext context)
       throws ClassNotFoundException, SQLException {
     this.conf = context.getConfiguration();
+    this.lobConfSetter = new JdbcWritableBridge.LobConfSetter(conf);
 
     this.rowsPerStmt = conf.getInt(
         AsyncSqlOutputFormat.RECORDS_PER_STATEMENT_KEY,
@@ -74,15 +92,52 @@ public AsyncSqlRecordWriter(TaskAttemptContext context)
         AsyncSqlOutputFormat.STATEMENTS_PER_TRANSACTION_KEY,
         AsyncSqlOutputFormat.DEFAULT_STATEMENTS_PER_TRANSACTION);
 
-    DBConfiguration dbConf = new DBConfiguration(conf);
-    this.connection = dbConf.getConnection();
-    this.connection.setAutoCommit(false);
+    int numConnections = Math.max(1, conf.getInt(
+        AsyncSqlOutputFormat.CONNECTIONS_PER_TASK_KEY,
+        AsyncSqlOutputFormat.DEFAULT_CONNECTIONS_PER_TASK));
+    int cacheSize = conf.getInt(
+        AsyncSqlOutputFormat.STATEMENT_CACHE_SIZE_KEY,
+        AsyncSqlOutputFormat.DEFAULT_STATEMENT_CACHE_SIZE);
+
+    if (conf.getBoolean(AsyncSqlOutputFormat.ADAPTIVE_BATCHING_KEY, false)) {
+      this.batchController = new ExportBatchController(conf, rowsPerStmt,
+          stmtsPerTx);
+    } else {
+      this.batchController = null;
+    }
 
     this.records = new ArrayList<SqoopRecord>(this.rowsPerStmt);
 
-    this.execThread = new AsyncSqlOutputFormat.AsyncSqlExecThread(
-        connection, stmtsPerTx);
-    this.execThread.setDaemon(true);
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    this.connections = new ArrayList<Connection>(numConnections);
+    this.statementCaches =
+        new ArrayList<AsyncSqlOutputFormat.PreparedStatementCache>(
+            numConnections);
+    this.execThreads =
+        new ArrayList<AsyncSqlOutputFormat.AsyncSqlExecThread>(numConnections);
+    for (int i = 0; i < numConnections; i++) {
+      Connection conn = dbConf.getConnection();
+      conn.setAutoCommit(false);
+      connections.add(conn);
+      statementCaches.add(cacheSize > 0
+          ? new AsyncSqlOutputFormat.PreparedStatementCache(conn, cacheSize)
+          : null);
+
+      // With several connections, let one statement wait for each thread
+      // so that the task is not held up by whichever one is busiest.
+      AsyncSqlOutputFormat.AsyncSqlExecThread execThread =
+          new AsyncSqlOutputFormat.AsyncSqlExecThread(conn, stmtsPerTx,
+              numConnections > 1 ? 1 : 0);
+      execThread.setDaemon(true);
+      execThread.setBatchController(batchController);
+      execThreads.add(execThread);
+    }
+    if (numConnections > 1) {
+      LOG.info("Exporting over " + numConnections + " connections");
+    }
+    this.connection = connections.get(0);
+    this.statementCache = statementCaches.get(0);
+    this.nextExecThread = 0;
     this.startedExecThread = false;
 
     this.closed = false;
@@ -92,12 +147,46 @@ public AsyncSqlRecordWriter(TaskAttemptContext context)
    * Allow subclasses access to the Connection instance we hold.
    * This Connection is shared with the asynchronous SQL exec thread.
    * Any uses of the Connection must be synchronized on it.
+   * When the task uses several connections, this is the connection the
+   * statement being prepared will run on.
    * @return the Connection object used for this SQL transaction.
    */
   protected final Connection getConnection() {
     return this.connection;
   }
 
+  /**
+   * Prepare a statement on the connection returned by getConnection().
+   * Statements with the same SQL are reused once the exec thread has run
+   * them, with their parameters cleared, unless
+   * AsyncSqlOutputFormat.STATEMENT_CACHE_SIZE_KEY is 0.
+   * @param sql the SQL to prepare.
+   * @return a statement with no parameters set.
+   */
+  protected final PreparedStatement prepareStatement(String sql)
+      throws SQLException {
+    if (null != statementCache) {
+      return statementCache.acquire(sql);
+    }
+
+    // Synchronize on connection to ensure this does not conflict
+    // with the operations in the update thread.
+    Connection conn = getConnection();
+    synchronized (conn) {
+      return conn.prepareStatement(sql);
+    }
+  }
+
+  /**
+   * @return the number of rows to buffer before building a statement.
+   */
+  protected final int getRecordsPerStatement() {
+    if (null != batchController) {
+      return batchController.getRecordsPerStatement();
+    }
+    return this.rowsPerStmt;
+  }
+
   /**
    * Allow subclasses access to the Configuration.
    * @return the Configuration for this MapReduc task.
@@ -141,15 +230,20 @@ protected abstract PreparedStatement getPreparedStatement(
   private void execUpdate(boolean commit, boolean stopThread)
       throws InterruptedException, SQLException {
 
-    if (!startedExecThread) {
-      this.execThread.start();
-      this.startedExecThread = true;
-    }
+    startExecThreads();
+
+    // Hand statements to the connections in turn.
+    AsyncSqlOutputFormat.AsyncSqlExecThread execThread =
+        execThreads.get(nextExecThread);
+    this.connection = connections.get(nextExecThread);
+    this.statementCache = statementCaches.get(nextExecThread);
+    nextExecThread = (nextExecThread + 1) % execThreads.size();
 
     PreparedStatement stmt = null;
     boolean successfulPut = false;
     try {
-      if (records.size() > 0) {
+      int numRows = records.size();
+      if (numRows > 0) {
         stmt = getPreparedStatement(records);
         this.records.clear();
       }
@@ -158,7 +252,8 @@ private void execUpdate(boolean commit, boolean stopThread)
       // the update thread is already performing an update.
       AsyncSqlOutputFormat.AsyncDBOperation op =
           new AsyncSqlOutputFormat.AsyncDBOperation(stmt, isBatchExec(),
-                  commit, stopThread);
+                  commit, stopThread, statementCache);
+      op.setRowCount(numRows);
       execThread.put(op);
       successfulPut = true; // op has been posted to the other thread.
     } finally {
@@ -169,13 +264,89 @@ private void execUpdate(boolean commit, boolean stopThread)
     }
 
     // Check for any previous SQLException. If one happened, rethrow it here.
-    SQLException lastException = execThread.getLastError();
+    SQLException lastException = getLastError();
     if (null != lastException) {
       LoggingUtils.logAll(LOG, lastException);
       throw lastException;
     }
   }
 
+  private void startExecThreads() {
+    if (!startedExecThread) {
+      for (AsyncSqlOutputFormat.AsyncSqlExecThread execThread : execThreads) {
+        execThread.start();
+      }
+      this.startedExecThread = true;
+    }
+  }
+
+  /**
+   * @return the first error posted by any exec thread, clearing the error
+   * slots of all of them.
+   */
+  private SQLException getLastError() {
+    SQLException first = null;
+    for (AsyncSqlOutputFormat.AsyncSqlExecThread execThread : execThreads) {
+      SQLException e = execThread.getLastError();
+      if (null == first) {
+        first = e;
+      } else if (null != e) {
+        LoggingUtils.logAll(LOG, "Discarding further export error", e);
+      }
+    }
+    return first;
+  }
+
+  /**
+   * Close a writer with several connections. The exec threads are stopped
+   * first; then, if none of them failed, the connections commit their final
+   * transactions one after another. If any failed, all of them roll back.
+   */
+  private void closeParallel() throws IOException, InterruptedException {
+    SQLException error = null;
+    try {
+      if (records.size() > 0) {
+        execUpdate(false, false);
+      }
+    } catch (SQLException sqle) {
+      error = sqle;
+    }
+
+    startExecThreads();
+    for (AsyncSqlOutputFormat.AsyncSqlExecThread execThread : execThreads) {
+      execThread.put(new AsyncSqlOutputFormat.AsyncDBOperation(null, false,
+          false, true));
+    }
+    for (AsyncSqlOutputFormat.AsyncSqlExecThread execThread : execThreads) {
+      execThread.join();
+    }
+
+    SQLException lastErr = getLastError();
+    if (null == error) {
+      error = lastErr;
+    }
+
+    try {
+      for (Connection conn : connections) {
+        if (null == error) {
+          conn.commit();
+        } else {
+          conn.rollback();
+        }
+      }
+    } catch (SQLException sqle) {
+      if (null == error) {
+        error = sqle;
+      } else {
+        LoggingUtils.logAll(LOG, "Failed to roll back", sqle);
+      }
+    }
+
+    if (null != error) {
+      throw new IOException(error);
+    }
+  }
+
   @Override
   /** {@inheritDoc} */
   public void close(TaskAttemptContext context)
@@ -190,6 +361,12 @@ public void close(TaskAttemptContext context)
 	closed = true;
 
     try {
+      if (execThreads.size() > 1) {
+        closeParallel();
+        return;
+      }
+
+      AsyncSqlOutputFormat.AsyncSqlExecThread execThread = execThreads.get(0);
       try {
         execUpdate(true, true);
         execThread.join();
@@ -205,6 +382,9 @@ public void close(TaskAttemptContext context)
         throw new IOException(lastErr);
       }
     } finally {
+      if (null != batchController) {
+        batchController.report(context);
+      }
       try {
         closeConnection(context);
       } catch (SQLException sqle) {
@@ -215,7 +395,28 @@ public void close(TaskAttemptContext context)
 
   public void closeConnection(TaskAttemptContext context)
       throws SQLException {
-    this.connection.close();
+    SQLException error = null;
+    for (AsyncSqlOutputFormat.PreparedStatementCache cache : statementCaches) {
+      try {
+        if (null != cache) {
+          cache.close();
+        }
+      } catch (SQLException sqle) {
+        LoggingUtils.logAll(LOG, "Failed to close cached statements", sqle);
+      }
+    }
+    for (Connection conn : connections) {
+      try {
+        conn.close();
+      } catch (SQLException sqle) {
+        if (null == error) {
+          error = sqle;
+        }
+      }
+    }
+    if (null != error) {
+      throw error;
+    }
   }
 
   @Override
@@ -223,8 +424,10 @@ public void closeConnection(TaskAttemptContext context)
   public void write(K key, V value)
       throws InterruptedException, IOException {
     try {
-      records.add((SqoopRecord) key.clone());
-      if (records.size() >= this.rowsPerStmt) {
+      SqoopRecord record = (SqoopRecord) key.clone();
+      lobConfSetter.apply(record);
+      records.add(record);
+      if (records.size() >= getRecordsPerStatement()) {
         execUpdate(false, false);
       }
     } catch (CloneNotSupportedException cnse) {
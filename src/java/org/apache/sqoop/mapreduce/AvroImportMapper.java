@@ -18,45 +18,35 @@
 
 package org.apache.sqoop.mapreduce;
 
-import org.apache.sqoop.config.ConfigurationConstants;
 import org.apache.sqoop.lib.LargeObjectLoader;
 import org.apache.sqoop.lib.SqoopRecord;
-import org.apache.avro.Schema;
-import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.mapred.AvroWrapper;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
-import org.apache.sqoop.avro.AvroUtil;
 
 import java.io.IOException;
 import java.sql.SQLException;
 
 /**
- * Imports records by transforming them to Avro records in an Avro data file.
+ * Imports records into an Avro data file. The records are passed to
+ * AvroOutputFormat as they are, and encoded with the map output schema by
+ * {@link SqoopRecordDatumWriter}.
  */
 public class AvroImportMapper
     extends AutoProgressMapper<LongWritable, SqoopRecord,
-    AvroWrapper<GenericRecord>, NullWritable> {
+    AvroWrapper<SqoopRecord>, NullWritable> {
 
-  private final AvroWrapper<GenericRecord> wrapper =
-    new AvroWrapper<GenericRecord>();
-  private Schema schema;
+  private final AvroWrapper<SqoopRecord> wrapper =
+    new AvroWrapper<SqoopRecord>();
   private LargeObjectLoader lobLoader;
-  private boolean bigDecimalFormatString;
-  private boolean bigDecimalPadding;
 
   @Override
   protected void setup(Context context)
       throws IOException, InterruptedException {
     Configuration conf = context.getConfiguration();
-    schema = AvroJob.getMapOutputSchema(conf);
     lobLoader = new LargeObjectLoader(conf, FileOutputFormat.getWorkOutputPath(context));
-    bigDecimalFormatString = conf.getBoolean(
-        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
-        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
-    bigDecimalPadding = conf.getBoolean(ConfigurationConstants.PROP_ENABLE_AVRO_DECIMAL_PADDING, false);
   }
 
   @Override
@@ -70,8 +60,7 @@ protected void map(LongWritable key, SqoopRecord val, Context context)
       throw new IOException(sqlE);
     }
 
-    GenericRecord outKey = AvroUtil.toGenericRecord(val.getFieldMap(), schema, bigDecimalFormatString, bigDecimalPadding);
-    wrapper.datum(outKey);
+    wrapper.datum(val);
     context.write(wrapper, NullWritable.get());
   }
 
@@ -29,12 +29,13 @@
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.mapred.AvroWrapper;
 import org.apache.avro.reflect.ReflectData;
-import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.config.ConfigurationConstants;
 
 import static org.apache.avro.file.CodecFactory.DEFAULT_DEFLATE_LEVEL;
 import static org.apache.avro.file.DataFileConstants.DEFAULT_SYNC_INTERVAL;
@@ -96,8 +97,15 @@ public RecordWriter<AvroWrapper<T>, NullWritable> getRecordWriter(
     // Add decimal support
     ReflectData.get().addLogicalTypeConversion(new Conversions.DecimalConversion());
 
-    final DataFileWriter<T> WRITER =
-      new DataFileWriter<T>(new ReflectDatumWriter<T>());
+    // SqoopRecords written by imports are encoded directly.
+    Configuration conf = context.getConfiguration();
+    boolean bigDecimalFormatString = conf.getBoolean(
+      ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
+      ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
+    boolean bigDecimalPadding = conf.getBoolean(
+      ConfigurationConstants.PROP_ENABLE_AVRO_DECIMAL_PADDING, false);
+    final DataFileWriter<T> WRITER = new DataFileWriter<T>(
+      new SqoopRecordDatumWriter<T>(bigDecimalFormatString, bigDecimalPadding));
 
     configureDataFileWriter(WRITER, context);
 
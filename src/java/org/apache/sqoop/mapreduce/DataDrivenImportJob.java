@@ -21,11 +21,15 @@
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 import org.apache.avro.Schema;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
@@ -39,15 +43,18 @@
 import org.apache.sqoop.mapreduce.hcat.SqoopHCatUtilities;
 
 import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.config.ConfigurationConstants;
 import org.apache.sqoop.config.ConfigurationHelper;
 import org.apache.sqoop.lib.LargeObjectLoader;
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.manager.ImportJobContext;
 import org.apache.sqoop.mapreduce.ImportJobBase;
+import org.apache.sqoop.mapreduce.db.ChunkCoordinator;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
 import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
 import org.apache.sqoop.mapreduce.parquet.ParquetImportJobConfigurator;
 import org.apache.sqoop.orm.AvroSchemaGenerator;
+import org.apache.sqoop.util.ImportException;
 
 /**
  * Actually runs a jdbc import job using the ORM files generated by the
@@ -266,6 +273,9 @@ protected void configureInputFormat(Job job, String tableName,
           DataDrivenDBInputFormat.setBoundingQuery(job.getConfiguration(),
                   options.getBoundaryQuery());
         }
+
+        configureKeysetColumns(job, mgr, tableName, splitByCol);
+        configureSamplingQuery(job, mgr, tableName, splitByCol);
       } else {
         // Import a free-form query.
         String inputQuery = options.getSqlQuery();
@@ -300,6 +310,8 @@ protected void configureInputFormat(Job job, String tableName,
           job.getConfiguration(), options.getSplitLimit());
       }
 
+      configureWorkStealing(job);
+
       LOG.debug("Using InputFormat: " + inputFormatClass);
       job.setInputFormatClass(inputFormatClass);
     } finally {
@@ -310,5 +322,95 @@ protected void configureInputFormat(Job job, String tableName,
       }
     }
   }
+
+  /**
+   * Paged reads resume after the key of the last row read, so the key has
+   * to be unique. Order them by the split column followed by the columns
+   * of the primary key; without a primary key, paging is not used.
+   */
+  private void configureKeysetColumns(Job job, ConnManager mgr,
+      String tableName, String splitByCol) {
+    Configuration conf = job.getConfiguration();
+    if (conf.getInt(ConfigurationConstants.PROP_IMPORT_KEYSET_PAGE_SIZE, 0)
+        <= 0 || null == splitByCol) {
+      return;
+    }
+
+    String [] pkCols = mgr.getPrimaryKeyColumns(tableName);
+    if (null == pkCols) {
+      LOG.warn("Table " + tableName + " has no primary key to order paged "
+          + "reads by; reading each split with a single query");
+      return;
+    }
+
+    List<String> keyCols = new ArrayList<String>();
+    keyCols.add(mgr.escapeColName(splitByCol));
+    for (String pkCol : pkCols) {
+      if (!pkCol.equalsIgnoreCase(splitByCol)) {
+        keyCols.add(mgr.escapeColName(pkCol));
+      }
+    }
+    conf.setStrings(ConfigurationConstants.PROP_IMPORT_KEYSET_COLUMNS,
+        keyCols.toArray(new String[keyCols.size()]));
+  }
+
+  /**
+   * If splits are planned from a sample of the split column and no
+   * sampling query was given, ask the connection manager for one which
+   * samples the table without scanning it.
+   */
+  private void configureSamplingQuery(Job job, ConnManager mgr,
+      String tableName, String splitByCol) {
+    Configuration conf = job.getConfiguration();
+    if (!conf.getBoolean(ConfigurationConstants.PROP_SPLIT_SAMPLING_ENABLE,
+        false) || null == splitByCol
+        || null != conf.get(ConfigurationConstants.PROP_SPLIT_SAMPLING_QUERY)) {
+      return;
+    }
+
+    int sampleSize = conf.getInt(
+        ConfigurationConstants.PROP_SPLIT_SAMPLING_SIZE,
+        DataDrivenDBInputFormat.DEFAULT_SPLIT_SAMPLING_SIZE);
+    String query = mgr.getSamplingQuery(tableName, new String[] { splitByCol },
+        options.getWhereClause(), Math.max(sampleSize, 1));
+    if (null == query) {
+      LOG.warn("The connection manager cannot sample " + tableName + "; set "
+          + ConfigurationConstants.PROP_SPLIT_SAMPLING_QUERY
+          + " to plan splits from a sample");
+      return;
+    }
+    conf.set(ConfigurationConstants.PROP_SPLIT_SAMPLING_QUERY, query);
+  }
+
+  /**
+   * If the import is divided into chunks claimed at run time, pick the
+   * directory used to coordinate the claims. A task attempt which is killed
+   * must not have claimed chunks on behalf of a sibling attempt, so
+   * speculative execution is disabled.
+   */
+  private void configureWorkStealing(Job job) {
+    Configuration conf = job.getConfiguration();
+    if (conf.getInt(ConfigurationConstants.PROP_IMPORT_CHUNKS, 0) <= 0) {
+      return;
+    }
+
+    if (null == conf.get(ConfigurationConstants.PROP_IMPORT_CHUNKS_DIR)) {
+      String uuid = UUID.randomUUID().toString().replace("-", "");
+      conf.set(ConfigurationConstants.PROP_IMPORT_CHUNKS_DIR,
+          options.getTempRootDir() + Path.SEPARATOR + uuid + "_chunks");
+    }
+    ConfigurationHelper.setJobMapSpeculativeExecution(job, false);
+  }
+
+  @Override
+  protected void jobTeardown(Job job) throws IOException, ImportException {
+    super.jobTeardown(job);
+    Configuration conf = job.getConfiguration();
+    String chunkDir = conf.get(ConfigurationConstants.PROP_IMPORT_CHUNKS_DIR);
+    if (conf.getInt(ConfigurationConstants.PROP_IMPORT_CHUNKS, 0) > 0
+        && null != chunkDir) {
+      new ChunkCoordinator(conf, new Path(chunkDir)).cleanup();
+    }
+  }
 }
 
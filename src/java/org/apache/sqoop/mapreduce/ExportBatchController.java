@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * Chooses the number of rows per statement and statements per transaction
+ * of an export from the latency of the statements and commits already run.
+ *
+ * Both values grow additively while the operations complete within the
+ * target latency, and are halved when one takes longer. The rows per
+ * statement are also halved when a statement's throughput falls below half
+ * the recent average, since a database which has started to struggle often
+ * shows it in rows/sec before individual statements get slow.
+ *
+ * The exec threads report each statement and commit; the RecordWriter
+ * reads the current values when it builds the next statement.
+ */
+public class ExportBatchController {
+
+  private static final Log LOG =
+      LogFactory.getLog(ExportBatchController.class);
+
+  /**
+   * Counters recording the choices of a task. The sizes a task finished
+   * with are only logged, since job counters are summed over the tasks.
+   */
+  public enum Counter {
+    /** Statements executed. */
+    STATEMENTS,
+    /** Transactions committed. */
+    TRANSACTIONS,
+    /** Times a value was halved. */
+    DECREASES,
+  }
+
+  // Weight of the latest statement in the average throughput.
+  private static final double RATE_WEIGHT = 0.2;
+
+  // A statement slower than this fraction of the average rate shrinks the
+  // statements.
+  private static final double SLOW_RATE_FRACTION = 0.5;
+
+  private final int minRecords;
+  private final int maxRecords;
+  private final int recordsIncrement;
+  private final int minStatements;
+  private final int maxStatements;
+  private final long targetNanos;
+
+  // False if every transaction lasts the whole task.
+  private final boolean adaptTransactions;
+
+  private int recordsPerStatement;
+  private int statementsPerTransaction;
+
+  private double avgRate = 0;
+
+  private long statements = 0;
+  private long transactions = 0;
+  private long decreases = 0;
+
+  /**
+   * @param recordsPerStatement the initial rows per statement.
+   * @param statementsPerTransaction the initial statements per
+   * transaction, or UNLIMITED_STATEMENTS_PER_TRANSACTION.
+   */
+  public ExportBatchController(Configuration conf, int recordsPerStatement,
+      int statementsPerTransaction) {
+    this.minRecords = Math.max(1, conf.getInt(
+        AsyncSqlOutputFormat.MIN_RECORDS_PER_STATEMENT_KEY, 1));
+    // A single row per statement is usually configured for databases
+    // without multi-row INSERTs, so it is only grown if asked to.
+    int defaultMaxRecords = recordsPerStatement > 1
+        ? recordsPerStatement * AsyncSqlOutputFormat.DEFAULT_ADAPTIVE_GROWTH
+        : recordsPerStatement;
+    this.maxRecords = Math.max(minRecords, conf.getInt(
+        AsyncSqlOutputFormat.MAX_RECORDS_PER_STATEMENT_KEY,
+        defaultMaxRecords));
+    this.minStatements = Math.max(1, conf.getInt(
+        AsyncSqlOutputFormat.MIN_STATEMENTS_PER_TRANSACTION_KEY, 1));
+    this.maxStatements = Math.max(minStatements, conf.getInt(
+        AsyncSqlOutputFormat.MAX_STATEMENTS_PER_TRANSACTION_KEY,
+        statementsPerTransaction
+        * AsyncSqlOutputFormat.DEFAULT_ADAPTIVE_GROWTH));
+    this.targetNanos = 1000000L * conf.getLong(
+        AsyncSqlOutputFormat.ADAPTIVE_TARGET_LATENCY_KEY,
+        AsyncSqlOutputFormat.DEFAULT_ADAPTIVE_TARGET_LATENCY);
+
+    this.recordsPerStatement = clamp(recordsPerStatement, minRecords,
+        maxRecords);
+    this.recordsIncrement = Math.max(1, this.recordsPerStatement / 10);
+
+    this.adaptTransactions = statementsPerTransaction
+        != AsyncSqlOutputFormat.UNLIMITED_STATEMENTS_PER_TRANSACTION;
+    this.statementsPerTransaction = adaptTransactions
+        ? clamp(statementsPerTransaction, minStatements, maxStatements)
+        : statementsPerTransaction;
+
+    LOG.info("Adapting rows per statement between " + minRecords + " and "
+        + maxRecords + (adaptTransactions ? ", statements per transaction "
+        + "between " + minStatements + " and " + maxStatements : "")
+        + " for a latency of " + (targetNanos / 1000000L) + " ms");
+  }
+
+  private static int clamp(int value, int min, int max) {
+    return Math.min(max, Math.max(min, value));
+  }
+
+  /**
+   * @return the number of rows to put in the next statement.
+   */
+  public synchronized int getRecordsPerStatement() {
+    return recordsPerStatement;
+  }
+
+  /**
+   * @return the number of statements after which to commit.
+   */
+  public synchronized int getStatementsPerTransaction() {
+    return statementsPerTransaction;
+  }
+
+  /**
+   * Record a statement executed by an exec thread.
+   * @param rows the number of rows in the statement.
+   * @param nanos the time taken to execute it.
+   */
+  public synchronized void statementExecuted(int rows, long nanos) {
+    statements++;
+    if (rows <= 0) {
+      return;
+    }
+
+    double rate = rows * 1e9 / Math.max(1, nanos);
+    if (nanos > targetNanos
+        || (avgRate > 0 && rate < avgRate * SLOW_RATE_FRACTION)) {
+      if (recordsPerStatement > minRecords) {
+        recordsPerStatement = Math.max(minRecords, recordsPerStatement / 2);
+        decreases++;
+        LOG.debug("Reduced rows per statement to " + recordsPerStatement);
+      }
+    } else if (rows >= recordsPerStatement) {
+      // Only a full statement shows whether a larger one would be fast.
+      recordsPerStatement = Math.min(maxRecords,
+          recordsPerStatement + recordsIncrement);
+    }
+    avgRate = avgRate == 0 ? rate
+        : avgRate * (1 - RATE_WEIGHT) + rate * RATE_WEIGHT;
+  }
+
+  /**
+   * Record a commit by an exec thread.
+   * @param numStatements the number of statements in the transaction.
+   * @param nanos the time taken to commit it.
+   */
+  public synchronized void committed(int numStatements, long nanos) {
+    transactions++;
+    if (!adaptTransactions) {
+      return;
+    }
+
+    if (nanos > targetNanos) {
+      if (statementsPerTransaction > minStatements) {
+        statementsPerTransaction = Math.max(minStatements,
+            statementsPerTransaction / 2);
+        decreases++;
+        LOG.debug("Reduced statements per transaction to "
+            + statementsPerTransaction);
+      }
+    } else if (numStatements >= statementsPerTransaction) {
+      statementsPerTransaction = Math.min(maxStatements,
+          statementsPerTransaction + 1);
+    }
+  }
+
+  /**
+   * Log the sizes this task finished with and add its choices to its
+   * counters.
+   */
+  public synchronized void report(TaskAttemptContext context) {
+    LOG.info("Task " + context.getTaskAttemptID() + " finished with "
+        + recordsPerStatement + " rows per statement and "
+        + statementsPerTransaction + " statements per transaction");
+    context.getCounter(Counter.STATEMENTS).increment(statements);
+    context.getCounter(Counter.TRANSACTIONS).increment(transactions);
+    context.getCounter(Counter.DECREASES).increment(decreases);
+  }
+}
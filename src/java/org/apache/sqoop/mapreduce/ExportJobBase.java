@@ -20,6 +20,7 @@
 
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.config.ConfigurationHelper;
+import org.apache.sqoop.lib.JdbcWritableBridge;
 import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.manager.ExportJobContext;
@@ -240,7 +241,17 @@ protected void configureInputFormat(Job job, String tableName,
 
     super.configureInputFormat(job, tableName, tableClassName, splitByCol);
     if (!isHCatJob) {
-      FileInputFormat.addInputPath(job, getInputPath());
+      Path inputPath = getInputPath();
+      FileInputFormat.addInputPath(job, inputPath);
+
+      // External LOBs are stored relative to the directory of the data.
+      Path lobDir = inputPath;
+      FileSystem fs = inputPath.getFileSystem(job.getConfiguration());
+      if (fs.isFile(inputPath)) {
+        lobDir = inputPath.getParent();
+      }
+      job.getConfiguration().set(JdbcWritableBridge.EXTERNAL_LOB_DIR_KEY,
+          lobDir.toString());
     }
   }
 
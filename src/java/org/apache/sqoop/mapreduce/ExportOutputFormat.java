@@ -19,7 +19,6 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Arrays;
@@ -131,14 +130,8 @@ protected final int getColumnCount() {
     protected PreparedStatement getPreparedStatement(
         List<SqoopRecord> userRecords) throws SQLException {
 
-      PreparedStatement stmt = null;
-
-      // Synchronize on connection to ensure this does not conflict
-      // with the operations in the update thread.
-      Connection conn = getConnection();
-      synchronized (conn) {
-        stmt = conn.prepareStatement(getInsertStatement(userRecords.size()));
-      }
+      PreparedStatement stmt =
+          prepareStatement(getInsertStatement(userRecords.size()));
 
       // Inject the record parameters into the VALUES clauses.
       int position = 0;
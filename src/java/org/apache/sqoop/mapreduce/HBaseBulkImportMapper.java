@@ -21,7 +21,6 @@
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -77,9 +76,7 @@ public void map(LongWritable key, SqoopRecord val, Context context)
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
-    Map<String, Object> fields = val.getFieldMap();
-
-    List<Mutation> mutationList = putTransformer.getMutationCommand(fields);
+    List<Mutation> mutationList = putTransformer.getMutationCommand(val);
     for(Mutation mutation: mutationList){
       if(mutation != null && mutation instanceof Put) {
         Put putObject = (Put) mutation;
@@ -20,6 +20,12 @@
 
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,12 +46,19 @@
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.config.ConfigurationConstants;
+import org.apache.sqoop.config.ConfigurationHelper;
 import org.apache.sqoop.hbase.HBasePutProcessor;
+import org.apache.sqoop.hbase.PutTransformer;
+import org.apache.sqoop.hbase.RowKeySampler;
+import org.apache.sqoop.hbase.ToStringPutTransformer;
 import org.apache.sqoop.lib.FieldMapProcessor;
 import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.manager.ImportJobContext;
+import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
 import org.apache.sqoop.util.ImportException;
 
 /**
@@ -57,6 +70,24 @@ public class HBaseImportJob extends DataDrivenImportJob {
   public static final Log LOG = LogFactory.getLog(
       HBaseImportJob.class.getName());
 
+  /**
+   * Configuration key specifying the number of regions of a table created
+   * by the import from sampled row keys. When this is not set, the table
+   * gets one region per map task. Setting it to 1 disables sampling the
+   * row keys.
+   */
+  public static final String CREATE_TABLE_REGIONS_KEY =
+      "sqoop.hbase.create.table.regions";
+
+  /**
+   * Configuration key specifying a query whose columns return the row-key
+   * column values to sample when creating a table, in row-key order. When
+   * this is not set, a table import is sampled with the query from
+   * ConnManager.getSamplingQuery(), where the database supports one.
+   */
+  public static final String CREATE_TABLE_SAMPLING_QUERY_KEY =
+      "sqoop.hbase.create.table.sampling.query";
+
   public HBaseImportJob(final SqoopOptions opts,
       final ImportJobContext importContext) {
     super(opts, importContext.getInputFormat(), importContext);
@@ -123,6 +154,133 @@ protected void configureOutputFormat(Job job, String tableName,
     conf.set(HBasePutProcessor.ROW_KEY_COLUMN_KEY, rowKeyCol);
   }
 
+  /**
+   * Sample the row keys of the input to choose the split points of a new
+   * table.
+   * @return the split points, or null if the table should have a single
+   * region.
+   */
+  protected byte [][] getRegionSplitKeys(Configuration conf)
+      throws IOException {
+    int numRegions = conf.getInt(CREATE_TABLE_REGIONS_KEY, 0);
+    if (numRegions <= 0) {
+      numRegions = ConfigurationHelper.getConfNumMaps(conf);
+    }
+    String rowKeyCol = conf.get(HBasePutProcessor.ROW_KEY_COLUMN_KEY);
+    if (numRegions <= 1 || null == rowKeyCol) {
+      return null;
+    }
+
+    String [] keyCols =
+        rowKeyCol.split(ToStringPutTransformer.DELIMITER_COMMAND_LINE);
+    int sampleSize = Math.max(1, conf.getInt(
+        ConfigurationConstants.PROP_SPLIT_SAMPLING_SIZE,
+        DataDrivenDBInputFormat.DEFAULT_SPLIT_SAMPLING_SIZE));
+    String query = getRowKeySamplingQuery(conf, keyCols, sampleSize);
+    if (null == query) {
+      LOG.info("No row key sampling query is available; set "
+          + CREATE_TABLE_SAMPLING_QUERY_KEY + " to pre-split the table. "
+          + "Creating a single region");
+      return null;
+    }
+
+    // Build the row keys as the mappers will.
+    Class<? extends PutTransformer> xformerClass =
+        conf.getClass(HBasePutProcessor.TRANSFORMER_CLASS_KEY,
+        ToStringPutTransformer.class, PutTransformer.class);
+    PutTransformer transformer = ReflectionUtils.newInstance(xformerClass,
+        conf);
+    transformer.init(conf);
+    RowKeySampler sampler = new RowKeySampler(transformer,
+        getRowKeyJavaTypes(keyCols));
+
+    LOG.info("Sampling row keys: " + query);
+    List<byte []> sample;
+    Statement statement = null;
+    ResultSet results = null;
+    try {
+      statement = getContext().getConnManager().getConnection()
+          .createStatement();
+      Integer fetchSize = options.getFetchSize();
+      if (null != fetchSize) {
+        statement.setFetchSize(fetchSize);
+      }
+      results = statement.executeQuery(query);
+      sample = sampler.sample(results, sampleSize);
+    } catch (SQLException sqlE) {
+      LOG.warn("Could not sample row keys; the table will have a single "
+          + "region: " + sqlE.toString());
+      return null;
+    } finally {
+      try {
+        if (null != results) {
+          results.close();
+        }
+        if (null != statement) {
+          statement.close();
+        }
+      } catch (SQLException sqlE) {
+        LOG.debug("SQLException closing sampling statement: "
+            + sqlE.toString());
+      }
+    }
+
+    return RowKeySampler.getSplitKeys(sample, numRegions);
+  }
+
+  /**
+   * @return a query whose columns return the values of the row-key columns
+   * to sample, or null if there is none. Reading every row key would scan
+   * the source once more before the import itself, so there is no generic
+   * default: the query is the one set with
+   * sqoop.hbase.create.table.sampling.query or, for a table import, the
+   * one the connection manager builds to read only part of the table, as
+   * split sampling does.
+   */
+  protected String getRowKeySamplingQuery(Configuration conf,
+      String [] keyCols, int sampleSize) {
+    String query = conf.get(CREATE_TABLE_SAMPLING_QUERY_KEY);
+    if (null == query && null != options.getTableName()) {
+      query = getContext().getConnManager().getSamplingQuery(
+          options.getTableName(), keyCols, options.getWhereClause(),
+          sampleSize);
+    }
+    return query;
+  }
+
+  /**
+   * @return the Java types of the generated record's fields for the
+   * row-key columns, resolved as ClassWriter resolves them; an element is
+   * null if the type of the column is unknown.
+   */
+  protected String [] getRowKeyJavaTypes(String [] keyCols)
+      throws IOException {
+    ConnManager manager = getContext().getConnManager();
+    String tableName = options.getTableName();
+    Map<String, Integer> columnTypes = manager.getColumnTypes(tableName,
+        options.getSqlQuery());
+    Properties typeOverrides = options.getColumnNames();
+
+    String [] keyTypes = new String[keyCols.length];
+    for (int i = 0; i < keyCols.length; i++) {
+      if (null != typeOverrides && typeOverrides.containsKey(keyCols[i])) {
+        keyTypes[i] = typeOverrides.getProperty(keyCols[i]);
+        continue;
+      }
+      if (null == columnTypes) {
+        continue;
+      }
+      for (Map.Entry<String, Integer> entry : columnTypes.entrySet()) {
+        if (entry.getKey().equalsIgnoreCase(keyCols[i])) {
+          keyTypes[i] = manager.toJavaType(tableName, entry.getKey(),
+              entry.getValue());
+          break;
+        }
+      }
+    }
+    return keyTypes;
+  }
+
   protected boolean skipDelegationTokens(Configuration conf) {
     return conf.getBoolean("sqoop.hbase.security.token.skip", false);
   }
@@ -186,7 +344,14 @@ protected void jobSetup(Job job) throws IOException, ImportException {
         LOG.info("Creating missing HBase table " + tableName);
         tableDesc =  new HTableDescriptor(TableName.valueOf(tableName));
         tableDesc.addFamily(colDesc);
-        admin.createTable(tableDesc);
+        byte [][] splitKeys = getRegionSplitKeys(conf);
+        if (null == splitKeys || splitKeys.length == 0) {
+          admin.createTable(tableDesc);
+        } else {
+          LOG.info("Pre-splitting " + tableName + " into "
+              + (splitKeys.length + 1) + " regions");
+          admin.createTable(tableDesc, splitKeys);
+        }
       } else {
         LOG.warn("Could not find HBase table " + tableName);
         LOG.warn("This job may fail. Either explicitly create the table,");
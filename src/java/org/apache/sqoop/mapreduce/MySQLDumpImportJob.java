@@ -23,6 +23,7 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.manager.ConnManager;
@@ -123,7 +124,7 @@ protected void configureInputFormat(Job job, String tableName,
   protected void configureMapper(Job job, String tableName,
       String tableClassName) throws ClassNotFoundException, IOException {
     job.setMapperClass(getMapperClass());
-    job.setOutputKeyClass(String.class);
+    job.setOutputKeyClass(Text.class);
     job.setOutputValueClass(NullWritable.class);
   }
 
@@ -18,26 +18,23 @@
 
 package org.apache.sqoop.mapreduce;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.CharBuffer;
 import java.util.ArrayList;
-import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.sqoop.util.AsyncSink;
 import org.apache.sqoop.util.JdbcUrl;
 import org.apache.sqoop.util.PerfCounters;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.mysql.MySQLDumpDecoder;
+import org.apache.sqoop.lib.ByteSink;
 import org.apache.sqoop.lib.DelimiterSet;
-import org.apache.sqoop.lib.FieldFormatter;
-import org.apache.sqoop.lib.RecordParser;
 import org.apache.sqoop.manager.MySQLUtils;
 import org.apache.sqoop.util.ErrorableAsyncSink;
 import org.apache.sqoop.util.ErrorableThread;
@@ -47,7 +44,7 @@
  * Mapper that opens up a pipe to mysqldump and pulls data directly.
  */
 public class MySQLDumpMapper
-    extends SqoopMapper<String, NullWritable, String, NullWritable> {
+    extends SqoopMapper<String, NullWritable, Text, NullWritable> {
 
   public static final Log LOG = LogFactory.getLog(
       MySQLDumpMapper.class.getName());
@@ -57,244 +54,68 @@
   // AsyncSinks used to import data from mysqldump directly into HDFS.
 
   /**
-   * Copies data directly from mysqldump into HDFS, after stripping some
-   * header and footer characters that are attached to each line in mysqldump.
+   * Decodes the rows of mysqldump's output with a MySQLDumpDecoder and
+   * writes them to HDFS in the user's specified output format. If the output
+   * delimiters are mysqldump's own, the text of each row is copied as is.
    */
-  public static class CopyingAsyncSink extends ErrorableAsyncSink {
+  public static class DecodingAsyncSink extends ErrorableAsyncSink {
     private final MySQLDumpMapper.Context context;
+    private final DelimiterSet delimiters;
     private final PerfCounters counters;
 
-    protected CopyingAsyncSink(final MySQLDumpMapper.Context context,
-        final PerfCounters ctrs) {
-      this.context = context;
-      this.counters = ctrs;
-    }
-
-    public void processStream(InputStream is) {
-      child = new CopyingStreamThread(is, context, counters);
-      child.start();
-    }
-
-    private static class CopyingStreamThread extends ErrorableThread {
-      public static final Log LOG = LogFactory.getLog(
-          CopyingStreamThread.class.getName());
-
-      private final MySQLDumpMapper.Context context;
-      private final InputStream stream;
-      private final PerfCounters counters;
-
-      CopyingStreamThread(final InputStream is,
-          final Context c, final PerfCounters ctrs) {
-        this.context = c;
-        this.stream = is;
-        this.counters = ctrs;
-      }
-
-      public void run() {
-        BufferedReader r = null;
-
-        try {
-          r = new BufferedReader(new InputStreamReader(this.stream));
-
-          // Actually do the read/write transfer loop here.
-          int preambleLen = -1; // set to this for "undefined"
-          while (true) {
-            String inLine = r.readLine();
-            if (null == inLine) {
-              break; // EOF.
-            }
-
-            if (inLine.trim().length() == 0 || inLine.startsWith("--")) {
-              continue; // comments and empty lines are ignored
-            }
-
-            // this line is of the form "INSERT .. VALUES ( actual value text
-            // );" strip the leading preamble up to the '(' and the trailing
-            // ');'.
-            if (preambleLen == -1) {
-              // we haven't determined how long the preamble is. It's constant
-              // across all lines, so just figure this out once.
-              String recordStartMark = "VALUES (";
-              preambleLen = inLine.indexOf(recordStartMark)
-                  + recordStartMark.length();
-            }
-
-            // chop off the leading and trailing text as we write the
-            // output to HDFS.
-            int len = inLine.length() - 2 - preambleLen;
-            context.write(inLine.substring(preambleLen, inLine.length() - 2)
-                + "\n", null);
-            counters.addBytes(1 + len);
-          }
-        } catch (IOException ioe) {
-          LOG.error("IOException reading from mysqldump: " + ioe.toString());
-          // flag this error so we get an error status back in the caller.
-          setError();
-        } catch (InterruptedException ie) {
-          LOG.error("InterruptedException reading from mysqldump: "
-              + ie.toString());
-          // flag this error so we get an error status back in the caller.
-          setError();
-        } finally {
-          if (null != r) {
-            try {
-              r.close();
-            } catch (IOException ioe) {
-              LOG.info("Error closing FIFO stream: " + ioe.toString());
-            }
-          }
-        }
-      }
-    }
-  }
-
-
-  /**
-   * The ReparsingAsyncSink will instantiate a RecordParser to read mysqldump's
-   * output, and re-emit the text in the user's specified output format.
-   */
-  public static class ReparsingAsyncSink extends ErrorableAsyncSink {
-    private final MySQLDumpMapper.Context context;
-    private final Configuration conf;
-    private final PerfCounters counters;
-
-    protected ReparsingAsyncSink(final MySQLDumpMapper.Context c,
-        final Configuration conf, final PerfCounters ctrs) {
+    protected DecodingAsyncSink(final MySQLDumpMapper.Context c,
+        final DelimiterSet delimiters, final PerfCounters ctrs) {
       this.context = c;
-      this.conf = conf;
+      this.delimiters = delimiters;
       this.counters = ctrs;
     }
 
     public void processStream(InputStream is) {
-      child = new ReparsingStreamThread(is, context, conf, counters);
+      child = new DecodingStreamThread(is, context, delimiters, counters);
       child.start();
     }
 
-    private static class ReparsingStreamThread extends ErrorableThread {
+    private static class DecodingStreamThread extends ErrorableThread {
       public static final Log LOG = LogFactory.getLog(
-          ReparsingStreamThread.class.getName());
+          DecodingStreamThread.class.getName());
 
       private final MySQLDumpMapper.Context context;
-      private final Configuration conf;
+      private final DelimiterSet delimiters;
       private final InputStream stream;
       private final PerfCounters counters;
 
-      ReparsingStreamThread(final InputStream is,
-          final MySQLDumpMapper.Context c, Configuration conf,
+      DecodingStreamThread(final InputStream is,
+          final MySQLDumpMapper.Context c, final DelimiterSet delimiters,
           final PerfCounters ctrs) {
         this.context = c;
-        this.conf = conf;
+        this.delimiters = delimiters;
         this.stream = is;
         this.counters = ctrs;
       }
 
-      private static final char MYSQL_FIELD_DELIM = ',';
-      private static final char MYSQL_RECORD_DELIM = '\n';
-      private static final char MYSQL_ENCLOSE_CHAR = '\'';
-      private static final char MYSQL_ESCAPE_CHAR = '\\';
-      private static final boolean MYSQL_ENCLOSE_REQUIRED = false;
-
-      private static final RecordParser MYSQLDUMP_PARSER;
-
-      static {
-        // build a record parser for mysqldump's format
-        MYSQLDUMP_PARSER = new RecordParser(DelimiterSet.MYSQL_DELIMITERS);
-      }
-
       public void run() {
-        BufferedReader r = null;
-
         try {
-          r = new BufferedReader(new InputStreamReader(this.stream));
-
-          // Configure the output with the user's delimiters.
-          char outputFieldDelim = (char) conf.getInt(
-              MySQLUtils.OUTPUT_FIELD_DELIM_KEY,
-              DelimiterSet.NULL_CHAR);
-          String outputFieldDelimStr = "" + outputFieldDelim;
-          char outputRecordDelim = (char) conf.getInt(
-              MySQLUtils.OUTPUT_RECORD_DELIM_KEY,
-              DelimiterSet.NULL_CHAR);
-          String outputRecordDelimStr = "" + outputRecordDelim;
-          char outputEnclose = (char) conf.getInt(
-              MySQLUtils.OUTPUT_ENCLOSED_BY_KEY,
-              DelimiterSet.NULL_CHAR);
-          char outputEscape = (char) conf.getInt(
-              MySQLUtils.OUTPUT_ESCAPED_BY_KEY,
-              DelimiterSet.NULL_CHAR);
-          boolean outputEncloseRequired = conf.getBoolean(
-              MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, false);
-
-          DelimiterSet delimiters = new DelimiterSet(
-             outputFieldDelim,
-             outputRecordDelim,
-             outputEnclose,
-             outputEscape,
-             outputEncloseRequired);
-
-          // Actually do the read/write transfer loop here.
-          int preambleLen = -1; // set to this for "undefined"
-          while (true) {
-            String inLine = r.readLine();
-            if (null == inLine) {
-              break; // EOF.
-            }
-
-            if (inLine.trim().length() == 0 || inLine.startsWith("--")) {
-              continue; // comments and empty lines are ignored
-            }
-
-            // this line is of the form "INSERT .. VALUES ( actual value text
-            // );" strip the leading preamble up to the '(' and the trailing
-            // ');'.
-            if (preambleLen == -1) {
-              // we haven't determined how long the preamble is. It's constant
-              // across all lines, so just figure this out once.
-              String recordStartMark = "VALUES (";
-              preambleLen = inLine.indexOf(recordStartMark)
-                  + recordStartMark.length();
-            }
-
-            // Wrap the input string in a char buffer that ignores the leading
-            // and trailing text.
-            CharBuffer charbuf = CharBuffer.wrap(inLine, preambleLen,
-                inLine.length() - 2);
-
-            // Pass this along to the parser
-            List<String> fields = null;
-            try {
-              fields = MYSQLDUMP_PARSER.parseRecord(charbuf);
-            } catch (RecordParser.ParseError pe) {
-              LOG.warn("ParseError reading from mysqldump: "
-                  + pe.toString() + "; record skipped");
-              continue; // Skip emitting this row.
-            }
-
-            // For all of the output fields, emit them using the delimiters
-            // the user chooses.
-            boolean first = true;
-            StringBuilder sb = new StringBuilder();
-            int recordLen = 1; // for the delimiter.
-            for (String field : fields) {
-              if (!first) {
-                sb.append(outputFieldDelimStr);
-              } else {
-                first = false;
-              }
-
-              String fieldStr = FieldFormatter.escapeAndEnclose(field,
-                  delimiters);
-              sb.append(fieldStr);
-              recordLen += fieldStr.length();
-            }
-
-            sb.append(outputRecordDelimStr);
-            context.write(sb.toString(), null);
-            counters.addBytes(recordLen);
+          MySQLDumpDecoder decoder = new MySQLDumpDecoder(this.stream,
+              delimiters);
+
+          // Each record is decoded into the same buffer and handed to the
+          // output format as the bytes of a reused Text.
+          ByteSink sink = new ByteSink();
+          Text outkey = new Text();
+          while (decoder.nextRecord(sink)) {
+            sink.copyTo(outkey);
+            context.write(outkey, null);
+            counters.addBytes(sink.getLength());
+            counters.addRecords(1);
+          }
+
+          if (decoder.getSkippedRows() > 0) {
+            LOG.warn("Skipped " + decoder.getSkippedRows()
+                + " rows which could not be parsed");
           }
         } catch (IOException ioe) {
           LOG.error("IOException reading from mysqldump: " + ioe.toString());
-          // flag this error so the parent can handle it appropriately.
+          // flag this error so we get an error status back in the caller.
           setError();
         } catch (InterruptedException ie) {
           LOG.error("InterruptedException reading from mysqldump: "
@@ -302,12 +123,10 @@ public void run() {
           // flag this error so we get an error status back in the caller.
           setError();
         } finally {
-          if (null != r) {
-            try {
-              r.close();
-            } catch (IOException ioe) {
-              LOG.info("Error closing FIFO stream: " + ioe.toString());
-            }
+          try {
+            stream.close();
+          } catch (IOException ioe) {
+            LOG.info("Error closing FIFO stream: " + ioe.toString());
           }
         }
       }
@@ -407,18 +226,13 @@ public void map(String splitConditions, NullWritable val, Context context)
       // read from the stdout pipe into the HDFS writer.
       InputStream is = p.getInputStream();
 
-      if (MySQLUtils.outputDelimsAreMySQL(conf)) {
-        LOG.debug("Output delimiters conform to mysqldump; "
-            + "using straight copy");
-        sink = new CopyingAsyncSink(context, counters);
-      } else {
-        LOG.debug("User-specified delimiters; using reparsing import");
-        LOG.info("Converting data to use specified delimiters.");
-        LOG.info("(For the fastest possible import, use");
-        LOG.info("--mysql-delimiters to specify the same field");
-        LOG.info("delimiters as are used by mysqldump.)");
-        sink = new ReparsingAsyncSink(context, conf, counters);
-      }
+      // Both delimiter sets go through the decoder; with mysqldump's own
+      // delimiters it copies the text of each value instead of unescaping it.
+      LOG.debug("Decoding mysqldump output; row values are "
+          + (MySQLUtils.outputDelimsAreMySQL(conf)
+          ? "copied as is" : "unescaped and re-delimited"));
+      sink = new DecodingAsyncSink(context, getOutputDelimiters(conf),
+          counters);
 
       // Start an async thread to read and upload the whole stream.
       counters.startClock();
@@ -496,6 +310,22 @@ public void map(String splitConditions, NullWritable val, Context context)
   }
   // CHECKSTYLE:ON
 
+  /**
+   * @return the user's output delimiters, as set by MySQLDumpImportJob.
+   */
+  static DelimiterSet getOutputDelimiters(Configuration conf) {
+    return new DelimiterSet(
+        (char) conf.getInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY,
+            DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY,
+            DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY,
+            DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY,
+            DelimiterSet.NULL_CHAR),
+        conf.getBoolean(MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, false));
+  }
+
   @Override
   protected void setup(Context context)
     throws IOException, InterruptedException {
@@ -23,6 +23,8 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -32,15 +34,19 @@
 import org.apache.sqoop.util.AsyncSink;
 import org.apache.sqoop.util.JdbcUrl;
 import org.apache.sqoop.util.LoggingAsyncSink;
+import org.apache.sqoop.util.LoggingUtils;
 import org.apache.sqoop.util.NullAsyncSink;
 import org.apache.sqoop.util.TaskId;
 import org.apache.sqoop.io.NamedFifo;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.mysql.MySQLLoadDataOutputStream;
 import org.apache.sqoop.manager.MySQLUtils;
 
 /**
  * Mapper that starts a 'mysqlimport' process and uses that to export rows from
- * HDFS to a MySQL database at high speed.
+ * HDFS to a MySQL database at high speed. If MYSQL_LOAD_DATA_LOCAL_KEY is
+ * set, the rows are instead streamed over JDBC to a LOAD DATA LOCAL INFILE
+ * statement.
  *
  * map() methods are actually provided by subclasses that read from
  * SequenceFiles (containing existing SqoopRecords) or text files
@@ -77,6 +83,21 @@
   // Configured value for MYSQL_CHECKPOINT_SLEEP_KEY.
   protected long checkpointSleepMs;
 
+  /** Configuration key that specifies whether rows are loaded with
+   * LOAD DATA LOCAL INFILE over a JDBC connection instead of through
+   * mysqlimport. This requires MySQL Connector/J, but neither the MySQL
+   * client tools nor a FIFO on the task's local disk.
+   * Default is false.
+   */
+  public static final String MYSQL_LOAD_DATA_LOCAL_KEY =
+      "sqoop.mysql.export.load.data.local";
+
+  // Configured value for MYSQL_LOAD_DATA_LOCAL_KEY.
+  protected boolean useLoadDataLocal;
+
+  /** The JDBC connection used for LOAD DATA LOCAL INFILE. */
+  protected Connection loadDataConnection;
+
   protected Configuration conf;
 
   /** The FIFO being used to communicate with mysqlimport. */
@@ -235,29 +256,137 @@ private void initMySQLImportProcess() throws IOException {
     this.bytesWritten = 0;
   }
 
+  /**
+   * @return the LOAD DATA LOCAL INFILE statement which loads the records
+   * written by this mapper, with the same delimiters and columns as
+   * mysqlimport is given. The character set is latin1 because writeRecord
+   * encodes the records in MySQLUtils.MYSQL_DEFAULT_CHARSET; mysqlimport
+   * is not given one and relies on the server's default.
+   */
+  static String getLoadDataStatement(Configuration conf) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("LOAD DATA LOCAL INFILE 'sqoop.txt' INTO TABLE `");
+    sb.append(conf.get(MySQLUtils.TABLE_NAME_KEY).replace("`", "``"));
+    sb.append("` CHARACTER SET latin1");
+
+    int outputFieldDelim = conf.getInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY,
+        (int) ',');
+    int outputRecordDelim = conf.getInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY,
+        (int) '\n');
+    int enclosedBy = conf.getInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, 0);
+    int escapedBy = conf.getInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, 0);
+    boolean encloseRequired = conf.getBoolean(
+        MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, false);
+
+    sb.append(" FIELDS TERMINATED BY 0x");
+    sb.append(Integer.toString(outputFieldDelim, 16));
+    if (0 != enclosedBy) {
+      if (!encloseRequired) {
+        sb.append(" OPTIONALLY");
+      }
+      sb.append(" ENCLOSED BY 0x").append(Integer.toString(enclosedBy, 16));
+    }
+
+    if (0 != escapedBy) {
+      sb.append(" ESCAPED BY 0x").append(Integer.toString(escapedBy, 16));
+    }
+
+    sb.append(" LINES TERMINATED BY 0x");
+    sb.append(Integer.toString(outputRecordDelim, 16));
+
+    // Specify the subset of columns we're importing.
+    String [] cols = new DBConfiguration(conf).getInputFieldNames();
+    if (null != cols) {
+      sb.append(" (");
+      boolean first = true;
+      for (String col : cols) {
+        if (!first) {
+          sb.append(",");
+        }
+        sb.append(col);
+        first = false;
+      }
+      sb.append(")");
+    }
+
+    return sb.toString();
+  }
+
+  /**
+   * Start a LOAD DATA LOCAL INFILE statement which reads the records
+   * written to 'importStream' over the JDBC connection.
+   */
+  private void initLoadDataStatement() throws IOException {
+    try {
+      if (null == this.loadDataConnection) {
+        this.loadDataConnection = new DBConfiguration(conf).getConnection();
+        this.loadDataConnection.setAutoCommit(false);
+      }
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Could not load JDBC driver", cnfe);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, sqlE);
+      throw new IOException("Could not connect to MySQL", sqlE);
+    }
+
+    String sql = getLoadDataStatement(conf);
+    LOG.debug("Starting LOAD DATA: " + sql);
+    this.importStream = new BufferedOutputStream(
+        new MySQLLoadDataOutputStream(this.loadDataConnection, sql));
+    this.bytesWritten = 0;
+  }
+
+  /**
+   * Open the stream for the records of the next transaction.
+   */
+  private void initExportHandles() throws IOException {
+    if (this.useLoadDataLocal) {
+      initLoadDataStatement();
+    } else {
+      initMySQLImportProcess();
+    }
+  }
+
   @Override
   public void run(Context context) throws IOException, InterruptedException {
     this.conf = context.getConfiguration();
     setup(context);
-    initMySQLImportProcess();
     try {
+      initExportHandles();
       while (context.nextKeyValue()) {
         map(context.getCurrentKey(), context.getCurrentValue(), context);
       }
       cleanup(context);
     } finally {
-      // Shut down the mysqlimport process.
-      closeExportHandles();
+      // Shut down the mysqlimport process or LOAD DATA statement.
+      try {
+        closeExportHandles();
+      } finally {
+        closeLoadDataConnection();
+      }
+    }
+  }
+
+  private void closeLoadDataConnection() {
+    if (null != this.loadDataConnection) {
+      try {
+        this.loadDataConnection.close();
+      } catch (SQLException sqlE) {
+        LoggingUtils.logAll(LOG, "Failed to close connection", sqlE);
+      }
+      this.loadDataConnection = null;
     }
   }
 
   private void closeExportHandles() throws IOException, InterruptedException {
     int ret = 0;
     if (null != this.importStream) {
-      // Close the stream that writes to mysqlimport's stdin first.
+      // Close the stream that writes to mysqlimport's stdin first. With
+      // LOAD DATA LOCAL INFILE, this also commits the loaded rows.
       LOG.debug("Closing import stream");
-      this.importStream.close();
+      OutputStream stream = this.importStream;
       this.importStream = null;
+      stream.close();
     }
 
     if (null != this.mysqlImportProcess) {
@@ -342,6 +471,8 @@ protected void setup(Context context) {
           + " has to be smaller than mapred.task.timeout");
       this.checkpointSleepMs = DEFAULT_CHECKPOINT_SLEEP_MS;
     }
+
+    this.useLoadDataLocal = conf.getBoolean(MYSQL_LOAD_DATA_LOCAL_KEY, false);
   }
 
   /**
@@ -382,7 +513,7 @@ protected void writeRecord(String record, String terminator)
       }
 
       closeExportHandles();
-      initMySQLImportProcess();
+      initExportHandles();
       this.bytesWritten = 0;
     }
   }
@@ -55,6 +55,10 @@ public abstract class SQLServerAsyncDBExecThread extends Thread {
   private Connection conn; // The connection to the database.
   private DBConfiguration dbConf = null;
 
+  // Statements on conn kept for reuse across batches; null until the first
+  // statement is prepared, or if reuse is disabled.
+  private AsyncSqlOutputFormat.PreparedStatementCache statementCache;
+
   private SynchronousQueue<List<SqoopRecord>> recordListQueue;
   private boolean stop = false;
   private Exception err;
@@ -136,6 +140,7 @@ protected DBConfiguration getDBConfiguration() {
    */
   protected Connection getConnection() throws SQLException {
     if (conn == null || conn.isClosed()) {
+      closeStatementCache();
       try {
         conn = dbConf.getConnection();
         configureConnection();
@@ -151,6 +156,62 @@ protected Configuration getConf() {
     return this.conf;
   }
 
+  /**
+   * Prepare a statement on the current connection. Statements with the same
+   * SQL are reused across batches once they have run, with their
+   * parameters cleared, unless AsyncSqlOutputFormat.STATEMENT_CACHE_SIZE_KEY
+   * is 0.
+   */
+  protected PreparedStatement prepareStatement(String sql)
+      throws SQLException {
+    if (null == statementCache) {
+      int cacheSize = conf.getInt(
+          AsyncSqlOutputFormat.STATEMENT_CACHE_SIZE_KEY,
+          AsyncSqlOutputFormat.DEFAULT_STATEMENT_CACHE_SIZE);
+      if (cacheSize <= 0) {
+        return getConnection().prepareStatement(sql);
+      }
+      statementCache = new AsyncSqlOutputFormat.PreparedStatementCache(
+          getConnection(), cacheSize);
+    }
+    return statementCache.acquire(sql);
+  }
+
+  /**
+   * Return a statement which has run to the cache, or close it.
+   */
+  private void releaseStatement(PreparedStatement stmt) throws SQLException {
+    if (null == statementCache || !statementCache.release(stmt)) {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Close a statement whose execution failed, along with the statements
+   * cached for its connection, which is about to be replaced.
+   */
+  private void discardStatement(PreparedStatement stmt) {
+    if (null != stmt) {
+      try {
+        stmt.close();
+      } catch (SQLException sqlEx) {
+        LOG.debug("Could not close failed statement: " + sqlEx);
+      }
+    }
+    closeStatementCache();
+  }
+
+  private void closeStatementCache() {
+    if (null != statementCache) {
+      try {
+        statementCache.close();
+      } catch (SQLException sqlEx) {
+        LOG.debug("Could not close cached statements: " + sqlEx);
+      }
+      statementCache = null;
+    }
+  }
+
   /**
    * Configure the connection object used for writing records to the database.
    * Subclasses should override this method to change connection
@@ -247,6 +308,7 @@ public void run() {
         recordListQueue.poll();
       }
     }
+    closeStatementCache();
   }
 
   /**
@@ -261,6 +323,7 @@ protected void write(List<SqoopRecord> records)
     boolean doRetry = true;
 
     do {
+      stmt = null;
       try {
         // Establish the connection to be used if not yet created
         getConnection();
@@ -275,6 +338,7 @@ protected void write(List<SqoopRecord> records)
         doRetry = false;
       } catch (SQLException sqlEx) {
         LOG.warn("Trying to recover from DB write failure: ", sqlEx);
+        discardStatement(stmt);
 
         // Use configured connection handler to recover from the connection
         // failure and use the recovered connection.
@@ -297,6 +361,17 @@ protected void write(List<SqoopRecord> records)
       }
     } while (doRetry);
 
+    if (retryCount >= 0) {
+      // The batch is written; a failure to reset the statement must not
+      // cause it to be written again.
+      try {
+        releaseStatement(stmt);
+      } catch (SQLException sqlEx) {
+        LOG.warn("Could not reuse prepared statement: " + sqlEx);
+        discardStatement(stmt);
+      }
+    }
+
     // Throw an exception if all retry attempts are consumed
     if (retryCount < 0) {
       throw new IOException("Failed to write to database after "
@@ -59,10 +59,9 @@ protected PreparedStatement getPreparedStatement(
       List<SqoopRecord> records) throws SQLException {
 
     PreparedStatement stmt = null;
-    Connection conn = getConnection();
 
     // Create a PreparedStatement object to insert all records
-    stmt = conn.prepareStatement(getInsertStatement(records.size()));
+    stmt = prepareStatement(getInsertStatement(records.size()));
 
     // Inject the record parameters into the VALUES clauses.
     for (SqoopRecord record : records) {
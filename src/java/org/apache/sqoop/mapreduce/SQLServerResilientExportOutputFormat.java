@@ -30,6 +30,7 @@
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.lib.JdbcWritableBridge;
 import org.apache.sqoop.lib.SqoopRecord;
 
 /**
@@ -117,9 +118,14 @@ public OutputCommitter getOutputCommitter(TaskAttemptContext context)
     // target database the other gets asynchronously filled
     protected List<List<SqoopRecord>> recordsLists = new ArrayList<List<SqoopRecord>>();
     protected List<SqoopRecord> currentList;
+
+    // Gives the LOB fields of buffered records the task configuration.
+    private JdbcWritableBridge.LobConfSetter lobConfSetter;
+
     public SQLServerExportRecordWriter(TaskAttemptContext context)
         throws IOException {
       conf = context.getConfiguration();
+      lobConfSetter = new JdbcWritableBridge.LobConfSetter(conf);
 
       recordsPerStmt = conf.getInt(
         AsyncSqlOutputFormat.RECORDS_PER_STATEMENT_KEY,
@@ -152,7 +158,9 @@ protected void initializeExecThread() throws IOException {
     public void write(K key, V value)
         throws InterruptedException, IOException {
       try {
-        currentList.add((SqoopRecord) key.clone());
+        SqoopRecord record = (SqoopRecord) key.clone();
+        lobConfSetter.apply(record);
+        currentList.add(record);
         if (currentList.size() >= this.recordsPerStmt) {
           // Schedule the current list for asynchronous transfer
           // This will block if the previous operation is still in progress
@@ -19,7 +19,6 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.LinkedHashSet;
@@ -87,10 +86,9 @@ public void initialize(Configuration conf) throws IOException {
   protected PreparedStatement getPreparedStatement(
       List<SqoopRecord> records) throws SQLException {
     PreparedStatement stmt = null;
-    Connection conn = getConnection();
 
     // Create a PreparedStatement object to Update all records
-    stmt = conn.prepareStatement(getUpdateStatement());
+    stmt = prepareStatement(getUpdateStatement());
 
     // Inject the record parameters into the UPDATE and WHERE clauses.  This
     // assumes that the update key column is the last column serialized in
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.lib.AvroFieldWriter;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * A DatumWriter which encodes SqoopRecords with their writeAvro() method,
+ * straight into the buffer of the DataFileWriter, instead of converting
+ * each of them to a GenericRecord first.
+ *
+ * The fields of a record are written in column order, so the record class
+ * must have the same fields as the schema, in the same order. This is
+ * checked with visitFields() on the first record; if they differ, records
+ * are converted to GenericRecords as before. Other data is written by ReflectDatumWriter.
+ */
+public class SqoopRecordDatumWriter<T> extends ReflectDatumWriter<T> {
+
+  public static final Log LOG =
+      LogFactory.getLog(SqoopRecordDatumWriter.class.getName());
+
+  private final boolean bigDecimalFormatString;
+  private final boolean bigDecimalPadding;
+
+  private Schema schema;
+  private AvroFieldWriter fieldWriter;
+  private Boolean writeDirectly;
+
+  public SqoopRecordDatumWriter(boolean bigDecimalFormatString,
+      boolean bigDecimalPadding) {
+    this.bigDecimalFormatString = bigDecimalFormatString;
+    this.bigDecimalPadding = bigDecimalPadding;
+  }
+
+  @Override
+  public void setSchema(Schema root) {
+    super.setSchema(root);
+    this.schema = root;
+    this.fieldWriter = null;
+    this.writeDirectly = null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void write(T datum, Encoder out) throws IOException {
+    if (!(datum instanceof SqoopRecord)) {
+      super.write(datum, out);
+      return;
+    }
+
+    SqoopRecord record = (SqoopRecord) datum;
+    if (canWriteDirectly(record)) {
+      record.writeAvro(out, fieldWriter);
+    } else {
+      GenericRecord genericRecord = AvroUtil.toGenericRecord(
+          record.getFieldMap(), schema, bigDecimalFormatString,
+          bigDecimalPadding);
+      super.write((T) genericRecord, out);
+    }
+  }
+
+  private boolean canWriteDirectly(SqoopRecord record) throws IOException {
+    if (null == writeDirectly) {
+      writeDirectly = AvroFieldWriter.isSupported(schema)
+          && fieldsMatch(record, schema);
+      if (writeDirectly) {
+        fieldWriter = new AvroFieldWriter(schema, bigDecimalFormatString,
+            bigDecimalPadding);
+      } else {
+        LOG.info("Fields of " + record.getClass().getName()
+            + " do not match Avro schema " + schema.getFullName()
+            + "; converting records to GenericRecords.");
+      }
+    }
+    return writeDirectly;
+  }
+
+  /**
+   * @return true if the record visits its fields in the order of the
+   * fields of the schema, as its generated writeAvro() writes them.
+   */
+  private static boolean fieldsMatch(SqoopRecord record, Schema schema)
+      throws IOException {
+    final List<Schema.Field> fields = schema.getFields();
+    final boolean [] match = { true };
+    final int [] numFields = { 0 };
+    record.visitFields(new FieldVisitor() {
+      @Override
+      public void visit(int index, String fieldName, Object value) {
+        numFields[0]++;
+        if (index >= fields.size() || !fields.get(index).name().equals(
+            AvroUtil.toAvroColumn(fieldName))) {
+          match[0] = false;
+        }
+      }
+    });
+    return match[0] && numFields[0] == fields.size();
+  }
+}
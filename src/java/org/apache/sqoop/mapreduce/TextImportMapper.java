@@ -25,6 +25,7 @@
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.lib.ByteSink;
 import org.apache.sqoop.lib.LargeObjectLoader;
 import org.apache.sqoop.lib.SqoopRecord;
 
@@ -35,10 +36,12 @@
     extends AutoProgressMapper<LongWritable, SqoopRecord, Text, NullWritable> {
 
   private Text outkey;
+  private ByteSink sink;
   private LargeObjectLoader lobLoader;
 
   public TextImportMapper() {
     outkey = new Text();
+    sink = new ByteSink();
   }
 
   @Override
@@ -58,7 +61,11 @@ public void map(LongWritable key, SqoopRecord val, Context context)
       throw new IOException(sqlE);
     }
 
-    outkey.set(val.toString());
+    // Format the record straight into a reused buffer rather than
+    // building a String per row.
+    sink.reset();
+    val.writeDelimited(sink, true);
+    sink.copyTo(outkey);
     context.write(outkey, NullWritable.get());
   }
 
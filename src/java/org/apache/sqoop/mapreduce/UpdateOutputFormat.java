@@ -19,7 +19,6 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Arrays;
@@ -155,14 +154,7 @@ protected final String[] getUpdateColumns() {
     protected PreparedStatement getPreparedStatement(
         List<SqoopRecord> userRecords) throws SQLException {
 
-      PreparedStatement stmt = null;
-
-      // Synchronize on connection to ensure this does not conflict
-      // with the operations in the update thread.
-      Connection conn = getConnection();
-      synchronized (conn) {
-        stmt = conn.prepareStatement(getUpdateStatement());
-      }
+      PreparedStatement stmt = prepareStatement(getUpdateStatement());
 
       // Inject the record parameters into the UPDATE and WHERE clauses.  This
       // assumes that the update key column is the last column serialized in
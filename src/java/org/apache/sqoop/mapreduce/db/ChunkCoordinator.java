@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Hands out the chunks of a work-stealing import to map tasks using lease
+ * files in a shared directory.
+ *
+ * A chunk is claimed by writing a file naming the owning task to a
+ * temporary path and renaming it to "chunk-N". The rename fails if the
+ * chunk was already claimed, so each chunk has exactly one owner. The owner
+ * is the task rather than the task attempt: when an attempt fails, its
+ * output is discarded and the next attempt of the same task must read all
+ * of the chunks claimed by its predecessors again.
+ */
+public class ChunkCoordinator {
+
+  public static final Log LOG =
+      LogFactory.getLog(ChunkCoordinator.class.getName());
+
+  private static final String CHUNK_PREFIX = "chunk-";
+  private static final String TMP_DIR = "_tmp";
+
+  private final FileSystem fs;
+  private final Path dir;
+
+  public ChunkCoordinator(Configuration conf, Path dir) throws IOException {
+    this.fs = dir.getFileSystem(conf);
+    this.dir = dir;
+  }
+
+  /**
+   * Try to claim a chunk.
+   * @param chunk the index of the chunk.
+   * @param owner the id of the task claiming it.
+   * @return true if the chunk now belongs to owner, false if it had already
+   * been claimed.
+   */
+  public boolean claim(int chunk, String owner) throws IOException {
+    Path lease = new Path(dir, CHUNK_PREFIX + chunk);
+    Path tmp = new Path(new Path(dir, TMP_DIR),
+        CHUNK_PREFIX + chunk + "." + owner);
+
+    FSDataOutputStream out = fs.create(tmp, true);
+    try {
+      out.write(owner.getBytes(StandardCharsets.UTF_8));
+    } finally {
+      out.close();
+    }
+
+    // On HDFS rename() does not replace an existing lease, so only one
+    // claimant can win. The exists() check covers local filesystems, which
+    // are only used by single-task jobs.
+    if (!fs.exists(lease) && fs.rename(tmp, lease)) {
+      return true;
+    }
+    fs.delete(tmp, false);
+    return false;
+  }
+
+  /**
+   * @return the chunks claimed by owner so far, in ascending order.
+   */
+  public List<Integer> getClaims(String owner) throws IOException {
+    List<Integer> claims = new ArrayList<Integer>();
+    if (!fs.exists(dir)) {
+      return claims;
+    }
+
+    for (FileStatus status : fs.listStatus(dir)) {
+      String name = status.getPath().getName();
+      if (status.isDirectory() || !name.startsWith(CHUNK_PREFIX)) {
+        continue;
+      }
+      if (owner.equals(readOwner(status.getPath()))) {
+        claims.add(Integer.valueOf(name.substring(CHUNK_PREFIX.length())));
+      }
+    }
+    Collections.sort(claims);
+    return claims;
+  }
+
+  private String readOwner(Path lease) throws IOException {
+    FSDataInputStream in = fs.open(lease);
+    try {
+      return new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Remove the coordination directory once the job has finished.
+   */
+  public void cleanup() throws IOException {
+    if (fs.exists(dir) && !fs.delete(dir, true)) {
+      LOG.warn("Could not remove chunk coordination directory " + dir);
+    }
+  }
+
+  /**
+   * Compute the order in which a task tries to claim chunks. A task first
+   * takes the chunks of its own contiguous range, from the bottom up. Then
+   * it steals from the other tasks' ranges, starting with the next task and
+   * taking from the top of each range, which its owner reaches last.
+   *
+   * @param numChunks the total number of chunks.
+   * @param numTasks the number of tasks sharing the chunks.
+   * @param taskIndex the index of the task, from 0 to numTasks - 1.
+   */
+  public static int [] getClaimOrder(int numChunks, int numTasks,
+      int taskIndex) {
+    int [] order = new int[numChunks];
+    int pos = 0;
+    for (int i = 0; i < numTasks; i++) {
+      int task = (taskIndex + i) % numTasks;
+      int start = getRangeStart(numChunks, numTasks, task);
+      int end = getRangeStart(numChunks, numTasks, task + 1);
+      if (i == 0) {
+        for (int chunk = start; chunk < end; chunk++) {
+          order[pos++] = chunk;
+        }
+      } else {
+        for (int chunk = end - 1; chunk >= start; chunk--) {
+          order[pos++] = chunk;
+        }
+      }
+    }
+    return order;
+  }
+
+  /**
+   * @return the first chunk of a task's own range.
+   */
+  static int getRangeStart(int numChunks, int numTasks, int taskIndex) {
+    return (int) ((long) taskIndex * numChunks / numTasks);
+  }
+}
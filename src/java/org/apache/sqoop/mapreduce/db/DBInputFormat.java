@@ -43,6 +43,7 @@
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.sqoop.mapreduce.DBWritable;
 
+import org.apache.sqoop.config.ConfigurationConstants;
 import org.apache.sqoop.config.ConfigurationHelper;
 
 /**
@@ -61,6 +62,9 @@
     DBInputFormat.class.getName());
   private String dbProductName = "DEFAULT";
 
+  /** Default number of records in each prefetched batch. */
+  public static final int DEFAULT_PREFETCH_BATCH_SIZE = 1000;
+
   /**
    * A Class that does nothing, implementing DBWritable.
    */
@@ -260,9 +264,22 @@ conf, getConnection(), getDBConf(), conditions, fieldNames,
   public RecordReader<LongWritable, T> createRecordReader(InputSplit split,
       TaskAttemptContext context) throws IOException, InterruptedException {
 
-    return createDBRecordReader(
-        (DBInputFormat.DBInputSplit) split,
-        context.getConfiguration());
+    Configuration conf = context.getConfiguration();
+    RecordReader<LongWritable, T> reader = createDBRecordReader(
+        (DBInputFormat.DBInputSplit) split, conf);
+
+    int prefetchBatches = conf.getInt(
+        ConfigurationConstants.PROP_IMPORT_PREFETCH_BATCHES, 0);
+    if (prefetchBatches >= 2 && reader instanceof DBRecordReader) {
+      int batchSize = conf.getInt(
+          ConfigurationConstants.PROP_IMPORT_PREFETCH_BATCH_SIZE,
+          DEFAULT_PREFETCH_BATCH_SIZE);
+      LOG.debug("Prefetching rows in " + prefetchBatches + " batches of "
+          + batchSize);
+      return new PrefetchingDBRecordReader<T>((DBRecordReader<T>) reader,
+          prefetchBatches, batchSize);
+    }
+    return reader;
   }
 
   /** {@inheritDoc} */
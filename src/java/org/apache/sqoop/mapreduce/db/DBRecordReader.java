@@ -172,6 +172,24 @@ public void close() throws IOException {
     }
   }
 
+  /**
+   * Close the current result set and statement, leaving the connection
+   * open. The next call to nextKeyValue() runs getSelectQuery() again.
+   */
+  protected void closeResults() throws SQLException {
+    try {
+      if (null != results) {
+        results.close();
+      }
+    } finally {
+      results = null;
+      if (null != statement) {
+        statement.close();
+        statement = null;
+      }
+    }
+  }
+
   public void initialize(InputSplit inputSplit, TaskAttemptContext context)
       throws IOException, InterruptedException {
     //do nothing
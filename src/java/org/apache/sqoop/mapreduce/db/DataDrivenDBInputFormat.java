@@ -20,6 +20,7 @@
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -40,6 +41,7 @@
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.sqoop.mapreduce.DBWritable;
 
+import org.apache.sqoop.config.ConfigurationConstants;
 import org.apache.sqoop.config.ConfigurationHelper;
 import org.apache.sqoop.mapreduce.db.DataDrivenDBRecordReader;
 import org.apache.sqoop.validation.ValidationException;
@@ -63,6 +65,9 @@
    */
   public static final String SUBSTITUTE_TOKEN = "$CONDITIONS";
 
+  /** Default number of split column values sampled for split planning. */
+  public static final int DEFAULT_SPLIT_SAMPLING_SIZE = 10000;
+
   /**
    * @return the DBSplitter implementation to use to divide the table/query
    * into InputSplits.
@@ -181,6 +186,21 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       }
 
       DBSplitter splitter = getSplitter(sqlDataType, splitLimit);
+      if (null != splitter && splitLimit <= 0
+          && QuantileSplitter.isSupported(sqlDataType)
+          && job.getConfiguration().getBoolean(
+              ConfigurationConstants.PROP_SPLIT_SAMPLING_ENABLE, false)) {
+        String samplingQuery = getSamplingQuery();
+        if (null == samplingQuery) {
+          LOG.warn("No sampling query is available; set "
+              + ConfigurationConstants.PROP_SPLIT_SAMPLING_QUERY
+              + " to sample the split column. Using equal-width splits");
+        } else {
+          splitter = new QuantileSplitter(
+              sampleSplitColumn(connection, samplingQuery),
+              QuantileSplitter.isIntegral(sqlDataType));
+        }
+      }
       if (null == splitter) {
         throw new IOException("Sqoop does not have the splitter for the given"
           + " SQL data type. Please use either different split column (argument"
@@ -189,6 +209,19 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       }
 
       try {
+        int numChunks = job.getConfiguration().getInt(
+            ConfigurationConstants.PROP_IMPORT_CHUNKS, 0);
+        String chunkDir = job.getConfiguration().get(
+            ConfigurationConstants.PROP_IMPORT_CHUNKS_DIR);
+        if (numChunks > targetNumTasks && splitLimit <= 0) {
+          if (null == chunkDir) {
+            LOG.warn("No chunk coordination directory set; "
+                + "not using work-stealing splits");
+          } else {
+            return getWorkStealingSplits(job, splitter, results, numChunks,
+                targetNumTasks, chunkDir);
+          }
+        }
         return splitter.split(job.getConfiguration(), results,
                   getDBConf().getInputOrderBy());
       } catch (ValidationException e) {
@@ -224,6 +257,22 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     }
   }
 
+  /**
+   * Divide the input into numChunks chunks shared by numTasks tasks, which
+   * claim them at run time from a coordinator in chunkDir.
+   */
+  private List<InputSplit> getWorkStealingSplits(JobContext job,
+      DBSplitter splitter, ResultSet results, int numChunks,
+      int numTasks, String chunkDir) throws SQLException, ValidationException {
+    Configuration chunkConf = new Configuration(job.getConfiguration());
+    chunkConf.setInt(ConfigurationConstants.PROP_MAPRED_MAP_TASKS, numChunks);
+    List<InputSplit> chunks = splitter.split(chunkConf, results,
+        getDBConf().getInputOrderBy());
+    LOG.info("Dividing the import into " + chunks.size() + " chunks for "
+        + numTasks + " tasks; claims are coordinated in " + chunkDir);
+    return WorkStealingDBInputSplit.getSplits(chunks, numTasks, chunkDir);
+  }
+
   /**
    * @return a query which returns the minimum and maximum values for
    * the order-by column.
@@ -253,6 +302,47 @@ protected String getBoundingValsQuery() {
     return query.toString();
   }
 
+  /**
+   * @return a query whose first column returns the split column values to
+   * sample for split planning, or null if there is none. Reading the whole
+   * split column would scan the table once more before the import itself,
+   * so there is no generic default: the query is the one set with
+   * sqoop.split.sampling.query, which should read only part of the table.
+   * For table imports, it is set from ConnManager.getSamplingQuery() if the
+   * user gives none. Subclasses may override this to build a
+   * database-specific sampled query.
+   */
+  protected String getSamplingQuery() {
+    return getConf().get(ConfigurationConstants.PROP_SPLIT_SAMPLING_QUERY);
+  }
+
+  /**
+   * Run the sampling query and return a sample of the split column values.
+   */
+  private List<BigDecimal> sampleSplitColumn(Connection connection,
+      String query) throws SQLException {
+    int sampleSize = getConf().getInt(
+        ConfigurationConstants.PROP_SPLIT_SAMPLING_SIZE,
+        DEFAULT_SPLIT_SAMPLING_SIZE);
+    LOG.info("SamplingQuery: " + query);
+
+    Statement statement = connection.createStatement();
+    ResultSet results = null;
+    try {
+      Integer fetchSize = getDBConf().getFetchSize();
+      if (null != fetchSize) {
+        statement.setFetchSize(fetchSize);
+      }
+      results = statement.executeQuery(query);
+      return QuantileSplitter.sample(results, Math.max(sampleSize, 1));
+    } finally {
+      if (null != results) {
+        results.close();
+      }
+      statement.close();
+    }
+  }
+
   protected RecordReader<LongWritable, T> createDBRecordReader(
       DBInputSplit split, Configuration conf) throws IOException {
 
@@ -264,6 +354,22 @@ protected RecordReader<LongWritable, T> createDBRecordReader(
     LOG.debug("Creating db record reader for db product: " + dbProductName);
 
     try {
+      if (split instanceof WorkStealingDBInputSplit) {
+        return new WorkStealingDBRecordReader<T>(
+            (WorkStealingDBInputSplit) split, inputClass,
+            conf, getConnection(), dbConf, dbConf.getInputConditions(),
+            dbConf.getInputFieldNames(), dbConf.getInputTableName(),
+            dbProductName);
+      }
+      int pageSize = conf.getInt(
+          ConfigurationConstants.PROP_IMPORT_KEYSET_PAGE_SIZE, 0);
+      if (pageSize > 0) {
+        RecordReader<LongWritable, T> reader = createKeysetRecordReader(
+            split, conf, inputClass, pageSize);
+        if (null != reader) {
+          return reader;
+        }
+      }
       return new DataDrivenDBRecordReader<T>(split, inputClass,
           conf, getConnection(), dbConf, dbConf.getInputConditions(),
           dbConf.getInputFieldNames(), dbConf.getInputTableName(),
@@ -273,6 +379,47 @@ conf, getConnection(), dbConf, dbConf.getInputConditions(),
     }
   }
 
+  /**
+   * @return a KeysetDBRecordReader for the split, or null if the split
+   * can't be read in pages.
+   */
+  private RecordReader<LongWritable, T> createKeysetRecordReader(
+      DBInputSplit split, Configuration conf, Class<T> inputClass,
+      int pageSize) throws SQLException, IOException {
+    DBConfiguration dbConf = getDBConf();
+    String splitColumn = dbConf.getInputOrderBy();
+    String [] keyColumns = conf.getStrings(
+        ConfigurationConstants.PROP_IMPORT_KEYSET_COLUMNS);
+    if (null != dbConf.getInputQuery() || null == keyColumns) {
+      LOG.warn("Paged reads need a table import with a primary key; "
+          + "reading each split with a single query");
+      return null;
+    }
+    int [] keyIndexes = new int[keyColumns.length];
+    for (int i = 0; i < keyColumns.length; i++) {
+      keyIndexes[i] = KeysetDBRecordReader.getKeyIndex(keyColumns[i],
+          dbConf.getInputFieldNames());
+      if (0 == keyIndexes[i]) {
+        LOG.warn("Paged reads need the split column and primary key among "
+            + "the imported columns; reading each split with a single query");
+        return null;
+      }
+    }
+    if (!KeysetDBRecordReader.canPage(split, splitColumn)) {
+      return null;
+    }
+
+    SQLFailureHandler failureHandler = new BasicRetrySQLFailureHandler();
+    failureHandler.initialize(conf);
+
+    KeysetDBRecordReader<T> reader = new KeysetDBRecordReader<T>(split,
+        inputClass, conf, getConnection(), dbConf,
+        dbConf.getInputConditions(), dbConf.getInputFieldNames(),
+        dbConf.getInputTableName(), getDBProductName(), keyColumns,
+        keyIndexes, pageSize);
+    reader.setFailureHandler(failureHandler);
+    return reader;
+  }
 
   /*
    * Set the user-defined bounding query to use with a user-defined query.
@@ -0,0 +1,289 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.mapreduce.DBWritable;
+
+/**
+ * A RecordReader that reads a data-driven split in pages ordered by a set
+ * of key columns: the split column followed by columns which make the
+ * order unique, usually the table's primary key. Each page is a query of
+ * the form "... WHERE (splitCol, pk) &gt; (?, ?) ORDER BY splitCol, pk",
+ * with the row comparison spelled out so that any database accepts it,
+ * and a row limit set through Statement.setMaxRows(). It is bound to the
+ * key of the last row read. This bounds the rows any driver buffers for
+ * one query, and lets the reader reconnect after a failure and carry on
+ * from the last row it emitted instead of failing the task.
+ *
+ * The key columns must be unique taken together, must be among the
+ * imported columns, and only the split column may be NULL. Rows whose
+ * split column is NULL are read in a final, unpaged query.
+ */
+public class KeysetDBRecordReader<T extends DBWritable>
+    extends DataDrivenDBRecordReader<T> {
+
+  private static final Log LOG =
+      LogFactory.getLog(KeysetDBRecordReader.class);
+
+  // Number of times to reconnect after consecutive read failures.
+  protected static final int RETRY_MAX = 3;
+
+  private final int pageSize;
+  private final String [] keyColumns;
+  private final int [] keyIndexes;
+
+  // Predicate selecting the rows after the last key read.
+  private final String afterKeyClause;
+  private final int isolation;
+
+  // True if this split may contain rows with a NULL split column, which
+  // the paged queries can't reach.
+  private final boolean readNulls;
+
+  private SQLFailureHandler failureHandler;
+
+  private Object [] lastKey = null;
+  private int rowsInPage = 0;
+  private boolean inNullPass = false;
+
+  // CHECKSTYLE:OFF
+  /**
+   * @param keyColumns the split column followed by the columns which make
+   * the order unique.
+   * @param keyIndexes the 1-based positions of keyColumns among fields.
+   * @param pageSize the maximum number of rows fetched by each query.
+   */
+  public KeysetDBRecordReader(DBInputFormat.DBInputSplit split,
+      Class<T> inputClass, Configuration conf, Connection conn,
+      DBConfiguration dbConfig, String cond, String [] fields, String table,
+      String dbProduct, String [] keyColumns, int [] keyIndexes,
+      int pageSize) throws SQLException {
+    super(split, inputClass, conf, conn, dbConfig, cond, fields, table,
+        dbProduct);
+    this.keyColumns = keyColumns;
+    this.keyIndexes = keyIndexes;
+    this.afterKeyClause = getAfterKeyClause(keyColumns);
+    this.pageSize = pageSize;
+    this.isolation = conn.getTransactionIsolation();
+
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+    this.readNulls = !dataSplit.getLowerClause().contains(keyColumns[0])
+        && !dataSplit.getUpperClause().contains(keyColumns[0]);
+  }
+  // CHECKSTYLE:ON
+
+  /**
+   * @return "(k1 &gt; ?) OR (k1 = ? AND k2 &gt; ?) OR ...", true for rows
+   * ordered after the bound key.
+   */
+  static String getAfterKeyClause(String [] keyColumns) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < keyColumns.length; i++) {
+      if (i > 0) {
+        sb.append(" OR ");
+      }
+      sb.append("( ");
+      for (int j = 0; j < i; j++) {
+        sb.append(keyColumns[j]).append(" = ? AND ");
+      }
+      sb.append(keyColumns[i]).append(" > ? )");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the 1-based position of the split column among the imported
+   * columns, or 0 if it is not imported.
+   */
+  public static int getKeyIndex(String splitColumn, String [] fields) {
+    if (null == splitColumn || null == fields) {
+      return 0;
+    }
+    for (int i = 0; i < fields.length; i++) {
+      if (splitColumn.equalsIgnoreCase(fields[i])) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return true if a split can be read in pages; the split holding only
+   * NULL split column values can't.
+   */
+  public static boolean canPage(DBInputFormat.DBInputSplit split,
+      String splitColumn) {
+    if (!(split instanceof DataDrivenDBInputFormat.DataDrivenDBInputSplit)) {
+      return false;
+    }
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+    return !dataSplit.getLowerClause().equals(splitColumn + " IS NULL");
+  }
+
+  /**
+   * @param handler the handler used to reconnect after read failures, or
+   * null to fail the task on the first error as DBRecordReader does.
+   */
+  public void setFailureHandler(SQLFailureHandler handler) {
+    this.failureHandler = handler;
+  }
+
+  @Override
+  protected String getSelectQuery() {
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) getSplit();
+    String lowerClause = dataSplit.getLowerClause();
+    String upperClause = dataSplit.getUpperClause();
+
+    if (inNullPass) {
+      return getSelectQuery(lowerClause,
+          "( " + upperClause + " ) AND " + keyColumns[0] + " IS NULL");
+    }
+
+    if (null != lastKey) {
+      lowerClause = "( " + lowerClause + " ) AND ( " + afterKeyClause + " )";
+    } else if (readNulls) {
+      lowerClause = "( " + lowerClause + " ) AND " + keyColumns[0]
+          + " IS NOT NULL";
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append(getSelectQuery(lowerClause, upperClause));
+    query.append(" ORDER BY ");
+    for (int i = 0; i < keyColumns.length; i++) {
+      if (i > 0) {
+        query.append(", ");
+      }
+      query.append(keyColumns[i]);
+    }
+    return query.toString();
+  }
+
+  @Override
+  protected ResultSet executeQuery(String query) throws SQLException {
+    PreparedStatement stmt = getConnection().prepareStatement(query,
+        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    setStatement(stmt);
+
+    Integer fetchSize = getDBConf().getFetchSize();
+    if (fetchSize != null) {
+      stmt.setFetchSize(fetchSize);
+    }
+    if (!inNullPass) {
+      stmt.setMaxRows(pageSize);
+      if (null != lastKey) {
+        int param = 1;
+        for (int i = 0; i < lastKey.length; i++) {
+          for (int j = 0; j <= i; j++) {
+            stmt.setObject(param++, lastKey[j]);
+          }
+        }
+      }
+    }
+
+    LOG.info("Executing query: " + query
+        + (null != lastKey && !inNullPass
+        ? " with key " + Arrays.toString(lastKey) : ""));
+    return stmt.executeQuery();
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException {
+    int retries = 0;
+    while (true) {
+      boolean hasRow;
+      try {
+        hasRow = super.nextKeyValue();
+      } catch (IOException ioe) {
+        // The rows of the null pass can't be resumed part way through.
+        if (null == failureHandler || inNullPass || retries >= RETRY_MAX
+            || !failureHandler.canHandleFailure(ioe.getCause())) {
+          throw ioe;
+        }
+        retries++;
+        LOG.warn("Resuming split after key " + Arrays.toString(lastKey)
+            + " following read failure", ioe);
+        reconnect();
+        continue;
+      }
+
+      if (hasRow) {
+        if (!inNullPass) {
+          try {
+            Object [] key = new Object[keyIndexes.length];
+            for (int i = 0; i < keyIndexes.length; i++) {
+              key[i] = getResultSet().getObject(keyIndexes[i]);
+            }
+            lastKey = key;
+          } catch (SQLException sqlE) {
+            throw new IOException("Could not read key column values", sqlE);
+          }
+          rowsInPage++;
+        }
+        return true;
+      }
+
+      if (inNullPass) {
+        return false;
+      }
+      if (rowsInPage >= pageSize) {
+        // A full page; there may be more rows after lastKey.
+        rowsInPage = 0;
+        closePage();
+      } else if (readNulls) {
+        inNullPass = true;
+        closePage();
+      } else {
+        return false;
+      }
+    }
+  }
+
+  private void closePage() throws IOException {
+    try {
+      closeResults();
+    } catch (SQLException sqlE) {
+      throw new IOException("SQLException closing page", sqlE);
+    }
+  }
+
+  private void reconnect() throws IOException {
+    Connection conn = failureHandler.recover();
+    try {
+      conn.setAutoCommit(false);
+      conn.setTransactionIsolation(isolation);
+    } catch (SQLException sqlE) {
+      throw new IOException("Failed to configure recovered connection", sqlE);
+    }
+    setConnection(conn);
+    rowsInPage = 0;
+  }
+}
@@ -0,0 +1,315 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.mapreduce.DBWritable;
+
+/**
+ * A RecordReader which fetches rows through a DBRecordReader on a
+ * background thread, so that JDBC round trips overlap with the map thread's
+ * work on the rows already fetched.
+ *
+ * Rows are read into a fixed ring of batches of reusable records. The
+ * fetch thread fills free batches and the map thread consumes full ones,
+ * handing each batch back once it has moved past its last record.
+ *
+ * Large objects are read from the current row of the ResultSet when the
+ * mapper calls loadLargeObjects(), so tables with BLOB or CLOB columns are
+ * read on the map thread as usual.
+ */
+public class PrefetchingDBRecordReader<T extends DBWritable>
+    extends RecordReader<LongWritable, T> {
+
+  private static final Log LOG =
+      LogFactory.getLog(PrefetchingDBRecordReader.class);
+
+  /** A batch of rows. */
+  private static class Batch<T> {
+    private final LongWritable [] keys;
+    private final List<T> values;
+    private int size = 0;
+    // True for the batch marking the end of the input.
+    private boolean last = false;
+    private Throwable error = null;
+
+    Batch(int batchSize) {
+      keys = new LongWritable[batchSize];
+      values = new ArrayList<T>(batchSize);
+    }
+  }
+
+  private final DBRecordReader<T> reader;
+  private final int numBatches;
+  private final int batchSize;
+
+  private BlockingQueue<Batch<T>> free;
+  private BlockingQueue<Batch<T>> full;
+  private Thread fetchThread;
+  private volatile boolean closed = false;
+
+  // Read without a fetch thread.
+  private boolean passThrough = false;
+  private boolean started = false;
+
+  private Batch<T> current = null;
+  private int pos = 0;
+  private boolean done = false;
+
+  private LongWritable key = null;
+  private T value = null;
+
+  /**
+   * @param reader the reader to fetch rows with.
+   * @param numBatches the number of batches in the ring.
+   * @param batchSize the number of rows in each batch.
+   */
+  public PrefetchingDBRecordReader(DBRecordReader<T> reader, int numBatches,
+      int batchSize) {
+    this.reader = reader;
+    this.numBatches = Math.max(numBatches, 2);
+    this.batchSize = Math.max(batchSize, 1);
+  }
+
+  @Override
+  public void initialize(InputSplit split, TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    reader.initialize(split, context);
+  }
+
+  /**
+   * Read the first row on the calling thread, then start the fetch thread
+   * unless the rows hold large objects.
+   */
+  @SuppressWarnings("deprecation")
+  private boolean start() throws IOException {
+    started = true;
+    Batch<T> first = newBatch();
+    if (!reader.next(first.keys[0], first.values.get(0))) {
+      done = true;
+      return false;
+    }
+    reader.getCurrentValue();
+    first.size = 1;
+
+    if (hasLargeObjects(reader.getResultSet())) {
+      LOG.info("Not prefetching rows with large object columns");
+      passThrough = true;
+      key = reader.getCurrentKey();
+      value = reader.getCurrentValue();
+      return true;
+    }
+
+    free = new ArrayBlockingQueue<Batch<T>>(numBatches);
+    full = new ArrayBlockingQueue<Batch<T>>(numBatches);
+    for (int i = 1; i < numBatches; i++) {
+      free.add(newBatch());
+    }
+
+    // The fetch thread completes the batch holding the first row.
+    final Batch<T> firstBatch = first;
+    fetchThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        fetch(firstBatch);
+      }
+    }, "DBRecordReader prefetch");
+    fetchThread.setDaemon(true);
+    fetchThread.start();
+    return nextFromBatch();
+  }
+
+  private Batch<T> newBatch() {
+    Batch<T> batch = new Batch<T>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.keys[i] = new LongWritable();
+      batch.values.add(reader.createValue());
+    }
+    return batch;
+  }
+
+  private static boolean hasLargeObjects(ResultSet results) throws IOException {
+    if (null == results) {
+      return false;
+    }
+    try {
+      ResultSetMetaData metaData = results.getMetaData();
+      for (int i = 1; i <= metaData.getColumnCount(); i++) {
+        switch (metaData.getColumnType(i)) {
+        case Types.BLOB:
+        case Types.CLOB:
+        case Types.NCLOB:
+        case Types.LONGVARBINARY:
+          return true;
+        default:
+          break;
+        }
+      }
+      return false;
+    } catch (SQLException sqlE) {
+      throw new IOException("Could not read result set metadata", sqlE);
+    }
+  }
+
+  /**
+   * Body of the fetch thread: fill free batches until the input ends, an
+   * error occurs, or the reader is closed.
+   */
+  private void fetch(Batch<T> firstBatch) {
+    Batch<T> batch = firstBatch;
+    try {
+      while (!closed) {
+        boolean more = fill(batch);
+        batch.last = !more;
+        full.put(batch);
+        if (!more) {
+          return;
+        }
+        batch = free.take();
+        batch.size = 0;
+      }
+    } catch (InterruptedException ie) {
+      // Closed by the map thread.
+    } catch (Throwable t) {
+      // Hand over the rows read before the error, then the error itself.
+      batch.last = true;
+      batch.error = t;
+      full.offer(batch);
+    }
+  }
+
+  /**
+   * Read rows into the rest of a batch.
+   * @return false if the input ended.
+   */
+  @SuppressWarnings("deprecation")
+  private boolean fill(Batch<T> batch) throws IOException {
+    while (batch.size < batchSize) {
+      if (!reader.next(batch.keys[batch.size], batch.values.get(batch.size))) {
+        return false;
+      }
+      // Let readers which track the current row (e.g. for connection
+      // recovery) see it.
+      reader.getCurrentValue();
+      batch.size++;
+    }
+    return true;
+  }
+
+  private boolean nextFromBatch() throws IOException {
+    while (true) {
+      if (null != current && pos < current.size) {
+        key = current.keys[pos];
+        value = current.values.get(pos);
+        pos++;
+        return true;
+      }
+
+      if (null != current) {
+        if (current.last) {
+          done = true;
+          if (null != current.error) {
+            throw new IOException("Error prefetching rows", current.error);
+          }
+          return false;
+        }
+        // The map thread has moved past the whole batch; reuse it.
+        free.add(current);
+      }
+
+      try {
+        current = full.take();
+      } catch (InterruptedException ie) {
+        throw new IOException("Interrupted waiting for rows", ie);
+      }
+      pos = 0;
+    }
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException, InterruptedException {
+    if (done) {
+      return false;
+    }
+    if (!started) {
+      return start();
+    }
+    if (passThrough) {
+      if (!reader.nextKeyValue()) {
+        done = true;
+        return false;
+      }
+      key = reader.getCurrentKey();
+      value = reader.getCurrentValue();
+      return true;
+    }
+    return nextFromBatch();
+  }
+
+  /**
+   * @return true if rows are being fetched on a background thread.
+   */
+  boolean isPrefetching() {
+    return null != fetchThread;
+  }
+
+  @Override
+  public LongWritable getCurrentKey() {
+    return key;
+  }
+
+  @Override
+  public T getCurrentValue() {
+    return value;
+  }
+
+  @Override
+  public float getProgress() throws IOException {
+    return done ? 1.0f : reader.getProgress();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    if (null != fetchThread) {
+      fetchThread.interrupt();
+      try {
+        fetchThread.join();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    reader.close();
+  }
+}
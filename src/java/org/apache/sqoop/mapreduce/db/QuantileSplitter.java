@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+
+import org.apache.sqoop.config.ConfigurationHelper;
+
+/**
+ * Implement DBSplitter over numeric values using a sample of the split
+ * column rather than just its MIN and MAX.
+ *
+ * The split points are quantiles of the sample, so each split covers
+ * roughly the same number of rows even when the values are clustered.
+ * For integer columns, a value which accounts for more than one split's
+ * worth of rows gets a split of its own.
+ */
+public class QuantileSplitter implements DBSplitter {
+
+  public static final Log LOG =
+      LogFactory.getLog(QuantileSplitter.class.getName());
+
+  private final List<BigDecimal> sample;
+  private final boolean integral;
+
+  /**
+   * @param sample the sampled non-null values of the split column.
+   * @param integral true if the column holds integers, so that split
+   * points can be written as integer literals.
+   */
+  public QuantileSplitter(List<BigDecimal> sample, boolean integral) {
+    this.sample = new ArrayList<BigDecimal>(sample);
+    Collections.sort(this.sample);
+    this.integral = integral;
+  }
+
+  /**
+   * @return true if split points for columns of this type can be computed
+   * from a sample.
+   */
+  public static boolean isSupported(int sqlDataType) {
+    return isIntegral(sqlDataType)
+        || sqlDataType == Types.NUMERIC || sqlDataType == Types.DECIMAL;
+  }
+
+  /**
+   * @return true if columns of this type hold integers.
+   */
+  public static boolean isIntegral(int sqlDataType) {
+    switch (sqlDataType) {
+    case Types.INTEGER:
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.BIGINT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Reads the value to sample from the current row of a ResultSet.
+   */
+  public interface SampleReader<T> {
+    /**
+     * @return the value of the current row, or null to skip the row.
+     */
+    T read(ResultSet results) throws SQLException;
+  }
+
+  /**
+   * Draw a uniform random sample of at most sampleSize non-null values
+   * from the first column of a ResultSet.
+   */
+  public static List<BigDecimal> sample(ResultSet results, int sampleSize)
+      throws SQLException {
+    return sample(results, sampleSize, new SampleReader<BigDecimal>() {
+      @Override
+      public BigDecimal read(ResultSet rs) throws SQLException {
+        return rs.getBigDecimal(1);
+      }
+    });
+  }
+
+  /**
+   * Draw a uniform random sample of at most sampleSize non-null values
+   * read from the rows of a ResultSet.
+   */
+  public static <T> List<T> sample(ResultSet results, int sampleSize,
+      SampleReader<T> reader) throws SQLException {
+    // Reservoir sampling; fixed seed so split planning is repeatable.
+    Random random = new Random(sampleSize);
+    List<T> reservoir = new ArrayList<T>(sampleSize);
+    long seen = 0;
+    while (results.next()) {
+      T val = reader.read(results);
+      if (null == val) {
+        continue;
+      }
+      seen++;
+      if (reservoir.size() < sampleSize) {
+        reservoir.add(val);
+      } else {
+        long pos = (long) (random.nextDouble() * seen);
+        if (pos < sampleSize) {
+          reservoir.set((int) pos, val);
+        }
+      }
+    }
+    LOG.debug("Sampled " + reservoir.size() + " of " + seen + " values");
+    return reservoir;
+  }
+
+  /**
+   * Returns the boundaries between splits, one element longer than the
+   * number of splits. All splits are open on the top end except the last.
+   * Boundaries are distinct, so heavily repeated values can reduce the
+   * number of splits.
+   */
+  List<BigDecimal> split(int numSplits, BigDecimal minVal,
+      BigDecimal maxVal) {
+    List<BigDecimal> splits = new ArrayList<BigDecimal>();
+    splits.add(minVal);
+
+    int n = sample.size();
+    for (int i = 1; i < numSplits && n > 0; i++) {
+      BigDecimal quantile = sample.get((int) ((long) i * n / numSplits));
+      BigDecimal last = splits.get(splits.size() - 1);
+      if (quantile.compareTo(last) > 0 && quantile.compareTo(maxVal) < 0) {
+        splits.add(quantile);
+      } else if (integral && quantile.compareTo(last) == 0) {
+        // The previous boundary value spans several quantiles; isolate it
+        // in a split of its own.
+        BigDecimal next = last.add(BigDecimal.ONE);
+        if (next.compareTo(maxVal) < 0) {
+          splits.add(next);
+        }
+      }
+    }
+
+    BigDecimal last = splits.get(splits.size() - 1);
+    if (maxVal.compareTo(last) > 0 || splits.size() == 1) {
+      splits.add(maxVal);
+    }
+    return splits;
+  }
+
+  private String toLiteral(BigDecimal val) {
+    return integral ? val.toBigInteger().toString() : val.toPlainString();
+  }
+
+  @Override
+  public List<InputSplit> split(Configuration conf, ResultSet results,
+      String colName) throws SQLException {
+
+    BigDecimal minVal = results.getBigDecimal(1);
+    BigDecimal maxVal = results.getBigDecimal(2);
+
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    if (minVal == null && maxVal == null) {
+      // Range is null to null. Return a null split accordingly.
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+          colName + " IS NULL", colName + " IS NULL"));
+      return splits;
+    }
+
+    int numSplits = ConfigurationHelper.getConfNumMaps(conf);
+    if (numSplits < 1) {
+      numSplits = 1;
+    }
+
+    List<BigDecimal> splitPoints = split(numSplits,
+        minVal != null ? minVal : maxVal, maxVal != null ? maxVal : minVal);
+    LOG.info("Sampled split points: " + splitPoints.size() + " boundaries"
+        + " from " + sample.size() + " sampled values; requested "
+        + numSplits + " splits");
+
+    String lowClausePrefix = colName + " >= ";
+    String highClausePrefix = colName + " < ";
+    BigDecimal start = splitPoints.get(0);
+    for (int i = 1; i < splitPoints.size(); i++) {
+      BigDecimal end = splitPoints.get(i);
+
+      if (i == splitPoints.size() - 1) {
+        // This is the last one; use a closed interval.
+        splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+            lowClausePrefix + toLiteral(start),
+            colName + " <= " + toLiteral(end)));
+      } else {
+        // Normal open-interval case.
+        splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+            lowClausePrefix + toLiteral(start),
+            highClausePrefix + toLiteral(end)));
+      }
+
+      start = end;
+    }
+
+    if (minVal == null || maxVal == null) {
+      // At least one extrema is null; add a null split.
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+          colName + " IS NULL", colName + " IS NULL"));
+    }
+
+    return splits;
+  }
+}
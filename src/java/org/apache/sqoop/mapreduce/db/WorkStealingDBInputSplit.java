@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+
+/**
+ * An InputSplit for one task of a work-stealing import. Every split carries
+ * the WHERE clauses of all chunks of the import; the task reads the chunks
+ * of its own range first and then claims unread chunks of other tasks
+ * through a ChunkCoordinator.
+ */
+public class WorkStealingDBInputSplit extends DBInputFormat.DBInputSplit {
+
+  private String chunkDir;
+  private int taskIndex;
+  private int numTasks;
+  private String [] lowerClauses;
+  private String [] upperClauses;
+
+  /**
+   * Default Constructor.
+   */
+  public WorkStealingDBInputSplit() {
+  }
+
+  /**
+   * @param chunkDir the directory used to coordinate chunk claims.
+   * @param taskIndex the index of this split, from 0 to numTasks - 1.
+   * @param numTasks the number of splits sharing the chunks.
+   * @param chunks the data-driven splits to use as chunks.
+   */
+  public WorkStealingDBInputSplit(String chunkDir, int taskIndex,
+      int numTasks, List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> chunks) {
+    this.chunkDir = chunkDir;
+    this.taskIndex = taskIndex;
+    this.numTasks = numTasks;
+    this.lowerClauses = new String[chunks.size()];
+    this.upperClauses = new String[chunks.size()];
+    for (int i = 0; i < chunks.size(); i++) {
+      lowerClauses[i] = chunks.get(i).getLowerClause();
+      upperClauses[i] = chunks.get(i).getUpperClause();
+    }
+  }
+
+  /**
+   * Build the splits for a work-stealing import.
+   * @param chunks the data-driven splits to use as chunks.
+   * @param numTasks the number of map tasks to run.
+   * @param chunkDir the directory used to coordinate chunk claims.
+   */
+  public static List<InputSplit> getSplits(List<InputSplit> chunks,
+      int numTasks, String chunkDir) {
+    List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> dataChunks =
+        new ArrayList<DataDrivenDBInputFormat.DataDrivenDBInputSplit>();
+    for (InputSplit chunk : chunks) {
+      dataChunks.add((DataDrivenDBInputFormat.DataDrivenDBInputSplit) chunk);
+    }
+
+    int tasks = Math.min(numTasks, dataChunks.size());
+    List<InputSplit> splits = new ArrayList<InputSplit>(tasks);
+    for (int i = 0; i < tasks; i++) {
+      splits.add(new WorkStealingDBInputSplit(chunkDir, i, tasks, dataChunks));
+    }
+    return splits;
+  }
+
+  public String getChunkDir() {
+    return chunkDir;
+  }
+
+  public int getTaskIndex() {
+    return taskIndex;
+  }
+
+  public int getNumTasks() {
+    return numTasks;
+  }
+
+  public int getNumChunks() {
+    return lowerClauses.length;
+  }
+
+  public String getLowerClause(int chunk) {
+    return lowerClauses[chunk];
+  }
+
+  public String getUpperClause(int chunk) {
+    return upperClauses[chunk];
+  }
+
+  /**
+   * @return The total row count in this split.
+   */
+  public long getLength() throws IOException {
+    return 0; // unknown, and the chunks read are decided at run time.
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void readFields(DataInput input) throws IOException {
+    this.chunkDir = Text.readString(input);
+    this.taskIndex = input.readInt();
+    this.numTasks = input.readInt();
+    int numChunks = input.readInt();
+    this.lowerClauses = new String[numChunks];
+    this.upperClauses = new String[numChunks];
+    for (int i = 0; i < numChunks; i++) {
+      lowerClauses[i] = Text.readString(input);
+      upperClauses[i] = Text.readString(input);
+    }
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void write(DataOutput output) throws IOException {
+    Text.writeString(output, chunkDir);
+    output.writeInt(taskIndex);
+    output.writeInt(numTasks);
+    output.writeInt(lowerClauses.length);
+    for (int i = 0; i < lowerClauses.length; i++) {
+      Text.writeString(output, lowerClauses[i]);
+      Text.writeString(output, upperClauses[i]);
+    }
+  }
+
+  @Override
+  public String toString() {
+    int start = ChunkCoordinator.getRangeStart(getNumChunks(), numTasks,
+        taskIndex);
+    int end = ChunkCoordinator.getRangeStart(getNumChunks(), numTasks,
+        taskIndex + 1);
+    return "chunks " + start + " to " + (end - 1) + " of " + getNumChunks()
+        + " in " + chunkDir;
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedList;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.sqoop.mapreduce.DBWritable;
+
+/**
+ * A RecordReader for work-stealing imports. Reads chunks one at a time over
+ * a single connection, claiming each chunk from the ChunkCoordinator before
+ * reading it: first the chunks of its own range, then any chunk other tasks
+ * have not claimed yet.
+ */
+public class WorkStealingDBRecordReader<T extends DBWritable>
+    extends DataDrivenDBRecordReader<T> {
+
+  private static final Log LOG =
+      LogFactory.getLog(WorkStealingDBRecordReader.class);
+
+  private final WorkStealingDBInputSplit split;
+  private final ChunkCoordinator coordinator;
+  private final int [] claimOrder;
+
+  // Chunks to read before claiming more; a retried task re-reads the
+  // chunks claimed by its failed attempts.
+  private LinkedList<Integer> pending = new LinkedList<Integer>();
+  private int claimPos = 0;
+  private String owner;
+
+  private int currentChunk = -1;
+  private int chunksRead = 0;
+  private boolean done = false;
+
+  // CHECKSTYLE:OFF
+  public WorkStealingDBRecordReader(WorkStealingDBInputSplit split,
+      Class<T> inputClass, Configuration conf, Connection conn,
+      DBConfiguration dbConfig, String cond, String [] fields, String table,
+      String dbProduct) throws SQLException, IOException {
+    super(split, inputClass, conf, conn, dbConfig, cond, fields, table,
+        dbProduct);
+    this.split = split;
+    this.coordinator = new ChunkCoordinator(conf,
+        new Path(split.getChunkDir()));
+    this.claimOrder = ChunkCoordinator.getClaimOrder(split.getNumChunks(),
+        split.getNumTasks(), split.getTaskIndex());
+    this.owner = "task_" + split.getTaskIndex();
+  }
+  // CHECKSTYLE:ON
+
+  @Override
+  public void initialize(InputSplit inputSplit, TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    super.initialize(inputSplit, context);
+    TaskAttemptID attemptId = context.getTaskAttemptID();
+    if (null == attemptId) {
+      return;
+    }
+
+    owner = attemptId.getTaskID().toString();
+    if (attemptId.getId() > 0) {
+      // Output of the earlier attempts was discarded; read their chunks
+      // again.
+      pending.addAll(coordinator.getClaims(owner));
+      LOG.info("Re-reading " + pending.size()
+          + " chunks claimed by earlier attempts of " + owner);
+    }
+  }
+
+  /**
+   * @return the next chunk this task should read, or -1 once every chunk
+   * has been claimed.
+   */
+  private int nextChunk() throws IOException {
+    if (!pending.isEmpty()) {
+      return pending.removeFirst();
+    }
+    while (claimPos < claimOrder.length) {
+      int chunk = claimOrder[claimPos++];
+      if (coordinator.claim(chunk, owner)) {
+        return chunk;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  protected String getSelectQuery() {
+    return getSelectQuery(split.getLowerClause(currentChunk),
+        split.getUpperClause(currentChunk));
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException {
+    while (!done) {
+      if (currentChunk < 0) {
+        currentChunk = nextChunk();
+        if (currentChunk < 0) {
+          done = true;
+          break;
+        }
+        LOG.info("Working on chunk " + currentChunk + " of "
+            + split.getNumChunks());
+      }
+
+      if (super.nextKeyValue()) {
+        return true;
+      }
+
+      // The chunk is exhausted. Keep the connection for the next one, but
+      // end the transaction so the database can release its resources.
+      try {
+        closeResults();
+        getConnection().commit();
+      } catch (SQLException sqlE) {
+        throw new IOException("SQLException finishing chunk "
+            + currentChunk, sqlE);
+      }
+      chunksRead++;
+      currentChunk = -1;
+    }
+    return false;
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public float getProgress() throws IOException {
+    if (done) {
+      return 1.0f;
+    }
+    // We can't know how many chunks will be left to steal, so report
+    // progress against this task's share of them.
+    float share = split.getNumChunks() / (float) split.getNumTasks();
+    return Math.min(chunksRead / share, 1.0f);
+  }
+}
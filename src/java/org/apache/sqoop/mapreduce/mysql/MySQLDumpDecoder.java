@@ -0,0 +1,511 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.mysql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sqoop.lib.ByteSink;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.apache.sqoop.lib.FieldFormatter;
+
+/**
+ * Decodes the INSERT statements written by mysqldump into delimited text
+ * records in a single pass over the raw bytes.
+ *
+ * The values of each row are read from between the "VALUES (" and the
+ * closing ')' of the statement; rows of extended inserts are split apart.
+ * Lines which are not INSERT or REPLACE statements are skipped.
+ *
+ * If the output delimiters are mysqldump's own, the text of each row is
+ * copied as is. Otherwise the quotes and escape sequences of each value
+ * are decoded and the value is escaped and enclosed for the output
+ * delimiters, as FieldFormatter.escapeAndEnclose() would do.
+ *
+ * Since all of mysqldump's syntax is ASCII, the bytes of the values are
+ * never decoded into characters, and so are passed through in the
+ * character set mysqldump wrote them in (utf8 by default). Only output
+ * delimiters which are not ASCII, or which coincide, are handled by
+ * decoding the value as UTF-8 and formatting it as a String.
+ *
+ * This class is not synchronized.
+ */
+public class MySQLDumpDecoder {
+
+  public static final Log LOG = LogFactory.getLog(
+      MySQLDumpDecoder.class.getName());
+
+  /** Size of the buffer over mysqldump's output. */
+  public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+  private static final byte [] VALUES_MARK =
+      "VALUES (".getBytes(StandardCharsets.US_ASCII);
+  private static final byte [] INSERT_MARK =
+      "INSERT ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte [] REPLACE_MARK =
+      "REPLACE ".getBytes(StandardCharsets.US_ASCII);
+
+  // Longest statement preamble to look through for the VALUES mark.
+  private static final int MAX_HEADER_LEN = 64 * 1024;
+
+  private enum State {
+    HEADER,
+    SKIP_LINE,
+    SKIP_ROWS,
+    SKIP_QUOTED,
+    SKIP_QUOTED_ESCAPE,
+    FIELD_START,
+    QUOTED,
+    QUOTED_ESCAPE,
+    UNQUOTED,
+    FIELD_END,
+    ROW_END,
+    NEXT_ROW
+  }
+
+  private final InputStream in;
+  private final byte [] buffer;
+  private int pos;
+  private int limit;
+  private boolean eof;
+
+  private final DelimiterSet delimiters;
+  private final boolean copyValues;
+  private final boolean byteDelimiters;
+  private final byte fieldDelim;
+  private final byte recordDelim;
+  private final byte enclose;
+  private final byte escape;
+  private final boolean encloseRequired;
+
+  private final ByteSink header;
+  private final ByteSink field;
+  private State state;
+  private boolean inIdentifier;
+  private int fieldsInRow;
+  private long skippedRows;
+
+  public MySQLDumpDecoder(InputStream in, DelimiterSet delimiters) {
+    this(in, delimiters, DEFAULT_BUFFER_SIZE);
+  }
+
+  public MySQLDumpDecoder(InputStream in, DelimiterSet delimiters,
+      int bufferSize) {
+    this.in = in;
+    this.buffer = new byte[bufferSize];
+    this.delimiters = delimiters.copy();
+    this.copyValues = DelimiterSet.MYSQL_DELIMITERS.equals(delimiters);
+    this.byteDelimiters = isAscii(delimiters.getFieldsTerminatedBy())
+        && isAscii(delimiters.getLinesTerminatedBy())
+        && isAscii(delimiters.getEnclosedBy())
+        && isAscii(delimiters.getEscapedBy())
+        && FieldFormatter.hasDistinctDelimiters(delimiters);
+    this.fieldDelim = (byte) delimiters.getFieldsTerminatedBy();
+    this.recordDelim = (byte) delimiters.getLinesTerminatedBy();
+    this.enclose = (byte) delimiters.getEnclosedBy();
+    this.escape = (byte) delimiters.getEscapedBy();
+    this.encloseRequired = delimiters.isEncloseRequired();
+    this.header = new ByteSink(256);
+    this.field = new ByteSink();
+    this.state = State.HEADER;
+  }
+
+  private static boolean isAscii(char c) {
+    return c < 0x80;
+  }
+
+  /**
+   * @return the number of rows dropped because they could not be parsed.
+   */
+  public long getSkippedRows() {
+    return skippedRows;
+  }
+
+  /**
+   * Decode the next row into a record terminated by the output record
+   * delimiter.
+   *
+   * @param out the sink to write the record to. It is reset first.
+   * @return false if the end of the input was reached instead.
+   * @throws IOException if the input ends in the middle of a row.
+   */
+  public boolean nextRecord(ByteSink out) throws IOException {
+    out.reset();
+    while (true) {
+      if (pos == limit && !fill()) {
+        if (state != State.HEADER && state != State.SKIP_LINE
+            && state != State.SKIP_ROWS && state != State.SKIP_QUOTED
+            && state != State.SKIP_QUOTED_ESCAPE
+            && state != State.ROW_END && state != State.NEXT_ROW) {
+          throw new IOException("mysqldump output ended within a row");
+        }
+        return false;
+      }
+
+      byte b = buffer[pos++];
+      switch (state) {
+      case HEADER:
+        readHeader(b);
+        break;
+
+      case SKIP_LINE:
+        if (b == '\n') {
+          startLine();
+        }
+        break;
+
+      case SKIP_ROWS:
+        // Each further '(' outside a string starts another row of the
+        // statement, which is dropped along with the bad one.
+        if (b == '\n') {
+          startLine();
+        } else if (b == '\'') {
+          state = State.SKIP_QUOTED;
+        } else if (b == '(') {
+          skippedRows++;
+        }
+        break;
+
+      case SKIP_QUOTED:
+        if (b == '\n') {
+          startLine();
+        } else if (b == '\\') {
+          state = State.SKIP_QUOTED_ESCAPE;
+        } else if (b == '\'') {
+          state = State.SKIP_ROWS;
+        }
+        break;
+
+      case SKIP_QUOTED_ESCAPE:
+        if (b == '\n') {
+          startLine();
+        } else {
+          state = State.SKIP_QUOTED;
+        }
+        break;
+
+      case FIELD_START:
+        if (copyValues) {
+          if (b == ')') {
+            return endRow(out);
+          }
+          out.appendByte(b);
+          state = b == '\'' ? State.QUOTED : State.UNQUOTED;
+        } else if (b == '\'') {
+          state = State.QUOTED;
+        } else if (b == ',') {
+          finishField(out);
+        } else if (b == ')') {
+          if (fieldsInRow > 0) {
+            finishField(out); // an empty last field.
+          }
+          return endRow(out);
+        } else {
+          field.appendByte(b);
+          state = State.UNQUOTED;
+        }
+        break;
+
+      case UNQUOTED:
+        if (b == ',') {
+          if (copyValues) {
+            out.appendByte(b);
+            state = State.FIELD_START;
+          } else {
+            finishField(out);
+          }
+        } else if (b == ')') {
+          if (!copyValues) {
+            finishField(out);
+          }
+          return endRow(out);
+        } else if (copyValues) {
+          out.appendByte(b);
+        } else {
+          field.appendByte(b);
+        }
+        break;
+
+      case QUOTED:
+        if (copyValues) {
+          out.appendByte(b);
+        }
+        if (b == '\\') {
+          state = State.QUOTED_ESCAPE;
+        } else if (b == '\'') {
+          state = State.FIELD_END;
+        } else if (!copyValues) {
+          field.appendByte(b);
+        }
+        break;
+
+      case QUOTED_ESCAPE:
+        if (copyValues) {
+          out.appendByte(b);
+        } else {
+          field.appendByte(unescape(b));
+        }
+        state = State.QUOTED;
+        break;
+
+      case FIELD_END:
+        if (b == ',') {
+          if (copyValues) {
+            out.appendByte(b);
+            state = State.FIELD_START;
+          } else {
+            finishField(out);
+          }
+        } else if (b == ')') {
+          if (!copyValues) {
+            finishField(out);
+          }
+          return endRow(out);
+        } else {
+          skipRow(out);
+        }
+        break;
+
+      case ROW_END:
+        if (b == ',') {
+          state = State.NEXT_ROW; // the next row of an extended insert.
+        } else if (b == ';') {
+          state = State.SKIP_LINE;
+        } else if (b == '\n') {
+          startLine();
+        }
+        break;
+
+      case NEXT_ROW:
+        if (b == '(') {
+          state = State.FIELD_START;
+        } else if (b != '\n' && b != ' ') {
+          state = State.SKIP_LINE;
+        }
+        break;
+
+      default:
+        throw new IOException("Unexpected decoder state: " + state);
+      }
+    }
+  }
+
+  /**
+   * Refill the buffer.
+   * @return false at the end of the input.
+   */
+  private boolean fill() throws IOException {
+    if (eof) {
+      return false;
+    }
+    int n;
+    do {
+      n = in.read(buffer, 0, buffer.length);
+    } while (n == 0);
+    if (n < 0) {
+      eof = true;
+      return false;
+    }
+    pos = 0;
+    limit = n;
+    return true;
+  }
+
+  private void startLine() {
+    header.reset();
+    inIdentifier = false;
+    state = State.HEADER;
+  }
+
+  /**
+   * Add a byte of a statement preamble such as "INSERT INTO `t` VALUES (",
+   * starting the first row once the whole preamble has been read.
+   */
+  private void readHeader(byte b) {
+    if (b == '\n') {
+      startLine();
+      return;
+    }
+
+    header.appendByte(b);
+    if (b == '`') {
+      inIdentifier = !inIdentifier;
+    } else if (b == '(' && !inIdentifier && endsWith(header, VALUES_MARK)) {
+      if (startsWith(header, INSERT_MARK)
+          || startsWith(header, REPLACE_MARK)) {
+        fieldsInRow = 0;
+        state = State.FIELD_START;
+      } else {
+        state = State.SKIP_LINE;
+      }
+    } else if (header.getLength() > MAX_HEADER_LEN) {
+      state = State.SKIP_LINE;
+    }
+  }
+
+  private static boolean startsWith(ByteSink sink, byte [] mark) {
+    if (sink.getLength() < mark.length) {
+      return false;
+    }
+    byte [] bytes = sink.getBytes();
+    for (int i = 0; i < mark.length; i++) {
+      if (bytes[i] != mark[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean endsWith(ByteSink sink, byte [] mark) {
+    int start = sink.getLength() - mark.length;
+    if (start < 0) {
+      return false;
+    }
+    byte [] bytes = sink.getBytes();
+    for (int i = 0; i < mark.length; i++) {
+      if (bytes[start + i] != mark[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean endRow(ByteSink out) {
+    if (copyValues) {
+      out.appendByte('\n');
+    } else {
+      out.append(delimiters.getLinesTerminatedBy());
+    }
+    fieldsInRow = 0;
+    state = State.ROW_END;
+    return true;
+  }
+
+  /**
+   * Drop a row which could not be parsed, along with the rest of its line.
+   * The rows which follow it in an extended insert are counted as skipped
+   * too.
+   */
+  private void skipRow(ByteSink out) {
+    LOG.warn("Could not parse row from mysqldump; skipping the rest of "
+        + "its statement");
+    skippedRows++;
+    out.reset();
+    field.reset();
+    fieldsInRow = 0;
+    state = State.SKIP_ROWS;
+  }
+
+  /**
+   * @return the byte denoted by a backslash escape sequence in the string
+   * literals written by mysqldump.
+   */
+  static byte unescape(byte b) {
+    switch (b) {
+    case '0':
+      return 0;
+    case 'b':
+      return '\b';
+    case 'n':
+      return '\n';
+    case 'r':
+      return '\r';
+    case 't':
+      return '\t';
+    case 'Z':
+      return 0x1a;
+    default:
+      return b;
+    }
+  }
+
+  /**
+   * Write the decoded value of the current field to the record.
+   */
+  private void finishField(ByteSink out) {
+    if (fieldsInRow > 0) {
+      out.append(delimiters.getFieldsTerminatedBy());
+    }
+    if (byteDelimiters) {
+      escapeAndEnclose(out);
+    } else {
+      FieldFormatter.escapeAndEnclose(out, field.toString(), delimiters);
+    }
+    field.reset();
+    fieldsInRow++;
+    state = State.FIELD_START;
+  }
+
+  /**
+   * Byte-oriented equivalent of FieldFormatter.escapeAndEnclose() for
+   * distinct ASCII delimiters.
+   */
+  private void escapeAndEnclose(ByteSink out) {
+    byte [] bytes = field.getBytes();
+    int len = field.getLength();
+    boolean escapingLegal = escape != DelimiterSet.NULL_CHAR;
+
+    if (enclose == DelimiterSet.NULL_CHAR) {
+      if (!escapingLegal) {
+        out.appendBytes(bytes, 0, len);
+      } else {
+        appendEscaped(out, bytes, len, fieldDelim, recordDelim);
+      }
+      return;
+    }
+
+    boolean actuallyDoEnclose = encloseRequired;
+    for (int i = 0; i < len && !actuallyDoEnclose; i++) {
+      actuallyDoEnclose = bytes[i] == fieldDelim || bytes[i] == recordDelim;
+    }
+
+    if (actuallyDoEnclose) {
+      out.appendByte(enclose);
+    }
+    if (escapingLegal) {
+      appendEscaped(out, bytes, len, enclose, enclose);
+    } else {
+      out.appendBytes(bytes, 0, len);
+    }
+    if (actuallyDoEnclose) {
+      out.appendByte(enclose);
+    }
+  }
+
+  /**
+   * Append bytes, preceding the escape character and the two given
+   * characters with the escape character.
+   */
+  private void appendEscaped(ByteSink out, byte [] bytes, int len, byte c1,
+      byte c2) {
+    int runStart = 0;
+    for (int i = 0; i < len; i++) {
+      byte b = bytes[i];
+      if (b == escape || b == c1 || b == c2) {
+        out.appendBytes(bytes, runStart, i - runStart);
+        out.appendByte(escape);
+        runStart = i;
+      }
+    }
+    out.appendBytes(bytes, runStart, len - runStart);
+  }
+}
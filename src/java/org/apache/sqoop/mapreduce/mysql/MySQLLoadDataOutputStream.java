@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.mysql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sqoop.util.LoggingUtils;
+
+/**
+ * An OutputStream whose contents are loaded into a MySQL table by a
+ * "LOAD DATA LOCAL INFILE" statement over a JDBC connection, so that no
+ * FIFO or mysqlimport process is needed.
+ *
+ * MySQL Connector/J reads the contents of the local file from the
+ * InputStream set with setLocalInfileInputStream() on the statement. The
+ * statement is executed in a separate thread, reading the bytes written to
+ * this stream through a pipe. Closing this stream ends the input of the
+ * statement and commits the rows it loaded.
+ */
+public class MySQLLoadDataOutputStream extends OutputStream {
+
+  public static final Log LOG = LogFactory.getLog(
+      MySQLLoadDataOutputStream.class.getName());
+
+  // Bytes buffered between the writer and the statement.
+  private static final int PIPE_SIZE = 1024 * 1024;
+
+  private final Connection conn;
+  private final PipedOutputStream out;
+  private final LoadDataThread loadThread;
+  private boolean closed;
+
+  /**
+   * Start loading the bytes written to this stream.
+   * @param conn a Connector/J connection, with auto-commit disabled.
+   * @param sql the LOAD DATA LOCAL INFILE statement to execute.
+   */
+  public MySQLLoadDataOutputStream(Connection conn, String sql)
+      throws IOException {
+    this.conn = conn;
+    PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+    this.out = new PipedOutputStream(in);
+    this.loadThread = new LoadDataThread(conn, sql, in);
+    this.loadThread.start();
+  }
+
+  /**
+   * Executes the LOAD DATA statement, reading from the pipe.
+   */
+  private static class LoadDataThread extends Thread {
+    private final Connection conn;
+    private final String sql;
+    private final InputStream in;
+    private volatile SQLException error;
+    private int rowCount;
+
+    LoadDataThread(Connection conn, String sql, InputStream in) {
+      this.conn = conn;
+      this.sql = sql;
+      this.in = in;
+      setDaemon(true);
+      setName("MySQL LOAD DATA");
+    }
+
+    public void run() {
+      Statement stmt = null;
+      try {
+        stmt = conn.createStatement();
+        setLocalInfileInputStream(stmt, in);
+        stmt.execute(sql);
+        rowCount = stmt.getUpdateCount();
+      } catch (SQLException sqlE) {
+        error = sqlE;
+      } finally {
+        if (null != stmt) {
+          try {
+            stmt.close();
+          } catch (SQLException sqlE) {
+            LoggingUtils.logAll(LOG, "Failed to close statement", sqlE);
+          }
+        }
+
+        // Fail any further writes rather than block them.
+        try {
+          in.close();
+        } catch (IOException ioe) {
+          LOG.debug("Error closing pipe: " + ioe.toString());
+        }
+      }
+    }
+  }
+
+  /**
+   * Set the stream a Connector/J statement reads LOAD DATA LOCAL INFILE
+   * data from. This is looked up by name so that Connector/J is not needed
+   * to compile Sqoop, and works with both its com.mysql.jdbc and
+   * com.mysql.cj statements.
+   */
+  static void setLocalInfileInputStream(Statement stmt, InputStream in)
+      throws SQLException {
+    Method method;
+    try {
+      method = stmt.getClass().getMethod("setLocalInfileInputStream",
+          InputStream.class);
+    } catch (NoSuchMethodException nsme) {
+      throw new SQLException("JDBC driver statement "
+          + stmt.getClass().getName() + " cannot stream LOAD DATA LOCAL "
+          + "INFILE data; MySQL Connector/J is required", nsme);
+    }
+
+    try {
+      method.setAccessible(true);
+      method.invoke(stmt, in);
+    } catch (IllegalAccessException iae) {
+      throw new SQLException(iae);
+    } catch (InvocationTargetException ite) {
+      throw new SQLException(ite.getCause());
+    }
+  }
+
+  /**
+   * Rethrow the failure of the statement, if it has failed.
+   */
+  private void checkLoadError(IOException cause) throws IOException {
+    SQLException error = loadThread.error;
+    if (null != error) {
+      LoggingUtils.logAll(LOG, error);
+      throw new IOException("LOAD DATA LOCAL INFILE failed", error);
+    } else if (null != cause) {
+      throw cause;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    try {
+      out.write(b);
+    } catch (IOException ioe) {
+      checkLoadError(ioe);
+    }
+  }
+
+  @Override
+  public void write(byte [] b, int off, int len) throws IOException {
+    try {
+      out.write(b, off, len);
+    } catch (IOException ioe) {
+      checkLoadError(ioe);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    try {
+      out.flush();
+    } catch (IOException ioe) {
+      checkLoadError(ioe);
+    }
+  }
+
+  /**
+   * @return the number of rows loaded, once the stream is closed.
+   */
+  public int getRowCount() {
+    return loadThread.rowCount;
+  }
+
+  /**
+   * End the input of the statement, wait for it to complete and commit the
+   * rows it loaded.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      out.close();
+    } catch (IOException ioe) {
+      // The statement may have stopped reading already.
+      LOG.debug("Error closing pipe: " + ioe.toString());
+    }
+
+    while (true) {
+      try {
+        loadThread.join();
+      } catch (InterruptedException ie) {
+        // interrupted; loop around.
+        continue;
+      }
+
+      break;
+    }
+
+    try {
+      if (null != loadThread.error) {
+        conn.rollback();
+      } else {
+        conn.commit();
+      }
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, sqlE);
+      throw new IOException("Failed to end LOAD DATA transaction", sqlE);
+    }
+    checkLoadError(null);
+  }
+}
@@ -25,7 +25,6 @@
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
 import java.io.IOException;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
@@ -69,14 +68,8 @@ public MySQLUpsertRecordWriter(TaskAttemptContext context)
     protected PreparedStatement getPreparedStatement(
         List<SqoopRecord> userRecords) throws SQLException {
 
-      PreparedStatement stmt = null;
-
-      // Synchronize on connection to ensure this does not conflict
-      // with the operations in the update thread.
-      Connection conn = getConnection();
-      synchronized (conn) {
-	  stmt = conn.prepareStatement(getUpdateStatement(userRecords.size()));
-      }
+      PreparedStatement stmt =
+          prepareStatement(getUpdateStatement(userRecords.size()));
 
       // Inject the record parameters into the UPDATE and WHERE clauses.  This
       // assumes that the update key column is the last column serialized in
@@ -25,6 +25,11 @@ public final class ParquetConstants {
 
   public static final String SQOOP_PARQUET_OUTPUT_CODEC_KEY = "parquetjob.output.codec";
 
+  public static final String SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY = "parquetjob.configurator.implementation";
+
+  public static final ParquetJobConfiguratorImplementation SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_DEFAULT =
+      ParquetJobConfiguratorImplementation.KITE;
+
   private ParquetConstants() {
     throw new AssertionError("This class is meant for static use only.");
   }
@@ -19,7 +19,9 @@
 package org.apache.sqoop.mapreduce.parquet;
 
 import org.apache.hadoop.conf.Configuration;
-import org.apache.sqoop.mapreduce.parquet.kite.KiteParquetJobConfiguratorFactory;
+
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_DEFAULT;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY;
 
 public final class ParquetJobConfiguratorFactoryProvider {
 
@@ -28,7 +30,14 @@ private ParquetJobConfiguratorFactoryProvider() {
   }
 
   public static ParquetJobConfiguratorFactory createParquetJobConfiguratorFactory(Configuration configuration) {
-    return new KiteParquetJobConfiguratorFactory();
+    String implementation = configuration.get(SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY,
+        SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_DEFAULT.name());
+    try {
+      return ParquetJobConfiguratorImplementation.valueOf(implementation.toUpperCase()).createFactory();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown Parquet job configurator implementation '" + implementation
+          + "' set in " + SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY, e);
+    }
   }
 
 }
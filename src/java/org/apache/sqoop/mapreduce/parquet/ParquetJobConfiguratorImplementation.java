@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet;
+
+import org.apache.sqoop.mapreduce.parquet.hadoop.HadoopParquetJobConfiguratorFactory;
+import org.apache.sqoop.mapreduce.parquet.kite.KiteParquetJobConfiguratorFactory;
+
+/**
+ * The implementations of the Parquet job configurators, selected with
+ * {@link ParquetConstants#SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY}.
+ */
+public enum ParquetJobConfiguratorImplementation {
+
+  /** Writes Parquet datasets through the Kite SDK. */
+  KITE {
+    @Override
+    public ParquetJobConfiguratorFactory createFactory() {
+      return new KiteParquetJobConfiguratorFactory();
+    }
+  },
+
+  /** Writes Parquet files directly with parquet-hadoop. */
+  HADOOP {
+    @Override
+    public ParquetJobConfiguratorFactory createFactory() {
+      return new HadoopParquetJobConfiguratorFactory();
+    }
+  };
+
+  public abstract ParquetJobConfiguratorFactory createFactory();
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import org.apache.avro.Schema;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.mapreduce.parquet.ParquetImportJobConfigurator;
+import parquet.hadoop.ParquetOutputFormat;
+import parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_AVRO_SCHEMA_KEY;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_OUTPUT_CODEC_KEY;
+
+/**
+ * Configures an import which writes the imported records into Parquet
+ * files of the target directory with {@link SqoopRecordWriteSupport}.
+ *
+ * The row group size, page size and dictionary encoding are those of
+ * {@link ParquetOutputFormat}, and may be set through its
+ * parquet.block.size, parquet.page.size and parquet.enable.dictionary
+ * properties.
+ */
+public class HadoopParquetImportJobConfigurator implements ParquetImportJobConfigurator {
+
+  public static final Log LOG = LogFactory.getLog(HadoopParquetImportJobConfigurator.class.getName());
+
+  @Override
+  public void configureMapper(Job job, Schema schema, SqoopOptions options, String tableName, Path destination) throws IOException {
+    if (options.doHiveImport()) {
+      throw new IOException("Hive import of Parquet files is not supported by the Hadoop Parquet job configurator.");
+    }
+
+    Configuration conf = job.getConfiguration();
+    conf.set(SQOOP_PARQUET_AVRO_SCHEMA_KEY, schema.toString());
+    ParquetOutputFormat.setWriteSupportClass(job, SqoopRecordWriteSupport.class);
+
+    String codec = conf.get(SQOOP_PARQUET_OUTPUT_CODEC_KEY);
+    if (codec != null) {
+      ParquetOutputFormat.setCompression(job, getCompressionCodecName(codec));
+    }
+  }
+
+  @Override
+  public Class<? extends Mapper> getMapperClass() {
+    return HadoopParquetImportMapper.class;
+  }
+
+  @Override
+  public Class<? extends OutputFormat> getOutputFormatClass() {
+    return ParquetOutputFormat.class;
+  }
+
+  /**
+   * Map a Hadoop codec short name onto a Parquet compression codec. Deflate
+   * is written as GZIP, as the Kite implementation does.
+   */
+  static CompressionCodecName getCompressionCodecName(String codec) throws IOException {
+    if ("deflate".equalsIgnoreCase(codec)) {
+      return CompressionCodecName.GZIP;
+    }
+    try {
+      return CompressionCodecName.valueOf(codec.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Unsupported Parquet compression codec: " + codec, e);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import org.apache.avro.Schema;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.mapreduce.MergeParquetMapper;
+import org.apache.sqoop.mapreduce.parquet.ParquetMergeJobConfigurator;
+import parquet.avro.AvroParquetInputFormat;
+import parquet.avro.AvroParquetOutputFormat;
+import parquet.avro.AvroSchemaConverter;
+import parquet.hadoop.Footer;
+import parquet.hadoop.ParquetFileReader;
+import parquet.hadoop.metadata.FileMetaData;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_AVRO_SCHEMA_KEY;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_OUTPUT_CODEC_KEY;
+
+public class HadoopParquetMergeJobConfigurator implements ParquetMergeJobConfigurator {
+
+  public static final Log LOG = LogFactory.getLog(HadoopParquetMergeJobConfigurator.class.getName());
+
+  @Override
+  public void configureParquetMergeJob(Configuration conf, Job job, Path oldPath, Path newPath,
+                                       Path finalPath) throws IOException {
+    LOG.info("Trying to merge parquet files");
+    job.setMapperClass(MergeParquetMapper.class);
+    job.setReducerClass(HadoopMergeParquetReducer.class);
+
+    Schema avroSchema = getAvroSchema(job.getConfiguration(), oldPath);
+
+    job.setInputFormatClass(AvroParquetInputFormat.class);
+    AvroParquetInputFormat.setAvroReadSchema(job, avroSchema);
+
+    conf.set(SQOOP_PARQUET_AVRO_SCHEMA_KEY, avroSchema.toString());
+    job.setOutputFormatClass(AvroParquetOutputFormat.class);
+    AvroParquetOutputFormat.setSchema(job, avroSchema);
+    String codec = conf.get(SQOOP_PARQUET_OUTPUT_CODEC_KEY);
+    if (codec != null) {
+      AvroParquetOutputFormat.setCompression(job,
+          HadoopParquetImportJobConfigurator.getCompressionCodecName(codec));
+    }
+  }
+
+  /**
+   * Read the Avro schema stored in the footer of the Parquet files under the
+   * given path, or convert their Parquet schema if there is none.
+   */
+  private Schema getAvroSchema(Configuration conf, Path path) throws IOException {
+    FileStatus fileStatus = path.getFileSystem(conf).getFileStatus(path);
+    List<Footer> footers = ParquetFileReader.readFooters(conf, fileStatus, true);
+    FileMetaData fileMetaData = footers.get(0).getParquetMetadata().getFileMetaData();
+    String schemaString = fileMetaData.getKeyValueMetaData().get(
+        SqoopRecordWriteSupport.AVRO_SCHEMA_METADATA_KEY);
+    if (schemaString != null) {
+      return AvroUtil.parseAvroSchema(schemaString);
+    }
+    return new AvroSchemaConverter().convert(fileMetaData.getSchema());
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.config.ConfigurationConstants;
+import org.apache.sqoop.lib.BlobRef;
+import org.apache.sqoop.lib.ClobRef;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.ImportJobBase;
+import parquet.avro.AvroSchemaConverter;
+import parquet.hadoop.api.WriteSupport;
+import parquet.io.api.Binary;
+import parquet.io.api.RecordConsumer;
+import parquet.schema.MessageType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_AVRO_SCHEMA_KEY;
+
+/**
+ * Writes the fields of SqoopRecords straight into Parquet columns.
+ *
+ * The Parquet schema is converted from the Avro schema of the import, and
+ * the Avro schema is stored in the file metadata as parquet-avro does, so
+ * the files read back as the Kite-written ones do. Each field is visited
+ * with {@link SqoopRecord#visitFields(FieldVisitor)} and converted as
+ * {@link AvroUtil#toAvro} would convert it, without building a field map
+ * or a GenericRecord per row.
+ */
+public class SqoopRecordWriteSupport extends WriteSupport<SqoopRecord> {
+
+  /** The file metadata key under which parquet-avro looks for the schema. */
+  static final String AVRO_SCHEMA_METADATA_KEY = "parquet.avro.schema";
+
+  private Schema avroSchema;
+  private boolean bigDecimalFormatString;
+  private boolean bigDecimalPadding;
+  private RecordConsumer recordConsumer;
+
+  /** The Avro field of each visited field index, resolved on first use. */
+  private Schema.Field [] fields;
+  private Schema [] fieldSchemas;
+
+  private final Conversions.DecimalConversion decimalConversion =
+      new Conversions.DecimalConversion();
+
+  private final FieldVisitor fieldWriter = new FieldVisitor() {
+    @Override
+    public void visit(int index, String fieldName, Object value)
+        throws IOException {
+      writeField(index, fieldName, value);
+    }
+  };
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    avroSchema = AvroUtil.parseAvroSchema(
+        configuration.get(SQOOP_PARQUET_AVRO_SCHEMA_KEY));
+    bigDecimalFormatString = configuration.getBoolean(
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
+    bigDecimalPadding = configuration.getBoolean(
+        ConfigurationConstants.PROP_ENABLE_AVRO_DECIMAL_PADDING, false);
+    int numFields = avroSchema.getFields().size();
+    fields = new Schema.Field[numFields];
+    fieldSchemas = new Schema[numFields];
+
+    MessageType parquetSchema = new AvroSchemaConverter().convert(avroSchema);
+    Map<String, String> extraMetadata = Collections.singletonMap(
+        AVRO_SCHEMA_METADATA_KEY, avroSchema.toString());
+    return new WriteContext(parquetSchema, extraMetadata);
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer consumer) {
+    this.recordConsumer = consumer;
+  }
+
+  @Override
+  public void write(SqoopRecord record) {
+    recordConsumer.startMessage();
+    try {
+      record.visitFields(fieldWriter);
+    } catch (IOException ioe) {
+      throw new RuntimeException("Could not write record to Parquet", ioe);
+    }
+    recordConsumer.endMessage();
+  }
+
+  private void writeField(int index, String fieldName, Object value) {
+    if (index >= fields.length) {
+      throw new IllegalArgumentException("Field " + fieldName
+          + " is not in Avro schema " + avroSchema);
+    }
+    if (null == fields[index]) {
+      Schema.Field field = avroSchema.getField(
+          AvroUtil.toAvroColumn(fieldName));
+      if (null == field) {
+        throw new IllegalArgumentException("Field " + fieldName
+            + " is not in Avro schema " + avroSchema);
+      }
+      fields[index] = field;
+      fieldSchemas[index] = getNonNullSchema(field.schema());
+    }
+
+    if (null == value) {
+      // Missing optional fields are written as nulls.
+      return;
+    }
+
+    Schema.Field field = fields[index];
+    recordConsumer.startField(field.name(), field.pos());
+    writeValue(fieldSchemas[index], value);
+    recordConsumer.endField(field.name(), field.pos());
+  }
+
+  private void writeValue(Schema schema, Object value) {
+    switch (schema.getType()) {
+    case BOOLEAN:
+      recordConsumer.addBoolean((Boolean) value);
+      break;
+    case INT:
+      recordConsumer.addInteger(((Number) value).intValue());
+      break;
+    case LONG:
+      if (value instanceof java.util.Date) {
+        // java.sql.Date, Time and Timestamp are all written as millis.
+        recordConsumer.addLong(((java.util.Date) value).getTime());
+      } else {
+        recordConsumer.addLong(((Number) value).longValue());
+      }
+      break;
+    case FLOAT:
+      recordConsumer.addFloat(((Number) value).floatValue());
+      break;
+    case DOUBLE:
+      recordConsumer.addDouble(((Number) value).doubleValue());
+      break;
+    case STRING:
+      recordConsumer.addBinary(Binary.fromString(toStringValue(value)));
+      break;
+    case BYTES:
+      recordConsumer.addBinary(toBinary(schema, value));
+      break;
+    default:
+      throw new IllegalArgumentException("Cannot write Avro type "
+          + schema.getType() + " to Parquet");
+    }
+  }
+
+  private String toStringValue(Object value) {
+    if (value instanceof BigDecimal && bigDecimalFormatString) {
+      // Returns a string representation of this without an exponent field.
+      return ((BigDecimal) value).toPlainString();
+    } else if (value instanceof ClobRef) {
+      throw new UnsupportedOperationException("ClobRef not supported");
+    }
+    return value.toString();
+  }
+
+  private Binary toBinary(Schema schema, Object value) {
+    if (value instanceof BytesWritable) {
+      BytesWritable bw = (BytesWritable) value;
+      return Binary.fromByteArray(bw.getBytes(), 0, bw.getLength());
+    } else if (value instanceof BlobRef) {
+      BlobRef br = (BlobRef) value;
+      // If blob data is stored in an external .lob file, save the ref file
+      // as bytes. If materialized inline, save blob data as bytes.
+      byte [] bytes = br.isExternal() ? br.toString().getBytes() : br.getData();
+      return Binary.fromByteArray(bytes);
+    } else if (value instanceof BigDecimal && AvroUtil.isDecimal(schema)) {
+      // As for Avro files, a decimal is only brought to the scale of the
+      // schema if padding is enabled; otherwise a different scale is
+      // rejected by the conversion.
+      BigDecimal bd = (BigDecimal) value;
+      if (bigDecimalPadding) {
+        int scale = Integer.parseInt(schema.getObjectProp("scale").toString());
+        if (bd.scale() != scale) {
+          bd = bd.setScale(scale);
+        }
+      }
+      ByteBuffer bytes = decimalConversion.toBytes(bd, schema,
+          schema.getLogicalType());
+      return Binary.fromByteBuffer(bytes);
+    }
+    throw new IllegalArgumentException("Cannot write "
+        + value.getClass().getName() + " as Parquet bytes");
+  }
+
+  private static Schema getNonNullSchema(Schema schema) {
+    if (schema.getType() == Schema.Type.UNION) {
+      for (Schema type : schema.getTypes()) {
+        if (type.getType() != Schema.Type.NULL) {
+          return type;
+        }
+      }
+    }
+    return schema;
+  }
+}
@@ -0,0 +1,316 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * Reads rows in the binary format of PostgreSQL's COPY TO STDOUT into the
+ * fields of a SqoopRecord, without formatting the values as text and
+ * parsing them again.
+ *
+ * Each column is read by a FieldDecoder chosen from its PostgreSQL type
+ * name, which returns the Java type Sqoop generates for that column.
+ */
+public class PostgreSQLBinaryCopyDecoder {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final BigInteger NBASE = BigInteger.valueOf(10000);
+
+  // Sign of a numeric which is not a number.
+  private static final int NUMERIC_NAN = 0xC000;
+  private static final int NUMERIC_NEG = 0x4000;
+
+  /**
+   * Reads one value in the binary format of a PostgreSQL type.
+   */
+  public abstract static class FieldDecoder {
+    /**
+     * @param length the number of bytes holding the value.
+     * @return the value, as the Java type of the generated record field.
+     */
+    public abstract Object read(DataInputStream in, int length)
+        throws IOException;
+  }
+
+  private static final FieldDecoder INT2 = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return Integer.valueOf(in.readShort());
+    }
+  };
+
+  private static final FieldDecoder INT4 = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return Integer.valueOf(in.readInt());
+    }
+  };
+
+  private static final FieldDecoder INT8 = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return Long.valueOf(in.readLong());
+    }
+  };
+
+  private static final FieldDecoder FLOAT4 = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return Float.valueOf(in.readFloat());
+    }
+  };
+
+  private static final FieldDecoder FLOAT8 = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return Double.valueOf(in.readDouble());
+    }
+  };
+
+  private static final FieldDecoder BOOL = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return Boolean.valueOf(in.readByte() != 0);
+    }
+  };
+
+  private static final FieldDecoder TEXT = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      byte [] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, UTF8);
+    }
+  };
+
+  private static final FieldDecoder BYTEA = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      byte [] bytes = new byte[length];
+      in.readFully(bytes);
+      return new BytesWritable(bytes);
+    }
+  };
+
+  private static final FieldDecoder NUMERIC = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return readNumeric(in);
+    }
+  };
+
+  private static final FieldDecoder DATE = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      long local = PostgreSQLBinaryCopyEncoder.PG_EPOCH_MILLIS
+          + in.readInt() * 86400000L;
+      return new Date(fromLocalMillis(local));
+    }
+  };
+
+  private static final FieldDecoder TIME = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return new Time(fromLocalMillis(in.readLong() / 1000L));
+    }
+  };
+
+  private static final FieldDecoder TIMESTAMP = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return fromPostgresMicros(in.readLong(), true);
+    }
+  };
+
+  private static final FieldDecoder TIMESTAMPTZ = new FieldDecoder() {
+    @Override
+    public Object read(DataInputStream in, int length) throws IOException {
+      return fromPostgresMicros(in.readLong(), false);
+    }
+  };
+
+  private final DataInputStream in;
+  private final String [] fieldNames;
+  private final FieldDecoder [] decoders;
+
+  /**
+   * @param in the COPY data.
+   * @param fieldNames the SqoopRecord field names of the columns.
+   * @param typeNames the PostgreSQL type names of the columns.
+   * @throws IOException if a column has a type with no decoder.
+   */
+  public PostgreSQLBinaryCopyDecoder(InputStream in, String [] fieldNames,
+      String [] typeNames) throws IOException {
+    this.in = new DataInputStream(in);
+    this.fieldNames = fieldNames;
+    this.decoders = new FieldDecoder[fieldNames.length];
+    for (int i = 0; i < fieldNames.length; i++) {
+      decoders[i] = getDecoder(typeNames[i]);
+      if (null == decoders[i]) {
+        throw new IOException("Column " + fieldNames[i] + " has type "
+            + typeNames[i] + ", which binary COPY import does not support");
+      }
+    }
+  }
+
+  /**
+   * @return the decoder for a PostgreSQL type name, or null if there is
+   * none.
+   */
+  public static FieldDecoder getDecoder(String typeName) {
+    String type = typeName.toLowerCase();
+    if (type.equals("int2") || type.equals("smallint")) {
+      return INT2;
+    } else if (type.equals("int4") || type.equals("integer")
+        || type.equals("serial")) {
+      return INT4;
+    } else if (type.equals("int8") || type.equals("bigint")
+        || type.equals("bigserial")) {
+      return INT8;
+    } else if (type.equals("float4") || type.equals("real")) {
+      return FLOAT4;
+    } else if (type.equals("float8") || type.equals("double precision")) {
+      return FLOAT8;
+    } else if (type.equals("numeric") || type.equals("decimal")) {
+      return NUMERIC;
+    } else if (type.equals("bool") || type.equals("boolean")) {
+      return BOOL;
+    } else if (type.equals("text") || type.equals("varchar")
+        || type.equals("bpchar") || type.equals("name")) {
+      return TEXT;
+    } else if (type.equals("bytea")) {
+      return BYTEA;
+    } else if (type.equals("date")) {
+      return DATE;
+    } else if (type.equals("time")) {
+      return TIME;
+    } else if (type.equals("timestamp")) {
+      return TIMESTAMP;
+    } else if (type.equals("timestamptz")) {
+      return TIMESTAMPTZ;
+    }
+    return null;
+  }
+
+  /**
+   * Read and check the header which starts the COPY data.
+   */
+  public void readHeader() throws IOException {
+    byte [] signature = new byte[PostgreSQLBinaryCopyEncoder.SIGNATURE.length];
+    in.readFully(signature);
+    if (!Arrays.equals(signature, PostgreSQLBinaryCopyEncoder.SIGNATURE)) {
+      throw new IOException("Missing binary COPY signature");
+    }
+    int flags = in.readInt();
+    if ((flags & (1 << 16)) != 0) {
+      throw new IOException("Binary COPY data with OIDs is not supported");
+    }
+    int extensionLength = in.readInt();
+    in.readFully(new byte[extensionLength]);
+  }
+
+  /**
+   * Read the next row into the fields of a record.
+   * @return false if the trailer was read instead.
+   */
+  public boolean readRow(SqoopRecord record) throws IOException {
+    int numFields = in.readShort();
+    if (numFields == -1) {
+      return false;
+    }
+    if (numFields != decoders.length) {
+      throw new IOException("Expected " + decoders.length
+          + " fields per row but got " + numFields);
+    }
+    for (int i = 0; i < numFields; i++) {
+      int length = in.readInt();
+      Object value = length < 0 ? null : decoders[i].read(in, length);
+      record.setField(fieldNames[i], value);
+    }
+    return true;
+  }
+
+  /**
+   * Read a numeric written as the number of base 10000 digits, the weight
+   * of the first digit, the sign, the display scale and the digits.
+   */
+  static BigDecimal readNumeric(DataInputStream in) throws IOException {
+    int ndigits = in.readShort();
+    int weight = in.readShort();
+    int sign = in.readShort() & 0xffff;
+    int dscale = in.readShort();
+    if (sign == NUMERIC_NAN) {
+      throw new IOException("NaN numeric values are not supported");
+    }
+
+    BigInteger unscaled = BigInteger.ZERO;
+    for (int i = 0; i < ndigits; i++) {
+      unscaled = unscaled.multiply(NBASE).add(
+          BigInteger.valueOf(in.readShort()));
+    }
+    // Only zeros lie beyond the display scale.
+    BigDecimal value = new BigDecimal(unscaled).scaleByPowerOfTen(
+        4 * (weight - ndigits + 1)).setScale(dscale);
+    return sign == NUMERIC_NEG ? value.negate() : value;
+  }
+
+  /**
+   * @return the milliseconds since the epoch at which the local time zone
+   * shows the wall clock time that UTC shows at local.
+   */
+  private static long fromLocalMillis(long local) {
+    TimeZone tz = TimeZone.getDefault();
+    long millis = local - tz.getOffset(local);
+    // Correct for an offset change between the two instants.
+    return local - tz.getOffset(millis);
+  }
+
+  /**
+   * @param local if true, the value is a wall clock time in the local
+   * time zone.
+   */
+  static Timestamp fromPostgresMicros(long micros, boolean local) {
+    long seconds = micros / 1000000L;
+    long fraction = micros % 1000000L;
+    if (fraction < 0) {
+      seconds--;
+      fraction += 1000000L;
+    }
+    long millis = PostgreSQLBinaryCopyEncoder.PG_EPOCH_MILLIS
+        + seconds * 1000L;
+    Timestamp ts = new Timestamp(local ? fromLocalMillis(millis) : millis);
+    ts.setNanos((int) (fraction * 1000L));
+    return ts;
+  }
+}
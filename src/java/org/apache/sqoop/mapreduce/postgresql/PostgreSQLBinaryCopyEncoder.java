@@ -0,0 +1,444 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * Writes rows in the binary format of PostgreSQL's COPY FROM STDIN, so
+ * that the server stores each value without parsing it from text and the
+ * data needs no delimiters or escaping.
+ *
+ * Each column is written by a FieldEncoder chosen from its PostgreSQL type
+ * name. The values are those of the fields of a SqoopRecord, which are
+ * visited in order and written as they are visited, so the COPY column list
+ * must follow the order of the record's fields.
+ */
+public class PostgreSQLBinaryCopyEncoder {
+
+  /** The signature which starts the binary COPY format. */
+  static final byte [] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0,
+  };
+
+  // 2000-01-01 00:00:00 UTC, the epoch of PostgreSQL dates and times.
+  static final long PG_EPOCH_MILLIS = 946684800000L;
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  // Scale of the digits of a numeric.
+  private static final int NBASE_DIGITS = 4;
+
+  /**
+   * Writes one value, preceded by its length, in the binary format of a
+   * PostgreSQL type.
+   */
+  public abstract static class FieldEncoder {
+    /**
+     * @param value the non-null value of a SqoopRecord field.
+     */
+    public abstract void write(Object value, DataOutputStream out)
+        throws IOException;
+  }
+
+  private static final FieldEncoder INT2 = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(2);
+      out.writeShort(((Number) value).shortValue());
+    }
+  };
+
+  private static final FieldEncoder INT4 = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(4);
+      out.writeInt(((Number) value).intValue());
+    }
+  };
+
+  private static final FieldEncoder INT8 = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(8);
+      out.writeLong(((Number) value).longValue());
+    }
+  };
+
+  private static final FieldEncoder FLOAT4 = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(4);
+      out.writeFloat(((Number) value).floatValue());
+    }
+  };
+
+  private static final FieldEncoder FLOAT8 = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(8);
+      out.writeDouble(((Number) value).doubleValue());
+    }
+  };
+
+  private static final FieldEncoder BOOL = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(1);
+      out.writeByte(((Boolean) value).booleanValue() ? 1 : 0);
+    }
+  };
+
+  /**
+   * Writes text as UTF-8 through a buffer kept for the column, so that no
+   * byte array is allocated per value.
+   */
+  private static class TextEncoder extends FieldEncoder {
+    private byte [] buf = new byte[64];
+
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      String str = value.toString();
+      int len = str.length();
+      if (buf.length < 3 * len) {
+        buf = new byte[Math.max(3 * len, 2 * buf.length)];
+      }
+      int pos = 0;
+      for (int i = 0; i < len; i++) {
+        char c = str.charAt(i);
+        if (c < 0x80) {
+          buf[pos++] = (byte) c;
+        } else if (c < 0x800) {
+          buf[pos++] = (byte) (0xc0 | (c >> 6));
+          buf[pos++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c) && i + 1 < len
+            && Character.isLowSurrogate(str.charAt(i + 1))) {
+          int cp = Character.toCodePoint(c, str.charAt(++i));
+          buf[pos++] = (byte) (0xf0 | (cp >> 18));
+          buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+          buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+          buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+        } else if (Character.isSurrogate(c)) {
+          // Unpaired, replaced as String.getBytes() does.
+          buf[pos++] = (byte) '?';
+        } else {
+          buf[pos++] = (byte) (0xe0 | (c >> 12));
+          buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+          buf[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+      }
+      out.writeInt(pos);
+      out.write(buf, 0, pos);
+    }
+  }
+
+  private static final FieldEncoder BYTEA = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      if (value instanceof BytesWritable) {
+        BytesWritable bytes = (BytesWritable) value;
+        out.writeInt(bytes.getLength());
+        out.write(bytes.getBytes(), 0, bytes.getLength());
+      } else {
+        byte [] bytes = (byte []) value;
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+  };
+
+  private static final FieldEncoder NUMERIC = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      writeNumeric(toBigDecimal(value), out);
+    }
+  };
+
+  private static final FieldEncoder DATE = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(4);
+      out.writeInt((int) floorDiv(toLocalMillis((Date) value)
+          - PG_EPOCH_MILLIS, MILLIS_PER_DAY));
+    }
+  };
+
+  private static final FieldEncoder TIME = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      long millis = floorMod(toLocalMillis((Date) value), MILLIS_PER_DAY);
+      out.writeInt(8);
+      out.writeLong(millis * 1000L);
+    }
+  };
+
+  private static final FieldEncoder TIMESTAMP = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      // A timestamp without time zone holds the wall clock time the value
+      // was parsed from.
+      out.writeInt(8);
+      out.writeLong(toPostgresMicros((Date) value, true));
+    }
+  };
+
+  private static final FieldEncoder TIMESTAMPTZ = new FieldEncoder() {
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+      out.writeInt(8);
+      out.writeLong(toPostgresMicros((Date) value, false));
+    }
+  };
+
+  private final DataOutputStream out;
+  private final String [] fieldNames;
+
+  // The encoder of each record field, or null if it is not copied.
+  private final FieldEncoder [] encoders;
+  private final int numColumns;
+
+  private final FieldVisitor fieldWriter = new FieldVisitor() {
+    @Override
+    public void visit(int index, String fieldName, Object value)
+        throws IOException {
+      writeField(index, fieldName, value);
+    }
+  };
+
+  /**
+   * @param out the stream to write the COPY data to.
+   * @param fieldNames the names of the SqoopRecord's fields, in the order
+   * they are visited.
+   * @param typeNames the PostgreSQL type name of the column each field is
+   * copied to, or null for a field which is not copied. The COPY command's
+   * column list holds the copied fields in the same order.
+   * @throws IOException if a column has a type with no encoder.
+   */
+  public PostgreSQLBinaryCopyEncoder(OutputStream out, String [] fieldNames,
+      String [] typeNames) throws IOException {
+    this.out = new DataOutputStream(out);
+    this.fieldNames = fieldNames;
+    this.encoders = new FieldEncoder[fieldNames.length];
+    int copied = 0;
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (null == typeNames[i]) {
+        continue;
+      }
+      encoders[i] = getEncoder(typeNames[i]);
+      if (null == encoders[i]) {
+        throw new IOException("Column " + fieldNames[i] + " has type "
+            + typeNames[i] + ", which binary COPY export does not support");
+      }
+      copied++;
+    }
+    this.numColumns = copied;
+  }
+
+  /**
+   * @return the encoder for a PostgreSQL type name, or null if there is
+   * none.
+   */
+  public static FieldEncoder getEncoder(String typeName) {
+    String type = typeName.toLowerCase();
+    if (type.equals("int2") || type.equals("smallint")) {
+      return INT2;
+    } else if (type.equals("int4") || type.equals("integer")
+        || type.equals("serial")) {
+      return INT4;
+    } else if (type.equals("int8") || type.equals("bigint")
+        || type.equals("bigserial")) {
+      return INT8;
+    } else if (type.equals("float4") || type.equals("real")) {
+      return FLOAT4;
+    } else if (type.equals("float8") || type.equals("double precision")) {
+      return FLOAT8;
+    } else if (type.equals("numeric") || type.equals("decimal")) {
+      return NUMERIC;
+    } else if (type.equals("bool") || type.equals("boolean")) {
+      return BOOL;
+    } else if (type.equals("text") || type.equals("varchar")
+        || type.equals("bpchar") || type.equals("name")) {
+      return new TextEncoder();
+    } else if (type.equals("bytea")) {
+      return BYTEA;
+    } else if (type.equals("date")) {
+      return DATE;
+    } else if (type.equals("time")) {
+      return TIME;
+    } else if (type.equals("timestamp")) {
+      return TIMESTAMP;
+    } else if (type.equals("timestamptz")) {
+      return TIMESTAMPTZ;
+    }
+    return null;
+  }
+
+  /**
+   * Write the header which starts the COPY data.
+   */
+  public void writeHeader() throws IOException {
+    out.write(SIGNATURE);
+    out.writeInt(0); // flags
+    out.writeInt(0); // header extension length
+  }
+
+  /**
+   * Write a row holding the fields of a record.
+   */
+  public void writeRow(SqoopRecord record) throws IOException {
+    out.writeShort(numColumns);
+    record.visitFields(fieldWriter);
+  }
+
+  private void writeField(int index, String fieldName, Object value)
+      throws IOException {
+    if (index >= encoders.length || !fieldName.equals(fieldNames[index])) {
+      throw new IOException("Record field " + fieldName + " at " + index
+          + " does not match the COPY columns");
+    }
+    FieldEncoder encoder = encoders[index];
+    if (null == encoder) {
+      return;
+    } else if (null == value) {
+      out.writeInt(-1);
+    } else {
+      encoder.write(value, out);
+    }
+  }
+
+  /**
+   * Write the trailer which ends the COPY data, and flush the stream.
+   */
+  public void writeTrailer() throws IOException {
+    out.writeShort(-1);
+    out.flush();
+  }
+
+  private static BigDecimal toBigDecimal(Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    return new BigDecimal(value.toString());
+  }
+
+  /**
+   * Write a numeric as its length, the number of base 10000 digits, the
+   * weight of the first digit, the sign, the display scale and the digits.
+   */
+  static void writeNumeric(BigDecimal value, DataOutputStream out)
+      throws IOException {
+    int dscale = Math.max(0, value.scale());
+    String plain = value.abs().toPlainString();
+    int point = plain.indexOf('.');
+    String intPart = point < 0 ? plain : plain.substring(0, point);
+    String fracPart = point < 0 ? "" : plain.substring(point + 1);
+
+    // Align both parts to whole base 10000 digits around the point.
+    int intPad = (NBASE_DIGITS - intPart.length() % NBASE_DIGITS)
+        % NBASE_DIGITS;
+    int fracPad = (NBASE_DIGITS - fracPart.length() % NBASE_DIGITS)
+        % NBASE_DIGITS;
+    StringBuilder digits = new StringBuilder(intPad + plain.length()
+        + fracPad);
+    for (int i = 0; i < intPad; i++) {
+      digits.append('0');
+    }
+    digits.append(intPart).append(fracPart);
+    for (int i = 0; i < fracPad; i++) {
+      digits.append('0');
+    }
+
+    int numGroups = digits.length() / NBASE_DIGITS;
+    short [] groups = new short[numGroups];
+    for (int i = 0; i < numGroups; i++) {
+      groups[i] = Short.parseShort(digits.substring(i * NBASE_DIGITS,
+          (i + 1) * NBASE_DIGITS));
+    }
+
+    int weight = (intPad + intPart.length()) / NBASE_DIGITS - 1;
+    int first = 0;
+    while (first < numGroups && groups[first] == 0) {
+      first++;
+      weight--;
+    }
+    int last = numGroups;
+    while (last > first && groups[last - 1] == 0) {
+      last--;
+    }
+    int ndigits = last - first;
+    if (ndigits == 0) {
+      weight = 0;
+    }
+
+    out.writeInt(8 + 2 * ndigits);
+    out.writeShort(ndigits);
+    out.writeShort(weight);
+    out.writeShort(value.signum() < 0 ? 0x4000 : 0x0000);
+    out.writeShort(dscale);
+    for (int i = first; i < last; i++) {
+      out.writeShort(groups[i]);
+    }
+  }
+
+  /**
+   * @return the milliseconds since the epoch at which UTC shows the same
+   * wall clock time as the local time zone does for d.
+   */
+  private static long toLocalMillis(Date d) {
+    long millis = d.getTime();
+    return millis + TimeZone.getDefault().getOffset(millis);
+  }
+
+  /**
+   * @param local if true, encode the local wall clock time of d.
+   * @return the microseconds since the PostgreSQL epoch.
+   */
+  static long toPostgresMicros(Date d, boolean local) {
+    long millis = local ? toLocalMillis(d) : d.getTime();
+    long seconds = floorDiv(millis, 1000L);
+    long micros;
+    if (d instanceof java.sql.Timestamp) {
+      micros = ((java.sql.Timestamp) d).getNanos() / 1000L;
+    } else {
+      micros = floorMod(millis, 1000L) * 1000L;
+    }
+    return (seconds - PG_EPOCH_MILLIS / 1000L) * 1000000L + micros;
+  }
+
+  private static long floorDiv(long x, long y) {
+    long q = x / y;
+    if ((x % y != 0) && ((x < 0) != (y < 0))) {
+      q--;
+    }
+    return q;
+  }
+
+  private static long floorMod(long x, long y) {
+    return x - floorDiv(x, y) * y;
+  }
+}
@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.RecordParser;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.mapreduce.ExportJobBase;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.util.LoggingUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Mapper that exports rows from HDFS to a PostgreSQL database with the
+ * binary format of the COPY command.
+ *
+ * Text input is parsed into the generated SqoopRecord class; SequenceFile
+ * input already holds SqoopRecords. Either way the fields of each record
+ * are visited and encoded straight into the COPY stream by
+ * PostgreSQLBinaryCopyEncoder, without a field map per row, so the server
+ * does not parse the values and the data needs no delimiters. The COPY
+ * column list is resolved once, in the order of the record's fields.
+ */
+public class PostgreSQLBinaryCopyExportMapper
+    extends AutoProgressMapper<LongWritable, Writable,
+                               NullWritable, NullWritable> {
+  public static final Log LOG =
+    LogFactory.getLog(PostgreSQLBinaryCopyExportMapper.class.getName());
+
+  private Connection conn = null;
+  private PGCopyOutputStream copyOut = null;
+  private PostgreSQLBinaryCopyEncoder encoder = null;
+  private SqoopRecord recordImpl = null;
+
+  public PostgreSQLBinaryCopyExportMapper() {
+  }
+
+  @Override
+  protected void setup(Context context)
+    throws IOException, InterruptedException {
+
+    super.setup(context);
+    Configuration conf = context.getConfiguration();
+    DBConfiguration dbConf = new DBConfiguration(conf);
+
+    String recordClassName = conf.get(
+        ExportJobBase.SQOOP_EXPORT_TABLE_CLASS_KEY);
+    if (null == recordClassName) {
+      throw new IOException("Export table class name ("
+          + ExportJobBase.SQOOP_EXPORT_TABLE_CLASS_KEY
+          + ") is not set!");
+    }
+    try {
+      Class cls = Class.forName(recordClassName, true,
+          Thread.currentThread().getContextClassLoader());
+      recordImpl = (SqoopRecord) ReflectionUtils.newInstance(cls, conf);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException(cnfe);
+    }
+
+    try {
+      conn = dbConf.getConnection();
+    } catch (ClassNotFoundException ex) {
+      LOG.error("Unable to load JDBC driver class", ex);
+      throw new IOException(ex);
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to connect", ex);
+      throw new IOException(ex);
+    }
+
+    String tableName = dbConf.getOutputTableName();
+    String [] columns = dbConf.getOutputFieldNames();
+    try {
+      // The type of each column, by name.
+      Map<String, String> columnTypes = new LinkedHashMap<String, String>();
+      Statement stmt = conn.createStatement();
+      try {
+        ResultSet rs = stmt.executeQuery("SELECT "
+            + (null == columns ? "*" : join(columns)) + " FROM " + tableName
+            + " WHERE 1 = 0");
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          columnTypes.put(metaData.getColumnName(i),
+              metaData.getColumnTypeName(i));
+        }
+        rs.close();
+      } finally {
+        stmt.close();
+      }
+
+      // Copy the columns in the order the record's fields are visited, so
+      // that each row is encoded as its fields are visited.
+      final List<String> fieldNames = new ArrayList<String>();
+      recordImpl.visitFields(new FieldVisitor() {
+        @Override
+        public void visit(int index, String fieldName, Object value) {
+          fieldNames.add(fieldName);
+        }
+      });
+      String [] typeNames = new String[fieldNames.size()];
+      List<String> copyColumns = new ArrayList<String>();
+      for (int i = 0; i < typeNames.length; i++) {
+        String column = getColumnName(columnTypes, fieldNames.get(i));
+        if (null != column) {
+          typeNames[i] = columnTypes.get(column);
+          copyColumns.add("\"" + column.replace("\"", "\"\"") + "\"");
+        }
+      }
+      if (copyColumns.isEmpty()) {
+        throw new IOException("None of the fields of " + recordClassName
+            + " is a column of " + tableName);
+      }
+
+      String sql = "COPY " + tableName + " ("
+          + join(copyColumns.toArray(new String[0])) + ")"
+          + " FROM STDIN WITH (FORMAT binary)";
+      LOG.debug("Starting export with copy: " + sql);
+      copyOut = new PGCopyOutputStream((PGConnection) conn, sql);
+      encoder = new PostgreSQLBinaryCopyEncoder(copyOut,
+          fieldNames.toArray(new String[0]), typeNames);
+      encoder.writeHeader();
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to start binary copy", ex);
+      close();
+      throw new IOException(ex);
+    } catch (IOException ioe) {
+      close();
+      throw ioe;
+    }
+  }
+
+  /**
+   * @return the column a record field is exported to, matched by name
+   * ignoring case if there is no exact match, or null if there is none.
+   */
+  private static String getColumnName(Map<String, String> columnTypes,
+      String fieldName) {
+    if (columnTypes.containsKey(fieldName)) {
+      return fieldName;
+    }
+    for (String column : columnTypes.keySet()) {
+      if (column.equalsIgnoreCase(fieldName)) {
+        return column;
+      }
+    }
+    return null;
+  }
+
+  private static String join(String [] columns) {
+    StringBuilder sb = new StringBuilder();
+    for (String column : columns) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(column);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void map(LongWritable key, Writable value, Context context)
+    throws IOException, InterruptedException {
+    SqoopRecord record;
+    if (value instanceof SqoopRecord) {
+      record = (SqoopRecord) value;
+    } else {
+      try {
+        recordImpl.parse((Text) value);
+      } catch (RecordParser.ParseError pe) {
+        throw new IOException("Could not parse record", pe);
+      }
+      record = recordImpl;
+    }
+    encoder.writeRow(record);
+  }
+
+  @Override
+  protected void cleanup(Context context)
+    throws IOException, InterruptedException {
+    try {
+      encoder.writeTrailer();
+      long rows = copyOut.endCopy();
+      LOG.info("Copied " + rows + " rows");
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to finalize copy", ex);
+      throw new IOException(ex);
+    } finally {
+      close();
+    }
+  }
+
+  void close() throws IOException {
+    if (conn != null) {
+      try {
+        conn.close();
+      } catch (SQLException ex) {
+        LoggingUtils.logAll(LOG, "Unable to close connection", ex);
+        throw new IOException(ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.DBWritable;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.db.DBInputFormat;
+import org.apache.sqoop.mapreduce.db.DataDrivenDBRecordReader;
+import org.apache.sqoop.util.LoggingUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyInputStream;
+
+/**
+ * A RecordReader that reads a data-driven split from PostgreSQL with
+ * "COPY (query) TO STDOUT WITH (FORMAT binary)" and decodes each row
+ * straight into the fields of the generated record, instead of reading
+ * it through a JDBC ResultSet.
+ */
+public class PostgreSQLBinaryCopyRecordReader<T extends DBWritable>
+    extends DataDrivenDBRecordReader<T> {
+
+  private static final Log LOG =
+      LogFactory.getLog(PostgreSQLBinaryCopyRecordReader.class);
+
+  // Size of the buffer over the COPY data.
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // The planner's row estimate in the top line of EXPLAIN output.
+  private static final Pattern EXPLAIN_ROWS = Pattern.compile(" rows=(\\d+)");
+
+  private PGCopyInputStream copyIn = null;
+  private PostgreSQLBinaryCopyDecoder decoder = null;
+  private boolean done = false;
+
+  private LongWritable key = null;
+  private T value = null;
+  private long pos = 0;
+  private long estimatedRows = 0;
+
+  // CHECKSTYLE:OFF
+  public PostgreSQLBinaryCopyRecordReader(DBInputFormat.DBInputSplit split,
+      Class<T> inputClass, Configuration conf, Connection conn,
+      DBConfiguration dbConfig, String cond, String [] fields, String table)
+      throws SQLException {
+    super(split, inputClass, conf, conn, dbConfig, cond, fields, table,
+        "POSTGRESQL");
+  }
+  // CHECKSTYLE:ON
+
+  /**
+   * Start the COPY of the split's rows.
+   */
+  private void startCopy() throws SQLException, IOException {
+    String query = getSelectQuery();
+
+    // Describe the query to find the type of each column.
+    String [] fieldNames;
+    String [] typeNames;
+    PreparedStatement stmt = getConnection().prepareStatement(query);
+    try {
+      ResultSetMetaData metaData = stmt.getMetaData();
+      int numColumns = metaData.getColumnCount();
+      fieldNames = new String[numColumns];
+      typeNames = new String[numColumns];
+      for (int i = 0; i < numColumns; i++) {
+        fieldNames[i] = metaData.getColumnLabel(i + 1);
+        typeNames[i] = metaData.getColumnTypeName(i + 1);
+      }
+    } finally {
+      stmt.close();
+    }
+    estimatedRows = estimateRows(query);
+
+    String sql = "COPY (" + query + ") TO STDOUT WITH (FORMAT binary)";
+    LOG.info("Working on split: " + getSplit());
+    LOG.info("Executing copy: " + sql);
+    copyIn = new PGCopyInputStream((PGConnection) getConnection(), sql);
+    decoder = new PostgreSQLBinaryCopyDecoder(
+        new BufferedInputStream(copyIn, BUFFER_SIZE), fieldNames, typeNames);
+    decoder.readHeader();
+  }
+
+  /**
+   * @return the number of rows the planner expects the query to return,
+   * or 0 if it gives no estimate.
+   */
+  private long estimateRows(String query) throws SQLException {
+    Statement stmt = getConnection().createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("EXPLAIN " + query);
+      if (rs.next()) {
+        Matcher m = EXPLAIN_ROWS.matcher(rs.getString(1));
+        if (m.find()) {
+          return Long.parseLong(m.group(1));
+        }
+      }
+    } finally {
+      stmt.close();
+    }
+    return 0;
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException {
+    if (done) {
+      return false;
+    }
+    if (key == null) {
+      key = new LongWritable();
+    }
+    if (value == null) {
+      value = createValue();
+    }
+
+    try {
+      if (null == decoder) {
+        startCopy();
+      }
+      if (!decoder.readRow((SqoopRecord) value)) {
+        done = true;
+        return false;
+      }
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, sqlE);
+      throw new IOException("SQLException starting binary copy", sqlE);
+    }
+
+    key.set(pos + getSplit().getStart());
+    pos++;
+    return true;
+  }
+
+  @Override
+  public LongWritable getCurrentKey() {
+    return key;
+  }
+
+  @Override
+  public T getCurrentValue() {
+    return value;
+  }
+
+  @Override
+  public long getPos() throws IOException {
+    return pos;
+  }
+
+  @Override
+  public float getProgress() throws IOException {
+    if (done) {
+      return 1.0f;
+    } else if (estimatedRows <= 0) {
+      return 0.0f;
+    }
+    // The estimate may be low; stay short of done until the copy ends.
+    return Math.min(0.99f, pos / (float) estimatedRows);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (null != copyIn) {
+      try {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      } catch (SQLException sqlE) {
+        LoggingUtils.logAll(LOG, "Failed to cancel copy", sqlE);
+      }
+      copyIn = null;
+    }
+    super.close();
+  }
+}
@@ -42,6 +42,12 @@ public class PostgreSQLCopyExportJob extends JdbcExportJob {
   public static final Log LOG =
     LogFactory.getLog(PostgreSQLCopyExportJob.class.getName());
 
+  /**
+   * If true, rows are sent in the binary COPY format by
+   * PostgreSQLBinaryCopyExportMapper instead of as delimited text.
+   */
+  public static final String BINARY_COPY_KEY = "postgresql.export.binary";
+
   public PostgreSQLCopyExportJob(final ExportJobContext context, final ParquetExportJobConfigurator parquetExportJobConfigurator) {
     super(context, parquetExportJobConfigurator);
   }
@@ -56,6 +62,9 @@ public PostgreSQLCopyExportJob(final ExportJobContext ctxt,
 
   @Override
   protected Class<? extends Mapper> getMapperClass() {
+    if (context.getOptions().getConf().getBoolean(BINARY_COPY_KEY, false)) {
+      return PostgreSQLBinaryCopyExportMapper.class;
+    }
     return PostgreSQLCopyExportMapper.class;
   }
 
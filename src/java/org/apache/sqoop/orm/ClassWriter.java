@@ -25,7 +25,7 @@
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,12 +39,16 @@
 import org.apache.sqoop.mapreduce.ImportJobBase;
 
 import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.lib.AvroFieldWriter;
 import org.apache.sqoop.lib.BigDecimalSerializer;
 import org.apache.sqoop.lib.BlobRef;
 import org.apache.sqoop.lib.BooleanParser;
+import org.apache.sqoop.lib.ByteRecordParser;
+import org.apache.sqoop.lib.ByteSink;
 import org.apache.sqoop.lib.ClobRef;
 import org.apache.sqoop.lib.DelimiterSet;
 import org.apache.sqoop.lib.FieldFormatter;
+import org.apache.sqoop.lib.FieldVisitor;
 import org.apache.sqoop.lib.JdbcWritableBridge;
 import org.apache.sqoop.lib.LargeObjectLoader;
 import org.apache.sqoop.lib.LobSerializer;
@@ -130,6 +134,27 @@ public class ClassWriter {
   public static final String PROPERTY_CODEGEN_METHODS_MAXCOLS =
       "codegen.methods.maxcols";
 
+  /**
+   * If true, the generated parse(Text) method splits records with a
+   * ByteRecordParser and converts fields directly from their UTF-8 bytes
+   * rather than building a String for every field first.
+   */
+  public static final String PROPERTY_CODEGEN_BYTE_PARSER =
+      "codegen.parser.bytes";
+
+  public static final boolean BYTE_PARSER_DEFAULT = false;
+
+  /**
+   * If true, Integer, Long, Float, Double and Boolean columns are stored in
+   * primitive fields with their nulls tracked in a bitmap, so that reading
+   * and writing them does not allocate a wrapper object per value. The
+   * boxed getters and setters are still generated.
+   */
+  public static final String PROPERTY_CODEGEN_PRIMITIVE_FIELDS =
+      "codegen.primitive.fields";
+
+  public static final boolean PRIMITIVE_FIELDS_DEFAULT = false;
+
   /**
    * This version number is injected into all generated Java classes to denote
    * which version of the ClassWriter's output format was used to generate the
@@ -153,6 +178,14 @@ public class ClassWriter {
    */
   private int maxColumnsPerMethod;
 
+  private boolean useByteParser;
+
+  private boolean usePrimitiveFields;
+
+  // Maps each column stored in a primitive field to its bit in the
+  // generated class' null bitmap.
+  private Map<String, Integer> nullBitIndex;
+
   private SqoopOptions options;
   private ConnManager connManager;
   private String tableName;
@@ -179,6 +212,11 @@ public ClassWriter(final SqoopOptions opts, final ConnManager connMgr,
     this.maxColumnsPerMethod = this.options.getConf().getInt(
         PROPERTY_CODEGEN_METHODS_MAXCOLS,
         MAX_COLUMNS_PER_METHOD_DEFAULT);
+    this.useByteParser = this.options.getConf().getBoolean(
+        PROPERTY_CODEGEN_BYTE_PARSER, BYTE_PARSER_DEFAULT);
+    this.usePrimitiveFields = this.options.getConf().getBoolean(
+        PROPERTY_CODEGEN_PRIMITIVE_FIELDS, PRIMITIVE_FIELDS_DEFAULT);
+    this.nullBitIndex = new HashMap<String, Integer>();
   }
 
   /**
@@ -358,8 +396,69 @@ private String dbSetterForType(String javaType) {
     }
   }
 
+  /**
+   * @param javaType the boxed type of a column
+   * @return the primitive type which can back a field of this type, or
+   * null if there is none.
+   */
+  private static String primitiveTypeFor(String javaType) {
+    if (javaType.equals("Integer")) {
+      return "int";
+    } else if (javaType.equals("Long")) {
+      return "long";
+    } else if (javaType.equals("Float")) {
+      return "float";
+    } else if (javaType.equals("Double")) {
+      return "double";
+    } else if (javaType.equals("Boolean")) {
+      return "boolean";
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @return true if the column is stored in a primitive field.
+   */
+  private boolean isPrimitiveField(String colName) {
+    return nullBitIndex.containsKey(colName);
+  }
+
+  /**
+   * @return an expression which is true if the primitive-backed column of
+   * 'owner' is null.
+   */
+  private String isNullExpr(String owner, String colName) {
+    return owner + ".__isNull(" + nullBitIndex.get(colName) + ")";
+  }
+
+  /**
+   * @return a statement which marks the primitive-backed column of this
+   * object as null or non-null.
+   */
+  private String setNullStmt(String colName, boolean isNull) {
+    return "this.__setNull(" + nullBitIndex.get(colName) + ", " + isNull
+        + ");";
+  }
+
+  /**
+   * @return an expression for the boxed value of a column of 'owner',
+   * which is null if the column is null.
+   */
+  private String boxedFieldExpr(String owner, String colName) {
+    if (isPrimitiveField(colName)) {
+      return owner + ".get_" + colName + "()";
+    } else {
+      return owner + "." + colName;
+    }
+  }
+
   private String stringifierForType(String javaType, String colName) {
-    if (javaType.equals("String")) {
+    if (isPrimitiveField(colName)) {
+      return isNullExpr("this", colName) + "?\""
+          + this.options.getNullNonStringValue() + "\":" + "\"\" + "
+          + colName;
+    } else if (javaType.equals("String")) {
       // Check if it is null, and write the null representation in such case
       String r = colName  + "==null?\"" + this.options.getNullStringValue()
           + "\":" + colName;
@@ -446,6 +545,18 @@ private String rpcGetterForType(String javaType, String inputObj,
    */
   private String rpcGetterForMaybeNull(String javaType, String inputObj,
       String colName) {
+    if (isPrimitiveField(colName)) {
+      String primitive = primitiveTypeFor(javaType);
+      String readMethod = "read" + Character.toUpperCase(primitive.charAt(0))
+          + primitive.substring(1);
+      return "    if (" + inputObj + ".readBoolean()) { \n"
+          + "        " + setNullStmt(colName, true) + "\n"
+          + "    } else {\n"
+          + "        this." + colName + " = " + inputObj + "." + readMethod
+          + "();\n"
+          + "        " + setNullStmt(colName, false) + "\n"
+          + "    }\n";
+    }
     return "    if (" + inputObj + ".readBoolean()) { \n"
         + "        this." + colName + " = null;\n"
         + "    } else {\n"
@@ -511,7 +622,9 @@ private String rpcSetterForType(String javaType, String outputObj,
    */
   private String rpcSetterForMaybeNull(String javaType, String outputObj,
       String colName) {
-    return "    if (null == this." + colName + ") { \n"
+    String nullCheck = isPrimitiveField(colName)
+        ? isNullExpr("this", colName) : "null == this." + colName;
+    return "    if (" + nullCheck + ") { \n"
         + "        " + outputObj + ".writeBoolean(true);\n"
         + "    } else {\n"
         + "        " + outputObj + ".writeBoolean(false);\n"
@@ -557,6 +670,26 @@ private int topBoundary(String[] colNames, int methodNumber, int size) {
   private void generateFields(Map<String, Integer> columnTypes,
       String [] colNames, String className, StringBuilder sb) {
 
+    if (!nullBitIndex.isEmpty()) {
+      // Null bitmap for the columns stored in primitive fields. Every
+      // column starts out null, like the object-typed fields.
+      sb.append("  private long [] __nulls = new long["
+          + ((colNames.length + 63) / 64) + "];\n");
+      sb.append("  {\n");
+      sb.append("    Arrays.fill(__nulls, -1L);\n");
+      sb.append("  }\n");
+      sb.append("  private boolean __isNull(int __bit) {\n");
+      sb.append("    return (__nulls[__bit >> 6] & (1L << __bit)) != 0;\n");
+      sb.append("  }\n");
+      sb.append("  private void __setNull(int __bit, boolean __isNull) {\n");
+      sb.append("    if (__isNull) {\n");
+      sb.append("      __nulls[__bit >> 6] |= 1L << __bit;\n");
+      sb.append("    } else {\n");
+      sb.append("      __nulls[__bit >> 6] &= ~(1L << __bit);\n");
+      sb.append("    }\n");
+      sb.append("  }\n");
+    }
+
     for (String col : colNames) {
       int sqlType = columnTypes.get(col);
       String javaType = toJavaType(col, sqlType);
@@ -565,6 +698,11 @@ private void generateFields(Map<String, Integer> columnTypes,
         continue;
       }
 
+      if (isPrimitiveField(col)) {
+        generatePrimitiveField(javaType, col, className, sb);
+        continue;
+      }
+
       sb.append("  private " + javaType + " " + col + ";\n");
       sb.append("  public " + javaType + " get_" + col + "() {\n");
       sb.append("    return " + col + ";\n");
@@ -581,6 +719,37 @@ private void generateFields(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * Generate a primitive member field with boxed getter, setter and with
+   * methods for a column whose nulls are tracked in the null bitmap.
+   * @param javaType - the boxed type of the column
+   * @param col - the column name
+   * @param className - name of the generated class
+   * @param sb - StringBuilder to append code to
+   */
+  private void generatePrimitiveField(String javaType, String col,
+      String className, StringBuilder sb) {
+    sb.append("  private " + primitiveTypeFor(javaType) + " " + col + ";\n");
+    sb.append("  public " + javaType + " get_" + col + "() {\n");
+    sb.append("    return " + isNullExpr("this", col) + " ? null : "
+        + javaType + ".valueOf(" + col + ");\n");
+    sb.append("  }\n");
+    sb.append("  public void set_" + col + "(" + javaType + " " + col
+        + ") {\n");
+    sb.append("    if (null == " + col + ") {\n");
+    sb.append("      " + setNullStmt(col, true) + "\n");
+    sb.append("    } else {\n");
+    sb.append("      this." + col + " = " + col + ";\n");
+    sb.append("      " + setNullStmt(col, false) + "\n");
+    sb.append("    }\n");
+    sb.append("  }\n");
+    sb.append("  public " + className + " with_" + col + "(" + javaType + " "
+        + col + ") {\n");
+    sb.append("    set_" + col + "(" + col + ");\n");
+    sb.append("    return this;\n");
+    sb.append("  }\n");
+  }
+
   /**
    * Generate an equals method that compares the fields for each column.
    * @param columnTypes - mapping from column names to sql types
@@ -649,6 +818,13 @@ private void myGenerateEquals(Map<String, Integer> columnTypes,
         LOG.error("Cannot resolve SQL type " + sqlType);
         continue;
       }
+      if (isPrimitiveField(col)) {
+        sb.append("    equal = equal && (" + isNullExpr("this", col) + " ? "
+            + isNullExpr("that", col) + " : !" + isNullExpr("that", col)
+            + " && " + javaType + ".valueOf(this." + col + ").equals("
+            + javaType + ".valueOf(that." + col + ")));\n");
+        continue;
+      }
       sb.append("    equal = equal && (this." + col + " == null ? that." + col
           + " == null : this." + col + ".equals(that." + col + "));\n");
     }
@@ -730,6 +906,17 @@ private void myGenerateDbRead(Map<String, Integer> columnTypes,
         continue;
       }
 
+      if (isPrimitiveField(col)) {
+        String primitive = primitiveTypeFor(javaType);
+        sb.append("    this." + col + " = JdbcWritableBridge.read"
+            + Character.toUpperCase(primitive.charAt(0))
+            + primitive.substring(1) + "Value(" + (i + 1)
+            + ", __dbResults);\n");
+        sb.append("    this.__setNull(" + nullBitIndex.get(col)
+            + ", __dbResults.wasNull());\n");
+        continue;
+      }
+
       sb.append("    this." + col + " = JdbcWritableBridge." +  getterMethod
           + "(" + (i + 1) + ", __dbResults);\n");
     }
@@ -896,7 +1083,14 @@ private void myGenerateDbWrite(Map<String, Integer> columnTypes,
         continue;
       }
 
-      if ("writeString".equals(setterMethod) && sqlType == 2002) {
+      if (isPrimitiveField(col)) {
+        String primitive = primitiveTypeFor(javaType);
+        sb.append("    JdbcWritableBridge.write"
+            + Character.toUpperCase(primitive.charAt(0))
+            + primitive.substring(1) + "Value(" + col + ", "
+            + isNullExpr("this", col) + ", " + (i + 1) + " + __off, "
+            + sqlType + ", __dbStmt);\n");
+      } else if ("writeString".equals(setterMethod) && sqlType == 2002) {
         sb.append("__dbStmt.setString(" + (i + 1) + ", " + col + ");\n");
       } else {
         sb.append("    JdbcWritableBridge." + setterMethod + "(" + col + ", " + (i + 1) + " + __off, " + sqlType
@@ -996,6 +1190,9 @@ private void generateCloneMethod(Map<String, Integer> columnTypes,
 
     sb.append("  public Object clone() throws CloneNotSupportedException {\n");
     sb.append("    " + className + " o = (" + className + ") super.clone();\n");
+    if (!nullBitIndex.isEmpty()) {
+      sb.append("    o.__nulls = this.__nulls.clone();\n");
+    }
 
     if (numberOfMethods > 1) {
       for (int i = 0; i < numberOfMethods; ++i) {
@@ -1099,7 +1296,11 @@ private void generateConstructorAndInitMethods(Map<String, Integer> colTypes, St
           sb.append("    setters.put(\"" + serializeRawColName(rawColName) + "\", new FieldSetterCommand() {" + sep);
           sb.append("      @Override" + sep);
           sb.append("      public void setField(Object value) {" + sep);
-          sb.append("        " +typeName+".this." + colName + " = (" + javaType + ")value;" + sep);
+          if (isPrimitiveField(colName)) {
+            sb.append("        " + typeName + ".this.set_" + colName + "((" + javaType + ")value);" + sep);
+          } else {
+            sb.append("        " +typeName+".this." + colName + " = (" + javaType + ")value;" + sep);
+          }
           sb.append("      }" + sep);
           sb.append("    });" + sep);
         }
@@ -1155,8 +1356,13 @@ private void myGenerateSetField(Map<String, Integer> columnTypes,
         }
 
         sb.append("    if (\"" + serializeRawColName(rawColName) + "\".equals(__fieldName)) {\n");
-        sb.append("      this." + colName + " = (" + javaType
-            + ") __fieldVal;\n");
+        if (isPrimitiveField(colName)) {
+          sb.append("      this.set_" + colName + "((" + javaType
+              + ") __fieldVal);\n");
+        } else {
+          sb.append("      this." + colName + " = (" + javaType
+              + ") __fieldVal;\n");
+        }
         sb.append("      return true;\n");
         sb.append("    }\n");
         first = false;
@@ -1219,7 +1425,162 @@ private void myGenerateGetFieldMap(Map<String, Integer> columnTypes,
 
     for (int i = methodNumber * size;
          i < topBoundary(colNames, methodNumber, size); ++i) {
-      sb.append("    __sqoop$field_map.put(\"" + serializeRawColName(rawColNames[i]) + "\", this." + colNames[i] + ");\n");
+      sb.append("    __sqoop$field_map.put(\"" + serializeRawColName(rawColNames[i]) + "\", " + boxedFieldExpr("this", colNames[i]) + ");\n");
+    }
+
+    if (wrapInMethod) {
+      sb.append("  }\n\n");
+    }
+  }
+
+  /**
+   * Generate the visitFields() method.
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   */
+  private void generateVisitFields(Map<String, Integer> columnTypes,
+      String [] colNames, String [] rawColNames, StringBuilder sb) {
+    int numberOfMethods =
+            this.getNumberOfMethods(colNames, maxColumnsPerMethod);
+
+    sb.append("  public void visitFields(FieldVisitor __v) "
+        + "throws IOException {\n");
+    if (numberOfMethods > 1) {
+      for (int i = 0; i < numberOfMethods; ++i) {
+        sb.append("    this.visitFields" + i + "(__v);\n");
+      }
+    } else {
+      myGenerateVisitFields(columnTypes, colNames, rawColNames, sb, 0,
+              maxColumnsPerMethod, false);
+    }
+    sb.append("  }\n\n");
+
+    for (int i = 0; i < numberOfMethods; ++i) {
+      myGenerateVisitFields(columnTypes, colNames, rawColNames, sb, i,
+              maxColumnsPerMethod, true);
+    }
+  }
+
+  /**
+   * Generate the visitFields() method.
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   * @param methodNumber - method number
+   * @param size - number of columns per method
+   * @param wrapInMethod - wrap body in a method.
+   */
+  private void myGenerateVisitFields(Map<String, Integer> columnTypes,
+                                     String[] colNames, String[] rawColNames, StringBuilder sb,
+                                     int methodNumber, int size,
+                                     boolean wrapInMethod) {
+    if (wrapInMethod) {
+      sb.append("  public void visitFields" + methodNumber
+              + "(FieldVisitor __v) throws IOException {\n");
+    }
+
+    for (int i = methodNumber * size;
+         i < topBoundary(colNames, methodNumber, size); ++i) {
+      sb.append("    __v.visit(" + i + ", \"" + serializeRawColName(rawColNames[i]) + "\", " + boxedFieldExpr("this", colNames[i]) + ");\n");
+    }
+
+    if (wrapInMethod) {
+      sb.append("  }\n\n");
+    }
+  }
+
+  /**
+   * @param javaType the boxed type of a column
+   * @return the name of the method of AvroFieldWriter which writes a
+   * non-null value of this type, or null if there is none.
+   */
+  private static String avroWriterForType(String javaType) {
+    if (javaType.equals("Integer") || javaType.equals("Long")
+        || javaType.equals("Float") || javaType.equals("Double")
+        || javaType.equals("Boolean") || javaType.equals("String")
+        || javaType.equals("java.math.BigDecimal")
+        || javaType.equals("java.sql.Date")
+        || javaType.equals("java.sql.Time")
+        || javaType.equals("java.sql.Timestamp")
+        || javaType.equals("BytesWritable")
+        || javaType.equals(BlobRef.class.getSimpleName())
+        || javaType.equals(ClobRef.class.getSimpleName())) {
+      String [] parts = javaType.split("\\.");
+      return "write" + parts[parts.length - 1];
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Generate the writeAvro() method.
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   */
+  private void generateWriteAvro(Map<String, Integer> columnTypes,
+      String [] colNames, StringBuilder sb) {
+    int numberOfMethods =
+            this.getNumberOfMethods(colNames, maxColumnsPerMethod);
+
+    sb.append("  public void writeAvro(Encoder __out, AvroFieldWriter __w) "
+        + "throws IOException {\n");
+    if (numberOfMethods > 1) {
+      for (int i = 0; i < numberOfMethods; ++i) {
+        sb.append("    this.writeAvro" + i + "(__out, __w);\n");
+      }
+    } else {
+      myGenerateWriteAvro(columnTypes, colNames, sb, 0,
+              maxColumnsPerMethod, false);
+    }
+    sb.append("  }\n\n");
+
+    for (int i = 0; i < numberOfMethods; ++i) {
+      myGenerateWriteAvro(columnTypes, colNames, sb, i,
+              maxColumnsPerMethod, true);
+    }
+  }
+
+  /**
+   * Generate the writeAvro() method.
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   * @param methodNumber - method number
+   * @param size - number of columns per method
+   * @param wrapInMethod - wrap body in a method.
+   */
+  private void myGenerateWriteAvro(Map<String, Integer> columnTypes,
+                                   String[] colNames, StringBuilder sb,
+                                   int methodNumber, int size,
+                                   boolean wrapInMethod) {
+    if (wrapInMethod) {
+      sb.append("  public void writeAvro" + methodNumber
+              + "(Encoder __out, AvroFieldWriter __w) throws IOException {\n");
+    }
+
+    for (int i = methodNumber * size;
+         i < topBoundary(colNames, methodNumber, size); ++i) {
+      String col = colNames[i];
+      String javaType = toJavaType(col, columnTypes.get(col));
+      String writer = null == javaType ? null : avroWriterForType(javaType);
+      if (null == writer) {
+        sb.append("    __w.writeObject(__out, " + i + ", "
+            + boxedFieldExpr("this", col) + ");\n");
+        continue;
+      }
+
+      // Typed values, and primitive fields in particular, are passed to
+      // the writer without boxing.
+      String nullExpr = isPrimitiveField(col) ? isNullExpr("this", col)
+          : "null == this." + col;
+      sb.append("    if (" + nullExpr + ") {\n");
+      sb.append("      __w.writeNull(__out, " + i + ");\n");
+      sb.append("    } else {\n");
+      sb.append("      __w." + writer + "(__out, " + i + ", this." + col
+          + ");\n");
+      sb.append("    }\n");
     }
 
     if (wrapInMethod) {
@@ -1366,6 +1727,159 @@ private void myGenerateToString(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * Generate the writeDelimited() methods, which format the record into a
+   * ByteSink with the same output as toString().
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   */
+  private void generateWriteDelimited(Map<String, Integer> columnTypes,
+      String [] colNames, StringBuilder sb) {
+
+    int numberOfMethods =
+            this.getNumberOfMethods(colNames, maxColumnsPerMethod);
+
+    sb.append("  public void writeDelimited(ByteSink __sink, "
+        + "boolean useRecordDelim) {\n");
+    sb.append("    writeDelimited(__sink, __outputDelimiters, "
+        + "useRecordDelim);\n");
+    sb.append("  }\n");
+
+    sb.append("  public void writeDelimited(ByteSink __sink, "
+        + "DelimiterSet delimiters, boolean useRecordDelim) {\n");
+    sb.append("    char fieldDelim = delimiters.getFieldsTerminatedBy();\n");
+    sb.append("    boolean __plain = "
+        + "FieldFormatter.canSkipEscaping(delimiters);\n");
+
+    if (numberOfMethods > 1) {
+      for (int i = 0; i < numberOfMethods; ++i) {
+        sb.append("    this.writeDelimited" + i
+                + "(__sink, delimiters, fieldDelim, __plain);\n");
+      }
+    } else {
+      myGenerateWriteDelimited(columnTypes, colNames, sb, true, 0,
+              maxColumnsPerMethod, false);
+    }
+
+    sb.append("    if (useRecordDelim) {\n");
+    sb.append("      __sink.append(delimiters.getLinesTerminatedBy());\n");
+    sb.append("    }\n");
+    sb.append("  }\n");
+
+    boolean first = true;
+    for (int i = 0; i < numberOfMethods; ++i) {
+      myGenerateWriteDelimited(columnTypes, colNames, sb, first, i,
+              maxColumnsPerMethod, true);
+      first = false;
+    }
+  }
+
+  /**
+   * Generate the body of writeDelimited().
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   * @param methodNumber - method number
+   * @param size - number of columns per method
+   * @param wrapInMethod - wrap body in a method.
+   */
+  private void myGenerateWriteDelimited(Map<String, Integer> columnTypes,
+                                        String[] colNames, StringBuilder sb,
+                                        boolean first, int methodNumber,
+                                        int size, boolean wrapInMethod) {
+    if (wrapInMethod) {
+      sb.append("  public void writeDelimited" + methodNumber
+              + "(ByteSink __sink, DelimiterSet delimiters, ");
+      sb.append("char fieldDelim, boolean __plain) {\n");
+    }
+
+    for (int i = methodNumber * size;
+         i < topBoundary(colNames, methodNumber, size); ++i) {
+      String col = colNames[i];
+      int sqlType = columnTypes.get(col);
+      String javaType = toJavaType(col, sqlType);
+      if (null == javaType) {
+        LOG.error("No Java type for SQL type " + sqlType
+            + " for column " + col);
+        continue;
+      }
+
+      if (!first) {
+        // print inter-field tokens.
+        sb.append("    __sink.append(fieldDelim);\n");
+      }
+
+      first = false;
+
+      String stringExpr = stringifierForType(javaType, col);
+      if (null == stringExpr) {
+        LOG.error("No toString method for Java type " + javaType);
+        continue;
+      }
+
+      String plainExpr = plainStringifierForType(javaType, col);
+      if (javaType.equals("String") && options.doHiveDropDelims()) {
+        sb.append("    __sink.append(FieldFormatter.hiveStringDropDelims("
+            + stringExpr + ", delimiters));\n");
+      } else if (javaType.equals("String")
+          && options.getHiveDelimsReplacement() != null) {
+        sb.append("    __sink.append(FieldFormatter.hiveStringReplaceDelims("
+            + stringExpr + ", \"" + options.getHiveDelimsReplacement()
+            + "\", delimiters));\n");
+      } else if (null != plainExpr) {
+        // Values of this type never contain delimiters unless the
+        // delimiters themselves are digits, letters or punctuation used
+        // in numbers and dates; skip escaping when that can't happen.
+        String notNull = isPrimitiveField(col)
+            ? "!" + isNullExpr("this", col) : "null != this." + col;
+        sb.append("    if (__plain && " + notNull + ") {\n");
+        sb.append("      FieldFormatter.writePlain(__sink, " + plainExpr
+            + ", delimiters);\n");
+        sb.append("    } else {\n");
+        sb.append("      FieldFormatter.escapeAndEnclose(__sink, "
+            + stringExpr + ", delimiters);\n");
+        sb.append("    }\n");
+      } else {
+        sb.append("    FieldFormatter.escapeAndEnclose(__sink, "
+            + stringExpr + ", delimiters);\n");
+      }
+    }
+
+    if (wrapInMethod) {
+      sb.append("  }\n");
+    }
+  }
+
+  /**
+   * @param javaType the type of the column
+   * @param colName the column name
+   * @return an expression for the text form of a non-null value of the
+   * column which can be passed to FieldFormatter.writePlain(), or null if
+   * values of this type may contain delimiters and must be escaped.
+   */
+  private String plainStringifierForType(String javaType, String colName) {
+    if (isPrimitiveField(colName)) {
+      if (javaType.equals("Integer") || javaType.equals("Long")) {
+        return "this." + colName;
+      }
+      return "String.valueOf(this." + colName + ")";
+    } else if (javaType.equals("Integer") || javaType.equals("Long")) {
+      return "this." + colName + ".longValue()";
+    } else if (javaType.equals("java.math.BigDecimal")
+        && this.bigDecimalFormatString) {
+      return "this." + colName + ".toPlainString()";
+    } else if (javaType.equals("Float") || javaType.equals("Double")
+        || javaType.equals("Boolean") || javaType.equals("java.sql.Date")
+        || javaType.equals("java.sql.Time")
+        || javaType.equals("java.sql.Timestamp")
+        || javaType.equals("java.math.BigDecimal")) {
+      return "this." + colName + ".toString()";
+    } else {
+      return null;
+    }
+  }
+
   /**
    * Helper method for generateParser(). Writes out the parse() method for one
    * particular type we support as an input string-ish type.
@@ -1387,7 +1901,13 @@ private void generateParseMethod(String typ, StringBuilder sb) {
    * for a particular column.
    */
   private void parseNullVal(String javaType, String colName, StringBuilder sb) {
-    if (javaType.equals("String")) {
+    if (isPrimitiveField(colName)) {
+      sb.append("    if (__cur_str.equals(\""
+         + this.options.getInNullNonStringValue());
+      sb.append("\") || __cur_str.length() == 0) { ");
+      sb.append(setNullStmt(colName, true));
+      sb.append(" } else {\n");
+    } else if (javaType.equals("String")) {
       sb.append("    if (__cur_str.equals(\""
          + this.options.getInNullStringValue() + "\")) { this.");
       sb.append(colName);
@@ -1426,7 +1946,32 @@ private void parseColumn(String colName, int colType, StringBuilder sb) {
     sb.append("    }\n");
 
     parseNullVal(javaType, colName, sb);
-    if (javaType.equals("String")) {
+    parseStringVal(javaType, colName, sb);
+    sb.append("    }\n\n"); // the closing '{' based on code in parseNullVal();
+  }
+
+  /**
+   * Helper method for parseColumn(). Generates the code that converts the
+   * field string in __cur_str into the column's type.
+   */
+  private void parseStringVal(String javaType, String colName,
+      StringBuilder sb) {
+    if (isPrimitiveField(colName)) {
+      if (javaType.equals("Integer")) {
+        sb.append("      this." + colName + " = Integer.parseInt(__cur_str);\n");
+      } else if (javaType.equals("Long")) {
+        sb.append("      this." + colName + " = Long.parseLong(__cur_str);\n");
+      } else if (javaType.equals("Float")) {
+        sb.append("      this." + colName + " = Float.parseFloat(__cur_str);\n");
+      } else if (javaType.equals("Double")) {
+        sb.append("      this." + colName
+            + " = Double.parseDouble(__cur_str);\n");
+      } else if (javaType.equals("Boolean")) {
+        sb.append("      this." + colName
+            + " = BooleanParser.valueOf(__cur_str);\n");
+      }
+      sb.append("      " + setNullStmt(colName, false) + "\n");
+    } else if (javaType.equals("String")) {
       // TODO(aaron): Distinguish between 'null' and null. Currently they both
       // set the actual object to null.
       sb.append("      this." + colName + " = __cur_str;\n");
@@ -1470,8 +2015,66 @@ private void parseColumn(String colName, int colType, StringBuilder sb) {
     } else {
       LOG.error("No parser available for Java type " + javaType);
     }
+  }
 
-    sb.append("    }\n\n"); // the closing '{' based on code in parseNullVal();
+  /**
+   * Helper method for generateParser(). Generates the code that loads one
+   * field of a specified name and type from field number 'fieldNum' of the
+   * ByteRecordParser __bp, converting common types straight from the field
+   * bytes.
+   */
+  private void parseColumnBytes(String colName, int colType, int fieldNum,
+      StringBuilder sb) {
+    String javaType = toJavaType(colName, colType);
+
+    sb.append("    __cur_field = " + fieldNum + ";\n");
+    sb.append("    if (__bp.getFieldCount() <= " + fieldNum);
+    if (javaType.equals("String")) {
+      sb.append(" || __bp.fieldEquals(" + fieldNum
+          + ", __inNullStringBytes)) { this.");
+    } else {
+      sb.append(" || __bp.fieldEquals(" + fieldNum
+          + ", __inNullNonStringBytes) || __bp.getFieldLength("
+          + fieldNum + ") == 0) { this.");
+    }
+    if (isPrimitiveField(colName)) {
+      sb.append(setNullStmt(colName, true).substring("this.".length()));
+      sb.append(" } else {\n");
+    } else {
+      sb.append(colName);
+      sb.append(" = null; } else {\n");
+    }
+
+    if (isPrimitiveField(colName)
+        && (javaType.equals("Integer") || javaType.equals("Long"))) {
+      sb.append("      this." + colName + " = __bp.get"
+          + (javaType.equals("Integer") ? "Int" : "Long") + "("
+          + fieldNum + ");\n");
+      sb.append("      " + setNullStmt(colName, false) + "\n");
+    } else if (javaType.equals("String")) {
+      sb.append("      this." + colName + " = __bp.getString("
+          + fieldNum + ");\n");
+    } else if (javaType.equals("Integer")) {
+      sb.append("      this." + colName + " = Integer.valueOf(__bp.getInt("
+          + fieldNum + "));\n");
+    } else if (javaType.equals("Long")) {
+      sb.append("      this." + colName + " = Long.valueOf(__bp.getLong("
+          + fieldNum + "));\n");
+    } else if (javaType.equals("java.sql.Date")) {
+      sb.append("      this." + colName + " = __bp.getDate("
+          + fieldNum + ");\n");
+    } else if (javaType.equals("java.sql.Time")) {
+      sb.append("      this." + colName + " = __bp.getTime("
+          + fieldNum + ");\n");
+    } else {
+      // No byte-level conversion for this type; decode the field and use
+      // the same conversion as the String-based parser.
+      sb.append("      String __cur_str = __bp.getString("
+          + fieldNum + ");\n");
+      parseStringVal(javaType, colName, sb);
+    }
+
+    sb.append("    }\n\n");
   }
 
   /**
@@ -1497,7 +2100,12 @@ private void generateParser(Map<String, Integer> columnTypes,
     sb.append("  private RecordParser __parser;\n");
 
     // Generate wrapper methods which will invoke the parser.
-    generateParseMethod("Text", sb);
+    if (useByteParser
+        && ByteRecordParser.isSupported(options.getInputDelimiters())) {
+      generateByteParser(columnTypes, colNames, sb);
+    } else {
+      generateParseMethod("Text", sb);
+    }
     generateParseMethod("CharSequence", sb);
     generateParseMethod("byte []", sb);
     generateParseMethod("char []", sb);
@@ -1525,6 +2133,89 @@ private void generateParser(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * Generate a parse(Text) method which splits the record with a
+   * ByteRecordParser, and the __loadFromBytes() methods it calls.
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   */
+  private void generateByteParser(Map<String, Integer> columnTypes,
+      String [] colNames, StringBuilder sb) {
+
+    int numberOfMethods =
+            this.getNumberOfMethods(colNames, maxColumnsPerMethod);
+
+    sb.append("  private static final byte [] __inNullStringBytes = \""
+        + this.options.getInNullStringValue()
+        + "\".getBytes(java.nio.charset.StandardCharsets.UTF_8);\n");
+    sb.append("  private static final byte [] __inNullNonStringBytes = \""
+        + this.options.getInNullNonStringValue()
+        + "\".getBytes(java.nio.charset.StandardCharsets.UTF_8);\n");
+    sb.append("  private ByteRecordParser __byteParser;\n");
+
+    sb.append("  public void parse(Text __record) "
+        + "throws RecordParser.ParseError {\n");
+    sb.append("    if (null == this.__byteParser) {\n");
+    sb.append("      this.__byteParser = "
+        + "new ByteRecordParser(__inputDelimiters);\n");
+    sb.append("    }\n");
+    sb.append("    this.__byteParser.parseRecord(__record);\n");
+    sb.append("    __loadFromBytes(this.__byteParser);\n");
+    sb.append("  }\n\n");
+
+    sb.append("  private void __loadFromBytes(ByteRecordParser __bp) {\n");
+    if (numberOfMethods > 1) {
+      for (int i = 0; i < numberOfMethods; ++i) {
+        sb.append("    this.__loadFromBytes" + i + "(__bp);\n");
+      }
+    } else {
+      myGenerateByteParser(columnTypes, colNames, sb, 0,
+              maxColumnsPerMethod, false);
+    }
+    sb.append("  }\n\n");
+
+    for (int i = 0; i < numberOfMethods; ++i) {
+      myGenerateByteParser(columnTypes, colNames, sb, i,
+              maxColumnsPerMethod, true);
+    }
+  }
+
+  /**
+   * Generate the body of __loadFromBytes().
+   * @param columnTypes - mapping from column names to sql types
+   * @param colNames - ordered list of column names for table.
+   * @param sb - StringBuilder to append code to
+   * @param methodNumber - method number
+   * @param size - number of columns per method
+   * @param wrapInMethod - wrap body in a method.
+   */
+  private void myGenerateByteParser(Map<String, Integer> columnTypes,
+                                    String[] colNames, StringBuilder sb,
+                                    int methodNumber, int size,
+                                    boolean wrapInMethod) {
+    if (wrapInMethod) {
+      sb.append("  private void __loadFromBytes" + methodNumber
+              + "(ByteRecordParser __bp) {\n");
+    }
+    sb.append("    int __cur_field = 0;\n");
+    sb.append("    try {\n");
+    for (int i = methodNumber * size;
+         i < topBoundary(colNames, methodNumber, size); ++i) {
+      String colName = colNames[i];
+      int colType = columnTypes.get(colName);
+      parseColumnBytes(colName, colType, i, sb);
+    }
+    sb.append("    } catch (RuntimeException e) {");
+    sb.append("    throw new RuntimeException(\"Can't parse input data: '\" + "
+        + "(__cur_field < __bp.getFieldCount() "
+        + "? __bp.getString(__cur_field) : \"\") + \"'\", e);");
+    sb.append("    }");
+    if (wrapInMethod) {
+      sb.append("  }\n\n");
+    }
+  }
+
   /**
    * Generate the parse() method.
    * @param columnTypes - mapping from column names to sql types
@@ -1785,6 +2476,13 @@ public void generate() throws IOException {
       LOG.debug("sourceFilename is " + sourceFilename);
     }
 
+    if (compileManager.isCompileInMemory()) {
+      // The compilation manager writes the source to the code output dir
+      // itself; no temporary copy is needed.
+      compileManager.addSourceContents(sourceFilename, sb.toString());
+      return;
+    }
+
     compileManager.addSourceFile(sourceFilename);
 
     // Create any missing parent directories.
@@ -1898,13 +2596,23 @@ private StringBuilder generateClassForColumns(
       throw new IllegalArgumentException("Attempted to generate class with "
           + "no columns!");
     }
+    nullBitIndex.clear();
+    if (usePrimitiveFields) {
+      for (int i = 0; i < colNames.length; i++) {
+        String javaType = toJavaType(colNames[i],
+            columnTypes.get(colNames[i]));
+        if (null != javaType && null != primitiveTypeFor(javaType)) {
+          nullBitIndex.put(colNames[i], i);
+        }
+      }
+    }
+
     StringBuilder sb = new StringBuilder();
     sb.append("// ORM class for table '" + tableName + "'\n");
     sb.append("// WARNING: This class is AUTO-GENERATED. "
         + "Modify at your own risk.\n");
     sb.append("//\n");
     sb.append("// Debug information:\n");
-    sb.append("// Generated date: " + (new Date()) + "\n");
     sb.append("// For connector: " + connManager.getClass().getCanonicalName()
       + "\n");
 
@@ -1917,6 +2625,7 @@ private StringBuilder generateClassForColumns(
       sb.append(";\n");
     }
 
+    sb.append("import org.apache.avro.io.Encoder;\n");
     sb.append("import org.apache.hadoop.io.BytesWritable;\n");
     sb.append("import org.apache.hadoop.io.Text;\n");
     sb.append("import org.apache.hadoop.io.Writable;\n");
@@ -1924,7 +2633,11 @@ private StringBuilder generateClassForColumns(
     sb.append("import " + JdbcWritableBridge.class.getCanonicalName() + ";\n");
     sb.append("import " + DelimiterSet.class.getCanonicalName() + ";\n");
     sb.append("import " + FieldFormatter.class.getCanonicalName() + ";\n");
+    sb.append("import " + FieldVisitor.class.getCanonicalName() + ";\n");
+    sb.append("import " + AvroFieldWriter.class.getCanonicalName() + ";\n");
     sb.append("import " + RecordParser.class.getCanonicalName() + ";\n");
+    sb.append("import " + ByteRecordParser.class.getCanonicalName() + ";\n");
+    sb.append("import " + ByteSink.class.getCanonicalName() + ";\n");
     sb.append("import " + BooleanParser.class.getCanonicalName() + ";\n");
     sb.append("import " + BlobRef.class.getCanonicalName() + ";\n");
     sb.append("import " + ClobRef.class.getCanonicalName() + ";\n");
@@ -1969,9 +2682,12 @@ private StringBuilder generateClassForColumns(
     generateHadoopRead(columnTypes, colNames, sb);
     generateHadoopWrite(columnTypes, colNames, sb);
     generateToString(columnTypes, colNames, sb);
+    generateWriteDelimited(columnTypes, colNames, sb);
     generateParser(columnTypes, colNames, sb);
     generateCloneMethod(columnTypes, colNames, sb);
     generateGetFieldMap(columnTypes, colNames, rawColNames, sb);
+    generateVisitFields(columnTypes, colNames, rawColNames, sb);
+    generateWriteAvro(columnTypes, colNames, sb);
     generateSetField(columnTypes, colNames, rawColNames, sb);
 
     // TODO(aaron): Generate hashCode(), compareTo(), equals() so it can be a
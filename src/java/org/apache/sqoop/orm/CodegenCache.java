@@ -0,0 +1,257 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.orm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import org.apache.sqoop.SqoopVersion;
+
+/**
+ * A content-addressed cache of compiled record class jars.
+ *
+ * The cache key is a digest of the generated source files, which embed the
+ * column names, column types, delimiters and ClassWriter.CLASS_WRITER_VERSION
+ * of the record class, together with the Sqoop and Java versions that
+ * compiled them. Runs which generate identical sources can reuse the jar
+ * produced by an earlier run and skip javac entirely.
+ *
+ * The cache directory may be on any Hadoop filesystem, so a cache can be
+ * shared by all users of a cluster. Entries older than the maximum age are
+ * removed, and the least recently used entries are removed once the cache
+ * grows past its maximum size.
+ */
+public class CodegenCache {
+
+  public static final Log LOG = LogFactory.getLog(
+      CodegenCache.class.getName());
+
+  /**
+   * Directory holding cached jars. Caching is disabled if this is not set.
+   * Paths without a scheme are resolved against the default filesystem.
+   */
+  public static final String CACHE_DIR_KEY = "sqoop.codegen.cache.dir";
+
+  /** Maximum total size of the cached jars, in bytes. */
+  public static final String CACHE_MAX_BYTES_KEY =
+      "sqoop.codegen.cache.max.bytes";
+
+  public static final long DEFAULT_CACHE_MAX_BYTES = 512L * 1024 * 1024;
+
+  /** Maximum time since a cached jar was last used, in milliseconds. */
+  public static final String CACHE_MAX_AGE_KEY =
+      "sqoop.codegen.cache.max.age.ms";
+
+  public static final long DEFAULT_CACHE_MAX_AGE = 30L * 24 * 60 * 60 * 1000;
+
+  private static final String JAR_EXTENSION = ".jar";
+  private static final String TMP_PREFIX = "_tmp.";
+
+  private final Configuration conf;
+  private final Path cacheDir;
+  private final long maxBytes;
+  private final long maxAge;
+
+  /**
+   * @return a cache configured from conf, or null if caching is disabled.
+   */
+  public static CodegenCache get(Configuration conf) {
+    if (null == conf) {
+      return null;
+    }
+    String dir = conf.getTrimmed(CACHE_DIR_KEY);
+    if (null == dir || dir.isEmpty()) {
+      return null;
+    }
+    return new CodegenCache(conf, new Path(dir));
+  }
+
+  public CodegenCache(Configuration conf, Path cacheDir) {
+    this.conf = conf;
+    this.cacheDir = cacheDir;
+    this.maxBytes = conf.getLong(CACHE_MAX_BYTES_KEY, DEFAULT_CACHE_MAX_BYTES);
+    this.maxAge = conf.getLong(CACHE_MAX_AGE_KEY, DEFAULT_CACHE_MAX_AGE);
+  }
+
+  /**
+   * Compute the cache key for a set of generated source files.
+   * @param sources the contents of each source file, keyed by file name.
+   * @return a hex digest identifying the compiled output of the sources.
+   */
+  public String getKey(Map<String, byte[]> sources) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException nsae) {
+      throw new IOException("Could not create digest for codegen cache",
+          nsae);
+    }
+
+    update(digest, "classWriterVersion=" + ClassWriter.CLASS_WRITER_VERSION);
+    update(digest, "sqoopVersion=" + SqoopVersion.VERSION);
+    update(digest, "sqoopGitHash=" + SqoopVersion.GIT_HASH);
+    update(digest, "javaVersion="
+        + System.getProperty("java.specification.version"));
+
+    // Sort the names so that the key doesn't depend on generation order.
+    Map<String, byte[]> sorted = new TreeMap<String, byte[]>(sources);
+    for (Map.Entry<String, byte[]> source : sorted.entrySet()) {
+      byte [] contents = source.getValue();
+      update(digest, "source=" + source.getKey());
+      update(digest, "length=" + contents.length);
+      digest.update(contents);
+    }
+
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) {
+      sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+      sb.append(Character.forDigit(b & 0xf, 16));
+    }
+    return sb.toString();
+  }
+
+  private static void update(MessageDigest digest, String s) {
+    digest.update(s.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private Path getEntryPath(String key) {
+    return new Path(cacheDir, key + JAR_EXTENSION);
+  }
+
+  /**
+   * Copy the cached jar for a key to a local file.
+   * @return true on a cache hit, false if there is no usable entry.
+   */
+  public boolean fetch(String key, File jarFile) {
+    Path entry = getEntryPath(key);
+    try {
+      FileSystem fs = entry.getFileSystem(conf);
+      if (!fs.exists(entry)) {
+        LOG.info("Codegen cache miss for " + jarFile.getName()
+            + " (key " + key + ")");
+        return false;
+      }
+
+      if (jarFile.exists() && !jarFile.delete()) {
+        LOG.warn("Could not remove existing jar file: " + jarFile);
+      }
+      fs.copyToLocalFile(false, entry, new Path(jarFile.getAbsolutePath()),
+          true);
+
+      // Mark the entry as recently used so that eviction keeps it.
+      long now = System.currentTimeMillis();
+      fs.setTimes(entry, now, now);
+      LOG.info("Codegen cache hit for " + jarFile.getName() + " (key " + key
+          + "); skipping compilation");
+      return true;
+    } catch (IOException ioe) {
+      LOG.warn("Could not read codegen cache entry " + entry + ": "
+          + ioe.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Add a freshly built jar to the cache and evict stale entries.
+   * Failures are logged; the cache is only an optimization.
+   */
+  public void store(String key, File jarFile) {
+    Path entry = getEntryPath(key);
+    Path tmp = new Path(cacheDir, TMP_PREFIX + key + "."
+        + System.nanoTime() + JAR_EXTENSION);
+    try {
+      FileSystem fs = cacheDir.getFileSystem(conf);
+      fs.mkdirs(cacheDir);
+
+      // Write to a temporary name first so that concurrent readers never
+      // see a partially copied jar.
+      fs.copyFromLocalFile(false, true, new Path(jarFile.getAbsolutePath()),
+          tmp);
+      if (!fs.rename(tmp, entry)) {
+        // Another process stored the same entry first.
+        fs.delete(tmp, false);
+      } else {
+        LOG.debug("Stored " + jarFile + " in codegen cache as " + entry);
+      }
+
+      evict(fs);
+    } catch (IOException ioe) {
+      LOG.warn("Could not store " + jarFile + " in codegen cache: "
+          + ioe.toString());
+    }
+  }
+
+  /**
+   * Remove entries which have not been used within the maximum age, then
+   * remove the least recently used entries until the cache fits within its
+   * maximum size.
+   */
+  void evict(FileSystem fs) throws IOException {
+    FileStatus [] statuses = fs.listStatus(cacheDir);
+    if (null == statuses) {
+      return;
+    }
+
+    // Order by last use, most recent first.
+    Arrays.sort(statuses, new Comparator<FileStatus>() {
+      @Override
+      public int compare(FileStatus a, FileStatus b) {
+        long ta = lastUsed(a);
+        long tb = lastUsed(b);
+        return ta > tb ? -1 : (ta == tb ? 0 : 1);
+      }
+    });
+
+    long now = System.currentTimeMillis();
+    long totalBytes = 0;
+    for (FileStatus status : statuses) {
+      String name = status.getPath().getName();
+      if (status.isDirectory() || !name.endsWith(JAR_EXTENSION)
+          || name.startsWith(TMP_PREFIX)) {
+        continue;
+      }
+
+      totalBytes += status.getLen();
+      if (now - lastUsed(status) > maxAge || totalBytes > maxBytes) {
+        LOG.debug("Evicting codegen cache entry " + status.getPath());
+        fs.delete(status.getPath(), false);
+        totalBytes -= status.getLen();
+      }
+    }
+  }
+
+  private static long lastUsed(FileStatus status) {
+    return Math.max(status.getAccessTime(), status.getModificationTime());
+  }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.sqoop.orm;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -27,6 +28,8 @@
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -38,6 +41,7 @@
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.util.Shell;
 
@@ -60,6 +64,17 @@ public class CompilationManager {
   public static final String DEFAULT_CODEGEN_JAR_NAME =
       "sqoop-codegen-created.jar";
 
+  /**
+   * If true, generated sources are compiled in memory: javac reads them
+   * from Strings and writes classes to byte arrays, and the jar is
+   * assembled in memory. The only files written are the user-visible
+   * source in the code output dir and the finished jar.
+   */
+  public static final String PROPERTY_COMPILE_IN_MEMORY =
+      "codegen.compile.in.memory";
+
+  public static final boolean COMPILE_IN_MEMORY_DEFAULT = false;
+
   public static final Log LOG = LogFactory.getLog(
       CompilationManager.class.getName());
   private static final String INNER_CLASS_SEPARATOR = "$";
@@ -69,15 +84,84 @@ public class CompilationManager {
   private SqoopOptions options;
   private List<String> sources;
 
+  // Contents of the sources registered with addSourceContents(), keyed by
+  // source file name.
+  private Map<String, String> sourceContents;
+
+  // Classes produced by an in-memory compilation, keyed by binary name.
+  private Map<String, byte[]> compiledClasses;
+
+  // Codegen cache state for this compilation. cacheKey is null if caching
+  // is disabled; cacheHit is set when compile() found a cached jar.
+  private CodegenCache cache;
+  private String cacheKey;
+  private boolean cacheHit;
+
   public CompilationManager(final SqoopOptions opts) {
     options = opts;
     sources = new ArrayList<String>();
+    sourceContents = new TreeMap<String, String>();
   }
 
   public void addSourceFile(String sourceName) {
     sources.add(sourceName);
   }
 
+  /**
+   * @return true if sources should be handed over with addSourceContents()
+   * and compiled without writing temporary files.
+   */
+  public boolean isCompileInMemory() {
+    Configuration conf = options.getConf();
+    return null != conf && conf.getBoolean(PROPERTY_COMPILE_IN_MEMORY,
+        COMPILE_IN_MEMORY_DEFAULT);
+  }
+
+  /**
+   * Add a generated source which is held in memory rather than written to
+   * the jar output dir.
+   * @param sourceName the path of the source relative to the source root.
+   * @param contents the Java source.
+   */
+  public void addSourceContents(String sourceName, String contents) {
+    sources.add(sourceName);
+    sourceContents.put(sourceName, contents);
+  }
+
+  /**
+   * @return true if the last compile() reused a jar from the codegen cache.
+   */
+  public boolean isCacheHit() {
+    return cacheHit;
+  }
+
+  /**
+   * @return the classes compiled in memory by compile(), keyed by binary
+   * class name, or null if the classes were compiled to disk or taken from
+   * the codegen cache.
+   */
+  public Map<String, byte[]> getCompiledClasses() {
+    return compiledClasses;
+  }
+
+  /**
+   * @return the contents of every source file, keyed by file name.
+   */
+  private Map<String, byte[]> readSources(String jarOutDir)
+      throws IOException {
+    Map<String, byte[]> contents = new TreeMap<String, byte[]>();
+    for (String source : sources) {
+      String inMemory = sourceContents.get(source);
+      if (null != inMemory) {
+        contents.put(source, inMemory.getBytes(StandardCharsets.UTF_8));
+      } else {
+        contents.put(source,
+            FileUtils.readFileToByteArray(new File(jarOutDir, source)));
+      }
+    }
+    return contents;
+  }
+
   /**
    * locate the hadoop-*-core.jar in $HADOOP_MAPRED_HOME or
    * --hadoop-mapred-home.
@@ -148,6 +232,24 @@ public void compile() throws IOException {
       jarOutDir = jarOutDir + File.separator;
     }
 
+    // If an earlier run compiled exactly these sources, reuse its jar.
+    cacheHit = false;
+    cacheKey = null;
+    compiledClasses = null;
+    cache = CodegenCache.get(options.getConf());
+    if (null != cache) {
+      cacheKey = cache.getKey(readSources(jarOutDir));
+      if (cache.fetch(cacheKey, new File(getJarFilename()))) {
+        cacheHit = true;
+        if (sourceContents.isEmpty()) {
+          moveSourceFiles(jarOutDir);
+        } else {
+          writeSourceFiles();
+        }
+        return;
+      }
+    }
+
     // find hadoop-*-core.jar for classpath.
     String coreJar = findHadoopJars();
     if (null == coreJar) {
@@ -179,11 +281,14 @@ public void compile() throws IOException {
     args.add("-encoding");
     args.add(StandardCharsets.UTF_8.toString());
 
-    args.add("-sourcepath");
-    args.add(jarOutDir);
+    boolean inMemory = !sourceContents.isEmpty();
+    if (!inMemory) {
+      args.add("-sourcepath");
+      args.add(jarOutDir);
 
-    args.add("-d");
-    args.add(jarOutDir);
+      args.add("-d");
+      args.add(jarOutDir);
+    }
 
     args.add("-classpath");
     args.add(curClasspath + File.pathSeparator + coreJar + sqoopJar);
@@ -198,12 +303,6 @@ public void compile() throws IOException {
     StandardJavaFileManager fileManager =
         compiler.getStandardFileManager(null, null, null);
 
-    ArrayList<String> srcFileNames = new ArrayList<String>();
-    for (String srcfile : sources) {
-      srcFileNames.add(jarOutDir + srcfile);
-      LOG.debug("Adding source file: " + jarOutDir + srcfile);
-    }
-
     if (LOG.isDebugEnabled()) {
       LOG.debug("Invoking javac with args:");
       for (String arg : args) {
@@ -211,6 +310,17 @@ public void compile() throws IOException {
       }
     }
 
+    if (inMemory) {
+      compileInMemory(compiler, fileManager, args);
+      return;
+    }
+
+    ArrayList<String> srcFileNames = new ArrayList<String>();
+    for (String srcfile : sources) {
+      srcFileNames.add(jarOutDir + srcfile);
+      LOG.debug("Adding source file: " + jarOutDir + srcfile);
+    }
+
     Iterable<? extends JavaFileObject> srcFileObjs =
         fileManager.getJavaFileObjectsFromStrings(srcFileNames);
     JavaCompiler.CompilationTask task = compiler.getTask(
@@ -226,6 +336,60 @@ public void compile() throws IOException {
       throw new IOException("Error returned by javac");
     }
 
+    moveSourceFiles(jarOutDir);
+  }
+
+  /**
+   * Compile the sources registered with addSourceContents() without
+   * writing .java or .class files, and write the sources once to the code
+   * output dir for the user.
+   */
+  private void compileInMemory(JavaCompiler compiler,
+      StandardJavaFileManager fileManager, List<String> args)
+      throws IOException {
+    List<JavaFileObject> srcFileObjs = new ArrayList<JavaFileObject>();
+    for (Map.Entry<String, String> source : sourceContents.entrySet()) {
+      LOG.debug("Adding in-memory source file: " + source.getKey());
+      srcFileObjs.add(InMemoryJavaFileManager.newSource(source.getKey(),
+          source.getValue()));
+    }
+
+    InMemoryJavaFileManager memFileManager =
+        new InMemoryJavaFileManager(fileManager);
+    JavaCompiler.CompilationTask task = compiler.getTask(
+        null, // Write to stderr
+        memFileManager,
+        null, // No special diagnostic handling
+        args,
+        null, // Compile all classes in the source compilation units
+        srcFileObjs);
+
+    boolean result = task.call();
+    if (!result) {
+      throw new IOException("Error returned by javac");
+    }
+    compiledClasses = memFileManager.getClassBytes();
+
+    writeSourceFiles();
+  }
+
+  /**
+   * Write the in-memory sources to the code output dir.
+   */
+  private void writeSourceFiles() throws IOException {
+    for (Map.Entry<String, String> source : sourceContents.entrySet()) {
+      File dest = new File(options.getCodeOutputDir(), source.getKey());
+      LOG.debug("Writing source file: " + dest);
+      FileUtils.writeStringToFile(dest, source.getValue(),
+          StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Move the compiled .java files from the jar output dir to the code
+   * output dir.
+   */
+  private void moveSourceFiles(String jarOutDir) {
     // Where we should move source files after compilation.
     String srcOutDir = new File(options.getCodeOutputDir()).getAbsolutePath();
     if (!srcOutDir.endsWith(File.separator)) {
@@ -323,6 +487,24 @@ private void addClassFilesFromDir(File dir, JarOutputStream jstream)
     }
   }
 
+  /**
+   * Write classes compiled in memory to a jar.
+   *
+   * @param classes - class file contents, keyed by binary class name.
+   * @param jstream - The JarOutputStream to write .class files to.
+   */
+  private void addClassBytes(Map<String, byte[]> classes,
+      JarOutputStream jstream) throws IOException {
+    for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+      String classFileName = entry.getKey().replace('.', '/')
+          + CLASS_EXTENSION;
+      LOG.debug("Got in-memory class: " + classFileName);
+      jstream.putNextEntry(new ZipEntry(classFileName));
+      jstream.write(entry.getValue());
+      jstream.closeEntry();
+    }
+  }
+
   boolean includeFileInJar(String classFileName) {
     if (!classFileName.endsWith(CLASS_EXTENSION)) {
       return false;
@@ -359,6 +541,11 @@ public void jar() throws IOException {
 
     String jarFilename = getJarFilename();
 
+    if (cacheHit) {
+      LOG.info("Using cached jar file: " + jarFilename);
+      return;
+    }
+
     LOG.info("Writing jar file: " + jarFilename);
 
     File jarFileObj = new File(jarFilename);
@@ -372,11 +559,24 @@ public void jar() throws IOException {
     FileOutputStream fstream = null;
     JarOutputStream jstream = null;
     try {
-      fstream = new FileOutputStream(jarFilename);
-      jstream = new JarOutputStream(fstream);
+      if (null != compiledClasses) {
+        // Assemble the whole jar in memory and write it out in one go.
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        jstream = new JarOutputStream(bytes);
+        addClassBytes(compiledClasses, jstream);
+        jstream.finish();
+        jstream.close();
+        jstream = null;
+
+        fstream = new FileOutputStream(jarFilename);
+        bytes.writeTo(fstream);
+      } else {
+        fstream = new FileOutputStream(jarFilename);
+        jstream = new JarOutputStream(fstream);
 
-      addClassFilesFromDir(new File(jarOutDir), jstream);
-      jstream.finish();
+        addClassFilesFromDir(new File(jarOutDir), jstream);
+        jstream.finish();
+      }
     } finally {
       if (null != jstream) {
         try {
@@ -396,6 +596,10 @@ public void jar() throws IOException {
     }
 
     LOG.debug("Finished writing jar file " + jarFilename);
+
+    if (null != cacheKey) {
+      cache.store(cacheKey, jarFileObj);
+    }
   }
 
   private static final int BUFFER_SZ = 4096;
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.orm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * A JavaFileManager which reads sources from Strings and collects the
+ * compiled classes in byte arrays, so that javac never touches the local
+ * disk for generated code. Library classes are still resolved through the
+ * wrapped standard file manager.
+ */
+public class InMemoryJavaFileManager
+    extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  // Compiled classes, keyed by binary class name.
+  private final Map<String, ClassObject> classes =
+      new TreeMap<String, ClassObject>();
+
+  public InMemoryJavaFileManager(StandardJavaFileManager fileManager) {
+    super(fileManager);
+  }
+
+  /**
+   * Create a compilation unit for the source of a class.
+   * @param sourceName the path of the source file relative to the source
+   * root, e.g. "com/example/Foo.java".
+   * @param contents the Java source.
+   */
+  public static JavaFileObject newSource(String sourceName,
+      CharSequence contents) {
+    return new SourceObject(sourceName, contents);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(Location location,
+      String className, JavaFileObject.Kind kind, FileObject sibling) {
+    ClassObject classObject = new ClassObject(className, kind);
+    classes.put(className, classObject);
+    return classObject;
+  }
+
+  /**
+   * @return the compiled classes, keyed by binary class name.
+   */
+  public Map<String, byte[]> getClassBytes() {
+    Map<String, byte[]> result = new TreeMap<String, byte[]>();
+    for (Map.Entry<String, ClassObject> entry : classes.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getBytes());
+    }
+    return result;
+  }
+
+  /** Source file held in memory. */
+  private static class SourceObject extends SimpleJavaFileObject {
+    private final CharSequence contents;
+
+    SourceObject(String sourceName, CharSequence contents) {
+      super(URI.create("string:///" + sourceName.replace('\\', '/')),
+          Kind.SOURCE);
+      this.contents = contents;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return contents;
+    }
+  }
+
+  /** Compiler output held in memory. */
+  private static class ClassObject extends SimpleJavaFileObject {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    ClassObject(String className, Kind kind) {
+      super(URI.create("mem:///" + className.replace('.', '/')
+          + kind.extension), kind);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      bytes.reset();
+      return bytes;
+    }
+
+    byte [] getBytes() {
+      return bytes.toByteArray();
+    }
+  }
+}
@@ -199,6 +199,7 @@ public abstract class BaseSqoopTool extends org.apache.sqoop.tool.SqoopTool {
 
   // Arguments for all table imports.
   public static final String ALL_TABLE_EXCLUDES_ARG = "exclude-tables";
+  public static final String PARALLEL_TABLES_ARG = "parallel-tables";
 
   // HBase arguments.
   public static final String HBASE_TABLE_ARG = "hbase-table";
@@ -216,6 +217,8 @@ public abstract class BaseSqoopTool extends org.apache.sqoop.tool.SqoopTool {
   public static final String ACCUMULO_VISIBILITY_ARG = "accumulo-visibility";
   public static final String ACCUMULO_CREATE_TABLE_ARG
       = "accumulo-create-table";
+  public static final String ACCUMULO_BULK_LOAD_ENABLED_ARG
+      = "accumulo-bulkload";
   public static final String ACCUMULO_BATCH_SIZE_ARG = "accumulo-batch-size";
   public static final String ACCUMULO_MAX_LATENCY_ARG = "accumulo-max-latency";
   public static final String ACCUMULO_ZOOKEEPERS_ARG = "accumulo-zookeepers";
@@ -913,6 +916,10 @@ protected RelatedOptions getAccumuloOptions() {
       .withDescription("If specified, create missing Accumulo tables")
       .withLongOpt(ACCUMULO_CREATE_TABLE_ARG)
       .create());
+    accumuloOpts.addOption(OptionBuilder
+      .withDescription("Enables Accumulo bulk loading")
+      .withLongOpt(ACCUMULO_BULK_LOAD_ENABLED_ARG)
+      .create());
     accumuloOpts.addOption(OptionBuilder.withArgName("size")
       .hasArg()
       .withDescription("Batch size in bytes")
@@ -968,6 +975,9 @@ protected void applyAccumuloOptions(CommandLine in, SqoopOptions out) {
       out.setCreateAccumuloTable(true);
     }
 
+    out.setAccumuloBulkLoadEnabled(
+        in.hasOption(ACCUMULO_BULK_LOAD_ENABLED_ARG));
+
     if (in.hasOption(ACCUMULO_BATCH_SIZE_ARG)) {
       out.setAccumuloBatchSize(Long.parseLong(
         in.getOptionValue(ACCUMULO_BATCH_SIZE_ARG)));
@@ -1665,6 +1675,13 @@ protected void validateAccumuloOptions(SqoopOptions options)
           + HELP_STR);
     }
 
+    if (options.isAccumuloBulkLoadEnabled()
+        && options.getAccumuloTable() == null) {
+      throw new InvalidOptionsException("Can't run import with --"
+          + ACCUMULO_BULK_LOAD_ENABLED_ARG + " without --"
+          + ACCUMULO_TABLE_ARG);
+    }
+
     if (options.getAccumuloTable() != null
         && options.getHBaseTable() != null) {
       throw new InvalidOptionsException("HBase import is incompatible with "
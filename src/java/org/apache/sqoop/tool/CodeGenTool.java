@@ -20,7 +20,9 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.OptionBuilder;
@@ -45,9 +47,13 @@ public class CodeGenTool extends BaseSqoopTool {
 
   private List<String> generatedJarFiles;
 
+  // Classes compiled in memory, keyed by the jar file they were written to.
+  private Map<String, Map<String, byte[]>> compiledClasses;
+
   public CodeGenTool() {
     super("codegen");
     generatedJarFiles = new ArrayList<String>();
+    compiledClasses = new HashMap<String, Map<String, byte[]>>();
   }
 
   /**
@@ -58,6 +64,14 @@ public List<String> getGeneratedJarFiles() {
     return out;
   }
 
+  /**
+   * @return the classes compiled in memory for a generated jar file, keyed
+   * by binary class name, or null if they were not compiled in memory.
+   */
+  public Map<String, byte[]> getCompiledClasses(String jarFile) {
+    return compiledClasses.get(jarFile);
+  }
+
   /**
    * Generate the .class and .jar files.
    * @return the filename of the emitted jar file.
@@ -108,6 +122,9 @@ public String generateORM(SqoopOptions options, String tableName)
     compileMgr.jar();
     String jarFile = compileMgr.getJarFilename();
     this.generatedJarFiles.add(jarFile);
+    if (null != compileMgr.getCompiledClasses()) {
+      this.compiledClasses.put(jarFile, compileMgr.getCompiledClasses());
+    }
     return jarFile;
   }
 
@@ -18,10 +18,19 @@
 
 package org.apache.sqoop.tool;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.OptionBuilder;
@@ -56,6 +65,10 @@ protected RelatedOptions getImportOptions() {
         .hasArg().withDescription("Tables to exclude when importing all tables")
         .withLongOpt(ALL_TABLE_EXCLUDES_ARG)
         .create());
+    importOpts.addOption(OptionBuilder.withArgName("n")
+        .hasArg().withDescription("Import 'n' tables concurrently")
+        .withLongOpt(PARALLEL_TABLES_ARG)
+        .create());
 
     return importOpts;
   }
@@ -69,6 +82,22 @@ public void applyOptions(CommandLine in, SqoopOptions out)
     if (in.hasOption(ALL_TABLE_EXCLUDES_ARG)) {
       out.setAllTablesExclude(in.getOptionValue(ALL_TABLE_EXCLUDES_ARG));
     }
+
+    if (in.hasOption(PARALLEL_TABLES_ARG)) {
+      int parallelTables;
+      try {
+        parallelTables = Integer.parseInt(
+            in.getOptionValue(PARALLEL_TABLES_ARG));
+      } catch (NumberFormatException nfe) {
+        throw new InvalidOptionsException("Error: expected numeric argument.\n"
+            + "Try --help for usage.");
+      }
+      if (parallelTables < 1) {
+        throw new InvalidOptionsException("--" + PARALLEL_TABLES_ARG
+            + " must be at least 1." + HELP_STR);
+      }
+      out.setParallelTables(parallelTables);
+    }
   }
 
   @Override
@@ -92,15 +121,24 @@ public int run(SqoopOptions options) {
         LOG.error("manager.listTables() returned null");
         return 1;
       } else {
+        List<String> tablesToImport = new ArrayList<String>();
         for (String tableName : tables) {
           if (excludes.contains(tableName)) {
             System.out.println("Skipping table: " + tableName);
           } else {
-            SqoopOptions clonedOptions = (SqoopOptions) options.clone();
-            clonedOptions.setTableName(tableName);
-            importTable(clonedOptions);
+            tablesToImport.add(tableName);
           }
         }
+
+        if (options.getParallelTables() > 1 && tablesToImport.size() > 1) {
+          return importTablesInParallel(options, tablesToImport);
+        }
+
+        for (String tableName : tablesToImport) {
+          SqoopOptions clonedOptions = (SqoopOptions) options.clone();
+          clonedOptions.setTableName(tableName);
+          importTable(clonedOptions);
+        }
       }
     } catch (IOException ioe) {
       LOG.error("Encountered IOException running import job: "
@@ -118,5 +156,92 @@ public int run(SqoopOptions options) {
     return 0;
   }
 
+  /**
+   * Import tables concurrently, each with its own tool instance, connection
+   * manager, SqoopOptions and compilation directory. A failed table does
+   * not stop the others; all failures are reported at the end.
+   * @return the exit status of the tool.
+   */
+  private int importTablesInParallel(final SqoopOptions options,
+      List<String> tables) {
+    final int numTables = tables.size();
+    final AtomicInteger completed = new AtomicInteger();
+    int numThreads = Math.min(options.getParallelTables(), numTables);
+    LOG.info("Importing " + numTables + " tables using " + numThreads
+        + " parallel imports");
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    List<Future<Void>> results = new ArrayList<Future<Void>>();
+    try {
+      for (final String tableName : tables) {
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            importTableInIsolation(options, tableName);
+            LOG.info("Imported table " + tableName + " ("
+                + completed.incrementAndGet() + "/" + numTables
+                + " complete)");
+            return null;
+          }
+        }));
+      }
+
+      List<String> failedTables = new ArrayList<String>();
+      Exception firstFailure = null;
+      for (int i = 0; i < numTables; i++) {
+        try {
+          results.get(i).get();
+        } catch (ExecutionException ee) {
+          Throwable cause = ee.getCause();
+          LOG.error("Error importing table " + tables.get(i) + ": "
+              + cause.toString());
+          failedTables.add(tables.get(i));
+          if (null == firstFailure) {
+            firstFailure = cause instanceof Exception
+                ? (Exception) cause : ee;
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          LOG.error("Interrupted while waiting for table imports");
+          return 1;
+        }
+      }
+
+      if (!failedTables.isEmpty()) {
+        LOG.error("Failed to import " + failedTables.size() + " of "
+            + numTables + " tables: " + failedTables);
+        rethrowIfRequired(options, firstFailure);
+        return 1;
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return 0;
+  }
+
+  /**
+   * Import a single table using a fresh tool instance, so that it gets its
+   * own connection manager and code generator.
+   */
+  private void importTableInIsolation(SqoopOptions options, String tableName)
+      throws IOException, ImportException {
+    SqoopOptions clonedOptions = (SqoopOptions) options.clone();
+    clonedOptions.setTableName(tableName);
+    // Keep concurrent compilations out of each other's way.
+    clonedOptions.setJarOutputDir(new File(options.getJarOutputDir(),
+        tableName).getAbsolutePath());
+
+    ImportAllTablesTool tableTool = new ImportAllTablesTool();
+    if (!tableTool.init(clonedOptions)) {
+      throw new IOException("Could not create connection manager for table "
+          + tableName);
+    }
+    try {
+      tableTool.importTable(clonedOptions);
+    } finally {
+      tableTool.destroy(clonedOptions);
+    }
+  }
 }
 
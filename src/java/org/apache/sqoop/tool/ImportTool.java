@@ -123,9 +123,17 @@ private void loadJars(Configuration conf, String ormJarFile,
       // If we're using the LocalJobRunner, then instead of using the compiled
       // jar file as the job source, we're running in the current thread. Push
       // on another classloader that loads from that jar in addition to
-      // everything currently on the classpath.
-      this.prevClassLoader = ClassLoaderStack.addJarFile(ormJarFile,
-          tableClassName);
+      // everything currently on the classpath. Classes compiled in memory
+      // are loaded straight from their bytes.
+      Map<String, byte[]> classes =
+          codeGenerator.getCompiledClasses(ormJarFile);
+      if (null != classes) {
+        this.prevClassLoader = ClassLoaderStack.addClasses(classes,
+            tableClassName);
+      } else {
+        this.prevClassLoader = ClassLoaderStack.addJarFile(ormJarFile,
+            tableClassName);
+      }
     }
   }
 
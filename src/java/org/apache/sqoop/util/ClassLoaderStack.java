@@ -22,6 +22,7 @@
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -99,4 +100,67 @@ public static ClassLoader addJarFile(String jarFile, String testClassName)
     return prevClassLoader;
   }
 
+  /**
+   * Adds a ClassLoader to the top of the stack that will load classes held
+   * in memory, e.g. those produced by an in-memory compilation. Returns the
+   * previous classloader so you can restore it if need be, later.
+   *
+   * @param classes The class file contents, keyed by binary class name.
+   * @param testClassName The name of the class to load immediately
+   * (optional).
+   */
+  public static ClassLoader addClasses(Map<String, byte[]> classes,
+      String testClassName) throws IOException {
+
+    ClassLoader prevClassLoader =
+        Thread.currentThread().getContextClassLoader();
+
+    if (null != testClassName) {
+      try {
+        LOG.debug("Checking for existing class: " + testClassName);
+        Class.forName(testClassName, true, prevClassLoader);
+        LOG.debug("Class is already available. Skipping in-memory classes");
+        return prevClassLoader;
+      } catch (ClassNotFoundException cnfe) {
+        // Expected this; we need to load the classes. continue.
+      }
+    }
+
+    ClassLoader cl = new ByteArrayClassLoader(classes, prevClassLoader);
+    try {
+      if (null != testClassName) {
+        LOG.debug("Testing in-memory class: " + testClassName);
+        Class.forName(testClassName, true, cl);
+      }
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Could not load in-memory classes into JVM. "
+          + "(Could not find class " + testClassName + ".)", cnfe);
+    }
+
+    LOG.debug("Added classloader for in-memory classes: " + cl);
+    Thread.currentThread().setContextClassLoader(cl);
+    return prevClassLoader;
+  }
+
+  /**
+   * ClassLoader which defines classes from byte arrays.
+   */
+  private static class ByteArrayClassLoader extends ClassLoader {
+    private final Map<String, byte[]> classes;
+
+    ByteArrayClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+      super(parent);
+      this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte [] bytes = classes.get(name);
+      if (null == bytes) {
+        throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
 }
@@ -26,6 +26,7 @@
 public class PerfCounters {
 
   private long bytes;
+  private long records;
   private long nanoseconds;
 
   private long startTime;
@@ -37,6 +38,18 @@ public void addBytes(long more) {
     bytes += more;
   }
 
+  public void addRecords(long more) {
+    records += more;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  public long getRecords() {
+    return records;
+  }
+
   public void startClock() {
     startTime = System.nanoTime();
   }
@@ -125,8 +138,13 @@ private String formatSpeed() {
   }
 
   public String toString() {
-    return formatBytes() + " in " + formatTimeInSeconds() + " ("
+    String str = formatBytes() + " in " + formatTimeInSeconds() + " ("
         + formatSpeed() + ")";
+    if (records > 0) {
+      // Only reported by transfers which count the records they move.
+      str = str + ", " + records + " records";
+    }
+    return str;
   }
 
 }
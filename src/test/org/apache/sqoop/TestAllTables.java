@@ -134,20 +134,50 @@ public void tearDown() {
 
   @Test
   public void testMultiTableImport() throws IOException {
-    String [] argv = getArgv(null, null);
+    runImport(new ImportAllTablesTool(), getArgv(null, null));
+    assertTablesImported(0);
+  }
+
+  @Test
+  public void testMultiTableImportInParallel() throws IOException {
+    String [] argv = getArgv(new String[]{"--parallel-tables", "2"}, null);
     runImport(new ImportAllTablesTool(), argv);
+    assertTablesImported(0);
+  }
+
+  @Test
+  public void testParallelImportContinuesPastFailedTable() throws IOException {
+    // The first table fails because its target directory already exists;
+    // a serial import would stop there, before the other tables.
+    FileSystem fs = FileSystem.get(getConf());
+    Path failedPath = new Path(getWarehouseDir(), this.tableNames.get(0));
+    fs.mkdirs(failedPath);
+
+    String [] argv = getArgv(new String[]{"--parallel-tables", "2"}, null);
+    try {
+      runImport(new ImportAllTablesTool(), argv);
+      fail("Expected the import of " + this.tableNames.get(0) + " to fail");
+    } catch (IOException expected) {
+      // The tool reports the failed table once all tables are done.
+    }
+
+    assertFalse(fs.exists(new Path(failedPath, "part-m-00000")));
+    assertTablesImported(1);
+  }
 
+  /**
+   * Check the text import of each table from the given index on.
+   */
+  private void assertTablesImported(int firstTable) throws IOException {
     Path warehousePath = new Path(this.getWarehouseDir());
-    int i = 0;
-    for (String tableName : this.tableNames) {
+    for (int i = firstTable; i < this.tableNames.size(); i++) {
+      String tableName = this.tableNames.get(i);
       Path tablePath = new Path(warehousePath, tableName);
       Path filePath = new Path(tablePath, "part-m-00000");
 
-      // dequeue the expected value for this table. This
-      // list has the same order as the tableNames list.
-      String expectedVal = Integer.toString(i++) + ","
-          + this.expectedStrings.get(0);
-      this.expectedStrings.remove(0);
+      // The expected strings have the same order as the tableNames list.
+      String expectedVal = Integer.toString(i) + ","
+          + this.expectedStrings.get(i);
 
       BufferedReader reader = null;
       if (!isOnPhysicalCluster()) {
@@ -48,6 +48,7 @@
 
 import org.apache.sqoop.lib.RecordParser;
 import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.AsyncSqlOutputFormat;
 import org.apache.sqoop.testutil.ExportJobTestCase;
 import org.apache.sqoop.tool.CodeGenTool;
 import org.apache.sqoop.util.ClassLoaderStack;
@@ -556,6 +557,33 @@ public void testMultiTransactionWithStaging()
     verifyExport(TOTAL_RECORDS);
   }
 
+  /**
+   * Ensure that all records are exported when a mapper writes over
+   * several connections.
+   */
+  @Test
+  public void testMultiConnection() throws IOException, SQLException {
+    final int TOTAL_RECORDS = 20;
+    createTextFile(0, TOTAL_RECORDS, true);
+    createTable();
+    runExport(getArgv(true, 2, 3, "-D",
+        AsyncSqlOutputFormat.CONNECTIONS_PER_TASK_KEY + "=3"));
+    verifyExport(TOTAL_RECORDS);
+  }
+
+  /**
+   * Run an export which adapts its statement and transaction sizes.
+   */
+  @Test
+  public void testAdaptiveBatching() throws IOException, SQLException {
+    final int TOTAL_RECORDS = 50;
+    createTextFile(0, TOTAL_RECORDS, true);
+    createTable();
+    runExport(getArgv(true, 2, 3, "-D",
+        AsyncSqlOutputFormat.ADAPTIVE_BATCHING_KEY + "=true"));
+    verifyExport(TOTAL_RECORDS);
+  }
+
   /**
    * Ensure that when we don't force a commit with a statement cap,
    * it happens anyway.
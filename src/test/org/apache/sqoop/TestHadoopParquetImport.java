@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop;
+
+import org.apache.sqoop.mapreduce.parquet.ParquetJobConfiguratorImplementation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY;
+
+/**
+ * Runs the --as-parquetfile import tests with the Hadoop Parquet job
+ * configurator, which writes the records without Kite.
+ */
+public class TestHadoopParquetImport extends TestParquetImport {
+
+  @Override
+  protected String[] getOutputArgv(boolean includeHadoopFlags,
+          String[] extraArgs) {
+    return withHadoopConfigurator(
+        super.getOutputArgv(includeHadoopFlags, extraArgs));
+  }
+
+  @Override
+  protected String[] getOutputQueryArgv(boolean includeHadoopFlags,
+          String[] extraArgs) {
+    return withHadoopConfigurator(
+        super.getOutputQueryArgv(includeHadoopFlags, extraArgs));
+  }
+
+  private String[] withHadoopConfigurator(String[] argv) {
+    List<String> args = new ArrayList<String>();
+    args.add("-D");
+    args.add(SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY + "="
+        + ParquetJobConfiguratorImplementation.HADOOP);
+    args.addAll(Arrays.asList(argv));
+    return args.toArray(new String[args.size()]);
+  }
+}
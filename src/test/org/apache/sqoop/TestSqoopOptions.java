@@ -780,6 +780,19 @@ public void testHBaseBulkLoadMissingHbaseTable() throws Exception {
     validateImportOptions(extraArgs);
   }
 
+  // test that accumulo bulk load import with a missing --accumulo-table
+  // fails
+  @Test
+  public void testAccumuloBulkLoadMissingAccumuloTable() throws Exception {
+    String [] extraArgs = {
+        longArgument(BaseSqoopTool.ACCUMULO_BULK_LOAD_ENABLED_ARG),
+        longArgument(BaseSqoopTool.TARGET_DIR_ARG), "./test"};
+
+    thrown.expect(SqoopOptions.InvalidOptionsException.class);
+    thrown.reportMissingExceptionWithMessage("Expected InvalidOptionsException because of missing --accumulo-table");
+    validateImportOptions(extraArgs);
+  }
+
   private static String longArgument(String argument) {
     return String.format("--%s", argument);
   }
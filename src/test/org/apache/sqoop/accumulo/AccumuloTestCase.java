@@ -269,13 +269,21 @@ public void tearDown() {
     }
   }
 
+  /**
+   * @return a connection to the mini cluster as the test user.
+   */
+  protected Connector getAccumuloConnector()
+      throws AccumuloException, AccumuloSecurityException {
+    Instance inst = new ZooKeeperInstance(accumuloCluster.getInstanceName(),
+      accumuloCluster.getZooKeepers());
+    return inst.getConnector(ACCUMULO_USER,
+      new PasswordToken(ACCUMULO_PASSWORD));
+  }
+
   protected void verifyAccumuloCell(String tableName, String rowKey,
       String colFamily, String colName, String val) throws IOException {
     try {
-      Instance inst = new ZooKeeperInstance(accumuloCluster.getInstanceName(),
-        accumuloCluster.getZooKeepers());
-      Connector conn = inst.getConnector(ACCUMULO_USER,
-        new PasswordToken(ACCUMULO_PASSWORD));
+      Connector conn = getAccumuloConnector();
       Scanner scanner = conn.createScanner(tableName, Constants.NO_AUTHS);
       scanner.setRange(new Range(rowKey));
       Iterator<Entry<Key, Value>> iter = scanner.iterator();
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.accumulo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.hadoop.io.Text;
+import org.apache.sqoop.tool.BaseSqoopTool;
+import org.junit.Test;
+
+/**
+ * Test bulk imports of tables into Accumulo.
+ */
+public class TestAccumuloBulkImport extends AccumuloTestCase {
+
+  private String [] getBulkArgv(String accumuloTable, String accumuloColFam,
+      boolean accumuloCreate) {
+    List<String> args = new ArrayList<String>(Arrays.asList(
+        getArgv(accumuloTable, accumuloColFam, accumuloCreate, null)));
+    args.add("--" + BaseSqoopTool.ACCUMULO_BULK_LOAD_ENABLED_ARG);
+    args.add("--target-dir");
+    args.add(TEMP_BASE_DIR + "accumuloBulkLoadDir");
+    return args.toArray(new String[0]);
+  }
+
+  @Test
+  public void testBulkImport() throws IOException {
+    String [] argv = getBulkArgv("BulkImport", "BulkFam", true);
+    String [] types = { "INT", "VARCHAR(32)" };
+    String [] vals = { "0", "'abc'" };
+    createTableWithColTypes(types, vals);
+    runImport(argv);
+    verifyAccumuloCell("BulkImport", "0", "BulkFam", getColName(1), "abc");
+  }
+
+  @Test
+  public void testBulkImportIntoSplitTable() throws Exception {
+    // Rows on either side of the split point are written to separate
+    // RFiles, one for each tablet.
+    Connector conn = getAccumuloConnector();
+    conn.tableOperations().create("BulkSplit");
+    conn.tableOperations().addSplits("BulkSplit",
+        new TreeSet<Text>(Arrays.asList(new Text("5"))));
+
+    String [] argv = getBulkArgv("BulkSplit", "SplitFam", false);
+    String [] types = { "INT", "INT" };
+    String [] vals = { "1", "2" };
+    createTableWithColTypes(types, vals);
+    insertIntoTable(types, new String[] { "7", "8" });
+    runImport(argv);
+    verifyAccumuloCell("BulkSplit", "1", "SplitFam", getColName(1), "2");
+    verifyAccumuloCell("BulkSplit", "7", "SplitFam", getColName(1), "8");
+  }
+}
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test choosing the split points of a new table from sampled row keys.
+ */
+public class TestRowKeySampler {
+
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    connection = DriverManager.getConnection("jdbc:hsqldb:mem:rowkeys",
+        "SA", "");
+    Statement st = connection.createStatement();
+    st.executeUpdate("CREATE TABLE ROWKEYS (ID INTEGER, NAME VARCHAR(10))");
+    st.close();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Statement st = connection.createStatement();
+    st.executeUpdate("DROP TABLE ROWKEYS");
+    st.close();
+    connection.close();
+  }
+
+  private void insert(int id, String name) throws Exception {
+    PreparedStatement ps = connection.prepareStatement(
+        "INSERT INTO ROWKEYS VALUES (?, ?)");
+    ps.setInt(1, id);
+    ps.setString(2, name);
+    ps.executeUpdate();
+    ps.close();
+  }
+
+  private byte [][] getSplitKeys(PutTransformer transformer, String query,
+      int numRegions, String... keyTypes) throws Exception {
+    Statement st = connection.createStatement();
+    ResultSet results = st.executeQuery(query);
+    List<byte []> sample = new RowKeySampler(transformer, keyTypes)
+        .sample(results, 10000);
+    results.close();
+    st.close();
+    return RowKeySampler.getSplitKeys(sample, numRegions);
+  }
+
+  private PutTransformer getTransformer(PutTransformer transformer,
+      String rowKeyCol) {
+    Configuration conf = new Configuration(false);
+    conf.set(HBasePutProcessor.COL_FAMILY_KEY, "cf");
+    conf.set(HBasePutProcessor.ROW_KEY_COLUMN_KEY, rowKeyCol);
+    transformer.init(conf);
+    return transformer;
+  }
+
+  /**
+   * Count the row keys falling in each region.
+   */
+  private int [] countRegions(List<byte []> rowKeys, byte [][] splitKeys) {
+    int [] counts = new int[splitKeys.length + 1];
+    for (byte [] rowKey : rowKeys) {
+      int region = 0;
+      while (region < splitKeys.length
+          && Bytes.compareTo(rowKey, splitKeys[region]) >= 0) {
+        region++;
+      }
+      counts[region]++;
+    }
+    return counts;
+  }
+
+  @Test
+  public void testEvenRegionsInByteOrder() throws Exception {
+    List<byte []> rowKeys = new ArrayList<byte []>();
+    for (int i = 0; i < 1000; i++) {
+      insert(i, null);
+      rowKeys.add(Bytes.toBytes(Integer.toString(i)));
+    }
+
+    byte [][] splitKeys = getSplitKeys(
+        getTransformer(new ToStringPutTransformer(), "ID"),
+        "SELECT ID FROM ROWKEYS", 4, "Integer");
+    assertEquals(3, splitKeys.length);
+    for (int i = 1; i < splitKeys.length; i++) {
+      assertTrue(Bytes.compareTo(splitKeys[i - 1], splitKeys[i]) < 0);
+    }
+
+    // String row keys do not sort like the numbers they hold, but the
+    // regions still get the same number of rows.
+    for (int count : countRegions(rowKeys, splitKeys)) {
+      assertEquals(250, count);
+    }
+  }
+
+  @Test
+  public void testRepeatedAndNullKeys() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      insert(1, "a");
+      insert(2, null);
+      insert(3, "b");
+    }
+
+    // Rows with a null row-key column are not imported.
+    byte [][] splitKeys = getSplitKeys(
+        getTransformer(new ToStringPutTransformer(), "ID,NAME"),
+        "SELECT ID, NAME FROM ROWKEYS", 8, "Integer", "String");
+    assertEquals(1, splitKeys.length);
+    assertArrayEquals(Bytes.toBytes("3_b"), splitKeys[0]);
+
+    assertEquals(0, getSplitKeys(
+        getTransformer(new ToStringPutTransformer(), "ID"),
+        "SELECT ID FROM ROWKEYS", 1, "Integer").length);
+  }
+
+  @Test
+  public void testOrderedRowKeys() throws Exception {
+    List<byte []> rowKeys = new ArrayList<byte []>();
+    Configuration conf = new Configuration(false);
+    conf.set(HBasePutProcessor.COL_FAMILY_KEY, "cf");
+    conf.set(HBasePutProcessor.ROW_KEY_COLUMN_KEY, "ID");
+    conf.setEnum(TypedPutTransformer.ENCODING_KEY,
+        TypedPutTransformer.Encoding.ORDERED);
+    TypedPutTransformer transformer = new TypedPutTransformer();
+    transformer.init(conf);
+    for (int i = -50; i < 50; i++) {
+      insert(i, null);
+      rowKeys.add(transformer.getRowKey(new Object[] { i }));
+    }
+
+    byte [][] splitKeys = getSplitKeys(transformer,
+        "SELECT ID FROM ROWKEYS", 2, "Integer");
+    assertEquals(1, splitKeys.length);
+    assertArrayEquals(transformer.getRowKey(new Object[] { 0 }),
+        splitKeys[0]);
+
+    int [] counts = countRegions(rowKeys, splitKeys);
+    assertEquals(50, counts[0]);
+    assertEquals(50, counts[1]);
+  }
+
+  @Test
+  public void testKeysEncodedAsRecordFieldTypes() throws Exception {
+    // ID is an INTEGER column which the generated record holds as a Long,
+    // e.g. through --map-column-java; the ordered encoding of the split
+    // keys must follow the record, not the driver's getObject() type.
+    Configuration conf = new Configuration(false);
+    conf.set(HBasePutProcessor.COL_FAMILY_KEY, "cf");
+    conf.set(HBasePutProcessor.ROW_KEY_COLUMN_KEY, "ID");
+    conf.setEnum(TypedPutTransformer.ENCODING_KEY,
+        TypedPutTransformer.Encoding.ORDERED);
+    TypedPutTransformer transformer = new TypedPutTransformer();
+    transformer.init(conf);
+    for (int i = 0; i < 100; i++) {
+      insert(i, null);
+    }
+
+    byte [][] splitKeys = getSplitKeys(transformer,
+        "SELECT ID FROM ROWKEYS", 2, "Long");
+    assertEquals(1, splitKeys.length);
+    assertArrayEquals(transformer.getRowKey(new Object[] { 50L }),
+        splitKeys[0]);
+    assertEquals(9, splitKeys[0].length);
+  }
+}
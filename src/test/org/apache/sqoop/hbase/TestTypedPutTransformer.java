@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Order;
+import org.apache.hadoop.hbase.util.OrderedBytes;
+import org.apache.hadoop.hbase.util.SimplePositionedMutableByteRange;
+import org.apache.sqoop.SqoopOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the encodings of TypedPutTransformer.
+ */
+public class TestTypedPutTransformer {
+
+  private static final byte [] FAMILY = Bytes.toBytes("cf");
+
+  private Configuration conf;
+  private Map<String, Object> fields;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration(false);
+    conf.set(HBasePutProcessor.COL_FAMILY_KEY, "cf");
+    conf.set(HBasePutProcessor.ROW_KEY_COLUMN_KEY, "id");
+
+    fields = new LinkedHashMap<String, Object>();
+    fields.put("id", 7);
+    fields.put("name", "abc");
+    fields.put("amount", new BigDecimal("1.50"));
+    fields.put("created", new Date(1000L));
+    fields.put("missing", null);
+  }
+
+  private List<Mutation> transform(TypedPutTransformer.Encoding encoding)
+      throws Exception {
+    conf.setEnum(TypedPutTransformer.ENCODING_KEY, encoding);
+    TypedPutTransformer transformer = new TypedPutTransformer();
+    transformer.init(conf);
+    return transformer.getMutationCommand(fields);
+  }
+
+  private byte [] getValue(Mutation mutation, String qualifier) {
+    return CellUtil.cloneValue(
+        ((Put) mutation).get(FAMILY, Bytes.toBytes(qualifier)).get(0));
+  }
+
+  @Test
+  public void testStringEncodingMatchesToString() throws Exception {
+    List<Mutation> typed = transform(TypedPutTransformer.Encoding.STRING);
+
+    ToStringPutTransformer toString = new ToStringPutTransformer();
+    toString.init(conf);
+    List<Mutation> expected = toString.getMutationCommand(fields);
+
+    assertEquals(1, typed.size());
+    assertArrayEquals(expected.get(0).getRow(), typed.get(0).getRow());
+    for (String field : new String [] { "name", "amount", "created" }) {
+      assertArrayEquals(getValue(expected.get(0), field),
+          getValue(typed.get(0), field));
+    }
+    // The row key column is not stored unless requested.
+    assertFalse(((Put) typed.get(0)).has(FAMILY, Bytes.toBytes("id")));
+  }
+
+  @Test
+  public void testBinaryEncoding() throws Exception {
+    conf.setBoolean(HBasePutProcessor.ADD_ROW_KEY, true);
+    List<Mutation> mutations = transform(TypedPutTransformer.Encoding.BINARY);
+
+    assertEquals(1, mutations.size());
+    Mutation put = mutations.get(0);
+    assertArrayEquals(Bytes.toBytes("7"), put.getRow());
+    assertArrayEquals(Bytes.toBytes(7), getValue(put, "id"));
+    assertArrayEquals(Bytes.toBytes("abc"), getValue(put, "name"));
+    assertArrayEquals(Bytes.toBytes(new BigDecimal("1.50")),
+        getValue(put, "amount"));
+    assertArrayEquals(Bytes.toBytes(1000L), getValue(put, "created"));
+  }
+
+  @Test
+  public void testOrderedEncoding() throws Exception {
+    conf.set(HBasePutProcessor.ROW_KEY_COLUMN_KEY, "id,name");
+    List<Mutation> mutations = transform(TypedPutTransformer.Encoding.ORDERED);
+
+    SimplePositionedMutableByteRange expected =
+        new SimplePositionedMutableByteRange(32);
+    OrderedBytes.encodeInt32(expected, 7, Order.ASCENDING);
+    OrderedBytes.encodeString(expected, "abc", Order.ASCENDING);
+    assertArrayEquals(Bytes.copy(expected.getBytes(), 0,
+        expected.getPosition()), mutations.get(0).getRow());
+
+    expected.setPosition(0);
+    OrderedBytes.encodeInt64(expected, 1000L, Order.ASCENDING);
+    assertArrayEquals(Bytes.copy(expected.getBytes(), 0,
+        expected.getPosition()), getValue(mutations.get(0), "created"));
+
+    // Encoded values sort like the values themselves.
+    fields.put("id", -8);
+    byte [] negativeKey = transform(TypedPutTransformer.Encoding.ORDERED)
+        .get(0).getRow();
+    assertTrue(Bytes.compareTo(negativeKey, mutations.get(0).getRow()) < 0);
+  }
+
+  @Test
+  public void testNullFields() throws Exception {
+    conf.setEnum(HBasePutProcessor.NULL_INCREMENTAL_MODE,
+        SqoopOptions.HBaseNullIncrementalMode.Delete);
+    fields.put("other", null);
+    List<Mutation> mutations = transform(TypedPutTransformer.Encoding.BINARY);
+
+    // One Put for the values and one Delete for both null columns.
+    assertEquals(2, mutations.size());
+    Delete delete = (Delete) mutations.get(1);
+    assertEquals(2, delete.size());
+
+    fields.put("id", null);
+    try {
+      transform(TypedPutTransformer.Encoding.BINARY);
+      fail("Expected a null row key to be rejected");
+    } catch (java.io.IOException ioe) {
+      // Expected.
+    }
+  }
+}
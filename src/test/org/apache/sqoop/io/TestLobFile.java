@@ -72,7 +72,7 @@ public class TestLobFile {
     TEMP_BASE_DIR = new Path(new Path(tmpDir), "lobtest");
   }
 
-  private Configuration conf;
+  protected Configuration conf;
   private FileSystem fs;
 
   @Rule
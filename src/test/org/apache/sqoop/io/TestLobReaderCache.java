@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.io;
+
+import java.io.OutputStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the caching of LobFile readers.
+ */
+public class TestLobReaderCache {
+
+  private Configuration conf;
+  private Path pathA;
+  private Path pathB;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new Configuration();
+    conf.set("fs.default.name", "file:///");
+    FileSystem fs = FileSystem.getLocal(conf);
+    fs.mkdirs(TestLobFile.TEMP_BASE_DIR);
+
+    pathA = writeLobFile("cacheA.lob");
+    pathB = writeLobFile("cacheB.lob");
+  }
+
+  private Path writeLobFile(String name) throws Exception {
+    Path p = new Path(TestLobFile.TEMP_BASE_DIR, name);
+    LobFile.Writer writer = LobFile.create(p, conf);
+    OutputStream out = writer.writeBlobRecord(3);
+    out.write(new byte[] { 1, 2, 3 });
+    out.close();
+    writer.close();
+    return p;
+  }
+
+  @Test
+  public void testSeveralReadersPerPath() throws Exception {
+    LobReaderCache cache = new LobReaderCache(2, 10);
+    LobFile.Reader r1 = cache.get(pathA, conf);
+    LobFile.Reader r2 = cache.get(pathA, conf);
+    LobFile.Reader r3 = cache.get(pathA, conf);
+    assertNotSame(r1, r2);
+
+    cache.recycle(r1);
+    cache.recycle(r2);
+    cache.recycle(r3);
+
+    // Only two readers are kept for the path.
+    assertTrue(r3.isClosed());
+    assertFalse(r1.isClosed());
+    assertFalse(r2.isClosed());
+
+    // Each consumer gets its own reader back.
+    assertSame(r2, cache.get(pathA, conf));
+    assertSame(r1, cache.get(pathA, conf));
+    LobFile.Reader r4 = cache.get(pathA, conf);
+    assertNotSame(r1, r4);
+    assertNotSame(r2, r4);
+    r1.close();
+    r2.close();
+    r4.close();
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyRecycled() throws Exception {
+    LobReaderCache cache = new LobReaderCache(2, 2);
+    LobFile.Reader a1 = cache.get(pathA, conf);
+    LobFile.Reader a2 = cache.get(pathA, conf);
+    LobFile.Reader b1 = cache.get(pathB, conf);
+
+    cache.recycle(a1);
+    cache.recycle(a2);
+    cache.recycle(b1);
+
+    assertTrue(a1.isClosed());
+    assertFalse(a2.isClosed());
+    assertFalse(b1.isClosed());
+    assertSame(a2, cache.get(pathA, conf));
+    assertSame(b1, cache.get(pathB, conf));
+    a2.close();
+    b1.close();
+  }
+}
@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.avro.AvroUtil;
+import org.codehaus.jackson.node.NullNode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that AvroFieldWriter encodes fields as a GenericRecord of the same
+ * values would be encoded.
+ */
+public class TestAvroFieldWriter {
+
+  private static Schema.Field nullableField(String name, Schema schema) {
+    return new Schema.Field(name, Schema.createUnion(Arrays.asList(
+        Schema.create(Schema.Type.NULL), schema)), null,
+        NullNode.getInstance());
+  }
+
+  private static Schema createSchema() {
+    List<Schema.Field> fields = new ArrayList<Schema.Field>();
+    fields.add(nullableField("ID", Schema.create(Schema.Type.INT)));
+    fields.add(nullableField("COUNT", Schema.create(Schema.Type.LONG)));
+    fields.add(nullableField("NAME", Schema.create(Schema.Type.STRING)));
+    fields.add(nullableField("PRICE", Schema.create(Schema.Type.STRING)));
+    fields.add(nullableField("AMOUNT", LogicalTypes.decimal(10, 2)
+        .addToSchema(Schema.create(Schema.Type.BYTES))));
+    fields.add(nullableField("DATA", Schema.create(Schema.Type.BYTES)));
+    fields.add(nullableField("CREATED", Schema.create(Schema.Type.LONG)));
+    fields.add(nullableField("ACTIVE", Schema.create(Schema.Type.BOOLEAN)));
+    fields.add(nullableField("RATIO", Schema.create(Schema.Type.DOUBLE)));
+    fields.add(nullableField("WEIGHT", Schema.create(Schema.Type.FLOAT)));
+    Schema schema = Schema.createRecord("TEST", null, null, false);
+    schema.setFields(fields);
+    return schema;
+  }
+
+  private static byte [] encodeGeneric(Schema schema,
+      Map<String, Object> fieldMap) throws Exception {
+    GenericData data = new GenericData();
+    data.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    GenericRecord record = AvroUtil.toGenericRecord(fieldMap, schema, true);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(schema, data).write(record,
+        encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static Map<String, Object> createFieldMap(Object... values) {
+    String [] names = { "ID", "COUNT", "NAME", "PRICE", "AMOUNT", "DATA",
+        "CREATED", "ACTIVE", "RATIO", "WEIGHT", };
+    Map<String, Object> fieldMap = new LinkedHashMap<String, Object>();
+    for (int i = 0; i < names.length; i++) {
+      fieldMap.put(names[i], values[i]);
+    }
+    return fieldMap;
+  }
+
+  @Test
+  public void testTypedWritesMatchGenericRecord() throws Exception {
+    Schema schema = createSchema();
+    BigDecimal price = new BigDecimal("1E+3");
+    BigDecimal amount = new BigDecimal("12.50");
+    BytesWritable data = new BytesWritable(new byte[] { 1, 2, 3 });
+    Timestamp created = new Timestamp(1500000000000L);
+    Map<String, Object> fieldMap = createFieldMap(42, 7L, "name", price,
+        amount, data, created, true, 0.5, 1.5f);
+
+    AvroFieldWriter writer = new AvroFieldWriter(schema, true, false);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    writer.writeInteger(encoder, 0, 42);
+    writer.writeLong(encoder, 1, 7L);
+    writer.writeString(encoder, 2, "name");
+    writer.writeBigDecimal(encoder, 3, price);
+    writer.writeBigDecimal(encoder, 4, amount);
+    writer.writeBytesWritable(encoder, 5, data);
+    writer.writeTimestamp(encoder, 6, created);
+    writer.writeBoolean(encoder, 7, true);
+    writer.writeDouble(encoder, 8, 0.5);
+    writer.writeFloat(encoder, 9, 1.5f);
+    encoder.flush();
+
+    assertArrayEquals(encodeGeneric(schema, fieldMap), out.toByteArray());
+  }
+
+  @Test
+  public void testWriteObjectMatchesGenericRecord()
+      throws Exception {
+    Schema schema = createSchema();
+    Map<String, Object> fieldMap = createFieldMap(null, 7L, null, null,
+        null, new BlobRef(new byte[] { 4, 5 }), null, null, 2.0, null);
+
+    AvroFieldWriter writer = new AvroFieldWriter(schema, true, false);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    int pos = 0;
+    for (Object value : fieldMap.values()) {
+      writer.writeObject(encoder, pos++, value);
+    }
+    encoder.flush();
+
+    assertArrayEquals(encodeGeneric(schema, fieldMap), out.toByteArray());
+  }
+
+  @Test
+  public void testWriteFieldMapInSchemaOrder() throws Exception {
+    Schema schema = createSchema();
+    Map<String, Object> fieldMap = createFieldMap(1, 2L, "three",
+        new BigDecimal("4"), new BigDecimal("5.00"), null, null, false, null,
+        6.5f);
+
+    // Field maps of generated records are not in column order.
+    List<String> names = new ArrayList<String>(fieldMap.keySet());
+    Collections.reverse(names);
+    Map<String, Object> reversed = new LinkedHashMap<String, Object>();
+    for (String name : names) {
+      reversed.put(name, fieldMap.get(name));
+    }
+
+    AvroFieldWriter writer = new AvroFieldWriter(schema, true, false);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    writer.writeFieldMap(encoder, reversed);
+    encoder.flush();
+
+    assertArrayEquals(encodeGeneric(schema, fieldMap), out.toByteArray());
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertTrue(AvroFieldWriter.isSupported(createSchema()));
+    assertFalse(AvroFieldWriter.isSupported(
+        Schema.create(Schema.Type.STRING)));
+
+    Schema schema = Schema.createRecord("TEST", null, null, false);
+    schema.setFields(Arrays.asList(new Schema.Field("TAGS",
+        Schema.createArray(Schema.create(Schema.Type.STRING)), null,
+        (Object) null)));
+    assertFalse(AvroFieldWriter.isSupported(schema));
+  }
+}
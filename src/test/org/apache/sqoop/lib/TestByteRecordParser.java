@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.lib;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test that the byte-level record parser splits records exactly the way
+ * RecordParser does, and that its typed accessors match the JDK parsers.
+ */
+public class TestByteRecordParser {
+
+  private static final DelimiterSet DELIMS =
+      new DelimiterSet(',', '\n', '\"', '\\', false);
+
+  private static final String [] INPUTS = {
+    "",
+    "\n",
+    "the field",
+    "the field\n",
+    "\"the field\"\n",
+    "\"the ,\nfield\"",
+    "\"the \\\"field\\\"\"",
+    "field1,field2",
+    "field1,\"field2\"\n",
+    ",",
+    "a,,b",
+    "foo,",
+    "foo,bar\nbaz",
+    "\nbaz",
+    "\\\nbaz",
+    "\u00e9t\u00e9,\u65e5\u672c,\"\u00fc,ber\"",
+  };
+
+  private void assertSameFields(DelimiterSet delims, String input)
+      throws RecordParser.ParseError {
+    List<String> expected = new RecordParser(delims).parseRecord(input);
+    ByteRecordParser parser = new ByteRecordParser(delims);
+    int count = parser.parseRecord(new Text(input));
+
+    assertEquals("field count for [" + input + "]", expected.size(), count);
+    for (int i = 0; i < count; i++) {
+      assertEquals("field " + i + " for [" + input + "]",
+          expected.get(i), parser.getString(i));
+    }
+  }
+
+  @Test
+  public void testMatchesRecordParser() throws RecordParser.ParseError {
+    for (String input : INPUTS) {
+      assertSameFields(DELIMS, input);
+    }
+  }
+
+  @Test
+  public void testEofIsEor() throws RecordParser.ParseError {
+    DelimiterSet delims = new DelimiterSet(',', ',', '\"', '\\', false);
+    assertSameFields(delims, "three,different,fields");
+    assertSameFields(delims, "three,\"different\",fields");
+  }
+
+  @Test
+  public void testRepeatedParse() throws RecordParser.ParseError {
+    ByteRecordParser parser = new ByteRecordParser(DELIMS);
+    assertEquals(3, parser.parseRecord(new Text("a,\"b\\\"c\",d")));
+    assertEquals("b\"c", parser.getString(1));
+
+    assertEquals(2, parser.parseRecord(new Text("foo,bar")));
+    assertEquals("foo", parser.getString(0));
+    assertEquals("bar", parser.getString(1));
+  }
+
+  @Test
+  public void testManyFields() throws RecordParser.ParseError {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(i);
+    }
+
+    ByteRecordParser parser = new ByteRecordParser(DELIMS);
+    assertEquals(500, parser.parseRecord(new Text(sb.toString())));
+    assertEquals(499, parser.getInt(499));
+  }
+
+  @Test
+  public void testRequiredQuotes() throws RecordParser.ParseError {
+    ByteRecordParser parser = new ByteRecordParser(
+        new DelimiterSet(',', '\n', '\"', '\\', true));
+    assertEquals(2, parser.parseRecord(new Text("\"a\",\"b\"")));
+
+    try {
+      parser.parseRecord(new Text("\"a\",b"));
+      fail("Expected parse error for unenclosed field");
+    } catch (RecordParser.ParseError pe) {
+      // expected.
+    }
+  }
+
+  @Test
+  public void testNonAsciiDelimitersUnsupported() {
+    assertTrue(ByteRecordParser.isSupported(DELIMS));
+    assertTrue(ByteRecordParser.isSupported(DelimiterSet.HIVE_DELIMITERS));
+    assertFalse(ByteRecordParser.isSupported(
+        new DelimiterSet('\u00fe', '\n', '\000', '\000', false)));
+  }
+
+  @Test
+  public void testNumericFields() throws RecordParser.ParseError {
+    ByteRecordParser parser = new ByteRecordParser(DELIMS);
+    parser.parseRecord(new Text("42,-17,+5,2147483647,-9223372036854775808"));
+    assertEquals(42, parser.getInt(0));
+    assertEquals(-17, parser.getInt(1));
+    assertEquals(5, parser.getInt(2));
+    assertEquals(Integer.MAX_VALUE, parser.getInt(3));
+    assertEquals(Long.MIN_VALUE, parser.getLong(4));
+  }
+
+  @Test
+  public void testBadNumericFields() throws RecordParser.ParseError {
+    ByteRecordParser parser = new ByteRecordParser(DELIMS);
+    parser.parseRecord(new Text("2147483648,9223372036854775808,-,1x, 1"));
+    String [] values = { "2147483648", "9223372036854775808", "-", "1x",
+        " 1", };
+    for (int i = 0; i < values.length; i++) {
+      try {
+        parser.getInt(i);
+        fail("Expected NumberFormatException for " + values[i]);
+      } catch (NumberFormatException nfe) {
+        // expected.
+      }
+    }
+  }
+
+  @Test
+  public void testDateAndTimeFields() throws RecordParser.ParseError {
+    ByteRecordParser parser = new ByteRecordParser(DELIMS);
+    parser.parseRecord(new Text("2016-02-29,2016-2-9,12:34:56,1:2:3"));
+    assertEquals(java.sql.Date.valueOf("2016-02-29"), parser.getDate(0));
+    assertEquals(java.sql.Date.valueOf("2016-2-9"), parser.getDate(1));
+    assertEquals(java.sql.Time.valueOf("12:34:56"), parser.getTime(2));
+    assertEquals(java.sql.Time.valueOf("1:2:3"), parser.getTime(3));
+
+    parser.parseRecord(new Text("2016-13-01"));
+    try {
+      parser.getDate(0);
+      fail("Expected IllegalArgumentException for bad month");
+    } catch (IllegalArgumentException iae) {
+      // expected.
+    }
+  }
+
+  @Test
+  public void testFieldEquals() throws RecordParser.ParseError {
+    ByteRecordParser parser = new ByteRecordParser(DELIMS);
+    parser.parseRecord(new Text("null,\\N,nul"));
+    byte [] nullBytes = "null".getBytes(StandardCharsets.UTF_8);
+    assertTrue(parser.fieldEquals(0, nullBytes));
+    assertTrue(parser.fieldEquals(1, "N".getBytes(StandardCharsets.UTF_8)));
+    assertFalse(parser.fieldEquals(2, nullBytes));
+  }
+}
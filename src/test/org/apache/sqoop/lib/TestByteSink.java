@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.lib;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that ByteSink encodes text the same way Text does.
+ */
+public class TestByteSink {
+
+  @Test
+  public void testUtf8MatchesText() {
+    String [] strs = { "", "foo", "\u00e9t\u00e9", "\u65e5\u672c",
+        "\ud83d\ude00", "bad\ud83dsurrogate", };
+    ByteSink sink = new ByteSink(16);
+    for (String str : strs) {
+      sink.reset();
+      sink.append(str);
+      Text text = new Text();
+      sink.copyTo(text);
+      assertEquals(new Text(str), text);
+    }
+  }
+
+  @Test
+  public void testLongs() {
+    long [] vals = { 0, 7, -7, 10, 1234567890123L, Long.MAX_VALUE,
+        Long.MIN_VALUE, };
+    ByteSink sink = new ByteSink();
+    for (long val : vals) {
+      sink.reset();
+      sink.append(val);
+      assertEquals(Long.toString(val), sink.toString());
+    }
+  }
+
+  @Test
+  public void testGrowth() {
+    ByteSink sink = new ByteSink(16);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sink.append(i).append(',').append("\u00e9");
+      expected.append(i).append(',').append("\u00e9");
+    }
+    assertEquals(expected.toString(), sink.toString());
+  }
+}
@@ -21,7 +21,9 @@
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -147,4 +149,55 @@ public void testQuotedEscape() {
         new DelimiterSet(',', '\n', '\"', '\\', false));
     assertEquals("\"foo\\\\,bar\"", result);
   }
+
+  private static final DelimiterSet [] STREAMING_DELIMS = {
+    DelimiterSet.DEFAULT_DELIMITERS,
+    DelimiterSet.MYSQL_DELIMITERS,
+    DelimiterSet.HIVE_DELIMITERS,
+    new DelimiterSet(',', '\n', '\"', '\\', true),
+    new DelimiterSet(',', '\n', '\"', DelimiterSet.NULL_CHAR, false),
+    new DelimiterSet(',', '\n', DelimiterSet.NULL_CHAR, '\\', false),
+    new DelimiterSet(',', ',', '\"', '\\', false),
+    new DelimiterSet('|', '\n', '|', '\\', false),
+  };
+
+  private static final String [] STREAMING_STRS = {
+    "", "foo", "foo,bar", "foo\nbar", "foo\\bar", "foo\"bar", "'foo'",
+    "a|b", "\u00e9\u65e5\ud83d\ude00", "\"\\,\n",
+  };
+
+  @Test
+  public void testStreamingMatchesString() {
+    ByteSink sink = new ByteSink();
+    for (DelimiterSet delims : STREAMING_DELIMS) {
+      for (String str : STREAMING_STRS) {
+        sink.reset();
+        FieldFormatter.escapeAndEnclose(sink, str, delims);
+        assertEquals("[" + str + "] with " + delims,
+            FieldFormatter.escapeAndEnclose(str, delims), sink.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testCanSkipEscaping() {
+    assertTrue(FieldFormatter.canSkipEscaping(
+        DelimiterSet.DEFAULT_DELIMITERS));
+    assertTrue(FieldFormatter.canSkipEscaping(DelimiterSet.HIVE_DELIMITERS));
+    assertFalse(FieldFormatter.canSkipEscaping(
+        new DelimiterSet('-', '\n', DelimiterSet.NULL_CHAR,
+        DelimiterSet.NULL_CHAR, false)));
+    assertFalse(FieldFormatter.canSkipEscaping(
+        new DelimiterSet(',', '\n', '0', '\\', false)));
+  }
+
+  @Test
+  public void testWritePlain() {
+    ByteSink sink = new ByteSink();
+    FieldFormatter.writePlain(sink, -42L, DelimiterSet.DEFAULT_DELIMITERS);
+    sink.append(',');
+    FieldFormatter.writePlain(sink, "2009-07-02",
+        new DelimiterSet(',', '\n', '\"', '\\', true));
+    assertEquals("-42,\"2009-07-02\"", sink.toString());
+  }
 }
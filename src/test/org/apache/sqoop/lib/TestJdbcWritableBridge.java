@@ -0,0 +1,275 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.lib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.io.LobReaderCache;
+import org.apache.sqoop.testutil.BaseSqoopTestCase;
+import org.apache.sqoop.testutil.CommonArgs;
+import org.apache.sqoop.testutil.MockResultSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test binding BLOB and CLOB values to PreparedStatements on export.
+ */
+public class TestJdbcWritableBridge {
+
+  private Configuration conf;
+  private Path outDir;
+
+  /**
+   * A PreparedStatement which records the value bound to each parameter.
+   */
+  private static class BoundParams implements InvocationHandler {
+    private final Map<Integer, Object> params = new HashMap<Integer, Object>();
+
+    PreparedStatement getStatement() {
+      return (PreparedStatement) Proxy.newProxyInstance(
+          getClass().getClassLoader(),
+          new Class [] { PreparedStatement.class }, this);
+    }
+
+    public Object invoke(Object proxy, Method method, Object [] args) {
+      if (method.getName().startsWith("set")) {
+        params.put((Integer) args[0],
+            method.getName().equals("setNull") ? null : args[1]);
+      }
+      return null;
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new Configuration();
+    if (!BaseSqoopTestCase.isOnPhysicalCluster()) {
+      conf.set(CommonArgs.FS_DEFAULT_NAME, CommonArgs.LOCAL_FS);
+    }
+    outDir = new Path(System.getProperty("test.build.data", "/tmp/"),
+        "jdbcWritableBridge");
+    FileSystem fs = FileSystem.get(conf);
+    if (fs.exists(outDir)) {
+      fs.delete(outDir, true);
+    }
+    fs.mkdirs(outDir);
+
+    conf.set(JdbcWritableBridge.EXTERNAL_LOB_DIR_KEY, outDir.toString());
+  }
+
+  /**
+   * @return a ref parsed from the text form of lob, as an export reads it,
+   * with the export configuration set.
+   */
+  private BlobRef exported(BlobRef lob) {
+    BlobRef ref = BlobRef.parse(lob.toString());
+    ref.setExportConf(conf);
+    return ref;
+  }
+
+  private ClobRef exported(ClobRef lob) {
+    ClobRef ref = ClobRef.parse(lob.toString());
+    ref.setExportConf(conf);
+    return ref;
+  }
+
+  @Test
+  public void testInlineLobs() throws Exception {
+    BoundParams bound = new BoundParams();
+    PreparedStatement stmt = bound.getStatement();
+    JdbcWritableBridge.writeBlobRef(new BlobRef(new byte[] { 1, 2 }), 1,
+        Types.BLOB, stmt);
+    JdbcWritableBridge.writeClobRef(new ClobRef("text"), 2, Types.CLOB,
+        stmt);
+    JdbcWritableBridge.writeBlobRef(null, 3, Types.BLOB, stmt);
+    JdbcWritableBridge.writeClobRef(null, 4, Types.CLOB, stmt);
+
+    assertArrayEquals(new byte[] { 1, 2 }, (byte []) bound.params.get(1));
+    assertEquals("text", bound.params.get(2));
+    assertNull(bound.params.get(3));
+    assertNull(bound.params.get(4));
+  }
+
+  @Test
+  public void testExternalLobs() throws Exception {
+    // Write two external records of each kind into the same LobFiles.
+    conf.setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY, 4);
+    LargeObjectLoader loader = new LargeObjectLoader(conf, outDir);
+    ResultSet resultSet = new MockResultSet();
+    BlobRef blob1 = loader.readBlobRef(0, resultSet);
+    BlobRef blob2 = loader.readBlobRef(0, resultSet);
+    ClobRef clob1 = loader.readClobRef(0, resultSet);
+    ClobRef clob2 = loader.readClobRef(0, resultSet);
+    loader.close();
+
+    // Refs parsed from text hold paths relative to the export directory.
+    BoundParams bound = new BoundParams();
+    PreparedStatement stmt = bound.getStatement();
+    JdbcWritableBridge.writeBlobRef(exported(blob1), 1, Types.BLOB, stmt);
+    JdbcWritableBridge.writeBlobRef(exported(blob2), 2, Types.BLOB, stmt);
+    JdbcWritableBridge.writeClobRef(exported(clob1), 3, Types.CLOB, stmt);
+    JdbcWritableBridge.writeClobRef(exported(clob2), 4, Types.CLOB, stmt);
+
+    // The streams are read once all of them are bound, as a driver would
+    // when executing a batch.
+    assertArrayEquals(MockResultSet.blobData(),
+        readAll((InputStream) bound.params.get(1)));
+    assertArrayEquals(MockResultSet.blobData(),
+        readAll((InputStream) bound.params.get(2)));
+    assertEquals(MockResultSet.CLOB_DATA,
+        readAll((Reader) bound.params.get(3)));
+    assertEquals(MockResultSet.CLOB_DATA,
+        readAll((Reader) bound.params.get(4)));
+  }
+
+  @Test
+  public void testReadersRecycledAtDeclaredLength() throws Exception {
+    conf.setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY, 4);
+    LargeObjectLoader loader = new LargeObjectLoader(conf, outDir);
+    ResultSet resultSet = new MockResultSet();
+    BlobRef blob = exported(loader.readBlobRef(0, resultSet));
+    ClobRef clob = exported(loader.readClobRef(0, resultSet));
+    loader.close();
+
+    BoundParams bound = new BoundParams();
+    PreparedStatement stmt = bound.getStatement();
+    JdbcWritableBridge.writeBlobRef(blob, 1, Types.BLOB, stmt);
+    JdbcWritableBridge.writeClobRef(clob, 2, Types.CLOB, stmt);
+    int idleReaders = LobReaderCache.getCache().getIdleReaderCount();
+
+    // Like a driver given the length, read exactly that much and neither
+    // look for the end of the stream nor close it.
+    InputStream in = (InputStream) bound.params.get(1);
+    byte [] bytes = new byte[(int) blob.getExternalLength()];
+    int pos = 0;
+    while (pos < bytes.length) {
+      pos += in.read(bytes, pos, Math.min(5, bytes.length - pos));
+    }
+    Reader reader = (Reader) bound.params.get(2);
+    char [] chars = new char[(int) clob.getExternalLength()];
+    pos = 0;
+    while (pos < chars.length) {
+      pos += reader.read(chars, pos, Math.min(5, chars.length - pos));
+    }
+
+    assertArrayEquals(MockResultSet.blobData(), bytes);
+    assertEquals(MockResultSet.CLOB_DATA, new String(chars));
+    assertEquals(idleReaders + 2,
+        LobReaderCache.getCache().getIdleReaderCount());
+  }
+
+  @Test(expected = SQLException.class)
+  public void testExternalLobNeedsConf() throws Exception {
+    conf.setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY, 4);
+    LargeObjectLoader loader = new LargeObjectLoader(conf, outDir);
+    BlobRef blob = loader.readBlobRef(0, new MockResultSet());
+    loader.close();
+
+    JdbcWritableBridge.writeBlobRef(BlobRef.parse(blob.toString()), 1,
+        Types.BLOB, new BoundParams().getStatement());
+  }
+
+  @Test
+  public void testParsedInlineBlobNotExported() throws Exception {
+    BlobRef parsed = exported(new BlobRef(new byte[] { 1, 2 }));
+    try {
+      JdbcWritableBridge.writeBlobRef(parsed, 1, Types.BLOB,
+          new BoundParams().getStatement());
+      fail("Exported inline BLOB data parsed from text");
+    } catch (SQLException expected) {
+      // The data cannot be recovered from its text form.
+    }
+  }
+
+  /** A generated record with a BLOB field. */
+  abstract static class LobRecord extends SqoopRecord {
+    private BlobRef blob;
+  }
+
+  /** A generated record without LOB fields. */
+  abstract static class NoLobRecord extends SqoopRecord {
+    private int id;
+    private String name;
+  }
+
+  @Test
+  public void testLobConfOnlySetForLobRecords() throws Exception {
+    assertTrue(JdbcWritableBridge.hasLobFields(LobRecord.class));
+    assertFalse(JdbcWritableBridge.hasLobFields(NoLobRecord.class));
+
+    JdbcWritableBridge.LobConfSetter setter =
+        new JdbcWritableBridge.LobConfSetter(conf);
+    LobRecord lobRecord = mock(LobRecord.class);
+    NoLobRecord noLobRecord = mock(NoLobRecord.class);
+    setter.apply(lobRecord);
+    setter.apply(noLobRecord);
+    verify(lobRecord).visitFields(setter);
+    verify(noLobRecord, never()).visitFields(any(FieldVisitor.class));
+
+    BlobRef blob = BlobRef.parse("externalLob(lf,x,0,1)");
+    setter.visit(0, "blob", blob);
+    assertSame(conf, blob.getExportConf());
+  }
+
+  private byte [] readAll(InputStream in) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte [] buf = new byte[5];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      out.write(buf, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  private String readAll(Reader in) throws Exception {
+    StringWriter out = new StringWriter();
+    char [] buf = new char[5];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      out.write(buf, 0, n);
+    }
+    return out.toString();
+  }
+}
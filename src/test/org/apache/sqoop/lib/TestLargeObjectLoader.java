@@ -18,6 +18,8 @@
 
 package org.apache.sqoop.lib;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -30,14 +32,21 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.io.LobFile;
 import org.apache.sqoop.testutil.MockResultSet;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Test deserialization of ClobRef and BlobRef fields.
@@ -120,5 +129,85 @@ public void testReadBlobRef()
       assertEquals(blobData[i], buf[i]);
     }
   }
+
+  @Test
+  public void testSpillSeveralLobs()
+      throws IOException, InterruptedException, SQLException {
+    conf.setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY, 4);
+    // Two chunks in flight, so that the loader waits for the spill thread.
+    conf.setInt(LargeObjectLoader.SPILL_BUFFER_SIZE_KEY, 1);
+    checkSpilledLobs();
+  }
+
+  @Test
+  public void testSynchronousSpill()
+      throws IOException, InterruptedException, SQLException {
+    conf.setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY, 4);
+    conf.setBoolean(LargeObjectLoader.ASYNC_SPILL_KEY, false);
+    checkSpilledLobs();
+  }
+
+  @Test(timeout = 30000)
+  public void testInterruptedSpillThreadFailsSpill()
+      throws IOException, InterruptedException {
+    // The spill thread is interrupted as it begins the record, and exits
+    // while the caller still has chunks to queue.
+    LobFile.Writer writer = mock(LobFile.Writer.class);
+    when(writer.tell()).thenAnswer(new Answer<Long>() {
+      @Override
+      public Long answer(InvocationOnMock invocation) {
+        Thread.currentThread().interrupt();
+        return 0L;
+      }
+    });
+    when(writer.writeBlobRecord(anyLong()))
+        .thenReturn(new ByteArrayOutputStream());
+
+    LobSpillWriter spiller = new LobSpillWriter(4, 1);
+    byte [] data = new byte[64];
+    try {
+      spiller.spill(writer, data.length, new ByteArrayInputStream(data));
+      fail("Expected the spill to fail");
+    } catch (IOException ioe) {
+      // expected.
+    }
+  }
+
+  private void checkSpilledLobs()
+      throws IOException, InterruptedException, SQLException {
+    ResultSet resultSet = new MockResultSet();
+    BlobRef [] blobs = new BlobRef[5];
+    ClobRef [] clobs = new ClobRef[5];
+    for (int i = 0; i < blobs.length; i++) {
+      blobs[i] = loader.readBlobRef(0, resultSet);
+      clobs[i] = loader.readClobRef(0, resultSet);
+      assertTrue(blobs[i].isExternal());
+      assertTrue(clobs[i].isExternal());
+      if (i > 0) {
+        // Each record has its own offset.
+        assertFalse(blobs[i].toString().equals(blobs[i - 1].toString()));
+        assertFalse(clobs[i].toString().equals(clobs[i - 1].toString()));
+      }
+    }
+    loader.close();
+
+    byte [] blobData = MockResultSet.blobData();
+    for (int i = 0; i < blobs.length; i++) {
+      InputStream is = blobs[i].getDataStream(conf, outDir);
+      byte [] buf = new byte[4096];
+      int bytes = is.read(buf, 0, 4096);
+      is.close();
+      assertEquals(blobData.length, bytes);
+      for (int j = 0; j < bytes; j++) {
+        assertEquals(blobData[j], buf[j]);
+      }
+
+      Reader r = clobs[i].getDataStream(conf, outDir);
+      char [] cbuf = new char[4096];
+      int chars = r.read(cbuf, 0, 4096);
+      r.close();
+      assertEquals(MockResultSet.CLOB_DATA, new String(cbuf, 0, chars));
+    }
+  }
 }
 
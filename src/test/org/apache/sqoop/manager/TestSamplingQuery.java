@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.manager;
+
+import org.apache.sqoop.SqoopOptions;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the queries connection managers use to sample tables.
+ */
+public class TestSamplingQuery {
+
+  private static SqoopOptions getOptions() {
+    return new SqoopOptions("jdbc:test://localhost/db", "T");
+  }
+
+  @Test
+  public void testSqlServerTableSample() {
+    SQLServerManager manager = new SQLServerManager(getOptions());
+    assertEquals("SELECT [ID], [NAME] FROM [T] TABLESAMPLE (100 ROWS)",
+        manager.getSamplingQuery("T", new String[] { "ID", "NAME" }, null,
+            100));
+    assertEquals("SELECT [ID] FROM [T] TABLESAMPLE (10 ROWS) WHERE (ID > 5)",
+        manager.getSamplingQuery("T", new String[] { "ID" }, "ID > 5", 10));
+  }
+
+  @Test
+  public void testPostgresqlTableSample() {
+    PostgresqlManager manager = new PostgresqlManager(getOptions());
+    assertEquals("SELECT \"id\" FROM \"t\" TABLESAMPLE SYSTEM (2.5)",
+        manager.getTableSampleQuery("t", new String[] { "id" }, null, 2.5));
+    assertEquals("SELECT \"id\" FROM \"t\" TABLESAMPLE SYSTEM (0.000001) "
+        + "WHERE (id > 5)", manager.getTableSampleQuery("t",
+            new String[] { "id" }, "id > 5", 1e-9));
+    assertEquals("SELECT \"id\" FROM \"t\" TABLESAMPLE SYSTEM (100)",
+        manager.getTableSampleQuery("t", new String[] { "id" }, null, 100));
+  }
+}
@@ -23,6 +23,7 @@
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.Map;
 
@@ -252,6 +253,27 @@ public void getPrimaryKeyFromTable() {
         KEY_FIELD_NAME);
   }
 
+  static final String TABLE_WITH_COMPOSITE_KEY = "TABLE_WITH_COMPOSITE_KEY";
+
+  @Test
+  public void getPrimaryKeyColumnsFromTable() throws SQLException {
+    assertNull(manager.getPrimaryKeyColumns(HsqldbTestServer.getTableName()));
+
+    Connection conn = testServer.getConnection();
+    try {
+      Statement statement = conn.createStatement();
+      statement.executeUpdate("CREATE TABLE " + TABLE_WITH_COMPOSITE_KEY
+          + "(A INT NOT NULL, B INT NOT NULL, C INT, PRIMARY KEY (B, A))");
+      statement.close();
+      conn.commit();
+    } finally {
+      conn.close();
+    }
+
+    assertArrayEquals(new String[] { "B", "A" },
+        manager.getPrimaryKeyColumns(TABLE_WITH_COMPOSITE_KEY));
+  }
+
   @Test
   public void testFilteringSpecifiedColumnNamesWhenNoneSpecified() {
     SqoopOptions opts = new SqoopOptions();
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.manager.hsqldb;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.sqoop.mapreduce.parquet.ParquetJobConfiguratorImplementation;
+import org.apache.sqoop.testutil.ArgumentArrayBuilder;
+import org.apache.sqoop.testutil.AvroTestUtils;
+import org.apache.sqoop.testutil.ImportJobTestCase;
+import org.apache.sqoop.util.ParquetReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that the Hadoop Parquet writer pads decimals like the Avro writer.
+ */
+public class TestHsqldbHadoopParquetPadding extends ImportJobTestCase {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    String[] names = {"ID",  "NAME", "SALARY", "DEPT"};
+    String[] types = { "INT", "VARCHAR(24)", "DECIMAL(20,5)", "VARCHAR(32)"};
+    List<String[]> inputData = AvroTestUtils.getInputData();
+    createTableWithColTypesAndNames(names, types, new String[0]);
+    insertIntoTable(names, types, inputData.get(0));
+    insertIntoTable(names, types, inputData.get(1));
+    insertIntoTable(names, types, inputData.get(2));
+  }
+
+  private ArgumentArrayBuilder getArgumentArrayBuilder() {
+    return new ArgumentArrayBuilder()
+        .withCommonHadoopFlags(true)
+        .withProperty("sqoop.avro.logical_types.decimal.enable", "true")
+        .withProperty(SQOOP_PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY,
+            ParquetJobConfiguratorImplementation.HADOOP.name())
+        .withOption("as-parquetfile")
+        .withOption("warehouse-dir", getWarehouseDir())
+        .withOption("num-mappers", "1")
+        .withOption("table", getTableName())
+        .withOption("connect", getConnectString());
+  }
+
+  @Test
+  public void testParquetImportWithoutPaddingFails() throws IOException {
+    thrown.expect(IOException.class);
+    thrown.expectMessage("Failure during job; return status 1");
+    runImport(getArgumentArrayBuilder().build());
+  }
+
+  @Test
+  public void testParquetImportWithPadding() throws IOException {
+    ArgumentArrayBuilder builder = getArgumentArrayBuilder();
+    builder.withProperty("sqoop.avro.decimal_padding.enable", "true");
+    runImport(builder.build());
+
+    List<GenericRecord> records =
+        new ParquetReader(getTablePath(), getConf()).readAll();
+    assertEquals(3, records.size());
+    assertEquals(new BigDecimal("1000000.05000"), getSalary(records.get(0)));
+    assertEquals(new BigDecimal("400.10000"), getSalary(records.get(1)));
+    assertEquals(new BigDecimal("15.23000"), getSalary(records.get(2)));
+  }
+
+  private BigDecimal getSalary(GenericRecord record) {
+    ByteBuffer bytes = (ByteBuffer) record.get("SALARY");
+    byte[] unscaled = new byte[bytes.remaining()];
+    bytes.duplicate().get(unscaled);
+    return new BigDecimal(new BigInteger(unscaled), 5);
+  }
+}
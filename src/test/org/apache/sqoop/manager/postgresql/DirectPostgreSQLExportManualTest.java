@@ -29,6 +29,7 @@
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.sqoop.TestExport;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.postgresql.PostgreSQLCopyExportJob;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -161,6 +162,16 @@ protected String[] getArgv(boolean includeHadoopFlags,
     return super.getCodeGenArgv(args.toArray(new String[0]));
   }
 
+  @Test
+  public void testBinaryCopyExport() throws IOException, SQLException {
+    final int TOTAL_RECORDS = 10;
+    createTextFile(0, TOTAL_RECORDS, false);
+    createTable();
+    runExport(getArgv(true, 10, 10, "-D",
+        PostgreSQLCopyExportJob.BINARY_COPY_KEY + "=true"));
+    verifyExport(TOTAL_RECORDS);
+  }
+
   @Ignore("Ignoring this test case as direct export does not support --columns option.")
   @Override
   @Test
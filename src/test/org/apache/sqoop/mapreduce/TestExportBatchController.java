@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the adaptive choice of export batch sizes.
+ */
+public class TestExportBatchController {
+
+  private static final long MS = 1000000L;
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.setLong(AsyncSqlOutputFormat.ADAPTIVE_TARGET_LATENCY_KEY, 100);
+  }
+
+  @Test
+  public void testGrowsWithinBounds() {
+    conf.setInt(AsyncSqlOutputFormat.MAX_RECORDS_PER_STATEMENT_KEY, 125);
+    ExportBatchController controller = new ExportBatchController(conf, 100,
+        10);
+
+    controller.statementExecuted(100, 10 * MS);
+    assertEquals(110, controller.getRecordsPerStatement());
+    controller.statementExecuted(110, 10 * MS);
+    controller.statementExecuted(120, 10 * MS);
+    assertEquals(125, controller.getRecordsPerStatement());
+
+    // A partial statement says nothing about larger ones.
+    ExportBatchController other = new ExportBatchController(conf, 100, 10);
+    other.statementExecuted(40, 4 * MS);
+    assertEquals(100, other.getRecordsPerStatement());
+  }
+
+  @Test
+  public void testHalvesSlowStatements() {
+    conf.setInt(AsyncSqlOutputFormat.MIN_RECORDS_PER_STATEMENT_KEY, 30);
+    ExportBatchController controller = new ExportBatchController(conf, 100,
+        10);
+
+    controller.statementExecuted(100, 200 * MS);
+    assertEquals(50, controller.getRecordsPerStatement());
+    controller.statementExecuted(50, 200 * MS);
+    assertEquals(30, controller.getRecordsPerStatement());
+  }
+
+  @Test
+  public void testHalvesOnThroughputDrop() {
+    ExportBatchController controller = new ExportBatchController(conf, 100,
+        10);
+    controller.statementExecuted(100, 10 * MS);
+    assertEquals(110, controller.getRecordsPerStatement());
+
+    // Within the latency target, but at a third of the previous rate.
+    controller.statementExecuted(110, 33 * MS);
+    assertEquals(55, controller.getRecordsPerStatement());
+  }
+
+  @Test
+  public void testTransactions() {
+    conf.setInt(AsyncSqlOutputFormat.MAX_STATEMENTS_PER_TRANSACTION_KEY, 11);
+    ExportBatchController controller = new ExportBatchController(conf, 100,
+        10);
+
+    controller.committed(10, 10 * MS);
+    assertEquals(11, controller.getStatementsPerTransaction());
+    controller.committed(11, 10 * MS);
+    assertEquals(11, controller.getStatementsPerTransaction());
+    controller.committed(11, 500 * MS);
+    assertEquals(5, controller.getStatementsPerTransaction());
+  }
+
+  @Test
+  public void testSingleTransactionKept() {
+    ExportBatchController controller = new ExportBatchController(conf, 100,
+        AsyncSqlOutputFormat.UNLIMITED_STATEMENTS_PER_TRANSACTION);
+    controller.committed(50, 500 * MS);
+    assertEquals(AsyncSqlOutputFormat.UNLIMITED_STATEMENTS_PER_TRANSACTION,
+        controller.getStatementsPerTransaction());
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.manager.MySQLUtils;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the LOAD DATA LOCAL INFILE statement of MySQL direct exports.
+ */
+public class TestMySQLExportMapper {
+
+  @Test
+  public void testLoadDataStatement() {
+    Configuration conf = new Configuration();
+    conf.set(MySQLUtils.TABLE_NAME_KEY, "my`table");
+    conf.setInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY, '\t');
+    conf.setInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY, '\n');
+    conf.setInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, '"');
+    conf.setInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, '\\');
+    new DBConfiguration(conf).setInputFieldNames("`id`", "`msg`");
+
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop.txt' INTO TABLE `my``table`"
+        + " CHARACTER SET latin1 FIELDS TERMINATED BY 0x9"
+        + " OPTIONALLY ENCLOSED BY 0x22 ESCAPED BY 0x5c"
+        + " LINES TERMINATED BY 0xa (`id`,`msg`)",
+        MySQLExportMapper.getLoadDataStatement(conf));
+
+    conf.setBoolean(MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, true);
+    conf.setInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, 0);
+    conf.unset(DBConfiguration.INPUT_FIELD_NAMES_PROPERTY);
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop.txt' INTO TABLE `my``table`"
+        + " CHARACTER SET latin1 FIELDS TERMINATED BY 0x9"
+        + " ENCLOSED BY 0x22 LINES TERMINATED BY 0xa",
+        MySQLExportMapper.getLoadDataStatement(conf));
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test reusing export statements with
+ * AsyncSqlOutputFormat.PreparedStatementCache.
+ */
+public class TestPreparedStatementCache {
+
+  private static final String SQL_ONE = "SELECT 1 FROM CACHE_T WHERE ID = ?";
+  private static final String SQL_TWO =
+      "SELECT 1 FROM CACHE_T WHERE ID = ? OR ID = ?";
+
+  private Connection conn;
+  private AsyncSqlOutputFormat.PreparedStatementCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    conn = DriverManager.getConnection("jdbc:hsqldb:mem:stmtcache", "SA", "");
+    conn.createStatement().executeUpdate("CREATE TABLE CACHE_T (ID INTEGER)");
+    cache = new AsyncSqlOutputFormat.PreparedStatementCache(conn, 1);
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    cache.close();
+    conn.createStatement().executeUpdate("DROP TABLE CACHE_T");
+    conn.close();
+  }
+
+  @Test
+  public void testReuseAfterRelease() throws SQLException {
+    PreparedStatement stmt = cache.acquire(SQL_ONE);
+    stmt.setInt(1, 5);
+    assertTrue(cache.release(stmt));
+    assertSame(stmt, cache.acquire(SQL_ONE));
+  }
+
+  @Test
+  public void testCheckedOutStatementNotShared() throws SQLException {
+    PreparedStatement first = cache.acquire(SQL_ONE);
+    PreparedStatement second = cache.acquire(SQL_ONE);
+    assertNotSame(first, second);
+
+    // Only one idle statement is kept per SQL string.
+    assertTrue(cache.release(first));
+    assertFalse(cache.release(second));
+  }
+
+  @Test
+  public void testKeyedBySql() throws SQLException {
+    PreparedStatement one = cache.acquire(SQL_ONE);
+    assertTrue(cache.release(one));
+    PreparedStatement two = cache.acquire(SQL_TWO);
+    assertNotSame(one, two);
+    assertTrue(cache.release(two));
+    assertSame(two, cache.acquire(SQL_TWO));
+  }
+
+  @Test
+  public void testForeignStatementNotKept() throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement(SQL_ONE);
+    assertFalse(cache.release(stmt));
+    stmt.close();
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.db.BasicRetrySQLFailureHandler;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test statement reuse across batches in SQLServerAsyncDBExecThread.
+ */
+public class TestSQLServerAsyncDBExecThread {
+
+  private static final String DB_URL = "jdbc:hsqldb:mem:sqlserverexec";
+
+  private Connection conn;
+
+  /**
+   * Inserts one row per batch and remembers the statement it ran.
+   */
+  private static class InsertThread extends SQLServerAsyncDBExecThread {
+    private List<PreparedStatement> executed =
+        new ArrayList<PreparedStatement>();
+
+    @Override
+    protected PreparedStatement getPreparedStatement(
+        List<SqoopRecord> records) throws SQLException {
+      PreparedStatement stmt =
+          prepareStatement("INSERT INTO EXEC_T VALUES (?)");
+      stmt.setInt(1, executed.size());
+      stmt.addBatch();
+      return stmt;
+    }
+
+    @Override
+    protected void executeStatement(PreparedStatement stmt,
+        List<SqoopRecord> records) throws SQLException {
+      stmt.executeBatch();
+      getConnection().commit();
+      executed.add(stmt);
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    conn = DriverManager.getConnection(DB_URL, "SA", "");
+    conn.createStatement().executeUpdate("CREATE TABLE EXEC_T (ID INTEGER)");
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    conn.createStatement().executeUpdate("DROP TABLE EXEC_T");
+    conn.close();
+  }
+
+  private InsertThread newThread(int cacheSize) throws IOException {
+    Configuration conf = new JobConf();
+    DBConfiguration.configureDB(conf, "org.hsqldb.jdbcDriver", DB_URL,
+        "SA", "");
+    conf.set(SQLServerResilientExportOutputFormat.EXPORT_FAILURE_HANDLER_CLASS,
+        BasicRetrySQLFailureHandler.class.getName());
+    conf.setInt(AsyncSqlOutputFormat.STATEMENT_CACHE_SIZE_KEY, cacheSize);
+    InsertThread thread = new InsertThread();
+    thread.initialize(conf);
+    return thread;
+  }
+
+  private void writeTwice(InsertThread thread)
+      throws SQLException, IOException {
+    List<SqoopRecord> batch = new ArrayList<SqoopRecord>();
+    thread.write(batch);
+    thread.write(batch);
+    assertEquals(2, thread.executed.size());
+  }
+
+  @Test
+  public void testStatementReusedAcrossBatches()
+      throws SQLException, IOException {
+    InsertThread thread = newThread(
+        AsyncSqlOutputFormat.DEFAULT_STATEMENT_CACHE_SIZE);
+    writeTwice(thread);
+    assertSame(thread.executed.get(0), thread.executed.get(1));
+  }
+
+  @Test
+  public void testReuseDisabled() throws SQLException, IOException {
+    InsertThread thread = newThread(0);
+    writeTwice(thread);
+    assertNotSame(thread.executed.get(0), thread.executed.get(1));
+  }
+}
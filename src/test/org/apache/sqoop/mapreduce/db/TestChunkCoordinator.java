@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test claiming chunks of a work-stealing import.
+ */
+public class TestChunkCoordinator {
+
+  private File baseDir;
+  private ChunkCoordinator coordinator;
+
+  @Before
+  public void setUp() throws IOException {
+    baseDir = new File(System.getProperty("test.build.data", "/tmp"),
+        "chunkcoordinator");
+    FileUtils.deleteDirectory(baseDir);
+
+    Configuration conf = new Configuration();
+    conf.set("fs.defaultFS", "file:///");
+    coordinator = new ChunkCoordinator(conf,
+        new Path(baseDir.getAbsolutePath()));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(baseDir);
+  }
+
+  @Test
+  public void testClaimOrder() {
+    // Ten chunks over three tasks: ranges [0, 3), [3, 6), [6, 10).
+    assertArrayEquals(new int[] {0, 1, 2, 5, 4, 3, 9, 8, 7, 6},
+        ChunkCoordinator.getClaimOrder(10, 3, 0));
+    assertArrayEquals(new int[] {6, 7, 8, 9, 2, 1, 0, 5, 4, 3},
+        ChunkCoordinator.getClaimOrder(10, 3, 2));
+  }
+
+  @Test
+  public void testEachChunkClaimedOnce() throws IOException {
+    assertTrue(coordinator.claim(0, "task_0"));
+    assertFalse(coordinator.claim(0, "task_1"));
+    assertTrue(coordinator.claim(1, "task_1"));
+    assertTrue(coordinator.claim(2, "task_0"));
+
+    assertEquals(Arrays.asList(0, 2), coordinator.getClaims("task_0"));
+    assertEquals(Collections.singletonList(1),
+        coordinator.getClaims("task_1"));
+    assertEquals(Collections.<Integer>emptyList(),
+        coordinator.getClaims("task_2"));
+  }
+
+  @Test
+  public void testStealing() throws IOException {
+    // Task 1 is slow; task 0 reads its own range, then steals the top of
+    // task 1's range.
+    int [] order0 = ChunkCoordinator.getClaimOrder(4, 2, 0);
+    int [] order1 = ChunkCoordinator.getClaimOrder(4, 2, 1);
+    assertTrue(coordinator.claim(order1[0], "task_1"));
+
+    List<Integer> read = new ArrayList<Integer>();
+    for (int chunk : order0) {
+      if (coordinator.claim(chunk, "task_0")) {
+        read.add(chunk);
+      }
+    }
+    assertEquals(Arrays.asList(0, 1, 3), read);
+  }
+
+  @Test
+  public void testCleanup() throws IOException {
+    coordinator.claim(0, "task_0");
+    assertTrue(baseDir.exists());
+    coordinator.cleanup();
+    assertFalse(baseDir.exists());
+  }
+
+  @Test
+  public void testSplits() throws IOException {
+    List<InputSplit> chunks = new ArrayList<InputSplit>();
+    for (int i = 0; i < 5; i++) {
+      chunks.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+          "X >= " + i, "X < " + (i + 1)));
+    }
+    List<InputSplit> splits = WorkStealingDBInputSplit.getSplits(chunks, 2,
+        "/chunks");
+    assertEquals(2, splits.size());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ((WorkStealingDBInputSplit) splits.get(1)).write(
+        new DataOutputStream(bytes));
+    WorkStealingDBInputSplit split = new WorkStealingDBInputSplit();
+    split.readFields(new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals("/chunks", split.getChunkDir());
+    assertEquals(1, split.getTaskIndex());
+    assertEquals(2, split.getNumTasks());
+    assertEquals(5, split.getNumChunks());
+    assertEquals("X >= 3", split.getLowerClause(3));
+    assertEquals("X < 4", split.getUpperClause(3));
+    assertEquals("chunks 2 to 4 of 5 in /chunks", split.toString());
+  }
+}
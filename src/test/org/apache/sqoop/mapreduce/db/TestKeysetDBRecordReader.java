@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.mapreduce.DBWritable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test reading splits in pages with KeysetDBRecordReader.
+ */
+public class TestKeysetDBRecordReader {
+
+  private static final String DB_URL = "jdbc:hsqldb:mem:keysetreader";
+  private static final String TABLE = "KEYSET_T";
+
+  private Connection conn;
+  private Configuration conf;
+  private DBConfiguration dbConf;
+
+  /** Record holding the ID column. */
+  public static class IdRecord implements DBWritable {
+    // Reading this ID fails once, as if the connection had dropped.
+    private static Integer failOnId = null;
+
+    private Integer id;
+
+    public void readFields(ResultSet rs) throws SQLException {
+      id = (Integer) rs.getObject(1);
+      if (null != id && id.equals(failOnId)) {
+        failOnId = null;
+        throw new SQLException("Connection reset");
+      }
+    }
+
+    public void write(PreparedStatement stmt) throws SQLException {
+    }
+  }
+
+  /** Reconnects to the in-memory database. */
+  public static class ReconnectHandler extends SQLFailureHandler {
+    private int recoveries = 0;
+
+    public boolean canHandleFailure(Throwable failureCause) {
+      return failureCause instanceof SQLException;
+    }
+
+    public Connection recover() throws IOException {
+      recoveries++;
+      try {
+        return DriverManager.getConnection(DB_URL, "SA", "");
+      } catch (SQLException sqlE) {
+        throw new IOException(sqlE);
+      }
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    conn = DriverManager.getConnection(DB_URL, "SA", "");
+    conn.setAutoCommit(false);
+    Statement stmt = conn.createStatement();
+    stmt.executeUpdate("DROP TABLE " + TABLE + " IF EXISTS");
+    stmt.executeUpdate("CREATE TABLE " + TABLE + " (ID INTEGER, V INTEGER)");
+    for (int i = 0; i < 10; i++) {
+      stmt.executeUpdate("INSERT INTO " + TABLE + " VALUES (" + i + ", 0)");
+    }
+    stmt.executeUpdate("INSERT INTO " + TABLE + " VALUES (NULL, 0)");
+    stmt.close();
+    conn.commit();
+
+    conf = new Configuration();
+    dbConf = new DBConfiguration(conf);
+    dbConf.setInputOrderBy("ID");
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    Connection c = DriverManager.getConnection(DB_URL, "SA", "");
+    c.createStatement().executeUpdate("DROP TABLE " + TABLE + " IF EXISTS");
+    c.close();
+  }
+
+  private KeysetDBRecordReader<IdRecord> newReader(String lower,
+      String upper, int pageSize) throws SQLException {
+    return newReader(lower, upper, pageSize, "ID");
+  }
+
+  private KeysetDBRecordReader<IdRecord> newReader(String lower,
+      String upper, int pageSize, String... keyColumns) throws SQLException {
+    String [] fields = { "ID", "V" };
+    int [] keyIndexes = new int[keyColumns.length];
+    for (int i = 0; i < keyColumns.length; i++) {
+      keyIndexes[i] = KeysetDBRecordReader.getKeyIndex(keyColumns[i], fields);
+    }
+    return new KeysetDBRecordReader<IdRecord>(
+        new DataDrivenDBInputFormat.DataDrivenDBInputSplit(lower, upper),
+        IdRecord.class, conf, conn, dbConf, null, fields, TABLE,
+        "HSQL DATABASE ENGINE", keyColumns, keyIndexes, pageSize);
+  }
+
+  private List<Integer> readAll(KeysetDBRecordReader<IdRecord> reader)
+      throws IOException {
+    List<Integer> ids = new ArrayList<Integer>();
+    while (reader.nextKeyValue()) {
+      ids.add(reader.getCurrentValue().id);
+    }
+    return ids;
+  }
+
+  @Test
+  public void testPagesCoverRange() throws Exception {
+    KeysetDBRecordReader<IdRecord> reader = newReader("ID >= 2", "ID < 9", 3);
+    List<Integer> ids = readAll(reader);
+    assertEquals(7, ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(Integer.valueOf(i + 2), ids.get(i));
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testNullsReadLast() throws Exception {
+    KeysetDBRecordReader<IdRecord> reader = newReader("1=1", "1=1", 4);
+    List<Integer> ids = readAll(reader);
+    assertEquals(11, ids.size());
+    assertEquals(Integer.valueOf(9), ids.get(9));
+    assertNull(ids.get(10));
+    reader.close();
+  }
+
+  @Test
+  public void testDuplicateSplitValuesAcrossPages() throws Exception {
+    // Every row shares the same split column value V, so each page boundary
+    // falls among equal values; the ID tie-breaker must keep them all.
+    Statement stmt = conn.createStatement();
+    stmt.executeUpdate("UPDATE " + TABLE + " SET ID = 10 WHERE ID IS NULL");
+    stmt.close();
+    conn.commit();
+    dbConf.setInputOrderBy("V");
+
+    KeysetDBRecordReader<IdRecord> reader = newReader("V >= 0", "V <= 0", 3,
+        "V", "ID");
+    List<Integer> ids = readAll(reader);
+    assertEquals(11, ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(Integer.valueOf(i), ids.get(i));
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testAfterKeyClause() {
+    assertEquals("( A > ? )",
+        KeysetDBRecordReader.getAfterKeyClause(new String[] { "A" }));
+    assertEquals("( A > ? ) OR ( A = ? AND B > ? )",
+        KeysetDBRecordReader.getAfterKeyClause(new String[] { "A", "B" }));
+  }
+
+  @Test
+  public void testResumeAfterFailure() throws Exception {
+    KeysetDBRecordReader<IdRecord> reader = newReader("ID >= 0", "ID <= 9",
+        4);
+    ReconnectHandler handler = new ReconnectHandler();
+    reader.setFailureHandler(handler);
+
+    // Fail in the middle of the second page.
+    IdRecord.failOnId = 5;
+    List<Integer> ids = readAll(reader);
+
+    assertEquals(1, handler.recoveries);
+    assertEquals(10, ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(Integer.valueOf(i), ids.get(i));
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testKeyIndex() {
+    String [] fields = { "A", "\"id\"", "B" };
+    assertEquals(2, KeysetDBRecordReader.getKeyIndex("\"ID\"", fields));
+    assertEquals(0, KeysetDBRecordReader.getKeyIndex("C", fields));
+  }
+
+  @Test
+  public void testNullSplitIsNotPaged() {
+    assertEquals(false, KeysetDBRecordReader.canPage(
+        new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+            "ID IS NULL", "ID IS NULL"), "ID"));
+    assertEquals(true, KeysetDBRecordReader.canPage(
+        new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+            "ID >= 1", "ID < 5"), "ID"));
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.mapreduce.DBWritable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test fetching rows on a background thread.
+ */
+public class TestPrefetchingDBRecordReader {
+
+  private static final String DB_URL = "jdbc:hsqldb:mem:prefetchreader";
+  private static final String TABLE = "PREFETCH_T";
+  private static final int NUM_ROWS = 25;
+
+  private Connection conn;
+  private Configuration conf;
+  private DBConfiguration dbConf;
+
+  /** Record holding the ID column. */
+  public static class IdRecord implements DBWritable {
+    private static Integer failOnId = null;
+
+    private int id;
+
+    public void readFields(ResultSet rs) throws SQLException {
+      id = rs.getInt(1);
+      if (Integer.valueOf(id).equals(failOnId)) {
+        throw new SQLException("Read failed");
+      }
+    }
+
+    public void write(PreparedStatement stmt) throws SQLException {
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    conn = DriverManager.getConnection(DB_URL, "SA", "");
+    conn.setAutoCommit(false);
+    Statement stmt = conn.createStatement();
+    stmt.executeUpdate("DROP TABLE " + TABLE + " IF EXISTS");
+    stmt.executeUpdate("CREATE TABLE " + TABLE
+        + " (ID INTEGER, DATA LONGVARBINARY)");
+    for (int i = 0; i < NUM_ROWS; i++) {
+      stmt.executeUpdate("INSERT INTO " + TABLE + " VALUES (" + i + ", NULL)");
+    }
+    stmt.close();
+    conn.commit();
+
+    conf = new Configuration();
+    dbConf = new DBConfiguration(conf);
+    IdRecord.failOnId = null;
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    Connection c = DriverManager.getConnection(DB_URL, "SA", "");
+    c.createStatement().executeUpdate("DROP TABLE " + TABLE + " IF EXISTS");
+    c.close();
+  }
+
+  private PrefetchingDBRecordReader<IdRecord> newReader(String... fields)
+      throws SQLException {
+    DataDrivenDBRecordReader<IdRecord> reader =
+        new DataDrivenDBRecordReader<IdRecord>(
+            new DataDrivenDBInputFormat.DataDrivenDBInputSplit("1=1", "1=1"),
+            IdRecord.class, conf, conn, dbConf, null, fields, TABLE,
+            "HSQL DATABASE ENGINE");
+    return new PrefetchingDBRecordReader<IdRecord>(reader, 3, 4);
+  }
+
+  private List<Integer> readAll(PrefetchingDBRecordReader<IdRecord> reader)
+      throws IOException, InterruptedException {
+    List<Integer> ids = new ArrayList<Integer>();
+    while (reader.nextKeyValue()) {
+      ids.add(reader.getCurrentValue().id);
+      assertEquals(ids.size() - 1, reader.getCurrentKey().get());
+    }
+    return ids;
+  }
+
+  @Test
+  public void testReadsAllRowsInOrder() throws Exception {
+    PrefetchingDBRecordReader<IdRecord> reader = newReader("ID");
+    List<Integer> ids = readAll(reader);
+    assertTrue(reader.isPrefetching());
+    assertEquals(NUM_ROWS, ids.size());
+    for (int i = 0; i < NUM_ROWS; i++) {
+      assertEquals(Integer.valueOf(i), ids.get(i));
+    }
+    assertFalse(reader.nextKeyValue());
+    reader.close();
+  }
+
+  @Test
+  public void testLargeObjectsReadOnMapThread() throws Exception {
+    PrefetchingDBRecordReader<IdRecord> reader = newReader("ID", "DATA");
+    List<Integer> ids = readAll(reader);
+    assertFalse(reader.isPrefetching());
+    assertEquals(NUM_ROWS, ids.size());
+    reader.close();
+  }
+
+  @Test
+  public void testErrorIsRethrown() throws Exception {
+    IdRecord.failOnId = 10;
+    PrefetchingDBRecordReader<IdRecord> reader = newReader("ID");
+    int rows = 0;
+    try {
+      while (reader.nextKeyValue()) {
+        rows++;
+      }
+      fail("Expected the read error to reach the map thread");
+    } catch (IOException ioe) {
+      assertEquals(10, rows);
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testCloseBeforeEnd() throws Exception {
+    PrefetchingDBRecordReader<IdRecord> reader = newReader("ID");
+    assertTrue(reader.nextKeyValue());
+    reader.close();
+  }
+}
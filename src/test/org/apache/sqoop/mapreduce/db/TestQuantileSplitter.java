@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.junit.Test;
+
+import org.apache.sqoop.config.ConfigurationConstants;
+import org.apache.sqoop.mapreduce.DBWritable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test that the QuantileSplitter places split points at sample quantiles.
+ */
+public class TestQuantileSplitter {
+
+  private List<BigDecimal> values(long... vals) {
+    List<BigDecimal> out = new ArrayList<BigDecimal>();
+    for (long val : vals) {
+      out.add(BigDecimal.valueOf(val));
+    }
+    return out;
+  }
+
+  @Test
+  public void testSamplingQueryIsNotAFullScan() {
+    Configuration conf = new JobConf();
+    DBConfiguration.configureDB(conf, "org.hsqldb.jdbcDriver",
+        "jdbc:hsqldb:mem:quantilesplitter");
+    new DBConfiguration(conf).setInputTableName("T");
+    new DBConfiguration(conf).setInputOrderBy("ID");
+    DataDrivenDBInputFormat<DBWritable> format =
+        new DataDrivenDBInputFormat<DBWritable>();
+    format.setConf(conf);
+
+    // Without a supplied query the table is not scanned for a sample.
+    assertNull(format.getSamplingQuery());
+
+    String query = "SELECT ID FROM T TABLESAMPLE SYSTEM (1)";
+    conf.set(ConfigurationConstants.PROP_SPLIT_SAMPLING_QUERY, query);
+    assertEquals(query, format.getSamplingQuery());
+  }
+
+  @Test
+  public void testUniformSample() {
+    List<BigDecimal> sample = new ArrayList<BigDecimal>();
+    for (long i = 0; i < 100; i++) {
+      sample.add(BigDecimal.valueOf(i));
+    }
+    QuantileSplitter splitter = new QuantileSplitter(sample, true);
+    assertEquals(values(0, 25, 50, 75, 99), splitter.split(4,
+        BigDecimal.valueOf(0), BigDecimal.valueOf(99)));
+  }
+
+  @Test
+  public void testClusteredSample() {
+    // Most rows are in [1000, 1010); equal-width splits over [0, 1 000 000]
+    // would put nearly all of them into one split.
+    List<BigDecimal> sample = new ArrayList<BigDecimal>();
+    for (long i = 0; i < 90; i++) {
+      sample.add(BigDecimal.valueOf(1000 + i % 10));
+    }
+    for (long i = 0; i < 10; i++) {
+      sample.add(BigDecimal.valueOf(i * 100000));
+    }
+    QuantileSplitter splitter = new QuantileSplitter(sample, true);
+    List<BigDecimal> points = splitter.split(10, BigDecimal.valueOf(0),
+        BigDecimal.valueOf(1000000));
+    assertEquals(values(0, 1001, 1002, 1003, 1004, 1005, 1006, 1007, 1008,
+        1009, 1000000), points);
+  }
+
+  @Test
+  public void testHeavyHitterGetsOwnSplit() {
+    List<BigDecimal> sample = values(1, 2, 3, 5, 5, 5, 5, 5, 8, 9);
+    QuantileSplitter splitter = new QuantileSplitter(sample, true);
+    // 5 spans two quantiles, so it is isolated in [5, 6).
+    assertEquals(values(1, 3, 5, 6, 8, 9), splitter.split(5,
+        BigDecimal.valueOf(1), BigDecimal.valueOf(9)));
+  }
+
+  @Test
+  public void testSingleValue() {
+    QuantileSplitter splitter = new QuantileSplitter(values(7, 7, 7), true);
+    assertEquals(values(7, 7), splitter.split(4,
+        BigDecimal.valueOf(7), BigDecimal.valueOf(7)));
+  }
+
+  @Test
+  public void testEmptySample() {
+    QuantileSplitter splitter = new QuantileSplitter(values(), true);
+    assertEquals(values(3, 10), splitter.split(4,
+        BigDecimal.valueOf(3), BigDecimal.valueOf(10)));
+  }
+
+  @Test
+  public void testSplitClauses() throws SQLException {
+    ResultSet results = mock(ResultSet.class);
+    when(results.getBigDecimal(1)).thenReturn(new BigDecimal("0.5"));
+    when(results.getBigDecimal(2)).thenReturn(new BigDecimal("9.5"));
+
+    Configuration conf = new Configuration();
+    conf.set(ConfigurationConstants.PROP_MAPREDUCE_FRAMEWORK_NAME, "yarn");
+    conf.setInt(ConfigurationConstants.PROP_MAPRED_MAP_TASKS, 2);
+    List<BigDecimal> sample = new ArrayList<BigDecimal>();
+    sample.add(new BigDecimal("0.5"));
+    sample.add(new BigDecimal("2.25"));
+    sample.add(new BigDecimal("9.5"));
+    QuantileSplitter splitter = new QuantileSplitter(sample, false);
+
+    List<InputSplit> splits = splitter.split(conf, results, "COL");
+    assertEquals(2, splits.size());
+    assertEquals("COL >= 0.5 AND COL < 2.25", splits.get(0).toString());
+    assertEquals("COL >= 2.25 AND COL <= 9.5", splits.get(1).toString());
+  }
+
+  @Test
+  public void testSampleIsBounded() throws SQLException {
+    ResultSet results = mock(ResultSet.class);
+    final int rows = 1000;
+    Boolean [] more = new Boolean[rows];
+    for (int i = 0; i < rows; i++) {
+      more[i] = i < rows - 1;
+    }
+    when(results.next()).thenReturn(true, more);
+    when(results.getBigDecimal(1)).thenReturn(BigDecimal.ONE);
+
+    assertEquals(100, QuantileSplitter.sample(results, 100).size());
+  }
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.mysql;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.sqoop.lib.ByteSink;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test decoding mysqldump output into delimited records.
+ */
+public class TestMySQLDumpDecoder {
+
+  private static final String DUMP =
+      "-- a comment\n"
+      + "/*!40101 SET NAMES utf8 */;\n"
+      + "\n"
+      + "INSERT INTO `t` VALUES (1,'a,b',NULL);\n"
+      + "INSERT INTO `t` VALUES (2,'it\\'s\\nh\u00e9',3.5);\n";
+
+  private static List<String> decode(String dump, DelimiterSet delims,
+      int bufferSize) throws IOException {
+    MySQLDumpDecoder decoder = new MySQLDumpDecoder(
+        new ByteArrayInputStream(dump.getBytes("UTF-8")), delims,
+        bufferSize);
+    ByteSink sink = new ByteSink();
+    List<String> records = new ArrayList<String>();
+    while (decoder.nextRecord(sink)) {
+      records.add(sink.toString());
+    }
+    return records;
+  }
+
+  @Test
+  public void testCopy() throws IOException {
+    assertEquals(Arrays.asList("1,'a,b',NULL\n",
+        "2,'it\\'s\\nh\u00e9',3.5\n"),
+        decode(DUMP, DelimiterSet.MYSQL_DELIMITERS, 7));
+  }
+
+  @Test
+  public void testReformat() throws IOException {
+    DelimiterSet delims = new DelimiterSet('\t', '\n', '"', '\\', false);
+    for (int bufferSize : new int[] { 1, 5, 1024 }) {
+      assertEquals(Arrays.asList("1\ta,b\tNULL\n",
+          "2\t\"it's\nh\u00e9\"\t3.5\n"),
+          decode(DUMP, delims, bufferSize));
+    }
+  }
+
+  @Test
+  public void testEscapeWithoutEnclosing() throws IOException {
+    DelimiterSet delims = new DelimiterSet(',', '\n', '\000', '\\', false);
+    assertEquals(Arrays.asList("1,a\\,b,NULL\n", "2,it's\\\nh\u00e9,3.5\n"),
+        decode(DUMP, delims, 64));
+  }
+
+  @Test
+  public void testNonAsciiDelimiters() throws IOException {
+    DelimiterSet delims = new DelimiterSet('\u00fe', '\n', '\000', '\000',
+        false);
+    assertEquals(Arrays.asList("1\u00fea,b\u00feNULL\n",
+        "2\u00feit's\nh\u00e9\u00fe3.5\n"), decode(DUMP, delims, 64));
+  }
+
+  @Test
+  public void testExtendedInsert() throws IOException {
+    String dump = "INSERT INTO `a VALUES (` VALUES (1,'x'),(2,''),(3,'y)');\n"
+        + "REPLACE INTO `a` VALUES (4,'z');\n";
+    DelimiterSet delims = new DelimiterSet('|', '\n', '\000', '\000', false);
+    assertEquals(Arrays.asList("1|x\n", "2|\n", "3|y)\n", "4|z\n"),
+        decode(dump, delims, 4));
+    assertEquals(Arrays.asList("1,'x'\n", "2,''\n", "3,'y)'\n", "4,'z'\n"),
+        decode(dump, DelimiterSet.MYSQL_DELIMITERS, 4));
+  }
+
+  @Test
+  public void testMalformedRowSkipped() throws IOException {
+    String dump = "INSERT INTO `t` VALUES (1,'a'b);\n"
+        + "INSERT INTO `t` VALUES (2,'c');\n";
+    DelimiterSet delims = new DelimiterSet(',', '\n', '\000', '\000', false);
+    assertEquals(Arrays.asList("2,c\n"), decode(dump, delims, 64));
+  }
+
+  @Test
+  public void testRestOfExtendedInsertSkipped() throws IOException {
+    String dump = "INSERT INTO `t` VALUES (1,'a'b),(2,'(\\'('),(3,'c');\n"
+        + "INSERT INTO `t` VALUES (4,'d');\n";
+    MySQLDumpDecoder decoder = new MySQLDumpDecoder(
+        new ByteArrayInputStream(dump.getBytes("UTF-8")), new DelimiterSet(),
+        64);
+    ByteSink sink = new ByteSink();
+    List<String> records = new ArrayList<String>();
+    while (decoder.nextRecord(sink)) {
+      records.add(sink.toString());
+    }
+    assertEquals(Arrays.asList("4,d\n"), records);
+    assertEquals(3, decoder.getSkippedRows());
+  }
+
+  @Test
+  public void testTruncatedRow() throws IOException {
+    try {
+      decode("INSERT INTO `t` VALUES (1,'ab", new DelimiterSet(), 64);
+      fail("Expected a truncated row to be rejected");
+    } catch (IOException ioe) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testUnescape() {
+    assertEquals(0, MySQLDumpDecoder.unescape((byte) '0'));
+    assertEquals(0x1a, MySQLDumpDecoder.unescape((byte) 'Z'));
+    assertEquals('\t', MySQLDumpDecoder.unescape((byte) 't'));
+    assertEquals('\'', MySQLDumpDecoder.unescape((byte) '\''));
+    assertEquals('\\', MySQLDumpDecoder.unescape((byte) '\\'));
+  }
+}
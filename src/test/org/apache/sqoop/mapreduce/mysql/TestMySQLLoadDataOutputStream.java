@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.mysql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test streaming rows to LOAD DATA LOCAL INFILE.
+ */
+public class TestMySQLLoadDataOutputStream {
+
+  /**
+   * The Connector/J method the stream looks up on the statement.
+   */
+  public interface LocalInfileStatement extends Statement {
+    void setLocalInfileInputStream(InputStream stream);
+  }
+
+  /**
+   * A connection whose statements read all of their local infile data,
+   * recording it and the calls made.
+   */
+  private static class FakeConnection implements InvocationHandler {
+    private final List<String> calls = new ArrayList<String>();
+    private final ByteArrayOutputStream loaded = new ByteArrayOutputStream();
+    private final boolean fail;
+    private InputStream in;
+
+    FakeConnection(boolean fail) {
+      this.fail = fail;
+    }
+
+    Connection getConnection() {
+      return (Connection) Proxy.newProxyInstance(
+          getClass().getClassLoader(), new Class [] { Connection.class },
+          this);
+    }
+
+    public Object invoke(Object proxy, Method method, Object [] args)
+        throws Throwable {
+      String name = method.getName();
+      synchronized (calls) {
+        calls.add(name);
+      }
+      if (name.equals("createStatement")) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class [] { LocalInfileStatement.class }, this);
+      } else if (name.equals("setLocalInfileInputStream")) {
+        in = (InputStream) args[0];
+      } else if (name.equals("execute")) {
+        if (fail) {
+          throw new SQLException("Table doesn't exist");
+        }
+        byte [] buf = new byte[7];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+          loaded.write(buf, 0, n);
+        }
+        return Boolean.FALSE;
+      } else if (name.equals("getUpdateCount")) {
+        return Integer.valueOf(2);
+      }
+      return null;
+    }
+  }
+
+  @Test
+  public void testLoad() throws IOException {
+    FakeConnection fake = new FakeConnection(false);
+    MySQLLoadDataOutputStream out = new MySQLLoadDataOutputStream(
+        fake.getConnection(), "LOAD DATA LOCAL INFILE 'x' INTO TABLE t");
+    out.write("1,a\n".getBytes("UTF-8"));
+    out.write('2');
+    out.write(",b\n".getBytes("UTF-8"));
+    out.close();
+
+    assertEquals("1,a\n2,b\n", fake.loaded.toString("UTF-8"));
+    assertEquals(2, out.getRowCount());
+    assertEquals("commit", fake.calls.get(fake.calls.size() - 1));
+  }
+
+  @Test
+  public void testFailedLoad() throws IOException {
+    FakeConnection fake = new FakeConnection(true);
+    MySQLLoadDataOutputStream out = new MySQLLoadDataOutputStream(
+        fake.getConnection(), "LOAD DATA LOCAL INFILE 'x' INTO TABLE t");
+    try {
+      out.write("1,a\n".getBytes("UTF-8"));
+      out.close();
+      fail("Expected the failed statement to be reported");
+    } catch (IOException ioe) {
+      assertEquals(SQLException.class, ioe.getCause().getClass());
+    }
+    assertEquals("rollback", fake.calls.get(fake.calls.size() - 1));
+  }
+
+  @Test
+  public void testDriverWithoutLocalInfileStream() throws Exception {
+    Statement stmt = (Statement) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class [] { Statement.class },
+        new FakeConnection(false));
+    try {
+      MySQLLoadDataOutputStream.setLocalInfileInputStream(stmt, null);
+      fail("Expected a statement without the method to be rejected");
+    } catch (SQLException sqlE) {
+      // Expected.
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test decoding values from PostgreSQL's binary COPY format.
+ */
+public class TestPostgreSQLBinaryCopyDecoder {
+
+  private static BigDecimal roundTrip(String value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PostgreSQLBinaryCopyEncoder.writeNumeric(new BigDecimal(value),
+        new DataOutputStream(bytes));
+    DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()));
+    in.readInt(); // length
+    return PostgreSQLBinaryCopyDecoder.readNumeric(in);
+  }
+
+  @Test
+  public void testNumeric() throws IOException {
+    String [] values = {
+      "12345.678", "-0.5", "0.00", "100000000", "0.00001", "-98765432109.1",
+    };
+    for (String value : values) {
+      assertEquals(new BigDecimal(value), roundTrip(value));
+    }
+  }
+
+  @Test
+  public void testTimestamps() {
+    Timestamp ts = Timestamp.valueOf("1999-12-31 23:59:58.123456");
+    for (boolean local : new boolean[] { true, false }) {
+      long micros = PostgreSQLBinaryCopyEncoder.toPostgresMicros(ts, local);
+      assertEquals(ts,
+          PostgreSQLBinaryCopyDecoder.fromPostgresMicros(micros, local));
+    }
+  }
+
+  @Test
+  public void testHeader() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new PostgreSQLBinaryCopyEncoder(bytes, new String[0], new String[0])
+        .writeHeader();
+    new PostgreSQLBinaryCopyDecoder(
+        new ByteArrayInputStream(bytes.toByteArray()), new String[0],
+        new String[0]).readHeader();
+
+    try {
+      new PostgreSQLBinaryCopyDecoder(
+          new ByteArrayInputStream("1,2\n".getBytes("UTF-8")),
+          new String[0], new String[0]).readHeader();
+      fail("Expected text data to be rejected");
+    } catch (IOException ioe) {
+      // Expected.
+    }
+  }
+}
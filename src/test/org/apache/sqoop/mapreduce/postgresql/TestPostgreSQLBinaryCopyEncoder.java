@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test encoding values in PostgreSQL's binary COPY format.
+ */
+public class TestPostgreSQLBinaryCopyEncoder {
+
+  private static DataInputStream numeric(String value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PostgreSQLBinaryCopyEncoder.writeNumeric(new BigDecimal(value),
+        new DataOutputStream(bytes));
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  private static void assertNumeric(String value, int weight, int sign,
+      int dscale, int... digits) throws IOException {
+    DataInputStream in = numeric(value);
+    assertEquals(8 + 2 * digits.length, in.readInt());
+    assertEquals(digits.length, in.readShort());
+    assertEquals(weight, in.readShort());
+    assertEquals(sign, in.readShort());
+    assertEquals(dscale, in.readShort());
+    for (int digit : digits) {
+      assertEquals(digit, in.readShort());
+    }
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testNumeric() throws IOException {
+    assertNumeric("12345.678", 1, 0, 3, 1, 2345, 6780);
+    assertNumeric("-0.5", -1, 0x4000, 1, 5000);
+    assertNumeric("0.00", 0, 0, 2);
+    assertNumeric("100000000", 2, 0, 0, 1);
+    assertNumeric("0.00001", -2, 0, 5, 1000);
+  }
+
+  @Test
+  public void testTimestampWithTimeZone() {
+    Timestamp ts = new Timestamp(
+        PostgreSQLBinaryCopyEncoder.PG_EPOCH_MILLIS + 1000L);
+    ts.setNanos(1000);
+    assertEquals(1000001L, PostgreSQLBinaryCopyEncoder.toPostgresMicros(ts,
+        false));
+
+    // Before the PostgreSQL epoch.
+    ts = new Timestamp(PostgreSQLBinaryCopyEncoder.PG_EPOCH_MILLIS - 1500L);
+    assertEquals(-1500000L, PostgreSQLBinaryCopyEncoder.toPostgresMicros(ts,
+        false));
+  }
+
+  /**
+   * @return a record whose fields are visited with the given names and
+   * values.
+   */
+  private static SqoopRecord record(final String [] names,
+      final Object... values) throws IOException {
+    SqoopRecord record = mock(SqoopRecord.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        FieldVisitor visitor = (FieldVisitor) invocation.getArguments()[0];
+        for (int i = 0; i < names.length; i++) {
+          visitor.visit(i, names[i], values[i]);
+        }
+        return null;
+      }
+    }).when(record).visitFields(any(FieldVisitor.class));
+    return record;
+  }
+
+  @Test
+  public void testRows() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    // The "skipped" field is not copied.
+    String [] names = { "id", "skipped", "msg", "data" };
+    PostgreSQLBinaryCopyEncoder encoder = new PostgreSQLBinaryCopyEncoder(
+        bytes, names, new String[] { "int4", null, "varchar", "bytea" });
+    encoder.writeHeader();
+
+    // One, two, three and four byte UTF-8 characters.
+    String text = "h\u00e9\u20ac\ud83d\ude00";
+    encoder.writeRow(record(names, Integer.valueOf(7), "x", text,
+        new BytesWritable(new byte[] { 1, 2, 3 })));
+    encoder.writeRow(record(names, null, null, null, null));
+    encoder.writeTrailer();
+
+    DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()));
+    byte [] signature = new byte[PostgreSQLBinaryCopyEncoder.SIGNATURE.length];
+    in.readFully(signature);
+    assertArrayEquals(PostgreSQLBinaryCopyEncoder.SIGNATURE, signature);
+    assertEquals(0, in.readInt());
+    assertEquals(0, in.readInt());
+
+    assertEquals(3, in.readShort());
+    assertEquals(4, in.readInt());
+    assertEquals(7, in.readInt());
+    byte [] expected = text.getBytes("UTF-8");
+    assertEquals(expected.length, in.readInt());
+    byte [] msg = new byte[expected.length];
+    in.readFully(msg);
+    assertArrayEquals(expected, msg);
+    assertEquals(3, in.readInt());
+    assertEquals(1, in.readByte());
+    assertEquals(2, in.readByte());
+    assertEquals(3, in.readByte());
+
+    assertEquals(3, in.readShort());
+    assertEquals(-1, in.readInt());
+    assertEquals(-1, in.readInt());
+    assertEquals(-1, in.readInt());
+
+    assertEquals(-1, in.readShort());
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testFieldOrderChecked() throws IOException {
+    PostgreSQLBinaryCopyEncoder encoder = new PostgreSQLBinaryCopyEncoder(
+        new ByteArrayOutputStream(), new String[] { "id", "msg" },
+        new String[] { "int4", "text" });
+    try {
+      encoder.writeRow(record(new String[] { "msg", "id" }, "a", 1));
+      fail("Expected fields out of column order to be rejected");
+    } catch (IOException ioe) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testUnsupportedType() {
+    try {
+      new PostgreSQLBinaryCopyEncoder(new ByteArrayOutputStream(),
+          new String[] { "doc" }, new String[] { "jsonb" });
+      fail("Expected jsonb to be rejected");
+    } catch (IOException ioe) {
+      // Expected.
+    }
+  }
+}
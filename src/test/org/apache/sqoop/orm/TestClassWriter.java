@@ -26,6 +26,9 @@
 import java.sql.Connection;
 import java.sql.Statement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
@@ -41,6 +44,8 @@
 
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.TestConnFactory.DummyManager;
+import org.apache.sqoop.lib.FieldVisitor;
+import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.testutil.DirUtil;
 import org.apache.sqoop.testutil.HsqldbTestServer;
@@ -247,6 +252,48 @@ public void testCodeGen() {
     runGenerationTest(argv, HsqldbTestServer.getTableName());
   }
 
+  /**
+   * Test that generating the same table twice produces identical sources,
+   * so the second compilation is served from the codegen cache.
+   */
+  @Test
+  public void testRegeneratedSourceHitsCodegenCache() throws Exception {
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+    };
+
+    File cacheDir = new File(ImportJobTestCase.TEMP_BASE_DIR,
+        "sqoop/test/codegencache");
+    DirUtil.deleteDir(cacheDir);
+    options.getConf().set(CodegenCache.CACHE_DIR_KEY,
+        cacheDir.getAbsolutePath());
+    try {
+      options = new ImportTool().parseArguments(argv, null, options, true);
+      assertFalse(generateAndCompile().isCacheHit());
+
+      CompilationManager compileMgr = generateAndCompile();
+      assertTrue("Regenerated source missed the codegen cache",
+          compileMgr.isCacheHit());
+      assertTrue(new File(compileMgr.getJarFilename()).exists());
+    } finally {
+      options.getConf().unset(CodegenCache.CACHE_DIR_KEY);
+      DirUtil.deleteDir(cacheDir);
+    }
+  }
+
+  private CompilationManager generateAndCompile() throws IOException {
+    CompilationManager compileMgr = new CompilationManager(options);
+    ClassWriter writer = new ClassWriter(options, manager,
+        HsqldbTestServer.getTableName(), compileMgr);
+    writer.generate();
+    compileMgr.compile();
+    compileMgr.jar();
+    return compileMgr;
+  }
+
   private static final String OVERRIDE_CLASS_NAME = "override";
 
   /**
@@ -586,6 +633,46 @@ public void testEqualsMethod() throws IOException, ClassNotFoundException,
     }
   }
 
+  /**
+   * Test that the generated visitFields method visits each field in
+   * column order.
+   */
+  @Test
+  public void testVisitFields() throws Exception {
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+      "--class-name",
+      OVERRIDE_CLASS_AND_PACKAGE_NAME,
+    };
+
+    File ormJarFile = runGenerationTest(argv, OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    ClassLoader prevClassLoader = ClassLoaderStack.addJarFile(
+        ormJarFile.getCanonicalPath(),
+        OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    Class tableClass = Class.forName(
+        OVERRIDE_CLASS_AND_PACKAGE_NAME,
+        true,
+        Thread.currentThread().getContextClassLoader());
+    SqoopRecord record = (SqoopRecord) tableClass.newInstance();
+    tableClass.getMethod("set_INTFIELD1", Integer.class).invoke(record, 1);
+
+    final List<String> visited = new ArrayList<String>();
+    record.visitFields(new FieldVisitor() {
+      @Override
+      public void visit(int index, String fieldName, Object value) {
+        visited.add(index + ":" + fieldName + "=" + value);
+      }
+    });
+    assertEquals(Arrays.asList("0:INTFIELD1=1", "1:INTFIELD2=null"), visited);
+
+    if (null != prevClassLoader) {
+      ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    }
+  }
+
   private static final String USERMAPPING_CLASS_AND_PACKAGE_NAME =
       "usermapping.pkg.prefix.classname";
 
@@ -713,6 +800,18 @@ public void testWideTableClassGeneration() throws Exception {
       }
     }
 
+    // Fields are visited in order across the generated methods.
+    final int [] visited = new int[1];
+    ((SqoopRecord) instance).visitFields(new FieldVisitor() {
+      @Override
+      public void visit(int index, String fieldName, Object value) {
+        assertEquals(visited[0], index);
+        assertEquals("INTFIELD" + index, fieldName);
+        visited[0]++;
+      }
+    });
+    assertEquals(WIDE_TABLE_COLUMN_COUNT, visited[0]);
+
     if (null != prevClassLoader) {
       ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
     }
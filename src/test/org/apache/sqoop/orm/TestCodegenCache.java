@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.orm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestCodegenCache {
+
+  private File baseDir;
+  private File cacheDir;
+  private Configuration conf;
+
+  @Before
+  public void setUp() throws IOException {
+    baseDir = new File(System.getProperty("test.build.data", "/tmp"),
+        "codegencache");
+    FileUtils.deleteDirectory(baseDir);
+    cacheDir = new File(baseDir, "cache");
+    assertTrue(baseDir.mkdirs());
+
+    conf = new Configuration();
+    conf.set("fs.defaultFS", "file:///");
+    conf.set(CodegenCache.CACHE_DIR_KEY, cacheDir.getAbsolutePath());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(baseDir);
+  }
+
+  private void writeFile(File f, String contents) throws IOException {
+    FileUtils.writeStringToFile(f, contents, StandardCharsets.UTF_8);
+  }
+
+  private String keyFor(String source) throws IOException {
+    return CodegenCache.get(conf).getKey(Collections.singletonMap(
+        "Foo.java", source.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testDisabledWithoutDir() {
+    assertNull(CodegenCache.get(new Configuration()));
+    assertNull(CodegenCache.get(null));
+  }
+
+  @Test
+  public void testKeyDependsOnSource() throws IOException {
+    String key1 = keyFor("class Foo { int a; }");
+    String key2 = keyFor("class Foo { int a; }");
+    String key3 = keyFor("class Foo { long a; }");
+    assertEquals(key1, key2);
+    assertNotEquals(key1, key3);
+  }
+
+  @Test
+  public void testMissThenHit() throws IOException {
+    CodegenCache cache = CodegenCache.get(conf);
+    String key = keyFor("class Foo {}");
+    File jar = new File(baseDir, "Foo.jar");
+    File fetched = new File(baseDir, "Fetched.jar");
+
+    assertFalse(cache.fetch(key, fetched));
+
+    writeFile(jar, "jar contents");
+    cache.store(key, jar);
+    assertTrue(cache.fetch(key, fetched));
+    assertArrayEquals(FileUtils.readFileToByteArray(jar),
+        FileUtils.readFileToByteArray(fetched));
+  }
+
+  @Test
+  public void testEvictBySize() throws IOException {
+    conf.setLong(CodegenCache.CACHE_MAX_BYTES_KEY, 15);
+    CodegenCache cache = CodegenCache.get(conf);
+    File jar = new File(baseDir, "Foo.jar");
+    writeFile(jar, "0123456789");
+
+    cache.store("old", jar);
+    FileSystem fs = FileSystem.getLocal(conf);
+    Path oldEntry = new Path(cacheDir.getAbsolutePath(), "old.jar");
+    fs.setTimes(oldEntry, 1000L, 1000L);
+
+    // Both entries don't fit; the least recently used one goes.
+    cache.store("new", jar);
+    File fetched = new File(baseDir, "Fetched.jar");
+    assertFalse(cache.fetch("old", fetched));
+    assertTrue(cache.fetch("new", fetched));
+  }
+
+  @Test
+  public void testEvictByAge() throws IOException {
+    conf.setLong(CodegenCache.CACHE_MAX_AGE_KEY, 60 * 1000L);
+    CodegenCache cache = CodegenCache.get(conf);
+    File jar = new File(baseDir, "Foo.jar");
+    writeFile(jar, "jar");
+
+    cache.store("stale", jar);
+    FileSystem fs = FileSystem.getLocal(conf);
+    fs.setTimes(new Path(cacheDir.getAbsolutePath(), "stale.jar"),
+        1000L, 1000L);
+    cache.store("fresh", jar);
+
+    File fetched = new File(baseDir, "Fetched.jar");
+    assertFalse(cache.fetch("stale", fetched));
+    assertTrue(cache.fetch("fresh", fetched));
+  }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.sqoop.orm;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -46,6 +47,8 @@
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -61,11 +64,22 @@ public class TestParseMethods extends ImportJobTestCase {
   private String [] getArgv(boolean includeHadoopFlags, String fieldTerminator,
       String lineTerminator, String encloser, String escape,
       boolean encloserRequired) {
+    return getArgv(includeHadoopFlags, fieldTerminator, lineTerminator,
+        encloser, escape, encloserRequired, null);
+  }
+
+  private String [] getArgv(boolean includeHadoopFlags, String fieldTerminator,
+      String lineTerminator, String encloser, String escape,
+      boolean encloserRequired, String codegenProperty) {
 
     ArrayList<String> args = new ArrayList<String>();
 
     if (includeHadoopFlags) {
       CommonArgs.addHadoopFlags(args);
+      if (null != codegenProperty) {
+        args.add("-D");
+        args.add(codegenProperty + "=true");
+      }
     }
 
     args.add("--table");
@@ -108,11 +122,18 @@ public void testTemporaryRootDirParse() throws Exception {
   public void runParseTest(String fieldTerminator, String lineTerminator,
       String encloser, String escape, boolean encloseRequired)
       throws IOException {
+    runParseTest(fieldTerminator, lineTerminator, encloser, escape,
+        encloseRequired, null);
+  }
+
+  public void runParseTest(String fieldTerminator, String lineTerminator,
+      String encloser, String escape, boolean encloseRequired,
+      String codegenProperty) throws IOException {
 
     ClassLoader prevClassLoader = null;
 
     String [] argv = getArgv(true, fieldTerminator, lineTerminator,
-        encloser, escape, encloseRequired);
+        encloser, escape, encloseRequired, codegenProperty);
     runImport(argv);
     try {
       String tableClassName = getTableName();
@@ -174,6 +195,30 @@ public void testDefaults() throws IOException {
     runParseTest(",", "\\n", "\\\"", "\\", false);
   }
 
+  @Test
+  public void testCompileInMemory() throws Exception {
+    String [] types = { "INTEGER", "VARCHAR(32)", "INTEGER" };
+    String [] vals = { "64", "'foo'", "128" };
+
+    createTableWithColTypes(types, vals);
+
+    String [] argv = getArgv(false, ",", "\\n", "\\\"", "\\", false);
+    SqoopOptions opts = new ImportTool().parseArguments(argv, null, null,
+        true);
+    File classFile = new File(opts.getJarOutputDir(),
+        getTableName() + ".class");
+    // Clear out any class file left by an earlier test using this table.
+    classFile.delete();
+
+    runParseTest(",", "\\n", "\\\"", "\\", false,
+        CompilationManager.PROPERTY_COMPILE_IN_MEMORY);
+
+    // The jar should have been written without any class files.
+    assertTrue(new File(new CompilationManager(opts).getJarFilename())
+        .exists());
+    assertFalse(classFile.exists());
+  }
+
   @Test
   public void testRequiredEnclose() throws IOException {
     String [] types = { "INTEGER", "VARCHAR(32)", "INTEGER" };
@@ -231,6 +276,60 @@ public void testNumericTypes() throws IOException {
     runParseTest(",", "\\n", "\\\'", "\\", false);
   }
 
+  @Test
+  public void testByteParser() throws IOException {
+    String [] types = {
+      "INTEGER",
+      "BIGINT",
+      "VARCHAR(32)",
+      "DATE",
+      "TIME",
+      "REAL",
+      "INTEGER",
+    };
+    String [] vals = {
+      "42",
+      "-9223372036854775808",
+      "'foo,bar''baz'",
+      "'2009-07-02'",
+      "'11:24:00'",
+      "36.0",
+      "null",
+    };
+
+    createTableWithColTypes(types, vals);
+    runParseTest(",", "\\n", "\\\'", "\\", false,
+        ClassWriter.PROPERTY_CODEGEN_BYTE_PARSER);
+  }
+
+  @Test
+  public void testPrimitiveFields() throws IOException {
+    String [] types = {
+      "INTEGER",
+      "BIGINT",
+      "REAL",
+      "DOUBLE",
+      "BOOLEAN",
+      "INTEGER",
+      "VARCHAR(32)",
+      "BIGINT",
+    };
+    String [] vals = {
+      "42",
+      "-9223372036854775808",
+      "36.0",
+      "-1.5",
+      "true",
+      "null",
+      "'foo'",
+      "null",
+    };
+
+    createTableWithColTypes(types, vals);
+    runParseTest(",", "\\n", "\\\'", "\\", false,
+        ClassWriter.PROPERTY_CODEGEN_PRIMITIVE_FIELDS);
+  }
+
   @Test
   public void testFieldSetter() throws IOException {
     ClassLoader prevClassLoader = null;
@@ -32,6 +32,7 @@
 import org.apache.hadoop.mapred.Mapper;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.hadoop.mapred.Reporter;
+import org.apache.sqoop.lib.ByteSink;
 import org.apache.sqoop.lib.RecordParser;
 import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.hadoop.util.ReflectionUtils;
@@ -113,6 +114,15 @@ public void map(LongWritable key, Text val,
           + userRecord.toString() + "] when ["
           + val.toString() + "\n] was expected.");
     }
+
+    ByteSink sink = new ByteSink();
+    userRecord.writeDelimited(sink, true);
+    if (!sink.toString().equals(userRecord.toString())) {
+      // streaming formatter disagrees with toString().
+      throw new IOException("writeDelimited() produced ["
+          + sink.toString() + "] when ["
+          + userRecord.toString() + "] was expected.");
+    }
   }
 }
 